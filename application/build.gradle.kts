@@ -7,6 +7,7 @@ plugins {
     id("io.spring.dependency-management") version "1.1.7"
     id("io.freefair.lombok") version "9.1.0"
     id("com.google.cloud.tools.jib") version "3.5.1"
+    id("me.champeau.jmh") version "0.7.3"
 
 }
 
@@ -88,6 +89,8 @@ jib {
         developmentOnly("org.springframework.boot:spring-boot-docker-compose")
         testImplementation("org.springframework.boot:spring-boot-starter-test")
         testImplementation("org.springframework.security:spring-security-test")
+        // an independent Parquet reader, to read exported files back in tests
+        testImplementation("org.duckdb:duckdb_jdbc:1.1.3")
         annotationProcessor("io.soabase.record-builder:record-builder-processor:51")
     }
 
@@ -108,6 +111,12 @@ tasks.withType<JavaExec>().configureEach {
     jvmArgs("--enable-preview")
 }
 
+// run with ./gradlew jmh, or -Pjmh.includes=<regex> for one benchmark
+jmh {
+    jvmArgs.add("--enable-preview")
+    (findProperty("jmh.includes") as String?)?.let { includes.add(it) }
+}
+
 
 
 
@@ -0,0 +1,66 @@
+package com.lumina.validation;
+
+import io.micrometer.common.util.StringUtils;
+import java.util.*;
+
+/**
+ * {@link Errors} as it was before the context became a stack of segments and errors were allocated
+ * on demand, kept unchanged apart from its name as the baseline of {@link ErrorsBenchmark}.
+ */
+class BaselineErrors {
+  private final List<Error> fieldErrors = new ArrayList<>();
+
+  private String context = "";
+
+  public BaselineErrors(String context) {
+    this.context = context;
+  }
+
+  public String pushContext(String subContext) {
+    context = context.isEmpty() ? subContext : "%s.%s".formatted(context, subContext);
+    return context;
+  }
+
+  public String popContext() {
+    int lastDotIndex = context.lastIndexOf(".");
+    context = lastDotIndex == -1 ? "" : context.substring(0, lastDotIndex);
+    return context;
+  }
+
+  public String context() {
+    return context;
+  }
+
+  public BaselineErrors add(Error error) {
+    fieldErrors.add(error.withFieldContext(context()));
+    return this;
+  }
+
+  public BaselineErrors rejectIfEmpty(String field, Object value, ErrorCode errorCode) {
+    if (Objects.isNull(value) || StringUtils.isBlank(value.toString())) {
+      add(ErrorBuilder.builder().field(field).rejectedValue(value).errorCode(errorCode).build());
+    }
+    return this;
+  }
+
+  public BaselineErrors rejectValue(String field, ErrorCode errorCode) {
+    add(ErrorBuilder.builder().field(field).errorCode(errorCode).build());
+    return this;
+  }
+
+  public int getErrorCount() {
+    return fieldErrors.size();
+  }
+
+  public boolean hasFieldError(String name) {
+    return fieldErrors.stream().anyMatch(f -> f.field().equals(name));
+  }
+
+  public Error fieldError(String name) {
+    return fieldErrors.stream().filter(f -> f.field().equals(name)).findFirst().orElseThrow();
+  }
+
+  public Set<Error> fieldErrors() {
+    return new HashSet<>(fieldErrors);
+  }
+}
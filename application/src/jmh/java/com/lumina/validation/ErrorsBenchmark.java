@@ -0,0 +1,119 @@
+package com.lumina.validation;
+
+import com.lumina.catalogue.model.NumberType;
+import com.lumina.catalogue.model.ValidationStage;
+import com.lumina.catalogue.model.constraint.NumberLineConstraint;
+import com.lumina.catalogue.model.constraint.NumberLineConstraintBuilder;
+import com.lumina.meter.model.Line;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Validates the lines of a meter against their constraints the way the meter validator does, for a
+ * meter without errors, a meter whose every line is rejected, and the same meter with a fail-fast
+ * accumulator. The {@code baseline} benchmarks run the same validation with {@link
+ * BaselineErrors}, the accumulator as it was before, formatting each line's context and building
+ * each error as the validators did then. Run with {@code ./gradlew jmh
+ * -Pjmh.includes=ErrorsBenchmark} and add {@code -prof gc} to the JMH arguments to see the
+ * allocation per validation, which should be the accumulator alone for the valid meter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorsBenchmark {
+
+  @Param({"8", "64"})
+  int lineCount;
+
+  NumberLineConstraint constraint;
+  Line.Number[] validLines;
+  Line.Number[] invalidLines;
+
+  @Setup
+  public void setup() {
+    constraint =
+        NumberLineConstraintBuilder.builder()
+            .name("level")
+            .numberType(NumberType.INTEGER)
+            .min(0d)
+            .max(10d)
+            .isRequired(true)
+            .stage(ValidationStage.Intake)
+            .build();
+    validLines = new Line.Number[lineCount];
+    invalidLines = new Line.Number[lineCount];
+    for (int i = 0; i < lineCount; i++) {
+      validLines[i] = new Line.Number("level", NumberType.INTEGER, (double) (i % 10));
+      invalidLines[i] = new Line.Number("level", NumberType.INTEGER, 42d + i);
+    }
+  }
+
+  @Benchmark
+  public Errors validMeter() {
+    return validate(validLines, new Errors("meter"));
+  }
+
+  @Benchmark
+  public Errors invalidMeter() {
+    return validate(invalidLines, new Errors("meter"));
+  }
+
+  @Benchmark
+  public Errors invalidMeterFailFast() {
+    return validate(invalidLines, Errors.failFast("meter"));
+  }
+
+  @Benchmark
+  public BaselineErrors baselineValidMeter() {
+    return validateBaseline(validLines, new BaselineErrors("meter"));
+  }
+
+  @Benchmark
+  public BaselineErrors baselineInvalidMeter() {
+    return validateBaseline(invalidLines, new BaselineErrors("meter"));
+  }
+
+  private Errors validate(Line.Number[] lines, Errors errors) {
+    for (int i = 0; i < lines.length && !errors.isFull(); i++) {
+      errors.pushContext("lines", i);
+      constraint.validate(lines[i], errors, ValidationStage.Intake);
+      errors.popContext();
+    }
+    return errors;
+  }
+
+  /** The integer branch of the constraint as it was written against the old accumulator. */
+  private BaselineErrors validateBaseline(Line.Number[] lines, BaselineErrors errors) {
+    for (int i = 0; i < lines.length; i++) {
+      errors.pushContext("lines[%d]".formatted(i));
+      if (constraint.stage().shouldValidateAt(ValidationStage.Intake)
+          && lines[i].value() instanceof Double value
+          && value == Math.floor(value)
+          && !Double.isInfinite(value)) {
+        int intValue = value.intValue();
+        if (constraint.min() != null && constraint.min().intValue() > intValue) {
+          errors.add(
+              ErrorBuilder.builder()
+                  .field(constraint.name())
+                  .errorCode(ErrorCode.LESS_THAN)
+                  .errorCodeArgs(new Object[] {intValue, constraint.min().intValue()})
+                  .rejectedValue(intValue)
+                  .build());
+        } else if (constraint.max() != null && constraint.max().intValue() < intValue) {
+          errors.add(
+              ErrorBuilder.builder()
+                  .field(constraint.name())
+                  .errorCode(ErrorCode.GREATER_THAN)
+                  .errorCodeArgs(new Object[] {intValue, constraint.max().intValue()})
+                  .rejectedValue(intValue)
+                  .build());
+        }
+      }
+      errors.popContext();
+    }
+    return errors;
+  }
+}
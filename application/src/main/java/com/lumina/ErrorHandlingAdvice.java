@@ -5,7 +5,9 @@ import com.lumina.validation.ValidationErrorResponse;
 import com.lumina.validation.Violation;
 import jakarta.validation.ConstraintViolationException;
 import java.util.stream.Collectors;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -47,6 +49,14 @@ public class ErrorHandlingAdvice {
     return new ValidationErrorResponse(vList);
   }
 
+  @ExceptionHandler(BadRequestException.class)
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  @ResponseBody
+  ValidationErrorResponse onBadRequestException(BadRequestException e) {
+    var vList = java.util.List.of(new Violation("request", e.getMessage()));
+    return new ValidationErrorResponse(vList);
+  }
+
   @ExceptionHandler(NotFoundException.class)
   @ResponseStatus(HttpStatus.NOT_FOUND)
   @ResponseBody
@@ -62,4 +72,21 @@ public class ErrorHandlingAdvice {
     var vList = java.util.List.of(new Violation("resource", e.getMessage()));
     return new ValidationErrorResponse(vList);
   }
+
+  @ExceptionHandler(IngestBackpressureException.class)
+  ResponseEntity<ValidationErrorResponse> onIngestBackpressureException(
+      IngestBackpressureException e) {
+    var vList = java.util.List.of(new Violation("ingest", e.getMessage()));
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.retryAfter().toSeconds())))
+        .body(new ValidationErrorResponse(vList));
+  }
+
+  @ExceptionHandler(IngestUnavailableException.class)
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  @ResponseBody
+  ValidationErrorResponse onIngestUnavailableException(IngestUnavailableException e) {
+    var vList = java.util.List.of(new Violation("ingest", e.getMessage()));
+    return new ValidationErrorResponse(vList);
+  }
 }
@@ -0,0 +1,17 @@
+package com.lumina;
+
+import java.time.Duration;
+
+/** Thrown when an ingest buffer is full and the caller should retry after a delay. */
+public class IngestBackpressureException extends RuntimeException {
+  private final Duration retryAfter;
+
+  public IngestBackpressureException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+
+  public Duration retryAfter() {
+    return retryAfter;
+  }
+}
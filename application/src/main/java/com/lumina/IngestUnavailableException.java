@@ -0,0 +1,9 @@
+package com.lumina;
+
+/** Thrown when an ingest path is not running, such as while the application shuts down. */
+public class IngestUnavailableException extends RuntimeException {
+
+  public IngestUnavailableException(String message) {
+    super(message);
+  }
+}
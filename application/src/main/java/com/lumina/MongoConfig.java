@@ -1,13 +1,13 @@
 package com.lumina;
 
+import com.lumina.meter.TelemetryConverters;
 import com.mongodb.ConnectionString;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
-import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions.MongoConverterConfigurationAdapter;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
 @Configuration
@@ -31,8 +31,12 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
     return MongoClients.create(connectionString);
   }
 
-  @Bean
-  public MongoTemplate mongoTemplate() {
-    return new MongoTemplate(mongoClient(), getDatabaseName());
+  /**
+   * Registers the custom conversions. The inherited {@code mongoTemplate} bean is built on the
+   * configured converter, so they apply to repositories and templates alike.
+   */
+  @Override
+  protected void configureConverters(MongoConverterConfigurationAdapter converterConfiguration) {
+    converterConfiguration.registerConverters(TelemetryConverters.all());
   }
 }
@@ -75,7 +75,10 @@ public class CatalogueController {
             updateDto.description(),
             updateDto.manufacturer(),
             existingItem.lines() != null ? existingItem.lines() : List.of(),
-            updateDto.constraints() != null ? updateDto.constraints() : List.of());
+            updateDto.constraints() != null ? updateDto.constraints() : List.of(),
+            updateDto.alertRules() != null ? updateDto.alertRules() : List.of(),
+            updateDto.reportingIntervalSeconds(),
+            updateDto.payloadLayout() != null ? updateDto.payloadLayout() : List.of());
 
     return CatalogueItemDto.from(itemService.update(updatedItem));
   }
@@ -0,0 +1,18 @@
+package com.lumina.catalogue;
+
+/**
+ * Published when a catalogue item is created, updated or deleted, so that caches derived from the
+ * item can be refreshed. An update that renames the model publishes an event for each name.
+ *
+ * <p>The instance that served the change publishes the event at once; the others publish it, as a
+ * remote event, when {@link CatalogueRevisions} next sees the change.
+ *
+ * @param model the model of the changed item
+ * @param remote whether the change was made through another instance
+ */
+public record CatalogueItemChangedEvent(String model, boolean remote) {
+
+  public CatalogueItemChangedEvent(String model) {
+    this(model, false);
+  }
+}
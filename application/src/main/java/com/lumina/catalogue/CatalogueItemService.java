@@ -15,14 +15,21 @@ public class CatalogueItemService {
 
   private final ItemRepository itemRepository;
   private final MongoTemplate mongoTemplate;
+  private final CatalogueRevisions catalogueRevisions;
 
-  public CatalogueItemService(ItemRepository itemRepository, MongoTemplate mongoTemplate) {
+  public CatalogueItemService(
+      ItemRepository itemRepository,
+      MongoTemplate mongoTemplate,
+      CatalogueRevisions catalogueRevisions) {
     this.itemRepository = itemRepository;
     this.mongoTemplate = mongoTemplate;
+    this.catalogueRevisions = catalogueRevisions;
   }
 
   public CatalogueItem create(CatalogueItem newItem) {
-    return itemRepository.save(newItem);
+    CatalogueItem item = itemRepository.save(newItem);
+    catalogueRevisions.changed(item.model());
+    return item;
   }
 
   /**
@@ -45,11 +52,16 @@ public class CatalogueItemService {
           "The catalogue item with id %s could not be found!".formatted(item.id()));
     }
 
+    catalogueRevisions.changed(item.model());
+    if (!item.model().equals(result.model())) {
+      catalogueRevisions.changed(result.model());
+    }
     return item;
   }
 
   public void delete(String model) {
     itemRepository.deleteByModel(model);
+    catalogueRevisions.changed(model);
   }
 
   public List<CatalogueItem> findAll() {
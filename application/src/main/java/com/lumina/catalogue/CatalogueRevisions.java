@@ -0,0 +1,108 @@
+package com.lumina.catalogue;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Updates;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes {@link CatalogueItemChangedEvent}s on every instance, not just the one that served the
+ * change.
+ *
+ * <p>Components that cache something derived from a catalogue item, such as validation plans,
+ * payload decoders or alert rules, drop it when the event arrives. Application events only reach
+ * the instance that publishes them, so each change also increments a revision per model in the
+ * {@code catalogueRevision} collection. Every instance polls the revisions and publishes a {@link
+ * CatalogueItemChangedEvent#remote() remote} event for each model whose revision has moved on since
+ * it last looked, so a change made through another instance reaches the caches of this one within
+ * lumina.catalogue.refresh-interval.
+ */
+@Slf4j
+@Component
+public class CatalogueRevisions implements InitializingBean {
+
+  static final String COLLECTION = "catalogueRevision";
+
+  private final MongoTemplate mongoTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+
+  /** The latest revision of each model that this instance has published an event for. */
+  private final Map<String, Long> known = new ConcurrentHashMap<>();
+
+  public CatalogueRevisions(MongoTemplate mongoTemplate, ApplicationEventPublisher eventPublisher) {
+    this.mongoTemplate = mongoTemplate;
+    this.eventPublisher = eventPublisher;
+  }
+
+  /** Records the current revisions, which nothing cached at startup can be older than. */
+  @Override
+  public void afterPropertiesSet() {
+    for (Document revision : revisions()) {
+      advance(revision.getString("_id"), revision.getLong("revision"));
+    }
+  }
+
+  /**
+   * Publishes a change of a model made through this instance, and increments its revision so that
+   * the other instances publish it too.
+   */
+  public void changed(String model) {
+    eventPublisher.publishEvent(new CatalogueItemChangedEvent(model));
+    Document revision =
+        collection()
+            .findOneAndUpdate(
+                Filters.eq("_id", model),
+                Updates.inc("revision", 1L),
+                new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+    advance(model, revision.getLong("revision"));
+  }
+
+  /** Publishes the changes made through other instances since the previous refresh. */
+  @Scheduled(
+      initialDelayString = "${lumina.catalogue.refresh-interval:30000}",
+      fixedDelayString = "${lumina.catalogue.refresh-interval:30000}")
+  public void refresh() {
+    for (Document revision : revisions()) {
+      String model = revision.getString("_id");
+      if (advance(model, revision.getLong("revision"))) {
+        log.debug("Catalogue item {} was changed through another instance", model);
+        eventPublisher.publishEvent(new CatalogueItemChangedEvent(model, true));
+      }
+    }
+  }
+
+  /**
+   * Records a revision of a model unless a later one is already known.
+   *
+   * @return true if the revision is later than the known one
+   */
+  private boolean advance(String model, long revision) {
+    Long seen = known.get(model);
+    if (seen != null && seen >= revision) {
+      return false;
+    }
+    return seen == null
+        ? known.putIfAbsent(model, revision) == null
+        : known.replace(model, seen, revision);
+  }
+
+  private List<Document> revisions() {
+    return collection().find().into(new ArrayList<>());
+  }
+
+  private MongoCollection<Document> collection() {
+    return mongoTemplate.getCollection(COLLECTION);
+  }
+}
@@ -1,8 +1,10 @@
 package com.lumina.catalogue.dto;
 
+import com.lumina.catalogue.model.AlertRule;
 import com.lumina.catalogue.model.CatalogueItem;
 import com.lumina.catalogue.model.Level;
 import com.lumina.catalogue.model.MeterType;
+import com.lumina.catalogue.model.PayloadField;
 import com.lumina.catalogue.model.constraint.Constraint;
 import com.lumina.meter.model.Line;
 import io.soabase.recordbuilder.core.RecordBuilder;
@@ -16,7 +18,10 @@ public record CatalogueItemDto(
     MeterType type,
     String description,
     String manufacturer,
-    List<? extends Constraint<? extends Line>> constraints) {
+    List<? extends Constraint<? extends Line>> constraints,
+    List<AlertRule> alertRules,
+    Integer reportingIntervalSeconds,
+    List<PayloadField> payloadLayout) {
   public static CatalogueItemDto from(CatalogueItem item) {
     return CatalogueItemDtoBuilder.builder()
         .id(item.id())
@@ -26,6 +31,9 @@ public record CatalogueItemDto(
         .description(item.description())
         .manufacturer(item.manufacturer())
         .constraints(item.constraints())
+        .alertRules(item.alertRules())
+        .reportingIntervalSeconds(item.reportingIntervalSeconds())
+        .payloadLayout(item.payloadLayout())
         .build();
   }
 }
@@ -5,6 +5,7 @@ import com.lumina.catalogue.model.constraint.Constraint;
 import com.lumina.meter.model.Line;
 import com.lumina.validation.EnumNamePattern;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
 import java.util.List;
 
 public record UpdateCatalogueItemDto(
@@ -14,7 +15,10 @@ public record UpdateCatalogueItemDto(
     @EnumNamePattern(regexp = "LORAWAN|MODBUS|SIDEWALK") MeterType type,
     @NotBlank(message = "Description is mandatory") String description,
     @NotBlank(message = "Manufacturer is mandatory") String manufacturer,
-    List<Constraint<? extends Line>> constraints) {
+    List<Constraint<? extends Line>> constraints,
+    List<AlertRule> alertRules,
+    @Positive Integer reportingIntervalSeconds,
+    List<PayloadField> payloadLayout) {
   public static CatalogueItem toModel(UpdateCatalogueItemDto dto) {
     return CatalogueItemBuilder.builder()
         .id(dto.id())
@@ -24,6 +28,9 @@ public record UpdateCatalogueItemDto(
         .description(dto.description())
         .manufacturer(dto.manufacturer())
         .constraints(dto.constraints())
+        .alertRules(dto.alertRules())
+        .reportingIntervalSeconds(dto.reportingIntervalSeconds())
+        .payloadLayout(dto.payloadLayout())
         .build();
   }
 }
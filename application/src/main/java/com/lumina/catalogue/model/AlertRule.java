@@ -0,0 +1,77 @@
+package com.lumina.catalogue.model;
+
+import io.soabase.recordbuilder.core.RecordBuilder;
+import jakarta.annotation.Nullable;
+
+/**
+ * A threshold on a numeric status field that raises an alert for a meter of the model. Like a
+ * {@link com.lumina.catalogue.model.constraint.NumberLineConstraint} the rule is violated by a
+ * value below {@code min} or above {@code max}; either bound may be omitted.
+ *
+ * <p>An alert is raised once {@code consecutive} samples in a row violate the rule and is cleared
+ * by the first sample that lies at least {@code hysteresis} inside the bounds again, so a value
+ * hovering around a bound does not raise and clear the alert on every sample.
+ *
+ * @param field the name of the status data field, e.g. {@code batteryLevel}
+ * @param consecutive the number of violating samples in a row that raise the alert, 1 if omitted
+ * @param hysteresis how far inside the bounds a value must be to clear the alert, 0 if omitted; at
+ *     most half the distance between {@code min} and {@code max} if both are given, or no value
+ *     could clear the alert
+ */
+@RecordBuilder
+public record AlertRule(
+    String name,
+    String description,
+    String field,
+    @Nullable Double min,
+    @Nullable Double max,
+    @Nullable Integer consecutive,
+    @Nullable Double hysteresis) {
+
+  public AlertRule {
+    if (name == null || name.isBlank()) {
+      throw new IllegalArgumentException("An alert rule needs a name");
+    }
+    if (field == null || field.isBlank()) {
+      throw new IllegalArgumentException("Alert rule %s needs a field".formatted(name));
+    }
+    if (min == null && max == null) {
+      throw new IllegalArgumentException("Alert rule %s needs a min or a max".formatted(name));
+    }
+    if (min != null && max != null && min > max) {
+      throw new IllegalArgumentException(
+          "The min of alert rule %s is greater than its max".formatted(name));
+    }
+    if (consecutive != null && consecutive < 1) {
+      throw new IllegalArgumentException(
+          "Alert rule %s needs at least one consecutive sample".formatted(name));
+    }
+    if (hysteresis != null && !(hysteresis >= 0)) {
+      throw new IllegalArgumentException(
+          "The hysteresis of alert rule %s must not be negative".formatted(name));
+    }
+    if (min != null && max != null && hysteresis != null && hysteresis > (max - min) / 2) {
+      throw new IllegalArgumentException(
+          "The hysteresis of alert rule %s exceeds half the range between its bounds"
+              .formatted(name));
+    }
+  }
+
+  /** The lower bound, or negative infinity if the rule has none. */
+  public double lowerBound() {
+    return min == null ? Double.NEGATIVE_INFINITY : min;
+  }
+
+  /** The upper bound, or positive infinity if the rule has none. */
+  public double upperBound() {
+    return max == null ? Double.POSITIVE_INFINITY : max;
+  }
+
+  public int consecutiveOrDefault() {
+    return consecutive == null ? 1 : consecutive;
+  }
+
+  public double hysteresisOrDefault() {
+    return hysteresis == null ? 0 : hysteresis;
+  }
+}
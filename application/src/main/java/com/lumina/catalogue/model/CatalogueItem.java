@@ -6,6 +6,7 @@ import com.lumina.validation.EnumNamePattern;
 import io.soabase.recordbuilder.core.RecordBuilder;
 import jakarta.annotation.Nullable;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
 import java.util.List;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.TypeAlias;
@@ -25,9 +26,35 @@ public record CatalogueItem(
     @NotBlank(message = "Description is mandatory") String description,
     @NotBlank(message = "Manufacturer is mandatory") String manufacturer,
     List<? extends Line> lines,
-    List<Constraint<? extends Line>> constraints)
+    List<Constraint<? extends Line>> constraints,
+    @Nullable List<AlertRule> alertRules,
+    @Nullable @Positive Integer reportingIntervalSeconds,
+    @Nullable List<PayloadField> payloadLayout)
     implements Item {
 
+  public CatalogueItem(
+      String id,
+      String model,
+      Level level,
+      MeterType type,
+      String description,
+      String manufacturer,
+      List<? extends Line> lines,
+      List<Constraint<? extends Line>> constraints) {
+    this(
+        id,
+        model,
+        level,
+        type,
+        description,
+        manufacturer,
+        lines,
+        constraints,
+        List.of(),
+        null,
+        List.of());
+  }
+
   public CatalogueItem(
       String model,
       Level level,
@@ -0,0 +1,7 @@
+package com.lumina.catalogue.model;
+
+/** The byte order of a multi-byte field in a device payload. */
+public enum Endianness {
+  BIG,
+  LITTLE
+}
@@ -0,0 +1,55 @@
+package com.lumina.catalogue.model;
+
+import io.soabase.recordbuilder.core.RecordBuilder;
+import jakarta.annotation.Nullable;
+
+/**
+ * One field of the binary payload a device of the model sends. The raw value is read at {@code
+ * offset} bytes from the start of the payload and stored as {@code raw * scale + bias} under
+ * {@code name}; a name of a typed telemetry field such as {@code batteryLevel} fills that field.
+ *
+ * @param offset the position of the first byte of the field in the payload
+ * @param endianness the byte order of multi-byte fields, big-endian if omitted
+ * @param scale the factor applied to the raw value, 1 if omitted
+ * @param bias the amount added to the scaled value, 0 if omitted
+ * @param fPort the port of the frames that carry the field, or null if every frame does
+ */
+@RecordBuilder
+public record PayloadField(
+    String name,
+    int offset,
+    PayloadType type,
+    @Nullable Endianness endianness,
+    @Nullable Double scale,
+    @Nullable Double bias,
+    @Nullable Integer fPort) {
+
+  public PayloadField {
+    if (name == null || name.isBlank()) {
+      throw new IllegalArgumentException("A payload field needs a name");
+    }
+    if (type == null) {
+      throw new IllegalArgumentException("Payload field %s needs a type".formatted(name));
+    }
+    if (offset < 0) {
+      throw new IllegalArgumentException(
+          "The offset of payload field %s must not be negative".formatted(name));
+    }
+    if (scale != null && !Double.isFinite(scale) || bias != null && !Double.isFinite(bias)) {
+      throw new IllegalArgumentException(
+          "The scale and bias of payload field %s must be finite".formatted(name));
+    }
+  }
+
+  public boolean isLittleEndian() {
+    return endianness == Endianness.LITTLE;
+  }
+
+  public double scaleOrDefault() {
+    return scale == null ? 1 : scale;
+  }
+
+  public double biasOrDefault() {
+    return bias == null ? 0 : bias;
+  }
+}
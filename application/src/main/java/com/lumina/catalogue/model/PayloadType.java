@@ -0,0 +1,31 @@
+package com.lumina.catalogue.model;
+
+/** The binary encoding of a field in a device payload. */
+public enum PayloadType {
+  UINT8(1, true),
+  INT8(1, true),
+  UINT16(2, true),
+  INT16(2, true),
+  UINT32(4, true),
+  INT32(4, true),
+  INT64(8, true),
+  FLOAT32(4, false),
+  FLOAT64(8, false);
+
+  private final int size;
+  private final boolean integral;
+
+  PayloadType(int size, boolean integral) {
+    this.size = size;
+    this.integral = integral;
+  }
+
+  /** The number of bytes the field occupies. */
+  public int size() {
+    return size;
+  }
+
+  public boolean isIntegral() {
+    return integral;
+  }
+}
@@ -5,7 +5,6 @@ import static com.lumina.validation.ErrorCode.*;
 import com.lumina.catalogue.model.NumberType;
 import com.lumina.catalogue.model.ValidationStage;
 import com.lumina.meter.model.Line;
-import com.lumina.validation.ErrorBuilder;
 import com.lumina.validation.Errors;
 import com.lumina.validation.ValidationStageEnum;
 import io.soabase.recordbuilder.core.RecordBuilder;
@@ -33,50 +32,19 @@ public record NumberLineConstraint(
             // integer type
             int valInt = valD.intValue();
             if (Objects.nonNull(min) && min.intValue() > valInt) {
-              errors.add(
-                  ErrorBuilder.builder()
-                      .field(name)
-                      .errorCode(LESS_THAN)
-                      .errorCodeArgs(new Object[] {valInt, min.intValue()})
-                      .rejectedValue(valInt)
-                      .build());
+              errors.reject(name, LESS_THAN, valInt, valInt, min.intValue());
             } else if (Objects.nonNull(max) && max.intValue() < valInt) {
-              errors.add(
-                  ErrorBuilder.builder()
-                      .field(name)
-                      .errorCode(GREATER_THAN)
-                      .errorCodeArgs(new Object[] {valInt, max.intValue()})
-                      .rejectedValue(valInt)
-                      .build());
+              errors.reject(name, GREATER_THAN, valInt, valInt, max.intValue());
             }
           } else {
-            errors.add(
-                ErrorBuilder.builder()
-                    .field(name)
-                    .errorCode(NOT_INTEGER)
-                    .errorCodeArgs(new Object[] {valD})
-                    .rejectedValue(valD)
-                    .build());
+            errors.reject(name, NOT_INTEGER, valD, valD);
           }
         }
         if (numberType == NumberType.FLOAT) {
           if (Objects.nonNull(min) && min > valD) {
-            errors.add(
-                ErrorBuilder.builder()
-                    .field(name)
-                    .errorCode(LESS_THAN)
-                    .errorCodeArgs(new Object[] {valD, min})
-                    .rejectedValue(valD)
-                    .build());
-
+            errors.reject(name, LESS_THAN, valD, valD, min);
           } else if (Objects.nonNull(max) && max < valD) {
-            errors.add(
-                ErrorBuilder.builder()
-                    .field(name)
-                    .errorCode(GREATER_THAN)
-                    .errorCodeArgs(new Object[] {valD, max})
-                    .rejectedValue(valD)
-                    .build());
+            errors.reject(name, GREATER_THAN, valD, valD, max);
           }
         }
       }
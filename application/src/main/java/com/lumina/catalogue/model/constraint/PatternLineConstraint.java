@@ -4,7 +4,6 @@ import static com.lumina.validation.ErrorCode.*;
 
 import com.lumina.catalogue.model.ValidationStage;
 import com.lumina.meter.model.Line;
-import com.lumina.validation.ErrorBuilder;
 import com.lumina.validation.Errors;
 import com.lumina.validation.ValidationStageEnum;
 import io.soabase.recordbuilder.core.RecordBuilder;
@@ -74,13 +73,7 @@ public record PatternLineConstraint(
                 });
 
         if (!regExPattern.matcher(value).matches()) {
-          errors.add(
-              ErrorBuilder.builder()
-                  .field(name)
-                  .errorCode(INVALID_PATTERN)
-                  .errorCodeArgs(new Object[] {value, pattern})
-                  .rejectedValue(value)
-                  .build());
+          errors.reject(name, INVALID_PATTERN, value, value, pattern);
         }
       } catch (IllegalArgumentException e) {
         throw e;
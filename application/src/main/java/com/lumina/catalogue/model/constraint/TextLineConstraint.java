@@ -4,7 +4,6 @@ import static com.lumina.validation.ErrorCode.*;
 
 import com.lumina.catalogue.model.ValidationStage;
 import com.lumina.meter.model.Line;
-import com.lumina.validation.ErrorBuilder;
 import com.lumina.validation.Errors;
 import com.lumina.validation.ValidationStageEnum;
 import io.micrometer.common.util.StringUtils;
@@ -31,21 +30,9 @@ public record TextLineConstraint(
           errors.rejectValue(name, REQUIRED);
         } else {
           if (Objects.nonNull(minLength) && minLength > s.length()) {
-            errors.add(
-                ErrorBuilder.builder()
-                    .field(name)
-                    .errorCode(MIN_LENGTH)
-                    .errorCodeArgs(new Object[] {value, minLength})
-                    .rejectedValue(value)
-                    .build());
+            errors.reject(name, MIN_LENGTH, value, value, minLength);
           } else if (Objects.nonNull(maxLength) && maxLength < s.length()) {
-            errors.add(
-                ErrorBuilder.builder()
-                    .field(name)
-                    .errorCode(MAX_LENGTH)
-                    .errorCodeArgs(new Object[] {value, maxLength})
-                    .rejectedValue(value)
-                    .build());
+            errors.reject(name, MAX_LENGTH, value, value, maxLength);
           }
         }
       }
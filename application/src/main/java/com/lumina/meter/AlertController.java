@@ -0,0 +1,57 @@
+package com.lumina.meter;
+
+import com.lumina.meter.dto.AlertDto;
+import com.lumina.meter.model.AlertState;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/meter/alert")
+@Tag(name = "Meter Alerts", description = "Alerts raised by catalogue alert rules")
+public class AlertController {
+
+  private final AlertService alertService;
+
+  public AlertController(AlertService alertService) {
+    this.alertService = alertService;
+  }
+
+  @Operation(
+      summary = "Find alerts",
+      description =
+          "Returns the alerts raised and cleared by the alert rules of the meters' catalogue"
+              + " models, newest first. Subscribe to /api/meter/status/live to receive them as they"
+              + " happen.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Alerts retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid time range or limit")
+      })
+  @GetMapping
+  public List<AlertDto> getAlerts(
+      @Parameter(description = "Meter ID") @RequestParam(required = false) String meterId,
+      @Parameter(description = "Catalogue model") @RequestParam(required = false) String model,
+      @Parameter(description = "RAISED or CLEARED") @RequestParam(required = false)
+          AlertState state,
+      @Parameter(description = "Start time (ISO-8601 format)", example = "2025-11-23T00:00:00Z")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          Instant startTime,
+      @Parameter(description = "End time (ISO-8601 format)", example = "2025-11-23T23:59:59Z")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          Instant endTime,
+      @Parameter(description = "Maximum number of alerts") @RequestParam(defaultValue = "100")
+          int limit) {
+    return alertService.find(meterId, model, state, startTime, endTime, limit).stream()
+        .map(AlertDto::from)
+        .toList();
+  }
+}
@@ -0,0 +1,436 @@
+package com.lumina.meter;
+
+import com.lumina.catalogue.CatalogueItemChangedEvent;
+import com.lumina.catalogue.ItemRepository;
+import com.lumina.catalogue.model.AlertRule;
+import com.lumina.meter.model.Alert;
+import com.lumina.meter.model.AlertState;
+import com.lumina.meter.model.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evaluates the alert rules of each meter's catalogue model against every status as it is
+ * written, and records an {@link Alert} whenever a rule is raised or cleared for a meter.
+ *
+ * <p>The rules of a model are compiled once into {@link AlertRules} and cached until the catalogue
+ * item changes. Each meter keeps, per rule, the number of violating samples in a row and whether
+ * the rule is raised, so evaluating a sample is a few array accesses and allocates only when a
+ * rule changes state. Samples older than the last one evaluated for their meter are skipped, so a
+ * late sample cannot break a run of consecutive violations.
+ *
+ * <p>Alerts are inserted into the {@code alert} collection and then published to live subscribers
+ * by a single writer thread, so evaluating a status does not wait for the database. When the
+ * writer falls write-queue batches behind, the thread that evaluated the status writes its alerts
+ * itself, which slows ingest down rather than dropping alerts; a write queue of zero always does.
+ * The raised rules are reloaded from that collection at startup, so a restart neither raises an
+ * alert again nor forgets to clear it; the violation counts of rules that are not raised start
+ * over.
+ *
+ * <p>The state of a meter is dropped when the meter is deleted, when its model no longer has any
+ * rules, and, unless one of its rules is raised, when the rules of its model change. Its violation
+ * counts then start over as after a restart. A raised rule that is removed from the model is
+ * cleared by the next sample of the meter, with that sample's value of the rule's field, or NaN if
+ * it has none, so its alert does not stay raised forever.
+ */
+@Slf4j
+@Component
+public class AlertEngine implements StatusListener, InitializingBean, DisposableBean {
+
+  private final MeterIdIndex meterIdIndex;
+  private final ItemRepository itemRepository;
+  private final MongoTemplate mongoTemplate;
+  private final StatusBroker statusBroker;
+  private final Map<String, AlertRules> rulesByModel = new ConcurrentHashMap<>();
+  private final Map<String, MeterAlerts> meters = new ConcurrentHashMap<>();
+  private final Map<String, Set<String>> raisedAtStartup = new ConcurrentHashMap<>();
+  private final ExecutorService writer;
+
+  private final Counter raised;
+  private final Counter cleared;
+  private final Counter failed;
+
+  /**
+   * @param writeQueue the alert batches that may wait for the writer, or zero to write alerts on
+   *     the thread that evaluated the status
+   */
+  public AlertEngine(
+      MeterIdIndex meterIdIndex,
+      ItemRepository itemRepository,
+      MongoTemplate mongoTemplate,
+      StatusBroker statusBroker,
+      MeterRegistry registry,
+      @Value("${lumina.meter.alert.write-queue:10000}") int writeQueue) {
+    if (writeQueue < 0) {
+      throw new IllegalArgumentException("The alert write queue must not be negative");
+    }
+    this.meterIdIndex = meterIdIndex;
+    this.itemRepository = itemRepository;
+    this.mongoTemplate = mongoTemplate;
+    this.statusBroker = statusBroker;
+    this.writer =
+        writeQueue == 0
+            ? null
+            : new ThreadPoolExecutor(
+                1,
+                1,
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(writeQueue),
+                Thread.ofVirtual().name("alert-writer").factory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+    this.raised = registry.counter("lumina.alert.raised");
+    this.cleared = registry.counter("lumina.alert.cleared");
+    this.failed = registry.counter("lumina.alert.failed");
+  }
+
+  /** Loads the rules that are raised, i.e. whose latest alert per meter is {@code RAISED}. */
+  @Override
+  public void afterPropertiesSet() {
+    List<Document> pipeline =
+        List.of(
+            new Document("$sort", new Document("timestamp", -1)),
+            new Document(
+                "$group",
+                new Document("_id", new Document("m", "$meterId").append("r", "$rule"))
+                    .append("state", new Document("$first", "$state"))),
+            new Document("$match", new Document("state", AlertState.RAISED.name())));
+    for (Document raisedRule :
+        mongoTemplate
+            .getCollection(mongoTemplate.getCollectionName(Alert.class))
+            .aggregate(pipeline)
+            .allowDiskUse(true)) {
+      Document id = raisedRule.get("_id", Document.class);
+      raisedAtStartup
+          .computeIfAbsent(id.getString("m"), m -> new HashSet<>())
+          .add(id.getString("r"));
+    }
+    log.info("Loaded raised alerts of {} meters", raisedAtStartup.size());
+  }
+
+  @Override
+  public void onStatusesWritten(List<Status> statuses) {
+    List<Alert> alerts = null;
+    for (Status status : statuses) {
+      String model = meterIdIndex.modelOf(status.meterId());
+      if (model == null) {
+        continue;
+      }
+      AlertRules rules = rulesFor(model);
+      if (rules.isEmpty()) {
+        if (meters.containsKey(status.meterId())) {
+          alerts = retire(status, alerts);
+        }
+        continue;
+      }
+      alerts = evaluate(status, rules, alerts);
+    }
+    if (alerts == null) {
+      return;
+    }
+    if (writer == null) {
+      write(alerts);
+    } else {
+      List<Alert> written = alerts;
+      writer.execute(() -> write(written));
+    }
+  }
+
+  /**
+   * Recompiles the rules of a model on next use. Meters of the model with a raised rule keep their
+   * state, which is carried over to the rules that still exist and clears the removed ones; the
+   * others are dropped.
+   */
+  @EventListener
+  public void onCatalogueItemChanged(CatalogueItemChangedEvent event) {
+    rulesByModel.remove(event.model());
+    for (String meterId : meters.keySet()) {
+      evict(meterId, state -> state.rules.model().equals(event.model()) && !state.anyRaised());
+    }
+  }
+
+  /** Drops the state of a deleted meter. */
+  public void forget(String meterId) {
+    evict(meterId, state -> true);
+    raisedAtStartup.remove(meterId);
+  }
+
+  /** Writes the alerts that are still queued. */
+  @Override
+  public void destroy() throws InterruptedException {
+    if (writer == null) {
+      return;
+    }
+    writer.shutdown();
+    if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+      log.warn("Alert writer did not finish; queued alerts were not written");
+    }
+  }
+
+  private List<Alert> evaluate(Status status, AlertRules rules, List<Alert> alerts) {
+    while (true) {
+      MeterAlerts state = stateOf(status.meterId(), rules);
+      synchronized (state) {
+        // an evicted state may still be handed out by a lookup that raced with the eviction
+        if (!state.evicted) {
+          return state.evaluate(status, alerts);
+        }
+      }
+    }
+  }
+
+  /** Drops the state of a meter whose model no longer has rules, clearing its raised rules. */
+  private List<Alert> retire(Status status, List<Alert> alerts) {
+    MeterAlerts state = meters.remove(status.meterId());
+    if (state == null) {
+      return alerts;
+    }
+    synchronized (state) {
+      state.evicted = true;
+      return state.clearAll(status, alerts);
+    }
+  }
+
+  private void evict(String meterId, Predicate<MeterAlerts> condition) {
+    meters.computeIfPresent(
+        meterId,
+        (id, state) -> {
+          synchronized (state) {
+            if (!condition.test(state)) {
+              return state;
+            }
+            state.evicted = true;
+            return null;
+          }
+        });
+  }
+
+  private void write(List<Alert> alerts) {
+    try {
+      mongoTemplate.insertAll(alerts);
+    } catch (RuntimeException e) {
+      failed.increment(alerts.size());
+      log.error("Failed to write {} alert(s)", alerts.size(), e);
+      return;
+    }
+    for (Alert alert : alerts) {
+      (alert.state() == AlertState.RAISED ? raised : cleared).increment();
+    }
+    statusBroker.publishAlerts(alerts);
+  }
+
+  private AlertRules rulesFor(String model) {
+    AlertRules rules = rulesByModel.get(model);
+    if (rules == null) {
+      rules =
+          rulesByModel.computeIfAbsent(
+              model,
+              m -> itemRepository.findByModel(m).map(AlertRules::compile).orElse(AlertRules.NONE));
+    }
+    return rules;
+  }
+
+  private MeterAlerts stateOf(String meterId, AlertRules rules) {
+    MeterAlerts state = meters.get(meterId);
+    if (state != null && state.rules == rules) {
+      return state;
+    }
+    return meters.compute(
+        meterId,
+        (id, current) -> {
+          if (current != null && current.rules == rules) {
+            return current;
+          }
+          MeterAlerts next = new MeterAlerts(id, rules);
+          if (current != null) {
+            synchronized (current) {
+              next.carryOver(current);
+            }
+          } else {
+            next.raise(raisedAtStartup.remove(id));
+          }
+          return next;
+        });
+  }
+
+  /** The alert state of one meter under the compiled rules of its model. */
+  static final class MeterAlerts {
+
+    private final String meterId;
+    private final AlertRules rules;
+    private final int[] violations;
+    private final boolean[] raised;
+    private long lastEvaluated = Long.MIN_VALUE;
+    private boolean evicted;
+
+    /** Raised rules of earlier rules that these rules no longer have, or null if there are none. */
+    private List<AlertRule> removed;
+
+    MeterAlerts(String meterId, AlertRules rules) {
+      this.meterId = meterId;
+      this.rules = rules;
+      this.violations = new int[rules.size()];
+      this.raised = new boolean[rules.size()];
+    }
+
+    /**
+     * Applies a sample to every rule.
+     *
+     * @param alerts the alerts collected so far, or null if there are none yet
+     * @return the alerts collected so far including those of this sample, or null if there are none
+     */
+    List<Alert> evaluate(Status status, List<Alert> alerts) {
+      long timestamp = status.timestamp().toEpochMilli();
+      if (timestamp < lastEvaluated) {
+        return alerts;
+      }
+      lastEvaluated = timestamp;
+      if (removed != null) {
+        alerts = clearRemoved(status, alerts);
+      }
+      for (int i = 0; i < raised.length; i++) {
+        double value = rules.value(i, status);
+        if (Double.isNaN(value)) {
+          continue;
+        }
+        if (rules.violates(i, value)) {
+          if (!raised[i] && ++violations[i] >= rules.consecutive(i)) {
+            raised[i] = true;
+            alerts = add(alerts, alert(i, AlertState.RAISED, value, status));
+          }
+        } else {
+          violations[i] = 0;
+          if (raised[i] && rules.clears(i, value)) {
+            raised[i] = false;
+            alerts = add(alerts, alert(i, AlertState.CLEARED, value, status));
+          }
+        }
+      }
+      return alerts;
+    }
+
+    /** Clears every raised rule, including those removed by an earlier change of the rules. */
+    List<Alert> clearAll(Status status, List<Alert> alerts) {
+      if (removed != null) {
+        alerts = clearRemoved(status, alerts);
+      }
+      for (int i = 0; i < raised.length; i++) {
+        if (raised[i]) {
+          raised[i] = false;
+          alerts = add(alerts, cleared(rules.rule(i), status));
+        }
+      }
+      return alerts;
+    }
+
+    private List<Alert> clearRemoved(Status status, List<Alert> alerts) {
+      for (AlertRule rule : removed) {
+        alerts = add(alerts, cleared(rule, status));
+      }
+      removed = null;
+      return alerts;
+    }
+
+    boolean isRaised(String rule) {
+      int index = rules.indexOf(rule);
+      return index >= 0 && raised[index];
+    }
+
+    /** Whether a rule is raised, or a removed rule is still to be cleared. */
+    boolean anyRaised() {
+      if (removed != null) {
+        return true;
+      }
+      for (boolean rule : raised) {
+        if (rule) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private void raise(Set<String> ruleNames) {
+      if (ruleNames == null) {
+        return;
+      }
+      for (String name : ruleNames) {
+        int index = rules.indexOf(name);
+        if (index >= 0) {
+          raised[index] = true;
+        }
+      }
+    }
+
+    /**
+     * Takes over the state of the rules that keep their name under the new rules, and remembers the
+     * raised rules that the new rules no longer have so that the next sample clears them.
+     */
+    private void carryOver(MeterAlerts previous) {
+      lastEvaluated = previous.lastEvaluated;
+      for (int i = 0; i < raised.length; i++) {
+        int index = previous.rules.indexOf(rules.rule(i).name());
+        if (index >= 0) {
+          violations[i] = previous.violations[index];
+          raised[i] = previous.raised[index];
+        }
+      }
+      // the rules may change again before a sample clears what an earlier change removed
+      removed = previous.removed;
+      for (int index = 0; index < previous.raised.length; index++) {
+        AlertRule rule = previous.rules.rule(index);
+        if (previous.raised[index] && rules.indexOf(rule.name()) < 0) {
+          removed = add(removed, rule);
+        }
+      }
+    }
+
+    private Alert alert(int index, AlertState state, double value, Status status) {
+      return alert(rules.rule(index), state, value, status);
+    }
+
+    /** Clears a rule with the sample's value of its field, or NaN if the sample has none. */
+    private Alert cleared(AlertRule rule, Status status) {
+      Double value = DataFields.numeric(status, rule.field());
+      return alert(rule, AlertState.CLEARED, value == null ? Double.NaN : value, status);
+    }
+
+    private Alert alert(AlertRule rule, AlertState state, double value, Status status) {
+      return new Alert(
+          new ObjectId().toHexString(),
+          meterId,
+          rules.model(),
+          rule.name(),
+          rule.field(),
+          state,
+          value,
+          status.timestamp());
+    }
+
+    private static <T> List<T> add(List<T> list, T element) {
+      List<T> result = list == null ? new ArrayList<>() : list;
+      result.add(element);
+      return result;
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package com.lumina.meter;
+
+import com.lumina.catalogue.model.AlertRule;
+import com.lumina.catalogue.model.CatalogueItem;
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.TelemetryField;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The alert rules of a catalogue model, compiled once into flat arrays so that evaluating a sample
+ * resolves no field names, boxes no typed values and allocates nothing. Rules are addressed by
+ * their index, which also indexes the per-meter state kept by the {@link AlertEngine}.
+ */
+final class AlertRules {
+
+  static final AlertRules NONE = new AlertRules(null, List.of());
+
+  private final String model;
+  private final AlertRule[] rules;
+  private final String[] fields;
+  private final TelemetryField[] typed;
+  private final double[] low;
+  private final double[] high;
+  private final double[] clearLow;
+  private final double[] clearHigh;
+  private final int[] consecutive;
+
+  private AlertRules(String model, List<AlertRule> rules) {
+    int size = rules.size();
+    this.model = model;
+    this.rules = rules.toArray(AlertRule[]::new);
+    this.fields = new String[size];
+    this.typed = new TelemetryField[size];
+    this.low = new double[size];
+    this.high = new double[size];
+    this.clearLow = new double[size];
+    this.clearHigh = new double[size];
+    this.consecutive = new int[size];
+    for (int i = 0; i < size; i++) {
+      AlertRule rule = this.rules[i];
+      fields[i] = rule.field();
+      typed[i] = TelemetryField.byName(rule.field());
+      low[i] = rule.lowerBound();
+      high[i] = rule.upperBound();
+      clearLow[i] = low[i] + rule.hysteresisOrDefault();
+      clearHigh[i] = high[i] - rule.hysteresisOrDefault();
+      consecutive[i] = rule.consecutiveOrDefault();
+    }
+  }
+
+  static AlertRules compile(CatalogueItem item) {
+    List<AlertRule> rules = item.alertRules();
+    return rules == null || rules.isEmpty() ? NONE : new AlertRules(item.model(), rules);
+  }
+
+  String model() {
+    return model;
+  }
+
+  int size() {
+    return rules.length;
+  }
+
+  boolean isEmpty() {
+    return rules.length == 0;
+  }
+
+  AlertRule rule(int index) {
+    return rules[index];
+  }
+
+  /** Returns the index of the rule with the given name, or -1 if there is none. */
+  int indexOf(String name) {
+    for (int i = 0; i < rules.length; i++) {
+      if (rules[i].name().equals(name)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the value of a rule's field in a sample, taken from the typed telemetry when the field
+   * is typed and otherwise from the data map.
+   *
+   * @return the value, or NaN if the sample has no numeric value for the field
+   */
+  double value(int index, Status status) {
+    TelemetryField field = typed[index];
+    if (field != null && status.telemetry() != null) {
+      double value = status.telemetry().value(field);
+      if (!Double.isNaN(value)) {
+        return value;
+      }
+    }
+    Map<String, Object> data = status.data();
+    if (data != null && data.get(fields[index]) instanceof Number number) {
+      return number.doubleValue();
+    }
+    return Double.NaN;
+  }
+
+  boolean violates(int index, double value) {
+    return value < low[index] || value > high[index];
+  }
+
+  /** Whether a value is far enough inside the bounds to clear a raised alert. */
+  boolean clears(int index, double value) {
+    return value >= clearLow[index] && value <= clearHigh[index];
+  }
+
+  int consecutive(int index) {
+    return consecutive[index];
+  }
+}
@@ -0,0 +1,70 @@
+package com.lumina.meter;
+
+import com.lumina.BadRequestException;
+import com.lumina.meter.model.Alert;
+import com.lumina.meter.model.AlertState;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+/** Queries the alerts recorded by the {@link AlertEngine}. */
+@Service
+public class AlertService {
+
+  static final int MAX_LIMIT = 1000;
+
+  private final MongoTemplate mongoTemplate;
+
+  public AlertService(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  /**
+   * Finds alerts, newest first. Every filter is optional.
+   *
+   * @param startTime the earliest alert timestamp (inclusive)
+   * @param endTime the latest alert timestamp (inclusive)
+   * @param limit the maximum number of alerts, at most {@value #MAX_LIMIT}
+   */
+  public List<Alert> find(
+      String meterId,
+      String model,
+      AlertState state,
+      Instant startTime,
+      Instant endTime,
+      int limit) {
+    if (limit < 1 || limit > MAX_LIMIT) {
+      throw new BadRequestException("Limit must be between 1 and " + MAX_LIMIT);
+    }
+    if (startTime != null && endTime != null && startTime.isAfter(endTime)) {
+      throw new BadRequestException("startTime must be before or equal to endTime");
+    }
+
+    Criteria criteria = new Criteria();
+    if (meterId != null) {
+      criteria.and("meterId").is(meterId);
+    }
+    if (model != null) {
+      criteria.and("model").is(model);
+    }
+    if (state != null) {
+      criteria.and("state").is(state);
+    }
+    if (startTime != null || endTime != null) {
+      Criteria timestamp = criteria.and("timestamp");
+      if (startTime != null) {
+        timestamp.gte(startTime);
+      }
+      if (endTime != null) {
+        timestamp.lte(endTime);
+      }
+    }
+    Query query =
+        new Query(criteria).with(Sort.by(Sort.Direction.DESC, "timestamp")).limit(limit);
+    return mongoTemplate.find(query, Alert.class);
+  }
+}
@@ -0,0 +1,84 @@
+package com.lumina.meter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.TelemetryField;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes statuses as gzip-compressed CSV with the columns of {@link StatusExportRow}: meterId,
+ * timestamp in ISO-8601, one column per telemetry field and a {@code data} column holding the
+ * remaining fields as a JSON object. Absent values are empty.
+ */
+final class CsvStatusWriter implements StatusExportWriter {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final Writer writer;
+  private final ObjectMapper objectMapper;
+  private final StatusExportRow row = new StatusExportRow();
+
+  CsvStatusWriter(OutputStream out, ObjectMapper objectMapper) throws IOException {
+    this.writer =
+        new BufferedWriter(
+            new OutputStreamWriter(
+                new GZIPOutputStream(out, BUFFER_SIZE), StandardCharsets.UTF_8),
+            BUFFER_SIZE);
+    this.objectMapper = objectMapper;
+    writer.write("meterId,timestamp");
+    for (TelemetryField field : StatusExportRow.FIELDS) {
+      writer.write(',');
+      writer.write(field.fieldName());
+    }
+    writer.write(",data\n");
+  }
+
+  @Override
+  public void write(Status status) throws IOException {
+    row.reset(status);
+    writeText(row.meterId);
+    writer.write(',');
+    writer.write(Instant.ofEpochMilli(row.timestamp).toString());
+    for (int i = 0; i < StatusExportRow.FIELDS.length; i++) {
+      writer.write(',');
+      double value = row.values[i];
+      if (!Double.isNaN(value)) {
+        writer.write(
+            StatusExportRow.FIELDS[i].kind() == TelemetryField.Kind.INTEGER
+                ? Long.toString((long) value)
+                : Double.toString(value));
+      }
+    }
+    writer.write(',');
+    if (!row.extras.isEmpty()) {
+      writeText(objectMapper.writeValueAsString(row.extras));
+    }
+    writer.write('\n');
+  }
+
+  /** Writes a value, quoted as RFC 4180 requires when it contains a delimiter or quote. */
+  private void writeText(String value) throws IOException {
+    if (value.indexOf(',') < 0
+        && value.indexOf('"') < 0
+        && value.indexOf('\n') < 0
+        && value.indexOf('\r') < 0) {
+      writer.write(value);
+      return;
+    }
+    writer.write('"');
+    writer.write(value.replace("\"", "\"\""));
+    writer.write('"');
+  }
+
+  @Override
+  public void close() throws IOException {
+    writer.close();
+  }
+}
@@ -0,0 +1,68 @@
+package com.lumina.meter;
+
+import com.lumina.BadRequestException;
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.TelemetryField;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.bson.Document;
+
+/**
+ * Naming rules and accessors for the fields of a status record, which are held either in its typed
+ * telemetry or in its data map.
+ */
+final class DataFields {
+
+  private static final Pattern FIELD_NAME = Pattern.compile("[A-Za-z0-9_]{1,64}");
+
+  private DataFields() {}
+
+  /**
+   * Checks that each field is a plain identifier, so it can be used safely in a document path.
+   *
+   * @throws BadRequestException if the list is empty or a field name is invalid
+   */
+  static void check(List<String> fields) {
+    if (fields == null || fields.isEmpty()) {
+      throw new BadRequestException("At least one field is required");
+    }
+    for (String field : fields) {
+      if (field == null || !FIELD_NAME.matcher(field).matches()) {
+        throw new BadRequestException("Invalid field name: " + field);
+      }
+    }
+  }
+
+  /**
+   * An aggregation expression for the value of a field. A typed telemetry field falls back to the
+   * data map, which holds its value in records stored before typed telemetry, or when the value
+   * did not fit the typed field.
+   */
+  static Object valueExpression(String field) {
+    String dataPath = "$data." + field;
+    TelemetryField typed = TelemetryField.byName(field);
+    if (typed == null) {
+      return dataPath;
+    }
+    return new Document("$ifNull", List.of("$t." + typed.key(), dataPath));
+  }
+
+  /**
+   * Returns the numeric value of a data field.
+   *
+   * @return the value, or null if the field is missing or not a number
+   */
+  static Double numeric(Status status, String field) {
+    TelemetryField typed = TelemetryField.byName(field);
+    if (typed != null && status.telemetry() != null) {
+      double value = status.telemetry().value(typed);
+      if (!Double.isNaN(value)) {
+        return value;
+      }
+    }
+    if (status.data() != null && status.data().get(field) instanceof Number number) {
+      return number.doubleValue();
+    }
+    return null;
+  }
+}
@@ -0,0 +1,232 @@
+package com.lumina.meter;
+
+import com.lumina.meter.model.Line;
+import com.lumina.meter.model.Meter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process index from LoRaWAN device EUIs to meter ids, so uplinks posted by a network server
+ * can be attributed to meters without a database round trip.
+ *
+ * <p>The device EUI of a meter is the value of its {@code lorawan.devEui} line. EUIs are compared
+ * in a normal form, upper-case hex without separators, since network servers differ in how they
+ * print them. The index is seeded from {@link MeterRepository} once the context has started, or on
+ * the first lookup if that comes earlier, and kept current by {@link MeterService}. If several
+ * meters claim the same EUI, the one registered last wins.
+ *
+ * <p>{@link MeterService} only updates the index of the instance that served the change. EUIs of
+ * meters created, changed or deleted through another instance are picked up by a periodic {@link
+ * #refresh()} from the repository, so for up to one refresh interval after such a change an uplink
+ * may be rejected as coming from an unknown device, or attributed to the meter that held its EUI
+ * before.
+ */
+@Slf4j
+@Component
+public class DevEuiIndex implements ApplicationListener<ContextRefreshedEvent> {
+
+  /** The name of the meter line holding the device EUI. */
+  public static final String DEV_EUI_LINE = "lorawan.devEui";
+
+  private final MeterRepository meterRepository;
+
+  /** Meter id by normalized EUI. */
+  private final Map<String, String> meterIds = new ConcurrentHashMap<>();
+
+  /** Normalized EUI by meter id, to unlink a meter whose EUI changes. */
+  private final Map<String, String> euis = new ConcurrentHashMap<>();
+
+  /** Meters changed locally while a refresh is reading the repository, which it must not revert. */
+  private final Set<String> changedDuringRefresh = new HashSet<>();
+
+  private volatile boolean ready;
+  private boolean refreshing;
+
+  public DevEuiIndex(MeterRepository meterRepository, MeterRegistry registry) {
+    this.meterRepository = meterRepository;
+    Gauge.builder("lumina.meter.dev-eui-index.size", meterIds, Map::size).register(registry);
+  }
+
+  @Override
+  public void onApplicationEvent(ContextRefreshedEvent event) {
+    seed();
+  }
+
+  /**
+   * Returns the meter with a device EUI.
+   *
+   * @param devEui the EUI, in any common notation
+   * @return the meter id, or null if no meter has the EUI
+   */
+  public String meterIdOf(String devEui) {
+    String key = normalize(devEui);
+    if (key == null) {
+      return null;
+    }
+    if (!ready) {
+      seed();
+    }
+    return meterIds.get(key);
+  }
+
+  /**
+   * Reconciles the index with the repository, picking up the EUIs of meters created, changed and
+   * deleted through other instances. Meters registered or removed locally while the repository is
+   * read keep their local state. An EUI claimed by several stored meters stays with the one it is
+   * indexed under.
+   */
+  @Scheduled(
+      initialDelayString = "${lumina.meter.dev-eui-index.refresh-interval:300000}",
+      fixedDelayString = "${lumina.meter.dev-eui-index.refresh-interval:300000}")
+  public void refresh() {
+    synchronized (this) {
+      if (!ready || refreshing) {
+        return;
+      }
+      refreshing = true;
+      changedDuringRefresh.clear();
+    }
+    try {
+      Map<String, String> stored = new HashMap<>();
+      try (var meters = meterRepository.streamAllWithLine(DEV_EUI_LINE)) {
+        meters.forEach(
+            meter -> {
+              String key = normalize(devEuiOf(meter.lines()));
+              if (key != null) {
+                stored.put(meter.id(), key);
+              }
+            });
+      }
+      int linked = 0;
+      int unlinked = 0;
+      synchronized (this) {
+        for (String meterId : euis.keySet()) {
+          if (!stored.containsKey(meterId) && !changedDuringRefresh.contains(meterId)) {
+            unlinkUnderLock(meterId);
+            unlinked++;
+          }
+        }
+        for (var meter : stored.entrySet()) {
+          String meterId = meter.getKey();
+          String key = meter.getValue();
+          if (changedDuringRefresh.contains(meterId) || key.equals(euis.get(meterId))) {
+            continue;
+          }
+          String owner = meterIds.get(key);
+          if (owner != null && key.equals(stored.get(owner))) {
+            continue;
+          }
+          linkUnderLock(meterId, key);
+          linked++;
+        }
+      }
+      if (linked > 0 || unlinked > 0) {
+        log.info("Device EUI index refreshed: {} EUI(s) linked, {} unlinked", linked, unlinked);
+      }
+    } finally {
+      synchronized (this) {
+        refreshing = false;
+        changedDuringRefresh.clear();
+      }
+    }
+  }
+
+  /** Records the EUI of a created or updated meter, replacing any EUI it had before. */
+  public synchronized void register(Meter meter) {
+    if (refreshing) {
+      changedDuringRefresh.add(meter.id());
+    }
+    String key = normalize(devEuiOf(meter.lines()));
+    if (key == null) {
+      unlinkUnderLock(meter.id());
+      return;
+    }
+    linkUnderLock(meter.id(), key);
+  }
+
+  /** Forgets the EUI of a deleted meter. */
+  public synchronized void remove(String meterId) {
+    if (refreshing) {
+      changedDuringRefresh.add(meterId);
+    }
+    unlinkUnderLock(meterId);
+  }
+
+  public int size() {
+    return meterIds.size();
+  }
+
+  /**
+   * Brings an EUI into normal form.
+   *
+   * @return the upper-case EUI without separators, or null if it is blank
+   */
+  static String normalize(String devEui) {
+    if (devEui == null) {
+      return null;
+    }
+    StringBuilder key = new StringBuilder(16);
+    for (int i = 0; i < devEui.length(); i++) {
+      char c = devEui.charAt(i);
+      if (c != '-' && c != ':' && !Character.isWhitespace(c)) {
+        key.append(Character.toUpperCase(c));
+      }
+    }
+    return key.isEmpty() ? null : key.toString();
+  }
+
+  private static String devEuiOf(List<Line> lines) {
+    if (lines == null) {
+      return null;
+    }
+    for (Line line : lines) {
+      if (DEV_EUI_LINE.equals(line.name()) && line.value() instanceof String value) {
+        return value;
+      }
+    }
+    return null;
+  }
+
+  private synchronized void seed() {
+    if (ready) {
+      return;
+    }
+    long start = System.nanoTime();
+    try (var meters = meterRepository.streamAllWithLine(DEV_EUI_LINE)) {
+      meters.forEach(this::register);
+    }
+    ready = true;
+    log.info(
+        "Device EUI index seeded with {} meter(s) in {} ms",
+        meterIds.size(),
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  private void linkUnderLock(String meterId, String key) {
+    unlinkUnderLock(meterId);
+    String previous = meterIds.put(key, meterId);
+    if (previous != null && !previous.equals(meterId)) {
+      euis.remove(previous);
+      log.warn("Device EUI {} moved from meter {} to meter {}", key, previous, meterId);
+    }
+    euis.put(meterId, key);
+  }
+
+  private void unlinkUnderLock(String meterId) {
+    String key = euis.remove(meterId);
+    if (key != null) {
+      meterIds.remove(key, meterId);
+    }
+  }
+}
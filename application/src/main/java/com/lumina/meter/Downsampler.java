@@ -0,0 +1,30 @@
+package com.lumina.meter;
+
+import com.lumina.meter.model.DataPoint;
+import com.lumina.meter.model.DownsampleMode;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Reduces a time-ordered series to at most a fixed number of points in a single pass. Points are
+ * assigned to equal-width time buckets over the requested range, so memory depends on the output
+ * size and not on how many points are read.
+ */
+interface Downsampler {
+
+  /**
+   * Accepts the next point. Points must arrive in ascending timestamp order within the range given
+   * at construction.
+   */
+  void accept(DataPoint point);
+
+  /** Completes the series and returns the selected points in timestamp order. */
+  List<DataPoint> finish();
+
+  static Downsampler of(DownsampleMode mode, Instant start, Instant end, int maxPoints) {
+    return switch (mode) {
+      case LTTB -> new LttbDownsampler(start, end, maxPoints);
+      case MIN_MAX -> new MinMaxDownsampler(start, end, maxPoints);
+    };
+  }
+}
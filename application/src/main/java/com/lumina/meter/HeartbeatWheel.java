@@ -0,0 +1,265 @@
+package com.lumina.meter;
+
+import com.lumina.meter.model.OfflineMeter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A hashed timing wheel of per-meter reporting deadlines.
+ *
+ * <p>Time is divided into ticks and each deadline is linked into the slot of its tick, modulo the
+ * number of slots. Advancing the wheel visits only the slots of the ticks that have passed, and an
+ * entry whose deadline lies one or more turns of the wheel ahead simply stays in its slot until
+ * then. Every meter has exactly one entry, linked either into a slot or into the list of offline
+ * meters, so re-arming a deadline on each sample is an unlink and a link without allocation, and
+ * memory grows with the number of meters only, never with the number of samples.
+ *
+ * <p>A deadline fires on the first advance at or after it, so at most one tick late. Instances are
+ * not thread-safe; the {@link OfflineMeterTracker} serializes access.
+ */
+final class HeartbeatWheel {
+
+  /** The outcome of a heartbeat. */
+  enum Beat {
+    /** The sample is not newer than the last one seen; nothing changed. */
+    IGNORED,
+    /** The meter's deadline was armed or moved. */
+    ARMED,
+    /** The meter was offline and its deadline is armed again. */
+    RECOVERED,
+    /** The sample is newer but its deadline has passed already, so the meter is offline. */
+    OVERDUE
+  }
+
+  private final long tickMillis;
+  private final Entry[] slots;
+  private final int mask;
+  private final Map<String, Entry> entries = new HashMap<>();
+  private final Entry offline = new Entry(null);
+  private int offlineCount;
+
+  /** The next tick to be processed. */
+  private long currentTick;
+
+  /**
+   * @param slotCount the number of slots, a power of two
+   * @param nowMillis the current time, from which the wheel starts
+   */
+  HeartbeatWheel(long tickMillis, int slotCount, long nowMillis) {
+    if (tickMillis <= 0) {
+      throw new IllegalArgumentException("The tick must be positive");
+    }
+    if (slotCount <= 0 || Integer.bitCount(slotCount) != 1) {
+      throw new IllegalArgumentException("The number of slots must be a power of two");
+    }
+    this.tickMillis = tickMillis;
+    this.slots = new Entry[slotCount];
+    this.mask = slotCount - 1;
+    for (int i = 0; i < slotCount; i++) {
+      slots[i] = new Entry(null);
+    }
+    this.currentTick = Math.floorDiv(nowMillis, tickMillis) + 1;
+  }
+
+  /**
+   * Records a sample of a meter and moves its deadline.
+   *
+   * @param lastSeen the time of the sample
+   * @param deadline when the meter goes offline unless another sample arrives
+   * @param nowMillis the current time
+   */
+  Beat beat(String meterId, long lastSeen, long deadline, long nowMillis) {
+    Entry entry = entries.get(meterId);
+    if (entry == null) {
+      entry = new Entry(meterId);
+      entries.put(meterId, entry);
+    } else if (lastSeen <= entry.lastSeen) {
+      return Beat.IGNORED;
+    } else {
+      unlink(entry);
+    }
+    boolean wasOffline = entry.offline;
+    entry.lastSeen = lastSeen;
+    entry.deadline = deadline;
+    if (deadline <= nowMillis) {
+      linkOffline(entry);
+      return Beat.OVERDUE;
+    }
+    entry.offline = false;
+    entry.deadlineTick = Math.ceilDiv(deadline, tickMillis);
+    link(slots[(int) (Math.max(entry.deadlineTick, currentTick) & mask)], entry);
+    return wasOffline ? Beat.RECOVERED : Beat.ARMED;
+  }
+
+  /**
+   * Moves the deadline of a tracked meter without a new sample, e.g. because its reporting
+   * interval changed. A deadline that has already passed fires on the next advance; an offline
+   * meter whose new deadline is still ahead is armed again.
+   *
+   * @param grace the time from the meter's last sample to its new deadline
+   * @param nowMillis the current time
+   * @return {@link Beat#IGNORED} if the meter is not tracked or stays offline, {@link
+   *     Beat#RECOVERED} if it was offline, otherwise {@link Beat#ARMED}
+   */
+  Beat rearm(String meterId, long grace, long nowMillis) {
+    Entry entry = entries.get(meterId);
+    if (entry == null) {
+      return Beat.IGNORED;
+    }
+    long deadline = entry.lastSeen + grace;
+    if (entry.offline && deadline <= nowMillis) {
+      entry.deadline = deadline;
+      return Beat.IGNORED;
+    }
+    boolean wasOffline = entry.offline;
+    unlink(entry);
+    entry.offline = false;
+    entry.deadline = deadline;
+    entry.deadlineTick = Math.ceilDiv(deadline, tickMillis);
+    link(slots[(int) (Math.max(entry.deadlineTick, currentTick) & mask)], entry);
+    return wasOffline ? Beat.RECOVERED : Beat.ARMED;
+  }
+
+  /**
+   * Forgets a meter.
+   *
+   * @return true if the meter was tracked
+   */
+  boolean remove(String meterId) {
+    Entry entry = entries.remove(meterId);
+    if (entry == null) {
+      return false;
+    }
+    unlink(entry);
+    return true;
+  }
+
+  /**
+   * Processes the ticks up to the current time and moves every meter whose deadline has passed to
+   * the offline list.
+   *
+   * @return the meters that went offline, or an empty list
+   */
+  List<OfflineMeter> advance(long nowMillis) {
+    long targetTick = Math.floorDiv(nowMillis, tickMillis);
+    List<OfflineMeter> expired = List.of();
+    if (targetTick - currentTick >= slots.length) {
+      // a full turn or more has passed: every slot is due, so visit each once
+      for (Entry slot : slots) {
+        expired = expire(slot, targetTick, expired);
+      }
+    } else {
+      for (long tick = currentTick; tick <= targetTick; tick++) {
+        expired = expire(slots[(int) (tick & mask)], tick, expired);
+      }
+    }
+    currentTick = Math.max(currentTick, targetTick + 1);
+    return expired;
+  }
+
+  private List<OfflineMeter> expire(Entry slot, long tick, List<OfflineMeter> expired) {
+    Entry entry = slot.next;
+    while (entry != slot) {
+      Entry next = entry.next;
+      if (entry.deadlineTick <= tick) {
+        unlink(entry);
+        linkOffline(entry);
+        if (expired.isEmpty()) {
+          expired = new ArrayList<>();
+        }
+        expired.add(entry.toOfflineMeter());
+      }
+      entry = next;
+    }
+    return expired;
+  }
+
+  /** Returns the offline meters, most recently offline first. */
+  List<OfflineMeter> offline() {
+    List<OfflineMeter> result = new ArrayList<>(offlineCount);
+    for (Entry entry = offline.next; entry != offline; entry = entry.next) {
+      result.add(entry.toOfflineMeter());
+    }
+    return result;
+  }
+
+  int offlineCount() {
+    return offlineCount;
+  }
+
+  /** Returns the ids of the tracked meters. */
+  List<String> meterIds() {
+    return new ArrayList<>(entries.keySet());
+  }
+
+  /**
+   * Returns the time of the last sample of a meter.
+   *
+   * @return the time in epoch milliseconds, or {@link Long#MIN_VALUE} if the meter is not tracked
+   */
+  long lastSeen(String meterId) {
+    Entry entry = entries.get(meterId);
+    return entry == null ? Long.MIN_VALUE : entry.lastSeen;
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  private void linkOffline(Entry entry) {
+    entry.offline = true;
+    offlineCount++;
+    link(offline, entry);
+  }
+
+  private static void link(Entry head, Entry entry) {
+    entry.prev = head;
+    entry.next = head.next;
+    head.next.prev = entry;
+    head.next = entry;
+  }
+
+  private void unlink(Entry entry) {
+    if (entry.next == null) {
+      return;
+    }
+    if (entry.offline) {
+      offlineCount--;
+    }
+    entry.prev.next = entry.next;
+    entry.next.prev = entry.prev;
+    entry.prev = null;
+    entry.next = null;
+  }
+
+  /**
+   * The state of one meter, and a node of the circular list it is linked into. A list head is an
+   * entry without a meter that points to itself when the list is empty.
+   */
+  private static final class Entry {
+
+    private final String meterId;
+    private long lastSeen = Long.MIN_VALUE;
+    private long deadline;
+    private long deadlineTick;
+    private boolean offline;
+    private Entry prev;
+    private Entry next;
+
+    private Entry(String meterId) {
+      this.meterId = meterId;
+      if (meterId == null) {
+        prev = this;
+        next = this;
+      }
+    }
+
+    private OfflineMeter toOfflineMeter() {
+      return new OfflineMeter(
+          meterId, Instant.ofEpochMilli(lastSeen), Instant.ofEpochMilli(deadline));
+    }
+  }
+}
@@ -0,0 +1,261 @@
+package com.lumina.meter;
+
+import com.lumina.meter.model.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the most recent status of each meter, so latest-status reads are answered from memory.
+ *
+ * <p>Entries are updated by every ingest path as statuses are written and filled from {@link
+ * StatusRepository} on a miss, or from the {@link StatusBlockStore} if the meter has no raw
+ * samples left. Both go through the same merge, which keeps the status with the later timestamp,
+ * so a slow database read can never replace a newer ingested status. Meters with no status at all
+ * are cached too, so repeatedly polling them does not reach the database.
+ *
+ * <p>Only statuses ingested by this instance reach the cache directly; those written through other
+ * instances are seen by reading the database. An entry that has not been read from the database or
+ * updated by an ingest for lumina.meter.status.latest-cache.max-age is therefore read again on its
+ * next use, which bounds how long a meter that reports through another instance can appear to have
+ * no status or a stale one. A max age of zero disables this, for a single instance.
+ *
+ * <p>The number of entries is bounded. Each entry records when it was last read or updated. When
+ * the cache is full, a few entries are sampled and the least recently used of them is evicted.
+ * Samples are taken by a sweep that resumes where the previous eviction stopped and wraps around,
+ * so every entry is considered in turn rather than the same few at the start of the table.
+ */
+@Component
+public class LatestStatusCache implements StatusListener {
+
+  private static final int EVICTION_SAMPLE = 8;
+
+  private final StatusRepository statusRepository;
+  private final Optional<StatusBlockStore> blockStore;
+  private final int maxEntries;
+  private final long maxAgeNanos;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  /** Where the next eviction continues sampling; guarded by the cache's monitor. */
+  private Iterator<Map.Entry<String, Entry>> sweep;
+
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter evictions;
+
+  public LatestStatusCache(
+      StatusRepository statusRepository,
+      Optional<StatusBlockStore> blockStore,
+      MeterRegistry registry,
+      @Value("${lumina.meter.status.latest-cache.max-entries:500000}") int maxEntries,
+      @Value("${lumina.meter.status.latest-cache.max-age:30s}") Duration maxAge) {
+    this.statusRepository = statusRepository;
+    this.blockStore = blockStore;
+    this.maxEntries = maxEntries;
+    this.maxAgeNanos = maxAge.isZero() ? Long.MAX_VALUE : maxAge.toNanos();
+
+    this.hits = registry.counter("lumina.status.latest-cache.requests", "result", "hit");
+    this.misses = registry.counter("lumina.status.latest-cache.requests", "result", "miss");
+    this.evictions = registry.counter("lumina.status.latest-cache.evictions");
+    Gauge.builder("lumina.status.latest-cache.size", entries, Map::size).register(registry);
+  }
+
+  /**
+   * Returns the most recent status of a meter, reading it from the database on a miss or when the
+   * cached entry is older than the max age.
+   *
+   * @param meterId the meter ID
+   * @return the most recent status, or empty if the meter has none
+   */
+  public Optional<Status> get(String meterId) {
+    long now = System.nanoTime();
+    Entry entry = entries.get(meterId);
+    if (entry != null && isFresh(entry, now)) {
+      hits.increment();
+      entry.touch(now);
+      return Optional.ofNullable(entry.status);
+    }
+    misses.increment();
+    Status latest = statusRepository.findFirstByMeterIdOrderByTimestampDesc(meterId);
+    if (latest == null) {
+      latest = sealedLatest(meterId);
+    }
+    Entry merged = merge(meterId, entry(latest));
+    merged.verify(now);
+    return Optional.ofNullable(merged.status);
+  }
+
+  /**
+   * Returns the most recent status of each of the given meters. The meters that are not cached, or
+   * whose entries are older than the max age, are passed to {@code loader} in one call, and its
+   * results are cached.
+   *
+   * @param meterIds the meter IDs
+   * @param loader reads the latest status of each given meter from the database
+   * @return the most recent status by meter ID; meters without any status are absent
+   */
+  public Map<String, Status> getAll(
+      Collection<String> meterIds, Function<Collection<String>, Map<String, Status>> loader) {
+    long now = System.nanoTime();
+    Map<String, Status> result = new HashMap<>();
+    List<String> missing = new ArrayList<>();
+    for (String meterId : meterIds) {
+      Entry entry = entries.get(meterId);
+      if (entry == null || !isFresh(entry, now)) {
+        missing.add(meterId);
+      } else {
+        entry.touch(now);
+        if (entry.status != null) {
+          result.put(meterId, entry.status);
+        }
+      }
+    }
+    hits.increment(meterIds.size() - missing.size());
+    if (missing.isEmpty()) {
+      return result;
+    }
+
+    misses.increment(missing.size());
+    Map<String, Status> loaded = loader.apply(missing);
+    for (String meterId : missing) {
+      Status latest = loaded.containsKey(meterId) ? loaded.get(meterId) : sealedLatest(meterId);
+      Entry merged = merge(meterId, entry(latest));
+      merged.verify(now);
+      if (merged.status != null) {
+        result.put(meterId, merged.status);
+      }
+    }
+    return result;
+  }
+
+  /** Records a status as written; ignored if the cached status for its meter is newer. */
+  public void put(Status status) {
+    if (status.meterId() != null && status.timestamp() != null) {
+      merge(status.meterId(), entry(status));
+    }
+  }
+
+  /** Forgets a meter, e.g. because it was deleted. */
+  public void evict(String meterId) {
+    entries.remove(meterId);
+  }
+
+  @Override
+  public void onStatusesWritten(List<Status> statuses) {
+    statuses.forEach(this::put);
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns the latest sealed sample of a meter whose raw samples have all been moved into
+   * compressed blocks.
+   */
+  private Status sealedLatest(String meterId) {
+    return blockStore.flatMap(store -> store.latest(meterId)).orElse(null);
+  }
+
+  private boolean isFresh(Entry entry, long now) {
+    return now - entry.verified < maxAgeNanos;
+  }
+
+  /** Creates an entry for a status, or for the absence of one if {@code status} is null. */
+  private Entry entry(Status status) {
+    return status == null
+        ? new Entry(null, Long.MIN_VALUE, System.nanoTime())
+        : Entry.of(status, System.nanoTime());
+  }
+
+  private Entry merge(String meterId, Entry candidate) {
+    Entry merged = entries.merge(meterId, candidate, LatestStatusCache::newer);
+    if (merged == candidate && entries.size() > maxEntries) {
+      evictOne(meterId);
+    }
+    return merged;
+  }
+
+  private static Entry newer(Entry current, Entry next) {
+    if (next.timestamp > current.timestamp) {
+      return next;
+    }
+    current.touch(next.lastUsed);
+    return current;
+  }
+
+  /** Evicts the least recently used of a few entries, never the one just added. */
+  private void evictOne(String keep) {
+    String victim = null;
+    long oldest = 0;
+    synchronized (this) {
+      for (int i = 0; i < EVICTION_SAMPLE; i++) {
+        if (sweep == null || !sweep.hasNext()) {
+          sweep = entries.entrySet().iterator();
+          if (!sweep.hasNext()) {
+            break;
+          }
+        }
+        var candidate = sweep.next();
+        long lastUsed = candidate.getValue().lastUsed;
+        if (!candidate.getKey().equals(keep) && (victim == null || lastUsed - oldest < 0)) {
+          victim = candidate.getKey();
+          oldest = lastUsed;
+        }
+      }
+    }
+    if (victim != null && entries.remove(victim) != null) {
+      evictions.increment();
+    }
+  }
+
+  /**
+   * A cached status with its timestamp in epoch nanoseconds, for cheap comparison, the {@link
+   * System#nanoTime()} at which it was last read or updated, and the one at which it was last
+   * created or checked against the database. A meter without any status is cached as an entry with
+   * a null status and the smallest timestamp.
+   */
+  private static final class Entry {
+
+    private final Status status;
+    private final long timestamp;
+    private volatile long lastUsed;
+    private volatile long verified;
+
+    private Entry(Status status, long timestamp, long lastUsed) {
+      this.status = status;
+      this.timestamp = timestamp;
+      this.lastUsed = lastUsed;
+      this.verified = lastUsed;
+    }
+
+    static Entry of(Status status, long now) {
+      var ts = status.timestamp();
+      return new Entry(status, ts.getEpochSecond() * 1_000_000_000L + ts.getNano(), now);
+    }
+
+    void touch(long now) {
+      if (now - lastUsed > 0) {
+        lastUsed = now;
+      }
+    }
+
+    void verify(long now) {
+      if (now - verified > 0) {
+        verified = now;
+      }
+    }
+  }
+}
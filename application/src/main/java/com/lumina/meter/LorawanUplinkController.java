@@ -0,0 +1,62 @@
+package com.lumina.meter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lumina.BadRequestException;
+import com.lumina.meter.dto.BulkStatusResultDto;
+import com.lumina.meter.dto.LorawanUplinkDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/meter/lorawan")
+@Tag(name = "LoRaWAN", description = "Webhook for LoRaWAN network servers")
+public class LorawanUplinkController {
+
+  private final LorawanUplinkService uplinkService;
+  private final ObjectMapper objectMapper;
+
+  public LorawanUplinkController(LorawanUplinkService uplinkService, ObjectMapper objectMapper) {
+    this.uplinkService = uplinkService;
+    this.objectMapper = objectMapper;
+  }
+
+  @Operation(
+      summary = "Ingest LoRaWAN uplinks",
+      description =
+          "Accepts one uplink object or an array of uplinks as posted by a LoRaWAN network"
+              + " server. Each uplink is attributed to the meter whose lorawan.devEui line matches"
+              + " its devEUI, and its radio metadata is stored as typed telemetry. The response"
+              + " reports the outcome per uplink.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Uplinks processed"),
+        @ApiResponse(responseCode = "400", description = "Malformed, empty or oversized request")
+      })
+  @PostMapping("/uplink")
+  public BulkStatusResultDto ingest(@RequestBody JsonNode body) {
+    return BulkStatusResultDto.from(uplinkService.ingest(uplinks(body), Instant.now()));
+  }
+
+  private List<LorawanUplinkDto> uplinks(JsonNode body) {
+    try {
+      if (!body.isArray()) {
+        return List.of(objectMapper.treeToValue(body, LorawanUplinkDto.class));
+      }
+      List<LorawanUplinkDto> uplinks = new ArrayList<>(body.size());
+      for (JsonNode uplink : body) {
+        uplinks.add(objectMapper.treeToValue(uplink, LorawanUplinkDto.class));
+      }
+      return uplinks;
+    } catch (JsonProcessingException e) {
+      throw new BadRequestException("Malformed uplink: " + e.getOriginalMessage());
+    }
+  }
+}
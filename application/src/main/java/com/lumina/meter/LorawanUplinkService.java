@@ -0,0 +1,163 @@
+package com.lumina.meter;
+
+import com.lumina.BadRequestException;
+import com.lumina.catalogue.model.MeterType;
+import com.lumina.meter.dto.LorawanUplinkDto;
+import com.lumina.meter.model.BulkStatusResult;
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusBuilder;
+import com.lumina.meter.model.Telemetry;
+import com.lumina.meter.model.TelemetryField;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.stereotype.Service;
+
+/**
+ * Ingests uplinks forwarded by a LoRaWAN network server. Each uplink is attributed to a meter by
+ * its device EUI through the {@link DevEuiIndex}, and its payload is decoded with the layout of the
+ * meter's catalogue model from the {@link PayloadCodec}. The decoded fields and the radio metadata
+ * become the typed {@link Telemetry} of the status, the remaining fields its data map. The raw
+ * payload is kept only if the model declares no layout. All uplinks of a request are then written
+ * with one bulk insert through {@link StatusService#createStatuses(List)}.
+ */
+@Service
+public class LorawanUplinkService {
+
+  private static final int TELEMETRY_FIELDS = TelemetryField.values().length;
+
+  private final DevEuiIndex devEuiIndex;
+  private final PayloadCodec payloadCodec;
+  private final StatusService statusService;
+
+  private final Counter accepted;
+  private final Counter unknownDevice;
+  private final Counter rejected;
+
+  public LorawanUplinkService(
+      DevEuiIndex devEuiIndex,
+      PayloadCodec payloadCodec,
+      StatusService statusService,
+      MeterRegistry registry) {
+    this.devEuiIndex = devEuiIndex;
+    this.payloadCodec = payloadCodec;
+    this.statusService = statusService;
+
+    this.accepted = registry.counter("lumina.meter.lorawan.uplinks", "result", "accepted");
+    this.unknownDevice =
+        registry.counter("lumina.meter.lorawan.uplinks", "result", "unknown_device");
+    this.rejected = registry.counter("lumina.meter.lorawan.uplinks", "result", "rejected");
+  }
+
+  /**
+   * Stores the uplinks as statuses of the meters they belong to. Uplinks without a known device
+   * EUI, or with a payload that is not base64 or too short for the layout, are rejected
+   * individually.
+   *
+   * @param uplinks the uplinks of one request
+   * @param receivedAt the timestamp of uplinks that carry none
+   * @return the accepted and rejected uplinks, indexed by their position in {@code uplinks}
+   * @throws BadRequestException if there are no uplinks or more than a bulk request allows
+   */
+  public BulkStatusResult ingest(List<LorawanUplinkDto> uplinks, Instant receivedAt) {
+    if (uplinks == null || uplinks.isEmpty()) {
+      throw new BadRequestException("At least one uplink is required");
+    }
+    List<BulkStatusResult.Rejection> rejections = new ArrayList<>();
+    List<Status> statuses = new ArrayList<>(uplinks.size());
+    List<Integer> indexes = new ArrayList<>(uplinks.size());
+    for (int i = 0; i < uplinks.size(); i++) {
+      LorawanUplinkDto uplink = uplinks.get(i);
+      String meterId = devEuiIndex.meterIdOf(uplink.devEUI());
+      if (meterId == null) {
+        unknownDevice.increment();
+        rejections.add(
+            new BulkStatusResult.Rejection(
+                i, null, "No meter has devEUI %s".formatted(uplink.devEUI())));
+        continue;
+      }
+      try {
+        statuses.add(toStatus(meterId, uplink, payloadCodec.decoderFor(meterId), receivedAt));
+      } catch (IllegalArgumentException e) {
+        rejected.increment();
+        rejections.add(new BulkStatusResult.Rejection(i, meterId, e.getMessage()));
+        continue;
+      }
+      indexes.add(i);
+    }
+    if (statuses.isEmpty()) {
+      return new BulkStatusResult(List.of(), rejections);
+    }
+
+    // map the positions in the written batch back to the positions in the request
+    BulkStatusResult written = statusService.createStatuses(statuses);
+    List<BulkStatusResult.Accepted> acceptances = new ArrayList<>(written.accepted().size());
+    for (BulkStatusResult.Accepted a : written.accepted()) {
+      acceptances.add(new BulkStatusResult.Accepted(indexes.get(a.index()), a.status()));
+    }
+    for (BulkStatusResult.Rejection r : written.rejected()) {
+      rejections.add(
+          new BulkStatusResult.Rejection(indexes.get(r.index()), r.meterId(), r.reason()));
+    }
+    accepted.increment(acceptances.size());
+    rejected.increment(written.rejected().size());
+    return new BulkStatusResult(acceptances, rejections);
+  }
+
+  /**
+   * Builds the status of an uplink. Radio metadata takes precedence over payload fields of the same
+   * name.
+   *
+   * @throws IllegalArgumentException if the payload is not base64 or too short for the layout
+   */
+  static Status toStatus(
+      String meterId, LorawanUplinkDto uplink, PayloadDecoder decoder, Instant receivedAt) {
+    double[] values = new double[TELEMETRY_FIELDS];
+    Arrays.fill(values, Double.NaN);
+    Map<String, Object> data = new LinkedHashMap<>();
+    if (uplink.fPort() != null) {
+      data.put("fPort", uplink.fPort());
+    }
+    if (uplink.payload() != null) {
+      byte[] payload = decodeBase64(uplink.payload());
+      if (decoder.isEmpty()) {
+        data.put("payload", uplink.payload());
+      } else {
+        int fPort = uplink.fPort() == null ? -1 : uplink.fPort();
+        decoder.decode(ByteBuffer.wrap(payload), fPort, values, data);
+      }
+    }
+    setIfPresent(values, TelemetryField.SIGNAL_STRENGTH, uplink.rssi());
+    setIfPresent(values, TelemetryField.SNR, uplink.snr());
+    setIfPresent(values, TelemetryField.SPREADING_FACTOR, uplink.spreadingFactor());
+    setIfPresent(values, TelemetryField.FRAME_COUNTER, uplink.fCnt());
+    MeterType type = decoder.type() != null ? decoder.type() : MeterType.LORAWAN;
+    return StatusBuilder.builder()
+        .meterId(meterId)
+        .timestamp(uplink.timestamp() != null ? uplink.timestamp() : receivedAt)
+        .telemetry(Telemetry.of(type, field -> values[field.ordinal()]))
+        .data(data)
+        .build();
+  }
+
+  private static void setIfPresent(double[] values, TelemetryField field, Number value) {
+    if (value != null) {
+      values[field.ordinal()] = value.doubleValue();
+    }
+  }
+
+  private static byte[] decodeBase64(String payload) {
+    try {
+      return Base64.getDecoder().decode(payload);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("payload is not base64");
+    }
+  }
+}
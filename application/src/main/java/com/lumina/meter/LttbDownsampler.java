@@ -0,0 +1,166 @@
+package com.lumina.meter;
+
+import com.lumina.meter.model.DataPoint;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming Largest-Triangle-Three-Buckets. The first and last points are always kept; in between,
+ * the range is split into equal-width time buckets and each non-empty bucket contributes the point
+ * forming the largest triangle with the previously selected point and the average of the next
+ * bucket.
+ *
+ * <p>A bucket's choice can only be made once the following bucket is complete. Rather than
+ * buffering the bucket's points until then, only its convex hull is kept: the triangle area is
+ * linear in the candidate point for a fixed base, so its maximum is always at a hull vertex. The
+ * hull of a bucket of time-ordered points is built incrementally with Andrew's monotone chain and
+ * in practice holds a handful of vertices whatever the bucket size.
+ */
+final class LttbDownsampler implements Downsampler {
+
+  private final long origin;
+  private final double bucketWidth;
+  private final int buckets;
+  private final List<DataPoint> output;
+
+  /** The most recently selected point; the first vertex of the next triangle. */
+  private Vertex selected;
+  /** The latest point read, held back because the last point of the series is always kept. */
+  private DataPoint held;
+  /** The complete bucket whose point is chosen once {@link #current} is complete. */
+  private Bucket pending;
+
+  private Bucket current;
+
+  LttbDownsampler(Instant start, Instant end, int maxPoints) {
+    if (maxPoints < 3) {
+      throw new IllegalArgumentException("LTTB downsampling needs at least 3 points");
+    }
+    this.origin = start.toEpochMilli();
+    this.buckets = maxPoints - 2;
+    this.bucketWidth = Math.max(1.0, (end.toEpochMilli() - origin + 1) / (double) buckets);
+    this.output = new ArrayList<>(maxPoints);
+  }
+
+  @Override
+  public void accept(DataPoint point) {
+    if (selected == null) {
+      select(vertex(point));
+      return;
+    }
+    if (held != null) {
+      add(vertex(held));
+    }
+    held = point;
+  }
+
+  @Override
+  public List<DataPoint> finish() {
+    if (held != null) {
+      Vertex last = vertex(held);
+      if (current != null) {
+        complete();
+      }
+      if (pending != null) {
+        select(pending.largestTriangle(selected, last.x, last.y));
+        pending = null;
+      }
+      select(last);
+      held = null;
+    }
+    return output;
+  }
+
+  private void add(Vertex vertex) {
+    int index = (int) Math.clamp((long) (vertex.x / bucketWidth), 0, buckets - 1);
+    if (current != null && current.index != index) {
+      complete();
+    }
+    if (current == null) {
+      current = new Bucket(index);
+    }
+    current.add(vertex);
+  }
+
+  private void complete() {
+    if (pending != null) {
+      select(pending.largestTriangle(selected, current.averageX(), current.averageY()));
+    }
+    pending = current;
+    current = null;
+  }
+
+  private void select(Vertex vertex) {
+    selected = vertex;
+    output.add(vertex.point);
+  }
+
+  private Vertex vertex(DataPoint point) {
+    return new Vertex(point.timestamp().toEpochMilli() - origin, point.value(), point);
+  }
+
+  private record Vertex(double x, double y, DataPoint point) {}
+
+  private static final class Bucket {
+
+    private final int index;
+    private final List<Vertex> upper = new ArrayList<>();
+    private final List<Vertex> lower = new ArrayList<>();
+    private double sumX;
+    private double sumY;
+    private long count;
+
+    Bucket(int index) {
+      this.index = index;
+    }
+
+    void add(Vertex vertex) {
+      sumX += vertex.x;
+      sumY += vertex.y;
+      count++;
+      push(upper, vertex, 1);
+      push(lower, vertex, -1);
+    }
+
+    double averageX() {
+      return sumX / count;
+    }
+
+    double averageY() {
+      return sumY / count;
+    }
+
+    /** The hull vertex forming the largest triangle with {@code a} and {@code (cx, cy)}. */
+    Vertex largestTriangle(Vertex a, double cx, double cy) {
+      Vertex best = upper.getFirst();
+      double bestArea = -1;
+      for (List<Vertex> chain : List.of(upper, lower)) {
+        for (Vertex p : chain) {
+          double area = Math.abs((a.x - cx) * (p.y - a.y) - (a.x - p.x) * (cy - a.y));
+          if (area > bestArea) {
+            bestArea = area;
+            best = p;
+          }
+        }
+      }
+      return best;
+    }
+
+    /**
+     * Appends to one chain of the hull, dropping vertices that no longer bend the right way. The
+     * sign selects the chain: 1 for the upper hull, -1 for the lower.
+     */
+    private static void push(List<Vertex> chain, Vertex vertex, int sign) {
+      while (chain.size() >= 2
+          && sign * cross(chain.get(chain.size() - 2), chain.getLast(), vertex) >= 0) {
+        chain.removeLast();
+      }
+      chain.add(vertex);
+    }
+
+    private static double cross(Vertex o, Vertex a, Vertex b) {
+      return (a.x - o.x) * (b.y - o.y) - (a.y - o.y) * (b.x - o.x);
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package com.lumina.meter;
+
+import com.lumina.BadRequestException;
+import com.lumina.meter.model.Meter;
+import com.lumina.meter.model.MeterValidationResult;
+import com.lumina.meter.validation.MeterValidator;
+import com.lumina.validation.Errors;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Validates batches of meter configurations without storing them, for onboarding tools that want
+ * every error of a large import in one request.
+ *
+ * <p>The catalogue item of each distinct model is read once per batch on the calling thread, so
+ * unknown models are reported without further lookups. The meters are then validated in chunks on
+ * a work-stealing pool sized to the cores, and the results are handed out as chunks complete, so
+ * the first results can be written while the rest are still being validated.
+ */
+@Service
+public class MeterBatchValidationService implements DisposableBean {
+
+  private static final int CHUNK_SIZE = 64;
+
+  private final MeterValidator meterValidator;
+  private final int maxItems;
+  private final ForkJoinPool pool;
+
+  private final Counter valid;
+  private final Counter invalid;
+
+  public MeterBatchValidationService(
+      MeterValidator meterValidator,
+      MeterRegistry registry,
+      @Value("${lumina.meter.validation.batch.max-items:10000}") int maxItems,
+      @Value("${lumina.meter.validation.batch.parallelism:0}") int parallelism) {
+    this.meterValidator = meterValidator;
+    this.maxItems = maxItems;
+    this.pool =
+        new ForkJoinPool(
+            parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+
+    this.valid = registry.counter("lumina.meter.validation.batch", "result", "valid");
+    this.invalid = registry.counter("lumina.meter.validation.batch", "result", "invalid");
+  }
+
+  /**
+   * Validates meters as {@link MeterValidator#validate} does on create, without storing them.
+   *
+   * @param meters the meters of one request
+   * @return one result per meter, in the order they complete; closing the stream cancels the
+   *     chunks not started yet
+   * @throws BadRequestException if there are no meters, more than a batch allows or a missing
+   *     entry
+   */
+  public Stream<MeterValidationResult> validate(List<Meter> meters) {
+    if (meters == null || meters.isEmpty()) {
+      throw new BadRequestException("At least one meter is required");
+    }
+    if (meters.size() > maxItems) {
+      throw new BadRequestException(
+          "A batch may contain at most %d meters, got %d".formatted(maxItems, meters.size()));
+    }
+    Set<String> models = new HashSet<>();
+    for (int i = 0; i < meters.size(); i++) {
+      if (meters.get(i) == null) {
+        throw new BadRequestException("meters[%d] is missing".formatted(i));
+      }
+      models.add(meters.get(i).model());
+    }
+    MeterValidator.Batch batch = meterValidator.batch(models);
+
+    CompletionService<List<MeterValidationResult>> completion =
+        new ExecutorCompletionService<>(pool);
+    List<Future<List<MeterValidationResult>>> chunks = new ArrayList<>();
+    for (int from = 0; from < meters.size(); from += CHUNK_SIZE) {
+      int start = from;
+      int end = Math.min(meters.size(), from + CHUNK_SIZE);
+      chunks.add(completion.submit(() -> validate(batch, meters, start, end)));
+    }
+    return IntStream.range(0, chunks.size())
+        .mapToObj(i -> take(completion))
+        .flatMap(List::stream)
+        .onClose(() -> chunks.forEach(chunk -> chunk.cancel(false)));
+  }
+
+  /** Returns the most meters one batch may contain. */
+  public int maxItems() {
+    return maxItems;
+  }
+
+  private List<MeterValidationResult> validate(
+      MeterValidator.Batch batch, List<Meter> meters, int from, int to) {
+    List<MeterValidationResult> results = new ArrayList<>(to - from);
+    for (int i = from; i < to; i++) {
+      Meter meter = meters.get(i);
+      Errors errors = new Errors("meter");
+      String failure = missingLine(meter);
+      if (failure == null) {
+        try {
+          batch.validate(meter, errors);
+        } catch (RuntimeException e) {
+          // a line of another type than its constraint, an invalid catalogue pattern or any other
+          // malformed input fails its own meter only, not the chunk and with it the whole batch
+          failure = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        }
+      }
+      var result = new MeterValidationResult(i, meter.model(), errors.fieldErrors(), failure);
+      (result.valid() ? valid : invalid).increment();
+      results.add(result);
+    }
+    return results;
+  }
+
+  private static String missingLine(Meter meter) {
+    if (meter.lines() != null) {
+      for (int i = 0; i < meter.lines().size(); i++) {
+        if (meter.lines().get(i) == null) {
+          return "lines[%d] is missing".formatted(i);
+        }
+      }
+    }
+    return null;
+  }
+
+  private static <T> T take(CompletionService<T> completion) {
+    try {
+      return completion.take().get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Interrupted while waiting for validation results");
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof RuntimeException re
+          ? re
+          : new IllegalStateException("Validation failed", e.getCause());
+    }
+  }
+
+  @Override
+  public void destroy() {
+    pool.shutdownNow();
+  }
+}
@@ -1,8 +1,11 @@
 package com.lumina.meter;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lumina.meter.dto.MeterDto;
+import com.lumina.meter.dto.MeterValidationResultDto;
 import com.lumina.meter.dto.NewMeterDto;
 import com.lumina.meter.dto.UpdateMeterDto;
+import com.lumina.meter.model.Meter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -12,8 +15,10 @@ import jakarta.validation.Valid;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/")
@@ -21,9 +26,16 @@ import org.springframework.web.bind.annotation.*;
 public class MeterController {
 
   private final MeterService meterService;
+  private final MeterBatchValidationService batchValidationService;
+  private final ObjectMapper objectMapper;
 
-  public MeterController(MeterService meterService) {
+  public MeterController(
+      MeterService meterService,
+      MeterBatchValidationService batchValidationService,
+      ObjectMapper objectMapper) {
     this.meterService = meterService;
+    this.batchValidationService = batchValidationService;
+    this.objectMapper = objectMapper;
   }
 
   @Operation(
@@ -43,6 +55,30 @@ public class MeterController {
     return MeterDto.from(catalogueItem, meter, false);
   }
 
+  @Operation(
+      summary = "Validate meters without creating them",
+      description =
+          "Validates up to lumina.meter.validation.batch.max-items new meters against their"
+              + " catalogue constraints in parallel and writes one line of NDJSON per meter as its"
+              + " result is ready, with the meter's index in the request. Nothing is stored.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Results streamed"),
+        @ApiResponse(responseCode = "400", description = "Empty, oversized or incomplete batch")
+      })
+  @PostMapping(value = "meter/validate/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  ResponseEntity<StreamingResponseBody> validateBatch(@RequestBody List<NewMeterDto> newMeters) {
+    var meters =
+        newMeters == null
+            ? List.<Meter>of()
+            : newMeters.stream().map(m -> m == null ? null : NewMeterDto.toModel(m)).toList();
+    var results = batchValidationService.validate(meters);
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(
+            StatusStreams.ndjson(() -> results.map(MeterValidationResultDto::from), objectMapper));
+  }
+
   @Operation(
       summary = "Update an existing meter",
       description = "Updates meter configuration with validation")
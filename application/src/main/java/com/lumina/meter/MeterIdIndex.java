@@ -0,0 +1,217 @@
+package com.lumina.meter;
+
+import com.lumina.meter.model.Meter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process index of meter ids and their catalogue models, so the status ingest path can reject
+ * unknown meters and type their telemetry without a database round trip.
+ *
+ * <p>The index is an exact map from meter id to model. It is seeded from {@link MeterRepository}
+ * once the context has started and kept current by {@link MeterService}. Until seeding completes,
+ * lookups fall back to the repository.
+ *
+ * <p>Each instance holds its own index, and {@link MeterService} only updates the index of the
+ * instance that served the change. Meters created or deleted through another instance are picked
+ * up by a periodic {@link #refresh()} from the repository, so an instance may accept or reject a
+ * meter wrongly for up to one refresh interval after a change made elsewhere.
+ */
+@Slf4j
+@Component
+public class MeterIdIndex implements ApplicationListener<ContextRefreshedEvent> {
+
+  private final MeterRepository meterRepository;
+
+  /** Catalogue model by meter id. */
+  private final Map<String, String> ids = new ConcurrentHashMap<>();
+
+  /** Canonical model strings, so that meters of the same model share one instance. */
+  private final Map<String, String> models = new ConcurrentHashMap<>();
+
+  /** Ids changed locally while a refresh is reading the repository, which it must not revert. */
+  private final Set<String> changedDuringRefresh = new HashSet<>();
+
+  private volatile boolean ready;
+  private boolean refreshing;
+
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter fallbacks;
+
+  public MeterIdIndex(MeterRepository meterRepository, MeterRegistry registry) {
+    this.meterRepository = meterRepository;
+
+    this.hits = registry.counter("lumina.meter.id-index.lookups", "result", "hit");
+    this.misses = registry.counter("lumina.meter.id-index.lookups", "result", "miss");
+    this.fallbacks = registry.counter("lumina.meter.id-index.lookups", "result", "fallback");
+    Gauge.builder("lumina.meter.id-index.size", ids, Map::size).register(registry);
+  }
+
+  @Override
+  public void onApplicationEvent(ContextRefreshedEvent event) {
+    if (ready) {
+      return;
+    }
+    long start = System.nanoTime();
+    synchronized (this) {
+      try (var meters = meterRepository.streamAllIdsAndModels()) {
+        meters.forEach(meter -> addUnderLock(meter.id(), meter.model()));
+      }
+      ready = true;
+    }
+    log.info(
+        "Meter id index seeded with {} meter(s) in {} ms",
+        ids.size(),
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * Reconciles the index with the repository, adding meters created and dropping meters deleted
+   * through other instances. Meters registered or removed locally while the repository is read keep
+   * their local state.
+   */
+  @Scheduled(
+      initialDelayString = "${lumina.meter.id-index.refresh-interval:300000}",
+      fixedDelayString = "${lumina.meter.id-index.refresh-interval:300000}")
+  public void refresh() {
+    synchronized (this) {
+      if (!ready || refreshing) {
+        return;
+      }
+      refreshing = true;
+      changedDuringRefresh.clear();
+    }
+    try {
+      Map<String, String> stored = new HashMap<>();
+      try (var meters = meterRepository.streamAllIdsAndModels()) {
+        meters.forEach(meter -> stored.put(meter.id(), meter.model()));
+      }
+      int added = 0;
+      int removed = 0;
+      synchronized (this) {
+        for (String meterId : ids.keySet()) {
+          if (!stored.containsKey(meterId) && !changedDuringRefresh.contains(meterId)) {
+            ids.remove(meterId);
+            removed++;
+          }
+        }
+        for (var meter : stored.entrySet()) {
+          if (!changedDuringRefresh.contains(meter.getKey())) {
+            added += ids.containsKey(meter.getKey()) ? 0 : 1;
+            addUnderLock(meter.getKey(), meter.getValue());
+          }
+        }
+      }
+      if (added > 0 || removed > 0) {
+        log.info("Meter id index refreshed: {} meter(s) added, {} removed", added, removed);
+      }
+    } finally {
+      synchronized (this) {
+        refreshing = false;
+        changedDuringRefresh.clear();
+      }
+    }
+  }
+
+  /**
+   * Checks whether a meter exists.
+   *
+   * @param meterId the meter id
+   * @return true if the meter exists
+   */
+  public boolean contains(String meterId) {
+    if (!ready) {
+      fallbacks.increment();
+      return meterRepository.existsById(meterId);
+    }
+    if (ids.containsKey(meterId)) {
+      hits.increment();
+      return true;
+    }
+    misses.increment();
+    return false;
+  }
+
+  /**
+   * Returns the subset of the given ids that belong to existing meters.
+   *
+   * @param meterIds the ids to check
+   * @return the ids of existing meters
+   */
+  public Set<String> retainExisting(Collection<String> meterIds) {
+    if (!ready) {
+      fallbacks.increment(meterIds.size());
+      return meterRepository.findIdsByIdIn(meterIds).stream()
+          .map(Meter::id)
+          .collect(Collectors.toSet());
+    }
+    Set<String> existing = new HashSet<>();
+    for (String meterId : meterIds) {
+      if (contains(meterId)) {
+        existing.add(meterId);
+      }
+    }
+    return existing;
+  }
+
+  /**
+   * Returns the catalogue model of a meter.
+   *
+   * @param meterId the meter id
+   * @return the model, or null if the meter does not exist
+   */
+  public String modelOf(String meterId) {
+    if (!ready) {
+      fallbacks.increment();
+      return meterRepository.findById(meterId).map(Meter::model).orElse(null);
+    }
+    String model = ids.get(meterId);
+    return model == null || model.isEmpty() ? null : model;
+  }
+
+  /** Records a newly created meter, or the new model of an updated one. */
+  public synchronized void register(String meterId, String model) {
+    addUnderLock(meterId, model);
+    if (refreshing) {
+      changedDuringRefresh.add(meterId);
+    }
+  }
+
+  /** Forgets a deleted meter. */
+  public synchronized void remove(String meterId) {
+    ids.remove(meterId);
+    if (refreshing) {
+      changedDuringRefresh.add(meterId);
+    }
+  }
+
+  /** Returns the ids of all indexed meters; empty until the index is seeded. */
+  public List<String> meterIds() {
+    return new ArrayList<>(ids.keySet());
+  }
+
+  public int size() {
+    return ids.size();
+  }
+
+  private void addUnderLock(String meterId, String model) {
+    // a meter without a model is still indexed; ConcurrentHashMap does not accept null values
+    ids.put(meterId, model == null ? "" : models.computeIfAbsent(model, m -> m));
+  }
+}
@@ -0,0 +1,6 @@
+package com.lumina.meter;
+
+import com.lumina.meter.model.OfflineMeter;
+
+/** Published by the {@link OfflineMeterTracker} when a meter misses its reporting deadline. */
+public record MeterOfflineEvent(OfflineMeter meter) {}
@@ -0,0 +1,10 @@
+package com.lumina.meter;
+
+import java.time.Instant;
+
+/**
+ * Published by the {@link OfflineMeterTracker} when an offline meter reports again.
+ *
+ * @param lastSeen the timestamp of the status that brought the meter back
+ */
+public record MeterOnlineEvent(String meterId, Instant lastSeen) {}
@@ -1,9 +1,40 @@
 package com.lumina.meter;
 
 import com.lumina.meter.model.Meter;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
 public interface MeterRepository extends MongoRepository<Meter, String> {
   List<Meter> findByLocationId(String id);
+
+  /**
+   * Finds the meters among the given ids in a single query. Only the id is projected, so the
+   * returned meters carry nothing else.
+   *
+   * @param ids the meter ids to look up
+   * @return the meters that exist
+   */
+  @Query(value = "{ '_id': { $in: ?0 } }", fields = "{ '_id': 1 }")
+  List<Meter> findIdsByIdIn(Collection<String> ids);
+
+  /**
+   * Streams every meter with only its id and model projected. Used to seed in-memory indexes at
+   * startup.
+   *
+   * @return stream of meters carrying only id and model; must be closed by the caller
+   */
+  @Query(value = "{}", fields = "{ '_id': 1, 'model': 1 }")
+  Stream<Meter> streamAllIdsAndModels();
+
+  /**
+   * Streams the meters that have a line of the given name, with only their id and lines projected.
+   *
+   * @param lineName the line name
+   * @return stream of meters carrying only id and lines; must be closed by the caller
+   */
+  @Query(value = "{ 'lines.name': ?0 }", fields = "{ '_id': 1, 'lines': 1 }")
+  Stream<Meter> streamAllWithLine(String lineName);
 }
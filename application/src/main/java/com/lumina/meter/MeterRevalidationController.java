@@ -0,0 +1,61 @@
+package com.lumina.meter;
+
+import com.lumina.meter.dto.MeterRevalidationDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/meter/revalidation")
+@Tag(
+    name = "Meter Re-validation",
+    description = "Re-validation of stored meters after catalogue changes")
+public class MeterRevalidationController {
+
+  private final MeterRevalidationQueue revalidationQueue;
+
+  public MeterRevalidationController(MeterRevalidationQueue revalidationQueue) {
+    this.revalidationQueue = revalidationQueue;
+  }
+
+  @Operation(
+      summary = "List meter re-validations",
+      description = "Returns the re-validation of every model, most recently requested first")
+  @GetMapping
+  public List<MeterRevalidationDto> list() {
+    return revalidationQueue.list().stream().map(MeterRevalidationDto::from).toList();
+  }
+
+  @Operation(
+      summary = "Get the re-validation of a model",
+      description = "Returns the progress of re-validating the meters of a model")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Re-validation found"),
+        @ApiResponse(responseCode = "404", description = "The model has not been re-validated")
+      })
+  @GetMapping("/{model}")
+  public MeterRevalidationDto get(
+      @Parameter(description = "Catalogue model") @PathVariable String model) {
+    return MeterRevalidationDto.from(revalidationQueue.get(model));
+  }
+
+  @Operation(
+      summary = "Re-validate the meters of a model",
+      description =
+          "Queues a re-validation of every meter of the model against its current catalogue"
+              + " constraints, as a change of the catalogue item does. A re-validation already"
+              + " in progress restarts from the first meter.")
+  @ApiResponses(value = {@ApiResponse(responseCode = "202", description = "Re-validation queued")})
+  @PostMapping("/{model}")
+  @ResponseStatus(HttpStatus.ACCEPTED)
+  public MeterRevalidationDto request(
+      @Parameter(description = "Catalogue model") @PathVariable String model) {
+    return MeterRevalidationDto.from(revalidationQueue.request(model));
+  }
+}
@@ -0,0 +1,86 @@
+package com.lumina.meter;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import com.lumina.NotFoundException;
+import com.lumina.catalogue.CatalogueItemChangedEvent;
+import com.lumina.meter.model.MeterRevalidation;
+import com.lumina.meter.model.RevalidationState;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+/**
+ * Queues the re-validation of the meters of a model in {@code meterRevalidation} whenever its
+ * catalogue item changes. Every instance queues the changes made through it, whether or not it runs
+ * re-validations itself; the runs are claimed and carried out by the instances that enable the
+ * {@link MeterRevalidationService}, and wait in the queue until one does.
+ */
+@Slf4j
+@Service
+public class MeterRevalidationQueue {
+
+  private final MongoTemplate mongoTemplate;
+
+  public MeterRevalidationQueue(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  /** Queues a run for a change made through this instance; the other instances see it too. */
+  @EventListener
+  public void onCatalogueItemChanged(CatalogueItemChangedEvent event) {
+    if (!event.remote()) {
+      request(event.model());
+    }
+  }
+
+  /**
+   * Queues the re-validation of every meter of a model, restarting it from the first meter if one
+   * is already queued or running.
+   */
+  public MeterRevalidation request(String model) {
+    Objects.requireNonNull(model);
+    MeterRevalidation run =
+        mongoTemplate.findAndModify(
+            query(where("_id").is(model)),
+            new Update()
+                .set("state", RevalidationState.QUEUED)
+                .inc("generation", 1)
+                .set("cursor", null)
+                .set("meters", 0L)
+                .set("metersDone", 0L)
+                .set("invalid", 0L)
+                .set("requestedAt", Instant.now())
+                .set("startedAt", null)
+                .set("heartbeatAt", null)
+                .set("finishedAt", null)
+                .set("error", null),
+            FindAndModifyOptions.options().upsert(true).returnNew(true),
+            MeterRevalidation.class);
+    log.info("Queued re-validation of the meters of model {}", model);
+    return run;
+  }
+
+  public MeterRevalidation get(String model) {
+    MeterRevalidation run = mongoTemplate.findById(model, MeterRevalidation.class);
+    if (run == null) {
+      throw new NotFoundException("No re-validation of model %s exists".formatted(model));
+    }
+    return run;
+  }
+
+  /** Returns the re-validation of every model, most recently requested first. */
+  public List<MeterRevalidation> list() {
+    return mongoTemplate.find(
+        new Query().with(Sort.by(Sort.Direction.DESC, "requestedAt")), MeterRevalidation.class);
+  }
+}
@@ -0,0 +1,260 @@
+package com.lumina.meter;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import com.lumina.meter.model.Meter;
+import com.lumina.meter.model.MeterRevalidation;
+import com.lumina.meter.model.MeterValidationResult;
+import com.lumina.meter.model.MeterValidationStatus;
+import com.lumina.meter.model.RevalidationState;
+import com.lumina.meter.validation.MeterValidator;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Re-validates the stored meters of a model in the background whenever its catalogue item changes,
+ * and records a {@link MeterValidationStatus} per meter in {@code meterValidation} for the meters
+ * page to show.
+ *
+ * <p>Every instance queues a {@link MeterRevalidation} of the model in {@code meterRevalidation}
+ * through the {@link MeterRevalidationQueue}. A scheduled poll claims the queued runs one after
+ * the other, drops the cached validation plan of the model so that the run validates against the
+ * item as it is now, even if the change was made through another instance, and streams the
+ * meters of each model in id order from a database cursor, validating them in chunks on the pool
+ * of the {@link MeterBatchValidationService}. The statuses of a chunk are upserted in one bulk
+ * write, and only then is the id of its last meter saved as the run's cursor, so a run interrupted
+ * by a restart resumes after the last recorded chunk. A further change of the item while a run is
+ * in progress restarts it from the first meter under a new generation; the superseded run checks
+ * its generation before writing each chunk and stops without writing once it has changed.
+ *
+ * <p>A run is claimed atomically, so the job may be enabled on several instances. A running run
+ * records a heartbeat with each chunk; one whose heartbeat is older than the lease, left by a
+ * stopped instance, is claimed again and resumes after its cursor. Each claim increments the
+ * generation too, so an instance that was only slow stops at its next chunk instead of racing the
+ * instance that took the run over.
+ *
+ * <p>Enabled by the property: lumina.meter.validation.revalidation.enabled
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(
+    value = "lumina.meter.validation.revalidation.enabled",
+    havingValue = "true",
+    matchIfMissing = false)
+public class MeterRevalidationService implements InitializingBean {
+
+  private final MongoTemplate mongoTemplate;
+  private final MeterBatchValidationService batchValidationService;
+  private final MeterValidator meterValidator;
+  private final int batchSize;
+  private final Duration lease;
+
+  private final Counter revalidated;
+
+  public MeterRevalidationService(
+      MongoTemplate mongoTemplate,
+      MeterBatchValidationService batchValidationService,
+      MeterValidator meterValidator,
+      MeterRegistry registry,
+      @Value("${lumina.meter.validation.revalidation.batch-size:500}") int batchSize,
+      @Value("${lumina.meter.validation.revalidation.lease:10m}") Duration lease) {
+    if (batchSize < 1 || batchSize > batchValidationService.maxItems()) {
+      throw new IllegalArgumentException(
+          "The re-validation batch size must be between 1 and the batch validation limit of %d"
+              .formatted(batchValidationService.maxItems()));
+    }
+    this.mongoTemplate = mongoTemplate;
+    this.batchValidationService = batchValidationService;
+    this.meterValidator = meterValidator;
+    this.batchSize = batchSize;
+    this.lease = lease;
+
+    this.revalidated = registry.counter("lumina.meter.revalidation.meters");
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    mongoTemplate
+        .indexOps(Meter.class)
+        .ensureIndex(
+            new Index()
+                .on("model", Sort.Direction.ASC)
+                .on("_id", Sort.Direction.ASC)
+                .named("model_id"));
+  }
+
+  /** Runs the queued re-validations, oldest request first, until none is left. */
+  @Scheduled(fixedDelayString = "${lumina.meter.validation.revalidation.poll-interval:5000}")
+  public void runQueued() {
+    MeterRevalidation run;
+    while ((run = claim()) != null) {
+      run(run);
+    }
+  }
+
+  /** Claims the oldest queued run, or a running one whose instance has stopped. */
+  private MeterRevalidation claim() {
+    Instant now = Instant.now();
+    Criteria abandoned =
+        where("state")
+            .is(RevalidationState.RUNNING)
+            .orOperator(
+                where("heartbeatAt").lt(now.minus(lease)), where("heartbeatAt").is(null));
+    return mongoTemplate.findAndModify(
+            query(new Criteria().orOperator(where("state").is(RevalidationState.QUEUED), abandoned))
+                .with(Sort.by("requestedAt")),
+            new Update()
+                .set("state", RevalidationState.RUNNING)
+                .inc("generation", 1)
+                .set("startedAt", now)
+                .set("heartbeatAt", now),
+            FindAndModifyOptions.options().returnNew(true),
+        MeterRevalidation.class);
+  }
+
+  void run(MeterRevalidation run) {
+    String model = run.model();
+    // the progress of a run is only recorded while the run has the current generation
+    Criteria current = where("_id").is(model).and("generation").is(run.generation());
+    Progress progress = new Progress(run.cursor(), run.metersDone(), run.invalid());
+    meterValidator.evict(model);
+    try {
+      Criteria remaining = where("model").is(model);
+      if (run.cursor() != null) {
+        log.info("Resuming the re-validation of model {} after meter {}", model, run.cursor());
+        remaining = remaining.and("_id").gt(run.cursor());
+      } else {
+        log.info("Re-validating the meters of model {}", model);
+        long meters = mongoTemplate.count(query(where("model").is(model)), Meter.class);
+        mongoTemplate.updateFirst(
+            query(current), new Update().set("meters", meters), MeterRevalidation.class);
+      }
+      revalidate(model, current, remaining, progress);
+    } catch (RuntimeException e) {
+      log.warn("Re-validation of the meters of model {} failed", model, e);
+      finish(current, RevalidationState.FAILED, e.getMessage());
+    }
+  }
+
+  private void revalidate(String model, Criteria current, Criteria remaining, Progress progress) {
+    try (Stream<Meter> meters =
+        mongoTemplate.stream(query(remaining).with(Sort.by("_id")), Meter.class)) {
+      Iterator<Meter> iterator = meters.iterator();
+      List<Meter> chunk = new ArrayList<>(batchSize);
+      while (iterator.hasNext()) {
+        chunk.add(iterator.next());
+        if (chunk.size() == batchSize || !iterator.hasNext()) {
+          if (!checkpoint(model, current, chunk, progress)) {
+            log.info("Re-validation of model {} was superseded by a later change", model);
+            return;
+          }
+          chunk = new ArrayList<>(batchSize);
+        }
+      }
+    }
+    if (finish(current, RevalidationState.COMPLETED, null)) {
+      log.info(
+          "Re-validated {} meters of model {}, {} invalid",
+          progress.metersDone,
+          model,
+          progress.invalid);
+    }
+  }
+
+  /**
+   * Validates a chunk of meters, records their statuses and advances the run's cursor past them.
+   *
+   * @return false if the run has been superseded
+   */
+  private boolean checkpoint(String model, Criteria current, List<Meter> chunk, Progress progress) {
+    Instant validatedAt = Instant.now();
+    List<MeterValidationStatus> statuses = new ArrayList<>(chunk.size());
+    try (Stream<MeterValidationResult> results = batchValidationService.validate(chunk)) {
+      results.forEach(
+          result ->
+              statuses.add(
+                  MeterValidationStatus.from(chunk.get(result.index()), result, validatedAt)));
+    }
+
+    // a superseded run must not overwrite statuses already written by the run that replaced it
+    if (!mongoTemplate.exists(query(current), MeterRevalidation.class)) {
+      return false;
+    }
+    BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, MeterValidationStatus.class);
+    int invalid = 0;
+    for (MeterValidationStatus status : statuses) {
+      bulk.replaceOne(
+          query(where("_id").is(status.meterId())),
+          status,
+          FindAndReplaceOptions.options().upsert());
+      invalid += status.valid() ? 0 : 1;
+    }
+    bulk.execute();
+    revalidated.increment(chunk.size());
+
+    progress.cursor = chunk.getLast().id();
+    progress.metersDone += chunk.size();
+    progress.invalid += invalid;
+    UpdateResult result =
+        mongoTemplate.updateFirst(
+            query(current),
+            new Update()
+                .set("cursor", progress.cursor)
+                .set("metersDone", progress.metersDone)
+                .set("invalid", progress.invalid)
+                .set("heartbeatAt", Instant.now()),
+            MeterRevalidation.class);
+    log.debug("Re-validated model {} up to meter {}", model, progress.cursor);
+    return result.getMatchedCount() > 0;
+  }
+
+  private boolean finish(Criteria current, RevalidationState state, String error) {
+    return mongoTemplate
+            .updateFirst(
+                query(current),
+                new Update()
+                    .set("state", state)
+                    .set("finishedAt", Instant.now())
+                    .set("error", error),
+                MeterRevalidation.class)
+            .getMatchedCount()
+        > 0;
+  }
+
+  /** Where a run is, updated after each chunk. */
+  private static final class Progress {
+
+    private String cursor;
+    private long metersDone;
+    private long invalid;
+
+    private Progress(String cursor, long metersDone, long invalid) {
+      this.cursor = cursor;
+      this.metersDone = metersDone;
+      this.invalid = invalid;
+    }
+  }
+}
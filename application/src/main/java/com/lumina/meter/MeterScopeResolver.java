@@ -0,0 +1,88 @@
+package com.lumina.meter;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves client, project and location filters to the locations and meters they select. Only ids
+ * are read, so the references between the documents are never mapped.
+ */
+@Component
+public class MeterScopeResolver {
+
+  private final MongoTemplate mongoTemplate;
+
+  public MeterScopeResolver(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  /**
+   * Resolves the client, project and location filters to the set of matching location ids. The
+   * filters are combined; a client or project selects all of its locations.
+   *
+   * @return the location ids, or null if none of the filters is given
+   */
+  public Set<String> locationIds(String clientId, String projectId, String locationId) {
+    Set<String> result = null;
+    if (clientId != null) {
+      Set<String> projectIds = ids("project", Criteria.where("clientId").is(clientId));
+      result = ids("location", Criteria.where("projectId").in(projectIds));
+    }
+    if (projectId != null) {
+      result = intersect(result, ids("location", Criteria.where("projectId").is(projectId)));
+    }
+    if (locationId != null) {
+      result = intersect(result, Set.of(locationId));
+    }
+    return result;
+  }
+
+  /**
+   * Resolves the filters to the ids of the meters they select.
+   *
+   * @return the meter ids, or null if none of the filters is given
+   */
+  public Set<String> meterIds(String clientId, String projectId, String locationId) {
+    Set<String> locationIds = locationIds(clientId, projectId, locationId);
+    return locationIds == null
+        ? null
+        : ids("meter", Criteria.where("locationId").in(locationIds));
+  }
+
+  /**
+   * Resolves a meter id together with the client, project and location filters to the ids of the
+   * meters they select. The filters are combined.
+   *
+   * @return the meter ids, or null if none of the filters is given
+   */
+  public Set<String> meterIds(
+      String meterId, String clientId, String projectId, String locationId) {
+    Set<String> result = meterIds(clientId, projectId, locationId);
+    return meterId == null ? result : intersect(result, Set.of(meterId));
+  }
+
+  /** Reads only the ids of matching documents, without mapping their references. */
+  private Set<String> ids(String collection, Criteria criteria) {
+    Query query = Query.query(criteria);
+    query.fields().include("_id");
+    Set<String> ids = new HashSet<>();
+    for (Document document : mongoTemplate.find(query, Document.class, collection)) {
+      ids.add(document.get("_id").toString());
+    }
+    return ids;
+  }
+
+  static Set<String> intersect(Set<String> current, Set<String> ids) {
+    if (current == null) {
+      return ids;
+    }
+    Set<String> result = new HashSet<>(current);
+    result.retainAll(ids);
+    return result;
+  }
+}
@@ -10,11 +10,13 @@ import com.lumina.location.LocationService;
 import com.lumina.meter.dto.MeterDto;
 import com.lumina.meter.dto.MeterViewDto;
 import com.lumina.meter.model.Meter;
+import com.lumina.meter.model.MeterValidationStatus;
 import com.lumina.meter.validation.MeterValidator;
 import com.lumina.project.ProjectService;
 import com.lumina.project.model.Project;
 import com.lumina.validation.Errors;
 import com.lumina.validation.LuminaValidationException;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -31,6 +33,12 @@ public class MeterService {
   private final LocationService locationService;
   private final ProjectService projectService;
   private final ClientService clientService;
+  private final MeterIdIndex meterIdIndex;
+  private final DevEuiIndex devEuiIndex;
+  private final MeterValidationStatusRepository validationStatusRepository;
+  private final LatestStatusCache latestStatusCache;
+  private final AlertEngine alertEngine;
+  private final OfflineMeterTracker offlineMeterTracker;
 
   public MeterService(
       MeterRepository repository,
@@ -38,13 +46,25 @@ public class MeterService {
       MeterValidator meterValidator,
       LocationService locationService,
       ProjectService projectService,
-      ClientService clientService) {
+      ClientService clientService,
+      MeterIdIndex meterIdIndex,
+      DevEuiIndex devEuiIndex,
+      MeterValidationStatusRepository validationStatusRepository,
+      LatestStatusCache latestStatusCache,
+      AlertEngine alertEngine,
+      OfflineMeterTracker offlineMeterTracker) {
     this.repository = repository;
     this.catalogueItemRepository = catalogueItemRepository;
     this.meterValidator = meterValidator;
     this.locationService = locationService;
     this.projectService = projectService;
     this.clientService = clientService;
+    this.meterIdIndex = meterIdIndex;
+    this.devEuiIndex = devEuiIndex;
+    this.validationStatusRepository = validationStatusRepository;
+    this.latestStatusCache = latestStatusCache;
+    this.alertEngine = alertEngine;
+    this.offlineMeterTracker = offlineMeterTracker;
   }
 
   public Meter create(Meter meter) {
@@ -55,7 +75,11 @@ public class MeterService {
       throw new LuminaValidationException(errors);
     }
 
-    return repository.save(meter);
+    var saved = repository.save(meter);
+    meterIdIndex.register(saved.id(), saved.model());
+    devEuiIndex.register(saved);
+    validationStatusRepository.save(MeterValidationStatus.valid(saved, Instant.now()));
+    return saved;
   }
 
   public Meter update(Meter meter) {
@@ -73,7 +97,12 @@ public class MeterService {
                     new NotFoundException(
                         "The meter with id %s could not be found!".formatted(meter.id())));
 
-    return repository.save(meter);
+    var saved = repository.save(meter);
+    meterIdIndex.register(saved.id(), saved.model());
+    devEuiIndex.register(saved);
+    offlineMeterTracker.rearm(saved.id());
+    validationStatusRepository.save(MeterValidationStatus.valid(saved, Instant.now()));
+    return saved;
   }
 
   public CatalogueItem findCatalogueItemByModel(String model) {
@@ -102,6 +131,12 @@ public class MeterService {
       throw new NotFoundException("The meter with id %s could not be found!".formatted(id));
     }
     repository.deleteById(id);
+    meterIdIndex.remove(id);
+    devEuiIndex.remove(id);
+    validationStatusRepository.deleteById(id);
+    latestStatusCache.evict(id);
+    alertEngine.forget(id);
+    offlineMeterTracker.forget(id);
   }
 
   MeterDto toMeterDto(Meter meter, boolean withConstraints) {
@@ -140,13 +175,14 @@ public class MeterService {
                         "Client %s not found for project %s"
                             .formatted(project.clientId(), project.id())));
 
-    return MeterViewDto.from(meter, location, project, client);
+    var validation = validationStatusRepository.findById(meter.id()).orElse(null);
+    return MeterViewDto.from(meter, location, project, client, validation);
   }
 
   /**
    * Returns all meters enriched with location hierarchy for web display.
    * Uses batch fetching to avoid N+1 query problem - fetches all related
-   * entities in 4 queries total instead of 1 + 3*N queries.
+   * entities in 5 queries total instead of 1 + 4*N queries.
    */
   public List<MeterViewDto> findAllForView() {
     List<Meter> meters = repository.findAll();
@@ -177,6 +213,11 @@ public class MeterService {
             .stream()
             .collect(Collectors.toMap(Client::id, Function.identity()));
 
+    // Batch fetch the latest validation statuses (1 query by id)
+    Map<String, MeterValidationStatus> validationMap =
+        validationStatusRepository.findAllById(meters.stream().map(Meter::id).toList()).stream()
+            .collect(Collectors.toMap(MeterValidationStatus::meterId, Function.identity()));
+
     // Build DTOs using the maps
     return meters.stream()
         .map(
@@ -184,7 +225,8 @@ public class MeterService {
               Location location = locationMap.get(meter.locationId());
               Project project = projectMap.get(location.projectId());
               Client client = clientMap.get(project.clientId());
-              return MeterViewDto.from(meter, location, project, client);
+              return MeterViewDto.from(
+                  meter, location, project, client, validationMap.get(meter.id()));
             })
         .toList();
   }
@@ -0,0 +1,7 @@
+package com.lumina.meter;
+
+import com.lumina.meter.model.MeterValidationStatus;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface MeterValidationStatusRepository
+    extends MongoRepository<MeterValidationStatus, String> {}
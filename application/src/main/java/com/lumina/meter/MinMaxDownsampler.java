@@ -0,0 +1,76 @@
+package com.lumina.meter;
+
+import com.lumina.meter.model.DataPoint;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the lowest and highest point of each time bucket, in the order they occurred. With two
+ * points per bucket, a bucket corresponds to one pixel column of a chart that is half as wide as
+ * the point budget.
+ */
+final class MinMaxDownsampler implements Downsampler {
+
+  private final long origin;
+  private final double bucketWidth;
+  private final int buckets;
+  private final List<DataPoint> output;
+
+  private int bucket = -1;
+  private DataPoint min;
+  private DataPoint max;
+
+  MinMaxDownsampler(Instant start, Instant end, int maxPoints) {
+    if (maxPoints < 2) {
+      throw new IllegalArgumentException("Min/max downsampling needs at least 2 points");
+    }
+    this.origin = start.toEpochMilli();
+    this.buckets = maxPoints / 2;
+    this.bucketWidth = Math.max(1.0, (end.toEpochMilli() - origin + 1) / (double) buckets);
+    this.output = new ArrayList<>(buckets * 2);
+  }
+
+  @Override
+  public void accept(DataPoint point) {
+    int index = bucketOf(point);
+    if (index != bucket) {
+      flush();
+      bucket = index;
+      min = point;
+      max = point;
+    } else if (point.value() < min.value()) {
+      min = point;
+    } else if (point.value() > max.value()) {
+      max = point;
+    }
+  }
+
+  @Override
+  public List<DataPoint> finish() {
+    flush();
+    return output;
+  }
+
+  private void flush() {
+    if (min == null) {
+      return;
+    }
+    if (min == max) {
+      output.add(min);
+    } else if (min.timestamp().isAfter(max.timestamp())) {
+      output.add(max);
+      output.add(min);
+    } else {
+      output.add(min);
+      output.add(max);
+    }
+    min = null;
+    max = null;
+  }
+
+  private int bucketOf(DataPoint point) {
+    long offset = point.timestamp().toEpochMilli() - origin;
+    return (int) Math.clamp((long) (offset / bucketWidth), 0, buckets - 1);
+  }
+}
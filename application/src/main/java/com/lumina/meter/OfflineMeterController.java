@@ -0,0 +1,43 @@
+package com.lumina.meter;
+
+import com.lumina.meter.dto.OfflineMeterDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/meter/offline")
+@Tag(name = "Offline Meters", description = "Meters that have stopped reporting")
+public class OfflineMeterController {
+
+  private final OfflineMeterTracker offlineMeterTracker;
+  private final MeterScopeResolver scopeResolver;
+
+  public OfflineMeterController(
+      OfflineMeterTracker offlineMeterTracker, MeterScopeResolver scopeResolver) {
+    this.offlineMeterTracker = offlineMeterTracker;
+    this.scopeResolver = scopeResolver;
+  }
+
+  @Operation(
+      summary = "Get offline meters",
+      description =
+          "Returns the meters that have not reported within the expected interval of their"
+              + " catalogue model, most recently offline first. Meters are optionally selected by"
+              + " client, project or location.")
+  @ApiResponse(responseCode = "200", description = "Offline meters retrieved successfully")
+  @GetMapping
+  public List<OfflineMeterDto> getOfflineMeters(
+      @Parameter(description = "Client ID") @RequestParam(required = false) String clientId,
+      @Parameter(description = "Project ID") @RequestParam(required = false) String projectId,
+      @Parameter(description = "Location ID") @RequestParam(required = false) String locationId) {
+    return offlineMeterTracker
+        .offline(scopeResolver.meterIds(clientId, projectId, locationId))
+        .stream()
+        .map(OfflineMeterDto::from)
+        .toList();
+  }
+}
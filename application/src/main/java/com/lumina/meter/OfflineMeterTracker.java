@@ -0,0 +1,332 @@
+package com.lumina.meter;
+
+import com.lumina.catalogue.CatalogueItemChangedEvent;
+import com.lumina.catalogue.ItemRepository;
+import com.lumina.catalogue.model.CatalogueItem;
+import com.lumina.meter.model.OfflineMeter;
+import com.lumina.meter.model.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Detects meters that have stopped reporting, without scanning the meters on a schedule.
+ *
+ * <p>Every written status re-arms its meter's deadline in a {@link HeartbeatWheel}: the sample's
+ * timestamp plus missed-intervals times the reporting interval of the meter's catalogue model, or
+ * the default interval if the model has none. The wheel is advanced every tick, and a meter whose
+ * deadline passes is marked offline and announced with a {@link MeterOfflineEvent}; its next
+ * status announces it with a {@link MeterOnlineEvent}. Meters that have never reported are not
+ * tracked.
+ *
+ * <p>When the reporting interval of a meter changes, because its model changed or the catalogue
+ * item of its model did, its deadline is re-armed from its last sample with the new interval.
+ *
+ * <p>At startup the deadlines are rebuilt from the latest status of each meter in the {@link
+ * MeterIdIndex}, including sealed blocks when they are enabled. The meters are read in batches,
+ * each a bounded scan of the {@code (meterId, time)} index. Meters already overdue then are marked
+ * offline without an event, since they went offline while the application was down.
+ */
+@Slf4j
+@Component
+public class OfflineMeterTracker implements StatusListener {
+
+  /** The meters whose latest status is read by one query while rebuilding. */
+  static final int REBUILD_BATCH = 1000;
+
+  private final MeterIdIndex meterIdIndex;
+  private final ItemRepository itemRepository;
+  private final MongoTemplate mongoTemplate;
+  private final Optional<StatusBlockStore> blockStore;
+  private final ApplicationEventPublisher eventPublisher;
+  private final long defaultIntervalMillis;
+  private final int missedIntervals;
+  private final HeartbeatWheel wheel;
+  private final ReentrantLock lock = new ReentrantLock();
+
+  /** The time from a sample to the deadline, by model. */
+  private final Map<String, Long> gracePeriods = new ConcurrentHashMap<>();
+
+  private final Counter wentOffline;
+  private final Counter cameOnline;
+
+  public OfflineMeterTracker(
+      MeterIdIndex meterIdIndex,
+      ItemRepository itemRepository,
+      MongoTemplate mongoTemplate,
+      Optional<StatusBlockStore> blockStore,
+      ApplicationEventPublisher eventPublisher,
+      MeterRegistry registry,
+      @Value("${lumina.meter.offline.default-interval:5m}") Duration defaultInterval,
+      @Value("${lumina.meter.offline.missed-intervals:3}") int missedIntervals,
+      @Value("${lumina.meter.offline.tick:1000}") long tickMillis,
+      @Value("${lumina.meter.offline.wheel-size:4096}") int wheelSize) {
+    if (defaultInterval.isNegative() || defaultInterval.isZero()) {
+      throw new IllegalArgumentException("The default reporting interval must be positive");
+    }
+    if (missedIntervals < 1) {
+      throw new IllegalArgumentException("At least one interval must be missed");
+    }
+    this.meterIdIndex = meterIdIndex;
+    this.itemRepository = itemRepository;
+    this.mongoTemplate = mongoTemplate;
+    this.blockStore = blockStore;
+    this.eventPublisher = eventPublisher;
+    this.defaultIntervalMillis = defaultInterval.toMillis();
+    this.missedIntervals = missedIntervals;
+    this.wheel = new HeartbeatWheel(tickMillis, wheelSize, System.currentTimeMillis());
+
+    Gauge.builder("lumina.meter.offline.count", this, t -> t.withLock(t.wheel::offlineCount))
+        .register(registry);
+    Gauge.builder("lumina.meter.offline.tracked", this, t -> t.withLock(t.wheel::size))
+        .register(registry);
+    this.wentOffline = registry.counter("lumina.meter.offline.events", "state", "offline");
+    this.cameOnline = registry.counter("lumina.meter.offline.events", "state", "online");
+  }
+
+  @Override
+  public void onStatusesWritten(List<Status> statuses) {
+    record(statuses, System.currentTimeMillis());
+  }
+
+  void record(List<Status> statuses, long nowMillis) {
+    for (Status status : statuses) {
+      long grace = gracePeriod(status.meterId());
+      if (grace < 0) {
+        continue;
+      }
+      long lastSeen = status.timestamp().toEpochMilli();
+      HeartbeatWheel.Beat beat;
+      lock.lock();
+      try {
+        beat = wheel.beat(status.meterId(), lastSeen, lastSeen + grace, nowMillis);
+      } finally {
+        lock.unlock();
+      }
+      if (beat == HeartbeatWheel.Beat.RECOVERED) {
+        cameOnline.increment();
+        eventPublisher.publishEvent(new MeterOnlineEvent(status.meterId(), status.timestamp()));
+      }
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${lumina.meter.offline.tick:1000}")
+  public void tick() {
+    advance(System.currentTimeMillis());
+  }
+
+  void advance(long nowMillis) {
+    List<OfflineMeter> expired;
+    lock.lock();
+    try {
+      expired = wheel.advance(nowMillis);
+    } finally {
+      lock.unlock();
+    }
+    for (OfflineMeter meter : expired) {
+      if (!meterIdIndex.contains(meter.meterId())) {
+        forget(meter.meterId());
+        continue;
+      }
+      log.debug("Meter {} is offline, last seen {}", meter.meterId(), meter.lastSeen());
+      wentOffline.increment();
+      eventPublisher.publishEvent(new MeterOfflineEvent(meter));
+    }
+  }
+
+  /**
+   * Returns the meters that are currently offline, most recently offline first.
+   *
+   * @param meterIds the meters to include, or null for all
+   */
+  public List<OfflineMeter> offline(Set<String> meterIds) {
+    List<OfflineMeter> offline = withLock(wheel::offline);
+    List<OfflineMeter> result = new ArrayList<>(offline.size());
+    for (OfflineMeter meter : offline) {
+      boolean selected =
+          meterIds == null
+              ? meterIdIndex.contains(meter.meterId())
+              : meterIds.contains(meter.meterId());
+      if (selected) {
+        result.add(meter);
+      }
+    }
+    return result;
+  }
+
+  /** Stops tracking a meter, e.g. because it was deleted. */
+  public void forget(String meterId) {
+    lock.lock();
+    try {
+      wheel.remove(meterId);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Re-arms the deadline of a meter whose model may have changed. */
+  public void rearm(String meterId) {
+    long grace = gracePeriod(meterId);
+    if (grace < 0) {
+      forget(meterId);
+      return;
+    }
+    rearm(List.of(meterId), grace, System.currentTimeMillis());
+  }
+
+  /** Re-arms the deadlines of the meters of a model, whose reporting interval may have changed. */
+  @EventListener
+  public void onCatalogueItemChanged(CatalogueItemChangedEvent event) {
+    gracePeriods.remove(event.model());
+    List<String> meterIds =
+        withLock(wheel::meterIds).stream()
+            .filter(meterId -> event.model().equals(meterIdIndex.modelOf(meterId)))
+            .toList();
+    if (!meterIds.isEmpty()) {
+      rearm(meterIds, gracePeriodOf(event.model()), System.currentTimeMillis());
+    }
+  }
+
+  void rearm(List<String> meterIds, long grace, long nowMillis) {
+    List<MeterOnlineEvent> recovered = new ArrayList<>();
+    lock.lock();
+    try {
+      for (String meterId : meterIds) {
+        if (wheel.rearm(meterId, grace, nowMillis) == HeartbeatWheel.Beat.RECOVERED) {
+          recovered.add(
+              new MeterOnlineEvent(meterId, Instant.ofEpochMilli(wheel.lastSeen(meterId))));
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+    for (MeterOnlineEvent event : recovered) {
+      cameOnline.increment();
+      eventPublisher.publishEvent(event);
+    }
+  }
+
+  /** Arms the deadlines of all indexed meters from their latest stored status. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    long now = System.currentTimeMillis();
+    List<String> meterIds = meterIdIndex.meterIds();
+    int meters = 0;
+    for (int from = 0; from < meterIds.size(); from += REBUILD_BATCH) {
+      List<String> batch = meterIds.subList(from, Math.min(from + REBUILD_BATCH, meterIds.size()));
+      meters +=
+          restore(StatusCollectionInitializer.COLLECTION, "timestamp", "timestamp", batch, now);
+      if (blockStore.isPresent()) {
+        meters +=
+            restore(
+                StatusBlockStore.COLLECTION,
+                StatusBlockCodec.START,
+                StatusBlockCodec.END,
+                batch,
+                now);
+      }
+    }
+    log.info(
+        "Rebuilt reporting deadlines from {} latest statuses, {} meters offline",
+        meters,
+        withLock(wheel::offlineCount));
+  }
+
+  /**
+   * Beats the given meters with the latest time found for each in a collection. The sort runs
+   * backwards along the {@code (meterId, time)} index, so the first document of each group is the
+   * latest.
+   */
+  private int restore(
+      String collection,
+      String sortField,
+      String timeField,
+      List<String> meterIds,
+      long nowMillis) {
+    List<Document> pipeline =
+        List.of(
+            new Document("$match", new Document("meterId", new Document("$in", meterIds))),
+            new Document("$sort", new Document("meterId", -1).append(sortField, -1)),
+            new Document(
+                "$group",
+                new Document("_id", "$meterId")
+                    .append("last", new Document("$first", "$" + timeField))));
+    int count = 0;
+    for (Document latest :
+        mongoTemplate.getCollection(collection).aggregate(pipeline).allowDiskUse(true)) {
+      String meterId = latest.getString("_id");
+      long grace = gracePeriod(meterId);
+      if (grace < 0) {
+        continue;
+      }
+      long lastSeen = latest.getDate("last").getTime();
+      lock.lock();
+      try {
+        wheel.beat(meterId, lastSeen, lastSeen + grace, nowMillis);
+      } finally {
+        lock.unlock();
+      }
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Returns the time from a sample of the meter to its deadline.
+   *
+   * @return the grace period in milliseconds, or -1 if the meter does not exist
+   */
+  private long gracePeriod(String meterId) {
+    String model = meterIdIndex.modelOf(meterId);
+    return model == null ? -1 : gracePeriodOf(model);
+  }
+
+  /**
+   * Returns the time from a sample of a meter of the model to its deadline. The catalogue is read
+   * inside {@code computeIfAbsent}, so a change of the item that removes the cached value while it
+   * is read cannot be overtaken by the stale value being stored afterwards.
+   */
+  private long gracePeriodOf(String model) {
+    Long grace = gracePeriods.get(model);
+    if (grace != null) {
+      return grace;
+    }
+    return gracePeriods.computeIfAbsent(
+        model,
+        m ->
+            missedIntervals
+                * itemRepository
+                    .findByModel(m)
+                    .map(CatalogueItem::reportingIntervalSeconds)
+                    .map(seconds -> seconds * 1000L)
+                    .orElse(defaultIntervalMillis));
+  }
+
+  private <T> T withLock(Supplier<T> action) {
+    lock.lock();
+    try {
+      return action.get();
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,448 @@
+package com.lumina.meter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.TelemetryField;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes statuses as an Apache Parquet file with the columns of {@link StatusExportRow}: meterId
+ * as a UTF-8 string, timestamp as milliseconds, a DOUBLE or INT64 column per telemetry field and a
+ * JSON {@code data} column for the remaining fields. Every column but meterId and timestamp is
+ * optional.
+ *
+ * <p>Rows are buffered column by column, and once {@code rowGroupSize} rows have accumulated they
+ * are written as a row group with one gzip-compressed, plain-encoded data page per column. Only
+ * the offsets and sizes of the written column chunks are kept until the footer is written on
+ * close, so memory is bounded by the row group size however many rows the file gets.
+ *
+ * <p>The format is written directly, in the subset of the specification that readers such as
+ * Spark, DuckDB and pyarrow all accept, rather than through parquet-mr, which would pull in the
+ * Hadoop client. The tests read exported files back with DuckDB to check them row for row.
+ */
+final class ParquetStatusWriter implements StatusExportWriter {
+
+  private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  // enum values of parquet.thrift
+  private static final int TYPE_INT64 = 2;
+  private static final int TYPE_DOUBLE = 5;
+  private static final int TYPE_BYTE_ARRAY = 6;
+  private static final int REPETITION_REQUIRED = 0;
+  private static final int REPETITION_OPTIONAL = 1;
+  private static final int CONVERTED_NONE = -1;
+  private static final int CONVERTED_UTF8 = 0;
+  private static final int CONVERTED_TIMESTAMP_MILLIS = 9;
+  private static final int CONVERTED_JSON = 19;
+  private static final int ENCODING_PLAIN = 0;
+  private static final int ENCODING_RLE = 3;
+  private static final int CODEC_GZIP = 2;
+  private static final int PAGE_TYPE_DATA = 0;
+
+  private final OutputStream out;
+  private final ObjectMapper objectMapper;
+  private final int rowGroupSize;
+  private final StatusExportRow row = new StatusExportRow();
+  private final Column meterId;
+  private final Column timestamp;
+  private final Column[] fields;
+  private final Column data;
+  private final Column[] columns;
+  private final List<RowGroup> rowGroups = new ArrayList<>();
+  private final Bytes page = new Bytes();
+  private final Bytes levels = new Bytes();
+  private final Bytes compressed = new Bytes();
+  private long position;
+  private long totalRows;
+  private int rows;
+  private String lastMeterId;
+  private byte[] lastMeterIdBytes;
+
+  ParquetStatusWriter(OutputStream out, ObjectMapper objectMapper, int rowGroupSize)
+      throws IOException {
+    if (rowGroupSize < 1) {
+      throw new IllegalArgumentException("The row group size must be positive");
+    }
+    this.out = new BufferedOutputStream(out, BUFFER_SIZE);
+    this.objectMapper = objectMapper;
+    this.rowGroupSize = rowGroupSize;
+
+    meterId =
+        new Column("meterId", TYPE_BYTE_ARRAY, CONVERTED_UTF8, REPETITION_REQUIRED, rowGroupSize);
+    timestamp =
+        new Column(
+            "timestamp", TYPE_INT64, CONVERTED_TIMESTAMP_MILLIS, REPETITION_REQUIRED, rowGroupSize);
+    fields = new Column[StatusExportRow.FIELDS.length];
+    for (int i = 0; i < fields.length; i++) {
+      TelemetryField field = StatusExportRow.FIELDS[i];
+      int type = field.kind() == TelemetryField.Kind.INTEGER ? TYPE_INT64 : TYPE_DOUBLE;
+      fields[i] =
+          new Column(field.fieldName(), type, CONVERTED_NONE, REPETITION_OPTIONAL, rowGroupSize);
+    }
+    data = new Column("data", TYPE_BYTE_ARRAY, CONVERTED_JSON, REPETITION_OPTIONAL, rowGroupSize);
+
+    columns = new Column[fields.length + 3];
+    columns[0] = meterId;
+    columns[1] = timestamp;
+    System.arraycopy(fields, 0, columns, 2, fields.length);
+    columns[columns.length - 1] = data;
+
+    emit(MAGIC, 0, MAGIC.length);
+  }
+
+  @Override
+  public void write(Status status) throws IOException {
+    row.reset(status);
+    if (!row.meterId.equals(lastMeterId)) {
+      lastMeterId = row.meterId;
+      lastMeterIdBytes = row.meterId.getBytes(StandardCharsets.UTF_8);
+    }
+    meterId.addBytes(lastMeterIdBytes);
+    timestamp.addLong(row.timestamp);
+    for (int i = 0; i < fields.length; i++) {
+      double value = row.values[i];
+      if (Double.isNaN(value)) {
+        fields[i].addNull();
+      } else if (fields[i].type == TYPE_INT64) {
+        fields[i].addLong((long) value);
+      } else {
+        fields[i].addDouble(value);
+      }
+    }
+    if (row.extras.isEmpty()) {
+      data.addNull();
+    } else {
+      data.addBytes(objectMapper.writeValueAsBytes(row.extras));
+    }
+    if (++rows == rowGroupSize) {
+      flushRowGroup();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flushRowGroup();
+      Bytes footer = fileMetaData().out;
+      footer.writeIntLE(footer.size);
+      footer.write(MAGIC, 0, MAGIC.length);
+      emit(footer.buffer, 0, footer.size);
+    } finally {
+      out.close();
+    }
+  }
+
+  /** Writes the buffered rows as one row group, one data page per column. */
+  private void flushRowGroup() throws IOException {
+    if (rows == 0) {
+      return;
+    }
+    List<Chunk> chunks = new ArrayList<>(columns.length);
+    long byteSize = 0;
+    for (Column column : columns) {
+      page.reset();
+      if (column.repetition == REPETITION_OPTIONAL) {
+        encodeDefinitionLevels(column.defined, rows, levels);
+        page.writeIntLE(levels.size);
+        page.write(levels.buffer, 0, levels.size);
+      }
+      page.write(column.values.buffer, 0, column.values.size);
+
+      compressed.reset();
+      try (var gzip = new GZIPOutputStream(compressed, BUFFER_SIZE)) {
+        gzip.write(page.buffer, 0, page.size);
+      }
+
+      Thrift header = new Thrift();
+      header.i32(1, PAGE_TYPE_DATA).i32(2, page.size).i32(3, compressed.size);
+      header
+          .struct(5)
+          .i32(1, rows)
+          .i32(2, ENCODING_PLAIN)
+          .i32(3, ENCODING_RLE)
+          .i32(4, ENCODING_RLE)
+          .end();
+      header.end();
+
+      long offset = position;
+      emit(header.out.buffer, 0, header.out.size);
+      emit(compressed.buffer, 0, compressed.size);
+      long uncompressedSize = header.out.size + (long) page.size;
+      chunks.add(new Chunk(column, offset, uncompressedSize, position - offset));
+      byteSize += uncompressedSize;
+      column.reset();
+    }
+    rowGroups.add(new RowGroup(rows, byteSize, chunks));
+    totalRows += rows;
+    rows = 0;
+  }
+
+  /**
+   * Encodes definition levels of bit width one with the RLE/bit-packing hybrid, using only RLE
+   * runs: a run of present or absent values costs two bytes however long it is.
+   */
+  static void encodeDefinitionLevels(boolean[] defined, int count, Bytes target) {
+    target.reset();
+    int i = 0;
+    while (i < count) {
+      boolean value = defined[i];
+      int run = 1;
+      while (i + run < count && defined[i + run] == value) {
+        run++;
+      }
+      target.writeVarInt(run << 1);
+      target.write(value ? 1 : 0);
+      i += run;
+    }
+  }
+
+  private Thrift fileMetaData() {
+    Thrift meta = new Thrift();
+    meta.i32(1, 1);
+    meta.list(2, Thrift.STRUCT, columns.length + 1);
+    meta.element().string(4, "status").i32(5, columns.length).end();
+    for (Column column : columns) {
+      meta.element().i32(1, column.type).i32(3, column.repetition).string(4, column.name);
+      if (column.convertedType != CONVERTED_NONE) {
+        meta.i32(6, column.convertedType);
+      }
+      meta.end();
+    }
+    meta.i64(3, totalRows);
+    meta.list(4, Thrift.STRUCT, rowGroups.size());
+    for (RowGroup rowGroup : rowGroups) {
+      meta.element().list(1, Thrift.STRUCT, rowGroup.chunks.size());
+      for (Chunk chunk : rowGroup.chunks) {
+        meta.element().i64(2, chunk.offset);
+        meta.struct(3).i32(1, chunk.column.type);
+        meta.list(2, Thrift.I32, 2).i32Element(ENCODING_PLAIN).i32Element(ENCODING_RLE);
+        meta.list(3, Thrift.BINARY, 1).stringElement(chunk.column.name);
+        meta.i32(4, CODEC_GZIP)
+            .i64(5, rowGroup.rows)
+            .i64(6, chunk.uncompressedSize)
+            .i64(7, chunk.compressedSize)
+            .i64(9, chunk.offset)
+            .end();
+        meta.end();
+      }
+      meta.i64(2, rowGroup.byteSize).i64(3, rowGroup.rows).end();
+    }
+    meta.string(6, "lumina");
+    meta.end();
+    return meta;
+  }
+
+  private void emit(byte[] bytes, int offset, int length) throws IOException {
+    out.write(bytes, offset, length);
+    position += length;
+  }
+
+  private record Chunk(Column column, long offset, long uncompressedSize, long compressedSize) {}
+
+  private record RowGroup(int rows, long byteSize, List<Chunk> chunks) {}
+
+  /** The buffered values of one column for the current row group. */
+  private static final class Column {
+
+    private final String name;
+    private final int type;
+    private final int convertedType;
+    private final int repetition;
+    private final boolean[] defined;
+    private final Bytes values = new Bytes();
+    private int count;
+
+    private Column(String name, int type, int convertedType, int repetition, int rowGroupSize) {
+      this.name = name;
+      this.type = type;
+      this.convertedType = convertedType;
+      this.repetition = repetition;
+      this.defined = repetition == REPETITION_OPTIONAL ? new boolean[rowGroupSize] : null;
+    }
+
+    private void addNull() {
+      defined[count++] = false;
+    }
+
+    private void addLong(long value) {
+      values.writeLongLE(value);
+      present();
+    }
+
+    private void addDouble(double value) {
+      values.writeLongLE(Double.doubleToRawLongBits(value));
+      present();
+    }
+
+    private void addBytes(byte[] value) {
+      values.writeIntLE(value.length);
+      values.write(value, 0, value.length);
+      present();
+    }
+
+    private void present() {
+      if (defined != null) {
+        defined[count] = true;
+      }
+      count++;
+    }
+
+    private void reset() {
+      values.reset();
+      count = 0;
+    }
+  }
+
+  /** A growable byte buffer with the little-endian and varint writes the format needs. */
+  static final class Bytes extends OutputStream {
+
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int size;
+
+    @Override
+    public void write(int b) {
+      ensure(1);
+      buffer[size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+      ensure(length);
+      System.arraycopy(bytes, offset, buffer, size, length);
+      size += length;
+    }
+
+    void writeIntLE(int value) {
+      ensure(4);
+      for (int i = 0; i < 4; i++) {
+        buffer[size++] = (byte) (value >>> (8 * i));
+      }
+    }
+
+    void writeLongLE(long value) {
+      ensure(8);
+      for (int i = 0; i < 8; i++) {
+        buffer[size++] = (byte) (value >>> (8 * i));
+      }
+    }
+
+    void writeVarInt(long value) {
+      while ((value & ~0x7FL) != 0) {
+        write((int) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      write((int) value);
+    }
+
+    void reset() {
+      size = 0;
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(buffer, size);
+    }
+
+    private void ensure(int extra) {
+      if (size + extra > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+      }
+    }
+  }
+
+  /**
+   * A writer of the Thrift compact protocol, in which the Parquet page headers and footer are
+   * encoded. Structs are written field by field in ascending field id order; each field header
+   * holds the delta to the previous field id of the same struct.
+   */
+  static final class Thrift {
+
+    static final int I32 = 5;
+    static final int I64 = 6;
+    static final int BINARY = 8;
+    static final int LIST = 9;
+    static final int STRUCT = 12;
+
+    final Bytes out = new Bytes();
+    private final int[] lastFieldIds = new int[16];
+    private int depth;
+
+    Thrift i32(int id, int value) {
+      fieldHeader(id, I32);
+      return i32Element(value);
+    }
+
+    Thrift i64(int id, long value) {
+      fieldHeader(id, I64);
+      out.writeVarInt((value << 1) ^ (value >> 63));
+      return this;
+    }
+
+    Thrift string(int id, String value) {
+      fieldHeader(id, BINARY);
+      return stringElement(value);
+    }
+
+    /** Starts a struct field; its fields follow and {@link #end()} closes it. */
+    Thrift struct(int id) {
+      fieldHeader(id, STRUCT);
+      lastFieldIds[++depth] = 0;
+      return this;
+    }
+
+    /** Starts a list field; its elements follow. */
+    Thrift list(int id, int elementType, int size) {
+      fieldHeader(id, LIST);
+      if (size < 15) {
+        out.write((size << 4) | elementType);
+      } else {
+        out.write(0xF0 | elementType);
+        out.writeVarInt(size);
+      }
+      return this;
+    }
+
+    /** Starts a struct element of a list; {@link #end()} closes it. */
+    Thrift element() {
+      lastFieldIds[++depth] = 0;
+      return this;
+    }
+
+    Thrift i32Element(int value) {
+      out.writeVarInt(Integer.toUnsignedLong((value << 1) ^ (value >> 31)));
+      return this;
+    }
+
+    Thrift stringElement(String value) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      out.writeVarInt(bytes.length);
+      out.write(bytes, 0, bytes.length);
+      return this;
+    }
+
+    /** Ends the current struct with a stop field. */
+    Thrift end() {
+      out.write(0);
+      depth--;
+      return this;
+    }
+
+    private void fieldHeader(int id, int type) {
+      int delta = id - lastFieldIds[depth];
+      if (delta > 0 && delta <= 15) {
+        out.write((delta << 4) | type);
+      } else {
+        out.write(type);
+        i32Element(id);
+      }
+      lastFieldIds[depth] = id;
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package com.lumina.meter;
+
+import com.lumina.catalogue.CatalogueItemChangedEvent;
+import com.lumina.catalogue.ItemRepository;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Provides the compiled {@link PayloadDecoder} of a meter's catalogue model. Decoders are compiled
+ * on first use and cached per model until the catalogue item changes, so decoding a frame costs a
+ * map lookup on top of the reads. Changes made through other instances arrive as remote events
+ * from {@link com.lumina.catalogue.CatalogueRevisions}.
+ */
+@Component
+public class PayloadCodec {
+
+  private final MeterIdIndex meterIdIndex;
+  private final ItemRepository itemRepository;
+  private final Map<String, PayloadDecoder> decodersByModel = new ConcurrentHashMap<>();
+
+  public PayloadCodec(MeterIdIndex meterIdIndex, ItemRepository itemRepository) {
+    this.meterIdIndex = meterIdIndex;
+    this.itemRepository = itemRepository;
+  }
+
+  /**
+   * Returns the decoder for the frames of a meter.
+   *
+   * @return the decoder of the meter's model, or {@link PayloadDecoder#NONE} if the meter or its
+   *     model is unknown
+   */
+  PayloadDecoder decoderFor(String meterId) {
+    String model = meterIdIndex.modelOf(meterId);
+    if (model == null) {
+      return PayloadDecoder.NONE;
+    }
+    return decodersByModel.computeIfAbsent(
+        model,
+        m ->
+            itemRepository
+                .findByModel(m)
+                .map(item -> PayloadDecoder.compile(item.type(), item.payloadLayout()))
+                .orElse(PayloadDecoder.NONE));
+  }
+
+  @EventListener
+  public void onCatalogueItemChanged(CatalogueItemChangedEvent event) {
+    decodersByModel.remove(event.model());
+  }
+}
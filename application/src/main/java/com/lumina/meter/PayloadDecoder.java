@@ -0,0 +1,160 @@
+package com.lumina.meter;
+
+import com.lumina.catalogue.model.MeterType;
+import com.lumina.catalogue.model.PayloadField;
+import com.lumina.catalogue.model.PayloadType;
+import com.lumina.meter.model.TelemetryField;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The payload layout of a catalogue model compiled into parallel arrays, so decoding a frame is a
+ * loop of absolute reads from the frame's buffer with no lookups by name and no intermediate
+ * objects. A field named after a typed telemetry field of the model's type is written into its
+ * slot of a {@code double[]} indexed by {@link TelemetryField#ordinal()}; any other field is put
+ * into the status data map.
+ *
+ * <p>Instances are immutable and shared by all threads decoding frames of the model.
+ */
+final class PayloadDecoder {
+
+  /** The decoder of a model the catalogue does not know. */
+  static final PayloadDecoder NONE = new PayloadDecoder(null, List.of());
+
+  private final MeterType type;
+  private final String[] names;
+  private final int[] offsets;
+  private final PayloadType[] types;
+  private final boolean[] littleEndian;
+  private final double[] scales;
+  private final double[] biases;
+  private final int[] ports;
+
+  /** The telemetry slot of each field, or -1 for a field that goes into the data map. */
+  private final int[] slots;
+
+  /** Whether a data field keeps its integer value because it is neither scaled nor biased. */
+  private final boolean[] integral;
+
+  private PayloadDecoder(MeterType type, List<PayloadField> layout) {
+    int n = layout.size();
+    this.type = type;
+    this.names = new String[n];
+    this.offsets = new int[n];
+    this.types = new PayloadType[n];
+    this.littleEndian = new boolean[n];
+    this.scales = new double[n];
+    this.biases = new double[n];
+    this.ports = new int[n];
+    this.slots = new int[n];
+    this.integral = new boolean[n];
+    for (int i = 0; i < n; i++) {
+      PayloadField field = layout.get(i);
+      names[i] = field.name();
+      offsets[i] = field.offset();
+      types[i] = field.type();
+      littleEndian[i] = field.isLittleEndian();
+      scales[i] = field.scaleOrDefault();
+      biases[i] = field.biasOrDefault();
+      ports[i] = field.fPort() == null ? -1 : field.fPort();
+      TelemetryField telemetry = TelemetryField.byName(field.name());
+      slots[i] = telemetry != null && telemetry.appliesTo(type) ? telemetry.ordinal() : -1;
+      integral[i] = field.type().isIntegral() && scales[i] == 1 && biases[i] == 0;
+    }
+  }
+
+  /**
+   * Compiles the payload layout of a model.
+   *
+   * @param type the meter type of the model, which decides the typed telemetry fields
+   * @param layout the fields, or null if the model declares none
+   */
+  static PayloadDecoder compile(MeterType type, List<PayloadField> layout) {
+    return new PayloadDecoder(type, layout == null ? List.of() : layout);
+  }
+
+  /** The meter type of the model, or null for {@link #NONE}. */
+  MeterType type() {
+    return type;
+  }
+
+  /** Whether the model declares no payload fields, so frames stay undecoded. */
+  boolean isEmpty() {
+    return names.length == 0;
+  }
+
+  /**
+   * Decodes the fields of a frame. The frame is read between its position and its limit, in the
+   * byte order each field declares regardless of the buffer's order, and is left unchanged.
+   *
+   * @param frame the payload
+   * @param fPort the port of the frame, or -1 if unknown; fields of other ports are skipped
+   * @param telemetry receives the typed telemetry values by field ordinal
+   * @param data receives the other fields
+   * @return the number of fields decoded
+   * @throws IllegalArgumentException if the frame is too short for a field of its port
+   */
+  int decode(ByteBuffer frame, int fPort, double[] telemetry, Map<String, Object> data) {
+    int base = frame.position();
+    int length = frame.remaining();
+    boolean bufferLittle = frame.order() == ByteOrder.LITTLE_ENDIAN;
+    int decoded = 0;
+    for (int i = 0; i < names.length; i++) {
+      if (ports[i] >= 0 && ports[i] != fPort) {
+        continue;
+      }
+      if (offsets[i] + types[i].size() > length) {
+        throw new IllegalArgumentException(
+            "Payload of %d bytes is too short for field %s".formatted(length, names[i]));
+      }
+      int at = base + offsets[i];
+      boolean swap = littleEndian[i] != bufferLittle;
+      if (slots[i] >= 0) {
+        telemetry[slots[i]] = read(frame, at, types[i], swap) * scales[i] + biases[i];
+      } else if (integral[i]) {
+        data.put(names[i], readLong(frame, at, types[i], swap));
+      } else {
+        data.put(names[i], read(frame, at, types[i], swap) * scales[i] + biases[i]);
+      }
+      decoded++;
+    }
+    return decoded;
+  }
+
+  private static double read(ByteBuffer frame, int at, PayloadType type, boolean swap) {
+    return switch (type) {
+      case FLOAT32 -> {
+        int bits = frame.getInt(at);
+        yield Float.intBitsToFloat(swap ? Integer.reverseBytes(bits) : bits);
+      }
+      case FLOAT64 -> {
+        long bits = frame.getLong(at);
+        yield Double.longBitsToDouble(swap ? Long.reverseBytes(bits) : bits);
+      }
+      default -> readLong(frame, at, type, swap);
+    };
+  }
+
+  private static long readLong(ByteBuffer frame, int at, PayloadType type, boolean swap) {
+    return switch (type) {
+      case UINT8 -> frame.get(at) & 0xFF;
+      case INT8 -> frame.get(at);
+      case UINT16 -> Short.toUnsignedInt(swap(frame.getShort(at), swap));
+      case INT16 -> swap(frame.getShort(at), swap);
+      case UINT32 -> Integer.toUnsignedLong(swap(frame.getInt(at), swap));
+      case INT32 -> swap(frame.getInt(at), swap);
+      case INT64 -> swap ? Long.reverseBytes(frame.getLong(at)) : frame.getLong(at);
+      case FLOAT32, FLOAT64 -> (long) read(frame, at, type, swap);
+    };
+  }
+
+  private static short swap(short value, boolean swap) {
+    return swap ? Short.reverseBytes(value) : value;
+  }
+
+  private static int swap(int value, boolean swap) {
+    return swap ? Integer.reverseBytes(value) : value;
+  }
+}
@@ -0,0 +1,298 @@
+package com.lumina.meter;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A mergeable sketch of the distribution of a numeric field, from which quantiles are answered
+ * with a bounded relative error.
+ *
+ * <p>Values are counted in logarithmic buckets: bucket {@code i} holds the values in {@code
+ * (gamma^(i-1), gamma^i]} with {@code gamma = (1 + a) / (1 - a)}, and reports its values as the
+ * point in that range that is within {@code a} of all of them. A quantile is therefore within
+ * {@link #RELATIVE_ACCURACY} of the exact value of the same rank, however skewed the data.
+ * Negative values are counted by their magnitude in a second set of buckets, and values too close
+ * to zero to index in a zero bucket. Merging adds the counts bucket by bucket, so a sketch merged
+ * from hourly sketches is identical to one built from all samples, which is what makes per-hour
+ * persistence and merging across meters exact at the sketch level. The accuracy is fixed so every
+ * persisted sketch can be merged with every other.
+ *
+ * <p>The size grows with the logarithm of the value range, not with the number of values: a field
+ * spanning 0.1 to 10,000 needs about 600 buckets however many samples it has. Instances are not
+ * thread-safe.
+ */
+final class QuantileSketch {
+
+  /** The relative error of every quantile. */
+  static final double RELATIVE_ACCURACY = 0.01;
+
+  /** Values of smaller magnitude are counted as zero. */
+  static final double MIN_INDEXABLE = 1e-9;
+
+  private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+  private static final double LOG_GAMMA = Math.log(GAMMA);
+  private static final byte VERSION = 1;
+
+  private final Buckets positive = new Buckets();
+  private final Buckets negative = new Buckets();
+  private long zeroCount;
+  private long count;
+  private double min = Double.POSITIVE_INFINITY;
+  private double max = Double.NEGATIVE_INFINITY;
+  private double sum;
+
+  /** One bucket of the histogram of a sketch, holding the values in {@code (lower, upper]}. */
+  record Bin(double lower, double upper, long count) {}
+
+  /** Adds a value. Values that are not finite are ignored. */
+  void add(double value) {
+    if (!Double.isFinite(value)) {
+      return;
+    }
+    if (value > MIN_INDEXABLE) {
+      positive.add(index(value), 1);
+    } else if (value < -MIN_INDEXABLE) {
+      negative.add(index(-value), 1);
+    } else {
+      zeroCount++;
+    }
+    count++;
+    sum += value;
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+  }
+
+  /** Adds the values counted by another sketch. */
+  void merge(QuantileSketch other) {
+    if (other.count == 0) {
+      return;
+    }
+    positive.merge(other.positive);
+    negative.merge(other.negative);
+    zeroCount += other.zeroCount;
+    count += other.count;
+    sum += other.sum;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+  }
+
+  long count() {
+    return count;
+  }
+
+  /** The smallest value added, or NaN if the sketch is empty. */
+  double min() {
+    return count == 0 ? Double.NaN : min;
+  }
+
+  /** The largest value added, or NaN if the sketch is empty. */
+  double max() {
+    return count == 0 ? Double.NaN : max;
+  }
+
+  /** The mean of the values added, or NaN if the sketch is empty. */
+  double mean() {
+    return count == 0 ? Double.NaN : sum / count;
+  }
+
+  /**
+   * Returns the value at a quantile, such as 0.95 for the 95th percentile.
+   *
+   * @param q the quantile, between 0 and 1
+   * @return the value, or NaN if the sketch is empty
+   */
+  double quantile(double q) {
+    if (q < 0 || q > 1) {
+      throw new IllegalArgumentException("Quantile must be between 0 and 1: " + q);
+    }
+    if (count == 0) {
+      return Double.NaN;
+    }
+    long rank = (long) Math.floor(q * (count - 1));
+    double value;
+    long seen = 0;
+    found:
+    {
+      // the most negative values are in the highest negative buckets
+      for (int i = negative.counts.length - 1; i >= 0; i--) {
+        seen += negative.counts[i];
+        if (seen > rank) {
+          value = -representative(negative.offset + i);
+          break found;
+        }
+      }
+      seen += zeroCount;
+      if (seen > rank) {
+        value = 0;
+        break found;
+      }
+      for (int i = 0; i < positive.counts.length; i++) {
+        seen += positive.counts[i];
+        if (seen > rank) {
+          value = representative(positive.offset + i);
+          break found;
+        }
+      }
+      value = max;
+    }
+    return Math.max(min, Math.min(max, value));
+  }
+
+  /** Returns the non-empty buckets in ascending order of their values. */
+  List<Bin> histogram() {
+    List<Bin> bins = new ArrayList<>();
+    for (int i = negative.counts.length - 1; i >= 0; i--) {
+      if (negative.counts[i] > 0) {
+        int index = negative.offset + i;
+        bins.add(new Bin(-upper(index), -lower(index), negative.counts[i]));
+      }
+    }
+    if (zeroCount > 0) {
+      bins.add(new Bin(-MIN_INDEXABLE, MIN_INDEXABLE, zeroCount));
+    }
+    for (int i = 0; i < positive.counts.length; i++) {
+      if (positive.counts[i] > 0) {
+        int index = positive.offset + i;
+        bins.add(new Bin(lower(index), upper(index), positive.counts[i]));
+      }
+    }
+    return bins;
+  }
+
+  /** Encodes the sketch compactly: the summary followed by the bucket counts as varints. */
+  byte[] toBytes() {
+    ByteBuffer buffer =
+        ByteBuffer.allocate(
+            1 + 3 * 10 + 3 * 8 + positive.encodedSizeBound() + negative.encodedSizeBound());
+    buffer.put(VERSION);
+    putVarLong(buffer, count);
+    putVarLong(buffer, zeroCount);
+    buffer.putDouble(min);
+    buffer.putDouble(max);
+    buffer.putDouble(sum);
+    positive.encode(buffer);
+    negative.encode(buffer);
+    return Arrays.copyOf(buffer.array(), buffer.position());
+  }
+
+  /**
+   * Decodes a sketch written by {@link #toBytes()}.
+   *
+   * @throws IllegalArgumentException if the bytes are not a sketch of this version
+   */
+  static QuantileSketch fromBytes(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    if (buffer.get() != VERSION) {
+      throw new IllegalArgumentException("Unsupported sketch version " + bytes[0]);
+    }
+    QuantileSketch sketch = new QuantileSketch();
+    sketch.count = getVarLong(buffer);
+    sketch.zeroCount = getVarLong(buffer);
+    sketch.min = buffer.getDouble();
+    sketch.max = buffer.getDouble();
+    sketch.sum = buffer.getDouble();
+    sketch.positive.decode(buffer);
+    sketch.negative.decode(buffer);
+    return sketch;
+  }
+
+  private static int index(double magnitude) {
+    return (int) Math.ceil(Math.log(magnitude) / LOG_GAMMA);
+  }
+
+  private static double lower(int index) {
+    return Math.pow(GAMMA, index - 1);
+  }
+
+  private static double upper(int index) {
+    return Math.pow(GAMMA, index);
+  }
+
+  /** The point of a bucket within the relative accuracy of every value in it. */
+  private static double representative(int index) {
+    return 2 * upper(index) / (GAMMA + 1);
+  }
+
+  private static void putVarLong(ByteBuffer buffer, long value) {
+    while ((value & ~0x7FL) != 0) {
+      buffer.put((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    buffer.put((byte) value);
+  }
+
+  private static long getVarLong(ByteBuffer buffer) {
+    long value = 0;
+    for (int shift = 0; ; shift += 7) {
+      byte b = buffer.get();
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+  }
+
+  /** Dense bucket counts for the contiguous range of indexes seen so far. */
+  private static final class Buckets {
+
+    private int offset;
+    private long[] counts = new long[0];
+
+    private void add(int index, long n) {
+      if (counts.length == 0) {
+        offset = index;
+        counts = new long[1];
+      } else if (index < offset) {
+        long[] grown = new long[counts.length + offset - index];
+        System.arraycopy(counts, 0, grown, offset - index, counts.length);
+        counts = grown;
+        offset = index;
+      } else if (index >= offset + counts.length) {
+        counts = Arrays.copyOf(counts, index - offset + 1);
+      }
+      counts[index - offset] += n;
+    }
+
+    private void merge(Buckets other) {
+      if (other.counts.length == 0) {
+        return;
+      }
+      // grow once to the union of both ranges, then add
+      add(other.offset, 0);
+      add(other.offset + other.counts.length - 1, 0);
+      for (int i = 0; i < other.counts.length; i++) {
+        counts[other.offset + i - offset] += other.counts[i];
+      }
+    }
+
+    private int encodedSizeBound() {
+      return 10 + 5 + 10 * counts.length;
+    }
+
+    private void encode(ByteBuffer buffer) {
+      putVarLong(buffer, counts.length);
+      if (counts.length > 0) {
+        // zig-zag, since indexes of values below one are negative
+        putVarLong(buffer, (offset << 1) ^ (offset >> 31));
+        for (long c : counts) {
+          putVarLong(buffer, c);
+        }
+      }
+    }
+
+    private void decode(ByteBuffer buffer) {
+      int length = (int) getVarLong(buffer);
+      if (length == 0) {
+        return;
+      }
+      int zigzag = (int) getVarLong(buffer);
+      offset = (zigzag >>> 1) ^ -(zigzag & 1);
+      counts = new long[length];
+      for (int i = 0; i < length; i++) {
+        counts[i] = getVarLong(buffer);
+      }
+    }
+  }
+}
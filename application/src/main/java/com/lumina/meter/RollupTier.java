@@ -0,0 +1,59 @@
+package com.lumina.meter;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * A pre-aggregated resolution of the status history, maintained by {@link StatusRollupService}.
+ * Each tier holds one document per meter and bucket with the sample count and the count, sum,
+ * minimum and maximum of every typed telemetry field.
+ */
+enum RollupTier {
+  MINUTE("meterStatus_1m", "minute", Duration.ofMinutes(1), Duration.ofHours(1)),
+  HOUR("meterStatus_1h", "hour", Duration.ofHours(1), Duration.ofDays(1));
+
+  /** Tiers from the coarsest to the finest, the order in which queries try them. */
+  static final RollupTier[] COARSEST_FIRST = {HOUR, MINUTE};
+
+  private final String collection;
+  private final String unit;
+  private final Duration length;
+  private final Duration chunk;
+
+  RollupTier(String collection, String unit, Duration length, Duration chunk) {
+    this.collection = collection;
+    this.unit = unit;
+    this.length = length;
+    this.chunk = chunk;
+  }
+
+  String collection() {
+    return collection;
+  }
+
+  /** The unit name understood by MongoDB's {@code $dateTrunc}. */
+  String unit() {
+    return unit;
+  }
+
+  Duration length() {
+    return length;
+  }
+
+  /** The span of source data rolled up in one step, and recorded by one checkpoint. */
+  Duration chunk() {
+    return chunk;
+  }
+
+  /** The start of the bucket containing {@code instant}. */
+  Instant alignDown(Instant instant) {
+    long millis = instant.toEpochMilli();
+    return Instant.ofEpochMilli(millis - Math.floorMod(millis, length.toMillis()));
+  }
+
+  /** The start of the first bucket that starts at or after {@code instant}. */
+  Instant alignUp(Instant instant) {
+    Instant down = alignDown(instant);
+    return down.equals(instant) ? down : down.plus(length);
+  }
+}
@@ -0,0 +1,400 @@
+package com.lumina.meter;
+
+import com.lumina.BadRequestException;
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusAggregate;
+import com.lumina.meter.model.StatusAggregate.FieldStats;
+import com.lumina.meter.model.TimeBucket;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+/**
+ * Computes per-bucket statistics over numeric status data fields inside MongoDB, so that only one
+ * row per bucket is transferred instead of every raw status.
+ *
+ * <p>When rollups are enabled, the parts of the range that the {@link RollupTier rollup tiers}
+ * cover are read from the coarsest tier whose buckets nest inside the requested ones, and only the
+ * remainder from the raw samples. The partial results are merged per bucket, which is exact because
+ * the statistics are sums, minima and maxima.
+ *
+ * <p>When compressed blocks are enabled, part of the raw history is held in blocks that MongoDB
+ * cannot read, so the raw segments are aggregated here instead, from the sealed and raw samples
+ * merged by the {@link StatusBlockStore}. Buckets are then computed by {@link
+ * TimeBucket#truncate}, which matches {@code $dateTrunc}.
+ */
+@Service
+public class StatusAggregationService {
+
+  private final MongoTemplate mongoTemplate;
+  private final Optional<StatusRollupService> rollups;
+  private final Optional<StatusBlockStore> blockStore;
+  private final int maxBuckets;
+
+  public StatusAggregationService(
+      MongoTemplate mongoTemplate,
+      Optional<StatusRollupService> rollups,
+      Optional<StatusBlockStore> blockStore,
+      @Value("${lumina.meter.status.aggregate.max-buckets:10000}") int maxBuckets) {
+    this.mongoTemplate = mongoTemplate;
+    this.rollups = rollups;
+    this.blockStore = blockStore;
+    this.maxBuckets = maxBuckets;
+  }
+
+  /**
+   * Aggregates a meter's status records into time buckets.
+   *
+   * <p>Buckets are aligned with MongoDB's {@code $dateTrunc} in the given time zone, so a {@code
+   * 1d} bucket starts at local midnight and follows daylight-saving changes. Only numeric values
+   * are included in the statistics of a field.
+   *
+   * @param meterId the meter ID
+   * @param startTime the start of the time range (inclusive)
+   * @param endTime the end of the time range (inclusive)
+   * @param bucket the bucket width
+   * @param zone the time zone used to align buckets
+   * @param fields the data fields to aggregate
+   * @return one aggregate per non-empty bucket, oldest first
+   * @throws BadRequestException if a field name is invalid or the range has too many buckets
+   */
+  public List<StatusAggregate> aggregate(
+      String meterId,
+      Instant startTime,
+      Instant endTime,
+      TimeBucket bucket,
+      ZoneId zone,
+      List<String> fields) {
+    DataFields.check(fields);
+    checkBucketCount(startTime, endTime, bucket);
+
+    List<RollupTier> tiers = usableTiers(startTime, endTime, bucket, zone, fields);
+    if (tiers.isEmpty()) {
+      return aggregateRaw(meterId, startTime, endTime, true, bucket, zone, fields);
+    }
+    Map<Instant, StatusAggregate> merged = new TreeMap<>();
+    aggregateSegments(meterId, startTime, endTime, true, tiers, bucket, zone, fields)
+        .forEach(
+            aggregate ->
+                merged.merge(
+                    aggregate.bucketStart(), aggregate, StatusAggregationService::merge));
+    return List.copyOf(merged.values());
+  }
+
+  /**
+   * Splits {@code [from, to)}, or {@code [from, to]} if {@code toInclusive}, into the part covered
+   * by the first tier and the parts before and after it, which are tried with the finer tiers.
+   */
+  private List<StatusAggregate> aggregateSegments(
+      String meterId,
+      Instant from,
+      Instant to,
+      boolean toInclusive,
+      List<RollupTier> tiers,
+      TimeBucket bucket,
+      ZoneId zone,
+      List<String> fields) {
+    if (from.isAfter(to) || (from.equals(to) && !toInclusive)) {
+      return List.of();
+    }
+    if (tiers.isEmpty()) {
+      return aggregateRaw(meterId, from, to, toInclusive, bucket, zone, fields);
+    }
+    RollupTier tier = tiers.getFirst();
+    List<RollupTier> finer = tiers.subList(1, tiers.size());
+    Optional<Instant> watermark = rollups.flatMap(service -> service.watermark(tier));
+    Instant tierFrom = tier.alignUp(from);
+    Instant tierTo = tier.alignDown(to);
+    if (watermark.isPresent() && watermark.get().isBefore(tierTo)) {
+      tierTo = tier.alignDown(watermark.get());
+    }
+    if (watermark.isEmpty() || !tierFrom.isBefore(tierTo)) {
+      return aggregateSegments(meterId, from, to, toInclusive, finer, bucket, zone, fields);
+    }
+
+    List<StatusAggregate> results = new ArrayList<>();
+    results.addAll(
+        aggregateSegments(meterId, from, tierFrom, false, finer, bucket, zone, fields));
+    results.addAll(aggregateTier(meterId, tier, tierFrom, tierTo, bucket, zone, fields));
+    results.addAll(
+        aggregateSegments(meterId, tierTo, to, toInclusive, finer, bucket, zone, fields));
+    return results;
+  }
+
+  /**
+   * Returns the tiers, coarsest first, whose buckets nest inside the requested buckets: the bucket
+   * width is a multiple of the tier's, and the zone's offset is a whole number of tier buckets.
+   * Only the typed telemetry fields are rolled up, so other fields always read raw samples.
+   */
+  private List<RollupTier> usableTiers(
+      Instant startTime, Instant endTime, TimeBucket bucket, ZoneId zone, List<String> fields) {
+    if (rollups.isEmpty() || !StatusRollupService.FIELDS.containsAll(fields)) {
+      return List.of();
+    }
+    long startOffset = zone.getRules().getOffset(startTime).getTotalSeconds();
+    long endOffset = zone.getRules().getOffset(endTime).getTotalSeconds();
+    List<RollupTier> tiers = new ArrayList<>();
+    for (RollupTier tier : RollupTier.COARSEST_FIRST) {
+      long seconds = tier.length().toSeconds();
+      if (bucket.nominalLength().toSeconds() % seconds == 0
+          && startOffset % seconds == 0
+          && endOffset % seconds == 0) {
+        tiers.add(tier);
+      }
+    }
+    return tiers;
+  }
+
+  private List<StatusAggregate> aggregateRaw(
+      String meterId,
+      Instant from,
+      Instant to,
+      boolean toInclusive,
+      TimeBucket bucket,
+      ZoneId zone,
+      List<String> fields) {
+    if (blockStore.isPresent()) {
+      return aggregateSamples(
+          blockStore.get(), meterId, from, to, toInclusive, bucket, zone, fields);
+    }
+    Criteria range = Criteria.where("meterId").is(meterId).and("timestamp").gte(from);
+    Aggregation aggregation =
+        Aggregation.newAggregation(
+                Aggregation.match(toInclusive ? range.lte(to) : range.lt(to)),
+                group(rawGroup(dateTrunc("$timestamp", bucket, zone), fields)),
+                Aggregation.sort(Sort.Direction.ASC, "_id"))
+            .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+    return mongoTemplate
+        .aggregate(aggregation, Status.class, Document.class)
+        .getMappedResults()
+        .stream()
+        .map(result -> toAggregate(result, fields))
+        .toList();
+  }
+
+  /** Aggregates the sealed and raw samples of a segment as they are streamed from the database. */
+  private static List<StatusAggregate> aggregateSamples(
+      StatusBlockStore store,
+      String meterId,
+      Instant from,
+      Instant to,
+      boolean toInclusive,
+      TimeBucket bucket,
+      ZoneId zone,
+      List<String> fields) {
+    Map<Instant, BucketStats> buckets = new TreeMap<>();
+    try (Stream<Status> samples = store.streamAll(meterId, from, to)) {
+      samples.forEach(
+          status -> {
+            if (toInclusive || status.timestamp().isBefore(to)) {
+              buckets
+                  .computeIfAbsent(
+                      bucket.truncate(status.timestamp(), zone),
+                      start -> new BucketStats(fields.size()))
+                  .add(status, fields);
+            }
+          });
+    }
+    List<StatusAggregate> aggregates = new ArrayList<>(buckets.size());
+    buckets.forEach((start, stats) -> aggregates.add(stats.toAggregate(start, fields)));
+    return aggregates;
+  }
+
+  private List<StatusAggregate> aggregateTier(
+      String meterId,
+      RollupTier tier,
+      Instant from,
+      Instant to,
+      TimeBucket bucket,
+      ZoneId zone,
+      List<String> fields) {
+    Aggregation aggregation =
+        Aggregation.newAggregation(
+                Aggregation.match(
+                    Criteria.where("meterId").is(meterId).and("bucketStart").gte(from).lt(to)),
+                group(rollupGroup(dateTrunc("$bucketStart", bucket, zone), fields)),
+                Aggregation.sort(Sort.Direction.ASC, "_id"))
+            .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+    return mongoTemplate
+        .aggregate(aggregation, tier.collection(), Document.class)
+        .getMappedResults()
+        .stream()
+        .map(result -> toAggregate(result, fields))
+        .toList();
+  }
+
+  private static Document dateTrunc(String date, TimeBucket bucket, ZoneId zone) {
+    return new Document(
+        "$dateTrunc",
+        new Document("date", date)
+            .append("unit", bucket.unit().mongoUnit())
+            .append("binSize", bucket.amount())
+            .append("timezone", zone.getId())
+            .append("startOfWeek", "monday"));
+  }
+
+  private static AggregationOperation group(Document group) {
+    return context -> new Document("$group", group);
+  }
+
+  /**
+   * A {@code $group} body computing the sample count and the count, sum, minimum and maximum of
+   * each field over raw status documents, as {@code samples}, {@code count_<field>}, {@code
+   * sum_<field>}, {@code min_<field>} and {@code max_<field>}.
+   */
+  static Document rawGroup(Object id, List<String> fields) {
+    Document group = new Document("_id", id).append("samples", new Document("$sum", 1));
+    for (String field : fields) {
+      Object expression = DataFields.valueExpression(field);
+      Document value = numericOrNull(expression);
+      group
+          .append(
+              "count_" + field,
+              new Document("$sum", new Document("$cond", List.of(isNumber(expression), 1, 0))))
+          .append("sum_" + field, new Document("$sum", value))
+          .append("min_" + field, new Document("$min", value))
+          .append("max_" + field, new Document("$max", value));
+    }
+    return group;
+  }
+
+  /**
+   * The same {@code $group} body as {@link #rawGroup} over rollup documents, combining their
+   * statistics.
+   */
+  static Document rollupGroup(Object id, List<String> fields) {
+    Document group = new Document("_id", id).append("samples", new Document("$sum", "$samples"));
+    for (String field : fields) {
+      String stats = "$fields." + field + ".";
+      group
+          .append("count_" + field, new Document("$sum", stats + "count"))
+          .append("sum_" + field, new Document("$sum", stats + "sum"))
+          .append("min_" + field, new Document("$min", stats + "min"))
+          .append("max_" + field, new Document("$max", stats + "max"));
+    }
+    return group;
+  }
+
+  private static StatusAggregate merge(StatusAggregate a, StatusAggregate b) {
+    Map<String, FieldStats> fields = new LinkedHashMap<>(a.fields());
+    b.fields().forEach((field, stats) -> fields.merge(field, stats, FieldStats::merge));
+    return new StatusAggregate(a.bucketStart(), a.samples() + b.samples(), fields);
+  }
+
+  private static StatusAggregate toAggregate(Document result, List<String> fields) {
+    Map<String, FieldStats> stats = new LinkedHashMap<>();
+    for (String field : fields) {
+      long count = ((Number) result.get("count_" + field)).longValue();
+      stats.put(
+          field,
+          count == 0
+              ? FieldStats.EMPTY
+              : new FieldStats(
+                  count,
+                  ((Number) result.get("sum_" + field)).doubleValue(),
+                  ((Number) result.get("min_" + field)).doubleValue(),
+                  ((Number) result.get("max_" + field)).doubleValue()));
+    }
+    Instant bucketStart = result.get("_id", Date.class).toInstant();
+    return new StatusAggregate(bucketStart, ((Number) result.get("samples")).longValue(), stats);
+  }
+
+  /**
+   * The running statistics of one bucket, with one slot per requested field. Also used by {@link
+   * StatusRollupService} to roll up sealed samples.
+   */
+  static final class BucketStats {
+
+    private long samples;
+    private final long[] counts;
+    private final double[] sums;
+    private final double[] mins;
+    private final double[] maxes;
+
+    BucketStats(int fields) {
+      counts = new long[fields];
+      sums = new double[fields];
+      mins = new double[fields];
+      maxes = new double[fields];
+      Arrays.fill(mins, Double.POSITIVE_INFINITY);
+      Arrays.fill(maxes, Double.NEGATIVE_INFINITY);
+    }
+
+    void add(Status status, List<String> fields) {
+      samples++;
+      for (int i = 0; i < fields.size(); i++) {
+        Double value = DataFields.numeric(status, fields.get(i));
+        if (value != null) {
+          counts[i]++;
+          sums[i] += value;
+          mins[i] = Math.min(mins[i], value);
+          maxes[i] = Math.max(maxes[i], value);
+        }
+      }
+    }
+
+    StatusAggregate toAggregate(Instant bucketStart, List<String> fields) {
+      Map<String, FieldStats> stats = new LinkedHashMap<>();
+      for (int i = 0; i < fields.size(); i++) {
+        stats.put(
+            fields.get(i),
+            counts[i] == 0
+                ? FieldStats.EMPTY
+                : new FieldStats(counts[i], sums[i], mins[i], maxes[i]));
+      }
+      return new StatusAggregate(bucketStart, samples, stats);
+    }
+  }
+
+  private static Document isNumber(Object expression) {
+    return new Document("$isNumber", expression);
+  }
+
+  /** The value if it is numeric, otherwise null, which $sum, $min and $max skip. */
+  private static Document numericOrNull(Object expression) {
+    return new Document("$cond", Arrays.asList(isNumber(expression), expression, null));
+  }
+
+  private void checkBucketCount(Instant startTime, Instant endTime, TimeBucket bucket) {
+    long buckets = Duration.between(startTime, endTime).dividedBy(bucket.nominalLength()) + 1;
+    if (buckets > maxBuckets) {
+      throw new BadRequestException(
+          "The time range spans about %d buckets; at most %d are allowed"
+              .formatted(buckets, maxBuckets));
+    }
+  }
+
+  /**
+   * Parses a time zone id.
+   *
+   * @throws BadRequestException if the id is not a known time zone
+   */
+  static ZoneId zone(String id) {
+    try {
+      return ZoneId.of(id);
+    } catch (DateTimeException e) {
+      throw new BadRequestException("Unknown time zone: " + id);
+    }
+  }
+}
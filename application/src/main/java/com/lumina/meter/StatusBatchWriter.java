@@ -0,0 +1,107 @@
+package com.lumina.meter;
+
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusBuilder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes batches of status records to the {@code meterStatus} collection with a single unordered
+ * bulk insert, so a batch costs one round trip and one bad document does not abort the rest. The
+ * written statuses are then passed to every {@link StatusListener}.
+ */
+@Slf4j
+@Component
+public class StatusBatchWriter {
+
+  private final MongoTemplate mongoTemplate;
+  private final List<StatusListener> listeners;
+
+  public StatusBatchWriter(MongoTemplate mongoTemplate, List<StatusListener> listeners) {
+    this.mongoTemplate = mongoTemplate;
+    this.listeners = listeners;
+  }
+
+  /**
+   * Inserts the given statuses. Ids are assigned before the write so that callers can report them
+   * back without re-reading the documents.
+   *
+   * @param statuses the statuses to insert
+   * @return the batch with assigned ids and the failure reason for each index that was not written
+   */
+  public Outcome insertUnordered(List<Status> statuses) {
+    if (statuses.isEmpty()) {
+      return new Outcome(List.of(), Map.of());
+    }
+
+    List<Status> withIds = new ArrayList<>(statuses.size());
+    for (Status status : statuses) {
+      withIds.add(
+          status.id() != null
+              ? status
+              : StatusBuilder.builder(status).id(new ObjectId().toHexString()).build());
+    }
+
+    Map<Integer, String> failures = new HashMap<>();
+    try {
+      mongoTemplate.bulkOps(BulkMode.UNORDERED, Status.class).insert(withIds).execute();
+    } catch (BulkOperationException e) {
+      e.getErrors().forEach(error -> failures.put(error.getIndex(), error.getMessage()));
+    }
+
+    var outcome = new Outcome(withIds, failures);
+    notifyListeners(listeners, outcome.inserted());
+    return outcome;
+  }
+
+  /**
+   * Passes written statuses to the listeners. A failing listener is logged and skipped, since the
+   * statuses are already stored.
+   */
+  static void notifyListeners(List<StatusListener> listeners, List<Status> written) {
+    if (written.isEmpty()) {
+      return;
+    }
+    for (StatusListener listener : listeners) {
+      try {
+        listener.onStatusesWritten(written);
+      } catch (RuntimeException e) {
+        log.warn("Status listener {} failed", listener.getClass().getSimpleName(), e);
+      }
+    }
+  }
+
+  /**
+   * Result of a bulk insert.
+   *
+   * @param batch the submitted statuses, in order, with their assigned ids
+   * @param failures failure reasons keyed by the index of the status in the submitted batch
+   */
+  public record Outcome(List<Status> batch, Map<Integer, String> failures) {
+
+    public boolean isInserted(int index) {
+      return !failures.containsKey(index);
+    }
+
+    public List<Status> inserted() {
+      if (failures.isEmpty()) {
+        return batch;
+      }
+      List<Status> inserted = new ArrayList<>(batch.size() - failures.size());
+      for (int i = 0; i < batch.size(); i++) {
+        if (isInserted(i)) {
+          inserted.add(batch.get(i));
+        }
+      }
+      return inserted;
+    }
+  }
+}
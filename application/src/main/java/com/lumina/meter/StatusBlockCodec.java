@@ -0,0 +1,418 @@
+package com.lumina.meter;
+
+import com.lumina.catalogue.model.MeterType;
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusBuilder;
+import com.lumina.meter.model.Telemetry;
+import com.lumina.meter.model.TelemetryField;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+
+/**
+ * Encodes the samples of one meter and time bucket into a single compressed block document, and
+ * decodes them again one sample at a time.
+ *
+ * <p>Timestamps are stored as delta-of-delta values and each typed telemetry field as a column of
+ * XOR-compressed doubles, following the scheme of Facebook's Gorilla paper: regularly reported
+ * samples cost about one bit per timestamp and a few bits per slowly changing value. Ids are kept
+ * as raw 12-byte object ids, and the per-sample data maps, which have no fixed shape, as an array
+ * of documents.
+ *
+ * <pre>
+ * { _id: "meterId:bucketStartMillis", meterId, start, end, count,
+ *   ids: bin, ts: bin, y: bin (telemetry type per sample), v: { fieldKey: bin }, d: [doc|null] }
+ * </pre>
+ */
+final class StatusBlockCodec {
+
+  static final String METER_ID = "meterId";
+  static final String START = "start";
+  static final String END = "end";
+  static final String COUNT = "count";
+
+  private static final byte UNTYPED = 0;
+
+  private StatusBlockCodec() {}
+
+  static String blockId(String meterId, Instant bucketStart) {
+    return meterId + ":" + bucketStart.toEpochMilli();
+  }
+
+  /**
+   * Encodes samples of one meter that fall into the bucket starting at {@code bucketStart}.
+   *
+   * @param samples the samples, in timestamp order; ids must be object ids
+   */
+  static Document encode(String meterId, Instant bucketStart, List<Status> samples) {
+    int count = samples.size();
+    ByteBuffer ids = ByteBuffer.allocate(count * 12);
+    byte[] types = new byte[count];
+    boolean typed = false;
+    boolean hasData = false;
+    TimestampEncoder timestamps = new TimestampEncoder();
+    Map<TelemetryField, ValueEncoder> columns = new EnumMap<>(TelemetryField.class);
+    List<Document> data = new ArrayList<>(count);
+
+    for (int i = 0; i < count; i++) {
+      Status status = samples.get(i);
+      ids.put(new ObjectId(status.id()).toByteArray());
+      timestamps.add(status.timestamp().toEpochMilli());
+      if (status.telemetry() != null) {
+        types[i] = typeCode(status.telemetry().type());
+        typed = true;
+      }
+      for (TelemetryField field : TelemetryField.values()) {
+        double value = status.telemetry() == null ? Double.NaN : status.telemetry().value(field);
+        ValueEncoder column = columns.get(field);
+        if (column == null && !Double.isNaN(value)) {
+          // a column starts with NaN for every earlier sample, which costs one bit each
+          column = new ValueEncoder();
+          for (int j = 0; j < i; j++) {
+            column.add(Double.NaN);
+          }
+          columns.put(field, column);
+        }
+        if (column != null) {
+          column.add(value);
+        }
+      }
+      boolean present = status.data() != null && !status.data().isEmpty();
+      data.add(present ? new Document(status.data()) : null);
+      hasData |= present;
+    }
+
+    Document values = new Document();
+    columns.forEach((field, column) -> values.append(field.key(), new Binary(column.toBytes())));
+    Document block =
+        new Document("_id", blockId(meterId, bucketStart))
+            .append(METER_ID, meterId)
+            .append(START, Date.from(samples.getFirst().timestamp()))
+            .append(END, Date.from(samples.getLast().timestamp()))
+            .append(COUNT, count)
+            .append("ids", new Binary(ids.array()))
+            .append("ts", new Binary(timestamps.toBytes()));
+    if (typed) {
+      block.append("y", new Binary(types));
+    }
+    if (!values.isEmpty()) {
+      block.append("v", values);
+    }
+    if (hasData) {
+      block.append("d", data);
+    }
+    return block;
+  }
+
+  /** Decodes a block lazily; each call to {@code next()} decodes one more sample. */
+  static Iterator<Status> decode(Document block) {
+    return new BlockIterator(block);
+  }
+
+  /** Decodes a whole block. */
+  static List<Status> decodeAll(Document block) {
+    List<Status> samples = new ArrayList<>(block.getInteger(COUNT));
+    decode(block).forEachRemaining(samples::add);
+    return samples;
+  }
+
+  private static byte typeCode(MeterType type) {
+    return (byte) TelemetryConverters.code(type).charAt(0);
+  }
+
+  private static final class BlockIterator implements Iterator<Status> {
+
+    private final String meterId;
+    private final int count;
+    private final byte[] ids;
+    private final byte[] types;
+    private final TimestampDecoder timestamps;
+    private final Map<TelemetryField, ValueDecoder> columns = new EnumMap<>(TelemetryField.class);
+    private final List<Document> data;
+    private int index;
+
+    BlockIterator(Document block) {
+      this.meterId = block.getString(METER_ID);
+      this.count = block.getInteger(COUNT);
+      this.ids = bytes(block, "ids");
+      this.types = block.containsKey("y") ? bytes(block, "y") : null;
+      this.timestamps = new TimestampDecoder(bytes(block, "ts"));
+      Document values = block.get("v", Document.class);
+      if (values != null) {
+        for (TelemetryField field : TelemetryField.values()) {
+          if (values.containsKey(field.key())) {
+            columns.put(field, new ValueDecoder(values.get(field.key(), Binary.class).getData()));
+          }
+        }
+      }
+      this.data = block.getList("d", Document.class);
+    }
+
+    @Override
+    public boolean hasNext() {
+      return index < count;
+    }
+
+    @Override
+    public Status next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      int i = index++;
+      ObjectId id = new ObjectId(Arrays.copyOfRange(ids, i * 12, i * 12 + 12));
+      long timestamp = timestamps.next();
+      Map<TelemetryField, Double> values = new EnumMap<>(TelemetryField.class);
+      columns.forEach((field, column) -> values.put(field, column.next()));
+
+      Telemetry telemetry = null;
+      if (types != null && types[i] != UNTYPED) {
+        MeterType type =
+            TelemetryConverters.type(new String(new byte[] {types[i]}, StandardCharsets.US_ASCII));
+        telemetry = Telemetry.of(type, field -> values.getOrDefault(field, Double.NaN));
+      }
+      Document extensions = data == null ? null : data.get(i);
+      return StatusBuilder.builder()
+          .id(id.toHexString())
+          .meterId(meterId)
+          .timestamp(Instant.ofEpochMilli(timestamp))
+          .telemetry(telemetry)
+          .data(extensions == null ? null : new LinkedHashMap<>(extensions))
+          .build();
+    }
+
+    private static byte[] bytes(Document block, String key) {
+      return block.get(key, Binary.class).getData();
+    }
+  }
+
+  /**
+   * Delta-of-delta timestamp encoding. The first timestamp is stored in full; after that, the
+   * change between consecutive deltas is written with a prefix selecting its width.
+   */
+  static final class TimestampEncoder {
+
+    private final BitWriter out = new BitWriter();
+    private long previous;
+    private long previousDelta;
+    private boolean first = true;
+
+    void add(long timestamp) {
+      if (first) {
+        out.write(timestamp, 64);
+        first = false;
+      } else {
+        long delta = timestamp - previous;
+        long dod = delta - previousDelta;
+        if (dod == 0) {
+          out.write(0b0, 1);
+        } else if (dod >= -63 && dod <= 64) {
+          out.write(0b10, 2);
+          out.write(dod + 63, 7);
+        } else if (dod >= -255 && dod <= 256) {
+          out.write(0b110, 3);
+          out.write(dod + 255, 9);
+        } else if (dod >= -2047 && dod <= 2048) {
+          out.write(0b1110, 4);
+          out.write(dod + 2047, 12);
+        } else {
+          out.write(0b1111, 4);
+          out.write(dod, 64);
+        }
+        previousDelta = delta;
+      }
+      previous = timestamp;
+    }
+
+    byte[] toBytes() {
+      return out.toBytes();
+    }
+  }
+
+  static final class TimestampDecoder {
+
+    private final BitReader in;
+    private long previous;
+    private long previousDelta;
+    private boolean first = true;
+
+    TimestampDecoder(byte[] bytes) {
+      this.in = new BitReader(bytes);
+    }
+
+    long next() {
+      if (first) {
+        first = false;
+        previous = in.read(64);
+        return previous;
+      }
+      long dod;
+      if (in.read(1) == 0) {
+        dod = 0;
+      } else if (in.read(1) == 0) {
+        dod = in.read(7) - 63;
+      } else if (in.read(1) == 0) {
+        dod = in.read(9) - 255;
+      } else if (in.read(1) == 0) {
+        dod = in.read(12) - 2047;
+      } else {
+        dod = in.read(64);
+      }
+      previousDelta += dod;
+      previous += previousDelta;
+      return previous;
+    }
+  }
+
+  /**
+   * XOR compression of doubles. Each value is XORed with the previous one; an identical value
+   * costs one bit, and otherwise only the meaningful bits between the leading and trailing zeros
+   * are written, reusing the previous window when they fit inside it.
+   */
+  static final class ValueEncoder {
+
+    private final BitWriter out = new BitWriter();
+    private long previous;
+    private int leading = -1;
+    private int trailing;
+    private boolean first = true;
+
+    void add(double value) {
+      long bits = Double.doubleToRawLongBits(value);
+      if (first) {
+        out.write(bits, 64);
+        first = false;
+        previous = bits;
+        return;
+      }
+      long xor = bits ^ previous;
+      previous = bits;
+      if (xor == 0) {
+        out.write(0b0, 1);
+        return;
+      }
+      int lz = Math.min(Long.numberOfLeadingZeros(xor), 31);
+      int tz = Long.numberOfTrailingZeros(xor);
+      if (leading >= 0 && lz >= leading && tz >= trailing) {
+        out.write(0b10, 2);
+        out.write(xor >>> trailing, 64 - leading - trailing);
+      } else {
+        int significant = 64 - lz - tz;
+        out.write(0b11, 2);
+        out.write(lz, 5);
+        out.write(significant - 1, 6);
+        out.write(xor >>> tz, significant);
+        leading = lz;
+        trailing = tz;
+      }
+    }
+
+    byte[] toBytes() {
+      return out.toBytes();
+    }
+  }
+
+  static final class ValueDecoder {
+
+    private final BitReader in;
+    private long previous;
+    private int leading;
+    private int trailing;
+    private boolean first = true;
+
+    ValueDecoder(byte[] bytes) {
+      this.in = new BitReader(bytes);
+    }
+
+    double next() {
+      if (first) {
+        first = false;
+        previous = in.read(64);
+      } else if (in.read(1) == 1) {
+        if (in.read(1) == 1) {
+          leading = (int) in.read(5);
+          int significant = (int) in.read(6) + 1;
+          trailing = 64 - leading - significant;
+        }
+        long xor = in.read(64 - leading - trailing) << trailing;
+        previous ^= xor;
+      }
+      return Double.longBitsToDouble(previous);
+    }
+  }
+
+  /** Appends bit fields of up to 64 bits, most significant bit first. */
+  static final class BitWriter {
+
+    private long[] words = new long[8];
+    private int length;
+
+    /** Writes the low {@code bits} bits of {@code value}. */
+    void write(long value, int bits) {
+      if (bits < 64) {
+        value &= (1L << bits) - 1;
+      }
+      int word = length >>> 6;
+      int free = 64 - (length & 63);
+      if (word + 1 >= words.length) {
+        words = Arrays.copyOf(words, words.length * 2);
+      }
+      if (bits <= free) {
+        words[word] |= value << (free - bits);
+      } else {
+        int spill = bits - free;
+        words[word] |= value >>> spill;
+        words[word + 1] |= value << (64 - spill);
+      }
+      length += bits;
+    }
+
+    byte[] toBytes() {
+      ByteBuffer buffer = ByteBuffer.allocate(((length + 63) >>> 6) * 8);
+      for (int i = 0; i < (length + 63) >>> 6; i++) {
+        buffer.putLong(words[i]);
+      }
+      return Arrays.copyOf(buffer.array(), (length + 7) >>> 3);
+    }
+  }
+
+  /** Reads the bit fields written by {@link BitWriter}. */
+  static final class BitReader {
+
+    private final long[] words;
+    private int position;
+
+    BitReader(byte[] bytes) {
+      // pad to whole words, plus one so that a read never has to check for the last word
+      ByteBuffer buffer = ByteBuffer.allocate(((bytes.length + 7) / 8 + 1) * 8);
+      buffer.put(bytes).flip();
+      words = new long[buffer.capacity() / 8];
+      buffer.limit(buffer.capacity());
+      buffer.asLongBuffer().get(words);
+    }
+
+    long read(int bits) {
+      int word = position >>> 6;
+      int offset = position & 63;
+      int available = 64 - offset;
+      position += bits;
+      if (bits <= available) {
+        return (words[word] << offset) >>> (64 - bits);
+      }
+      int rest = bits - available;
+      long high = words[word] & ((1L << available) - 1);
+      return (high << rest) | (words[word + 1] >>> (64 - rest));
+    }
+  }
+}
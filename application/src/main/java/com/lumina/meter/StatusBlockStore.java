@@ -0,0 +1,428 @@
+package com.lumina.meter;
+
+import com.lumina.meter.model.Status;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compacts closed time buckets of {@code meterStatus} into one compressed block per meter and
+ * bucket in {@code meterStatusBlock}, encoded by {@link StatusBlockCodec}.
+ *
+ * <p>Ingest is unchanged: samples are inserted into {@code meterStatus} as individual documents, so
+ * the open bucket of every meter stays cheap to append to. A scheduled task seals each bucket once
+ * it is older than the seal delay by merging its documents into the bucket's block and deleting
+ * them. Sealing is idempotent: the block is rebuilt from its previous contents plus the documents
+ * still in {@code meterStatus}, deduplicated by id, so a run that stops between writing the block
+ * and deleting the documents is completed by the next run, and samples that arrive late for a
+ * sealed bucket are folded in the same way.
+ *
+ * <p>Readers of the status history see sealed and raw samples together: {@link #streamAll} and
+ * {@link #merge} combine them in timestamp order. Documents whose id is not an object id cannot be
+ * encoded into a block, so they are never selected for sealing and stay raw.
+ *
+ * <p>With rollups enabled, a bucket is only sealed once the minute rollup has passed it, and blocks
+ * expire with the raw retention.
+ *
+ * <p>Enabled by the property: lumina.meter.status.storage.blocks.enabled
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+    value = "lumina.meter.status.storage.blocks.enabled",
+    havingValue = "true",
+    matchIfMissing = false)
+public class StatusBlockStore implements InitializingBean {
+
+  static final String COLLECTION = "meterStatusBlock";
+
+  private static final Comparator<Status> ORDER =
+      Comparator.comparing(Status::timestamp).thenComparing(Status::id);
+
+  private final MongoTemplate mongoTemplate;
+  private final Optional<StatusRollupService> rollups;
+  private final long bucketMillis;
+  private final Duration sealDelay;
+  private final int maxBucketsPerRun;
+
+  private final Counter sealedBuckets;
+  private final Counter sealedSamples;
+
+  public StatusBlockStore(
+      MongoTemplate mongoTemplate,
+      Optional<StatusRollupService> rollups,
+      MeterRegistry registry,
+      @Value("${lumina.meter.status.storage.blocks.bucket:1h}") Duration bucket,
+      @Value("${lumina.meter.status.storage.blocks.seal-delay:5m}") Duration sealDelay,
+      @Value("${lumina.meter.status.storage.blocks.max-buckets-per-run:1000}")
+          int maxBucketsPerRun) {
+    if (bucket.toMillis() <= 0 || Duration.ofDays(1).toMillis() % bucket.toMillis() != 0) {
+      throw new IllegalArgumentException("Block bucket must divide a day evenly: " + bucket);
+    }
+    this.mongoTemplate = mongoTemplate;
+    this.rollups = rollups;
+    this.bucketMillis = bucket.toMillis();
+    this.sealDelay = sealDelay;
+    this.maxBucketsPerRun = maxBucketsPerRun;
+
+    this.sealedBuckets = registry.counter("lumina.status.blocks.sealed");
+    this.sealedSamples = registry.counter("lumina.status.blocks.samples");
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    blocks()
+        .createIndex(
+            Indexes.ascending(StatusBlockCodec.METER_ID, StatusBlockCodec.START),
+            new IndexOptions().name("meterId_start"));
+    // serves the search for due buckets, which selects raw samples by timestamp alone
+    mongoTemplate
+        .getCollection(StatusCollectionInitializer.COLLECTION)
+        .createIndex(
+            Indexes.ascending("timestamp", "meterId"),
+            new IndexOptions().name("timestamp_meterId"));
+    rollups.ifPresent(
+        service ->
+            StatusRollupService.ensureRetentionIndex(
+                mongoTemplate, COLLECTION, StatusBlockCodec.END, service.rawRetention()));
+  }
+
+  /**
+   * Streams the sealed samples of a meter in a time range, oldest first. Blocks are read from the
+   * cursor and decoded one at a time.
+   *
+   * @param meterId the meter ID
+   * @param startTime the start of the time range (inclusive)
+   * @param endTime the end of the time range (inclusive)
+   */
+  public Stream<Status> stream(String meterId, Instant startTime, Instant endTime) {
+    return stream(meterId, startTime, endTime, Sort.Direction.ASC);
+  }
+
+  /**
+   * Streams the sealed samples of a meter in a time range, ordered by timestamp and id in the given
+   * direction.
+   *
+   * @param meterId the meter ID
+   * @param startTime the start of the time range (inclusive)
+   * @param endTime the end of the time range (inclusive)
+   * @param direction the order of the samples
+   */
+  public Stream<Status> stream(
+      String meterId, Instant startTime, Instant endTime, Sort.Direction direction) {
+    boolean ascending = direction.isAscending();
+    var cursor =
+        blocks()
+            .find(
+                Filters.and(
+                    Filters.eq(StatusBlockCodec.METER_ID, meterId),
+                    Filters.lte(StatusBlockCodec.START, Date.from(endTime)),
+                    Filters.gte(StatusBlockCodec.END, Date.from(startTime))))
+            .sort(
+                ascending
+                    ? Sorts.ascending(StatusBlockCodec.START)
+                    : Sorts.descending(StatusBlockCodec.START))
+            .iterator();
+    Stream<Document> documents =
+        StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED), false);
+    return documents
+        .onClose(cursor::close)
+        .flatMap(
+            block ->
+                ascending
+                    ? StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(
+                            StatusBlockCodec.decode(block), Spliterator.ORDERED),
+                        false)
+                    : StatusBlockCodec.decodeAll(block).reversed().stream())
+        .filter(
+            status ->
+                !status.timestamp().isBefore(startTime) && !status.timestamp().isAfter(endTime));
+  }
+
+  /**
+   * Streams all samples of a meter in a time range, sealed and raw, oldest first.
+   *
+   * @param meterId the meter ID
+   * @param startTime the start of the time range (inclusive)
+   * @param endTime the end of the time range (inclusive)
+   */
+  public Stream<Status> streamAll(String meterId, Instant startTime, Instant endTime) {
+    Stream<Status> raw =
+        mongoTemplate.stream(
+            Query.query(
+                    Criteria.where("meterId")
+                        .is(meterId)
+                        .and("timestamp")
+                        .gte(startTime)
+                        .lte(endTime))
+                .with(Sort.by("timestamp", "_id")),
+            Status.class);
+    return merge(stream(meterId, startTime, endTime), raw);
+  }
+
+  /**
+   * Returns the most recent sealed sample of a meter.
+   *
+   * @param meterId the meter ID
+   * @return the latest sealed sample, or empty if the meter has no blocks
+   */
+  public Optional<Status> latest(String meterId) {
+    Document block =
+        blocks()
+            .find(Filters.eq(StatusBlockCodec.METER_ID, meterId))
+            .sort(Sorts.descending(StatusBlockCodec.START))
+            .first();
+    return block == null
+        ? Optional.empty()
+        : Optional.of(StatusBlockCodec.decodeAll(block).getLast());
+  }
+
+  /**
+   * Seals the buckets whose end is older than the seal delay. At most max-buckets-per-run buckets
+   * are sealed per run, so a large backlog after enabling blocks is worked off over several runs.
+   */
+  @Scheduled(fixedDelayString = "${lumina.meter.status.storage.blocks.seal-interval:60000}")
+  public void sealDueBuckets() {
+    Instant cutoff = bucketStart(Instant.now().minus(sealDelay));
+    if (rollups.isPresent()) {
+      // the minute rollup reads raw samples, so only buckets it has passed can be sealed
+      Instant rolledUp = rollups.get().watermark(RollupTier.MINUTE).orElse(Instant.EPOCH);
+      if (rolledUp.isBefore(cutoff)) {
+        cutoff = bucketStart(rolledUp);
+      }
+    }
+    List<Document> due = dueBuckets(cutoff);
+    int samples = 0;
+    for (Document bucket : due) {
+      Document key = bucket.get("_id", Document.class);
+      try {
+        samples += seal(key.getString("m"), key.getDate("b").toInstant());
+      } catch (RuntimeException e) {
+        log.error("Failed to seal status bucket {}", key.toJson(), e);
+      }
+    }
+    if (!due.isEmpty()) {
+      log.debug("Sealed {} status sample(s) into {} block(s)", samples, due.size());
+    }
+  }
+
+  /**
+   * Moves the raw samples of one meter and bucket into the bucket's block.
+   *
+   * @param meterId the meter ID
+   * @param bucketStart the start of the bucket
+   * @return the number of raw samples that were moved
+   */
+  int seal(String meterId, Instant bucketStart) {
+    Instant bucketEnd = bucketStart.plusMillis(bucketMillis);
+    List<Status> raw =
+        mongoTemplate.find(
+            Query.query(
+                    Criteria.where("meterId")
+                        .is(meterId)
+                        .and("timestamp")
+                        .gte(bucketStart)
+                        .lt(bucketEnd)
+                        .and("_id")
+                        .type(JsonSchemaObject.Type.objectIdType()))
+                .with(Sort.by("timestamp", "_id")),
+            Status.class);
+    if (raw.isEmpty()) {
+      return 0;
+    }
+
+    String blockId = StatusBlockCodec.blockId(meterId, bucketStart);
+    Document existing = blocks().find(Filters.eq("_id", blockId)).first();
+    List<Status> samples =
+        existing == null ? raw : union(StatusBlockCodec.decodeAll(existing), raw);
+
+    blocks()
+        .replaceOne(
+            Filters.eq("_id", blockId),
+            StatusBlockCodec.encode(meterId, bucketStart, samples),
+            new ReplaceOptions().upsert(true));
+    List<ObjectId> ids = raw.stream().map(status -> new ObjectId(status.id())).toList();
+    mongoTemplate
+        .getCollection(StatusCollectionInitializer.COLLECTION)
+        .deleteMany(Filters.in("_id", ids));
+
+    sealedBuckets.increment();
+    sealedSamples.increment(raw.size());
+    return raw.size();
+  }
+
+  /**
+   * Merges sealed and raw samples of a meter, both in timestamp order, into one stream in timestamp
+   * order. A sample present in both, left behind by an interrupted seal, is returned once. Closing
+   * the result closes both sources.
+   */
+  static Stream<Status> merge(Stream<Status> sealed, Stream<Status> raw) {
+    return merge(sealed, raw, Sort.Direction.ASC);
+  }
+
+  /**
+   * Merges sealed and raw samples of a meter, both ordered by timestamp and id in the given
+   * direction, into one stream in that order. A sample present in both is returned once.
+   */
+  static Stream<Status> merge(Stream<Status> sealed, Stream<Status> raw, Sort.Direction direction) {
+    Iterator<Status> merged =
+        new MergingIterator(
+            sealed.iterator(), raw.iterator(), direction.isAscending() ? ORDER : ORDER.reversed());
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false)
+        .onClose(sealed::close)
+        .onClose(raw::close);
+  }
+
+  private static List<Status> union(List<Status> sealed, List<Status> raw) {
+    Map<String, Status> byId = new LinkedHashMap<>();
+    sealed.forEach(status -> byId.put(status.id(), status));
+    raw.forEach(status -> byId.put(status.id(), status));
+    List<Status> samples = new ArrayList<>(byId.values());
+    samples.sort(ORDER);
+    return samples;
+  }
+
+  /**
+   * Finds (meterId, bucketStart) pairs of raw samples in buckets that ended before the cutoff. Only
+   * samples with an object id are considered, as only those can be sealed.
+   */
+  private List<Document> dueBuckets(Instant cutoff) {
+    Document bucket =
+        new Document(
+            "$subtract",
+            List.of(
+                "$timestamp",
+                new Document(
+                    "$mod", List.of(new Document("$toLong", "$timestamp"), bucketMillis))));
+    Document before = new Document("$lt", Date.from(cutoff));
+    Document key = new Document("m", "$meterId").append("b", bucket);
+    List<Document> pipeline =
+        List.of(
+            new Document(
+                "$match",
+                new Document("timestamp", before)
+                    .append("_id", new Document("$type", "objectId"))),
+            new Document("$group", new Document("_id", key)),
+            new Document("$limit", maxBucketsPerRun));
+    return mongoTemplate
+        .getCollection(StatusCollectionInitializer.COLLECTION)
+        .aggregate(pipeline)
+        .allowDiskUse(true)
+        .into(new ArrayList<>());
+  }
+
+  private Instant bucketStart(Instant instant) {
+    long millis = instant.toEpochMilli();
+    return Instant.ofEpochMilli(millis - Math.floorMod(millis, bucketMillis));
+  }
+
+  private MongoCollection<Document> blocks() {
+    return mongoTemplate.getCollection(COLLECTION);
+  }
+
+  /**
+   * Merges two iterators ordered by the same comparator. Ids of sealed samples at the current
+   * timestamp are remembered so that a raw copy of one of them is skipped, even if the raw samples
+   * of one timestamp are not in id order.
+   */
+  private static final class MergingIterator implements Iterator<Status> {
+
+    private final Iterator<Status> sealed;
+    private final Iterator<Status> raw;
+    private final Comparator<Status> order;
+    private final Set<String> sealedAtTimestamp = new HashSet<>();
+    private Instant currentTimestamp;
+    private Status nextSealed;
+    private Status nextRaw;
+
+    MergingIterator(Iterator<Status> sealed, Iterator<Status> raw, Comparator<Status> order) {
+      this.sealed = sealed;
+      this.raw = raw;
+      this.order = order;
+      this.nextSealed = sealed.hasNext() ? sealed.next() : null;
+      this.nextRaw = advanceRaw();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return nextSealed != null || nextRaw != null;
+    }
+
+    @Override
+    public Status next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Status result;
+      if (nextRaw == null || (nextSealed != null && order.compare(nextSealed, nextRaw) <= 0)) {
+        result = nextSealed;
+        if (!result.timestamp().equals(currentTimestamp)) {
+          currentTimestamp = result.timestamp();
+          sealedAtTimestamp.clear();
+        }
+        sealedAtTimestamp.add(result.id());
+        nextSealed = sealed.hasNext() ? sealed.next() : null;
+        // the raw head may be a copy of the sealed sample just returned
+        if (nextRaw != null && isSealedCopy(nextRaw)) {
+          nextRaw = advanceRaw();
+        }
+      } else {
+        result = nextRaw;
+        nextRaw = advanceRaw();
+      }
+      return result;
+    }
+
+    private Status advanceRaw() {
+      while (raw.hasNext()) {
+        Status candidate = raw.next();
+        if (!isSealedCopy(candidate)) {
+          return candidate;
+        }
+      }
+      return null;
+    }
+
+    private boolean isSealedCopy(Status status) {
+      return status.timestamp().equals(currentTimestamp) && sealedAtTimestamp.contains(status.id());
+    }
+  }
+}
@@ -0,0 +1,270 @@
+package com.lumina.meter;
+
+import com.lumina.meter.model.Alert;
+import com.lumina.meter.model.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fans newly written statuses, and the alerts they raise or clear, out to live subscribers in this
+ * process.
+ *
+ * <p>A subscription covers a fixed set of meters, resolved once when it is opened, and is indexed
+ * under each of them, so publishing a status costs one map lookup plus one buffer insert per
+ * interested subscriber. Publishing never blocks: each subscriber has a bounded buffer holding at
+ * most one pending status per meter. A newer status for a meter that is still pending replaces it,
+ * so a slow consumer receives the latest values rather than a growing backlog, and when the buffer
+ * is full of other meters the oldest pending status is dropped. Alerts are not coalesced, since
+ * each one records a transition; they queue in a second buffer of the same size, which also drops
+ * the oldest alert when full.
+ */
+@Component
+public class StatusBroker implements StatusListener {
+
+  private final Map<String, Set<Subscription>> subscriptionsByMeter = new ConcurrentHashMap<>();
+  private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+  private final int bufferSize;
+
+  private final Counter delivered;
+  private final Counter coalesced;
+  private final Counter dropped;
+
+  public StatusBroker(
+      MeterRegistry registry,
+      @Value("${lumina.meter.status.live.buffer-size:256}") int bufferSize) {
+    this.bufferSize = bufferSize;
+
+    Gauge.builder("lumina.status.live.subscribers", subscriptions, Set::size)
+        .register(registry);
+    this.delivered = registry.counter("lumina.status.live.delivered");
+    this.coalesced = registry.counter("lumina.status.live.coalesced");
+    this.dropped = registry.counter("lumina.status.live.dropped");
+  }
+
+  /**
+   * Opens a subscription to the statuses of the given meters. The subscription must be closed
+   * when the consumer goes away.
+   *
+   * @param meterIds the meters to receive statuses for
+   */
+  public Subscription subscribe(Collection<String> meterIds) {
+    Subscription subscription = new Subscription(Set.copyOf(meterIds));
+    subscriptions.add(subscription);
+    for (String meterId : subscription.meterIds) {
+      subscriptionsByMeter.compute(
+          meterId,
+          (id, subscribers) -> {
+            Set<Subscription> result =
+                subscribers == null ? new CopyOnWriteArraySet<>() : subscribers;
+            result.add(subscription);
+            return result;
+          });
+    }
+    return subscription;
+  }
+
+  @Override
+  public void onStatusesWritten(List<Status> statuses) {
+    if (subscriptions.isEmpty()) {
+      return;
+    }
+    for (Status status : statuses) {
+      Set<Subscription> interested = subscriptionsByMeter.get(status.meterId());
+      if (interested != null) {
+        interested.forEach(subscription -> subscription.offer(status));
+      }
+    }
+  }
+
+  /** Passes alerts to the subscriptions covering their meter. */
+  public void publishAlerts(List<Alert> alerts) {
+    if (subscriptions.isEmpty()) {
+      return;
+    }
+    for (Alert alert : alerts) {
+      Set<Subscription> interested = subscriptionsByMeter.get(alert.meterId());
+      if (interested != null) {
+        interested.forEach(subscription -> subscription.offerAlert(alert));
+      }
+    }
+  }
+
+  public int subscriberCount() {
+    return subscriptions.size();
+  }
+
+  private void unsubscribe(Subscription subscription) {
+    if (!subscriptions.remove(subscription)) {
+      return;
+    }
+    for (String meterId : subscription.meterIds) {
+      subscriptionsByMeter.computeIfPresent(
+          meterId,
+          (id, subscribers) -> {
+            subscribers.remove(subscription);
+            return subscribers.isEmpty() ? null : subscribers;
+          });
+    }
+  }
+
+  /**
+   * A consumer's view of the broker: a bounded buffer of pending statuses, at most one per meter,
+   * in the order their meters first became pending, and a bounded queue of pending alerts.
+   */
+  public final class Subscription implements AutoCloseable {
+
+    private final Set<String> meterIds;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final LinkedHashMap<String, Status> pending = new LinkedHashMap<>();
+    private final ArrayDeque<Alert> pendingAlerts = new ArrayDeque<>();
+    private boolean closed;
+    private long droppedCount;
+
+    private Subscription(Set<String> meterIds) {
+      this.meterIds = meterIds;
+    }
+
+    public Set<String> meterIds() {
+      return meterIds;
+    }
+
+    /**
+     * Waits until statuses or alerts are pending and takes all pending statuses. The alerts are
+     * taken with {@link #takeAlerts()}.
+     *
+     * @param timeout how long to wait
+     * @return the pending statuses, or an empty list if none arrived within the timeout or the
+     *     subscription is closed
+     */
+    public List<Status> poll(Duration timeout) throws InterruptedException {
+      lock.lock();
+      try {
+        long nanos = timeout.toNanos();
+        while (pending.isEmpty() && pendingAlerts.isEmpty() && !closed && nanos > 0) {
+          nanos = available.awaitNanos(nanos);
+        }
+        if (pending.isEmpty()) {
+          return List.of();
+        }
+        List<Status> batch = new ArrayList<>(pending.values());
+        pending.clear();
+        delivered.increment(batch.size());
+        return batch;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /** Takes all pending alerts, oldest first, without waiting. */
+    public List<Alert> takeAlerts() {
+      lock.lock();
+      try {
+        if (pendingAlerts.isEmpty()) {
+          return List.of();
+        }
+        List<Alert> alerts = new ArrayList<>(pendingAlerts);
+        pendingAlerts.clear();
+        delivered.increment(alerts.size());
+        return alerts;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /** The number of statuses and alerts dropped because a buffer was full. */
+    public long dropped() {
+      lock.lock();
+      try {
+        return droppedCount;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    public boolean isClosed() {
+      lock.lock();
+      try {
+        return closed;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    @Override
+    public void close() {
+      lock.lock();
+      try {
+        closed = true;
+        pending.clear();
+        pendingAlerts.clear();
+        available.signalAll();
+      } finally {
+        lock.unlock();
+      }
+      unsubscribe(this);
+    }
+
+    private void offer(Status status) {
+      lock.lock();
+      try {
+        if (closed) {
+          return;
+        }
+        Status current = pending.get(status.meterId());
+        if (current != null) {
+          if (!status.timestamp().isBefore(current.timestamp())) {
+            pending.put(status.meterId(), status);
+          }
+          coalesced.increment();
+          return;
+        }
+        if (pending.size() >= bufferSize) {
+          Iterator<Status> oldest = pending.values().iterator();
+          oldest.next();
+          oldest.remove();
+          droppedCount++;
+          dropped.increment();
+        }
+        pending.put(status.meterId(), status);
+        available.signal();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void offerAlert(Alert alert) {
+      lock.lock();
+      try {
+        if (closed) {
+          return;
+        }
+        if (pendingAlerts.size() >= bufferSize) {
+          pendingAlerts.removeFirst();
+          droppedCount++;
+          dropped.increment();
+        }
+        pendingAlerts.addLast(alert);
+        available.signal();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
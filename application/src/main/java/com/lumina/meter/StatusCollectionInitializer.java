@@ -0,0 +1,226 @@
+package com.lumina.meter;
+
+import com.lumina.meter.model.Status;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the {@code meterStatus} collection and its indexes before anything writes to it.
+ *
+ * <p>By default the collection is a regular collection with a compound {@code (meterId, timestamp,
+ * _id)} index, which serves range scans and the keyset pagination tie-break on {@code _id}. The
+ * single-field {@code meterId} and {@code timestamp} indexes of earlier versions are dropped. When
+ * lumina.meter.status.storage.time-series.enabled is set it is created as a MongoDB time-series
+ * collection with {@code timestamp} as the time field and {@code meterId} as the meta field, which
+ * stores samples for one meter together in compressed buckets.
+ *
+ * <p>An existing regular collection is left alone unless
+ * lumina.meter.status.storage.time-series.migrate is also set. The migration copies the documents
+ * into a new time-series collection in {@code _id} order, recording a checkpoint after every batch
+ * so that a restart resumes where it stopped, and then swaps the collections. It runs while this
+ * instance's context is being built, but other instances of a rolling deploy keep writing to the
+ * original collection, and those writes would be left behind in it. The migration therefore only
+ * runs when lumina.meter.status.storage.time-series.migration-writes-frozen confirms that nothing
+ * else writes statuses, for example because every other instance is stopped.
+ */
+@Slf4j
+@Component
+public class StatusCollectionInitializer implements InitializingBean {
+
+  static final String COLLECTION = "meterStatus";
+  static final String MIGRATION_TARGET = "meterStatus_ts";
+  static final String CHECKPOINT_COLLECTION = "statusMigration";
+
+  /**
+   * Single-field indexes that earlier versions declared with {@code @Indexed} on {@link Status},
+   * named after their field. The compound index covers both.
+   */
+  static final List<String> LEGACY_INDEXES = List.of("meterId", "timestamp");
+
+  private final MongoTemplate mongoTemplate;
+  private final boolean timeSeries;
+  private final Granularity granularity;
+  private final boolean migrate;
+  private final boolean writesFrozen;
+  private final int migrationBatchSize;
+
+  public StatusCollectionInitializer(
+      MongoTemplate mongoTemplate,
+      @Value("${lumina.meter.status.storage.time-series.enabled:false}") boolean timeSeries,
+      @Value("${lumina.meter.status.storage.time-series.granularity:seconds}") String granularity,
+      @Value("${lumina.meter.status.storage.time-series.migrate:false}") boolean migrate,
+      @Value("${lumina.meter.status.storage.time-series.migration-writes-frozen:false}")
+          boolean writesFrozen,
+      @Value("${lumina.meter.status.storage.time-series.migration-batch-size:10000}")
+          int migrationBatchSize) {
+    this.mongoTemplate = mongoTemplate;
+    this.timeSeries = timeSeries;
+    this.granularity = Granularity.valueOf(granularity.toUpperCase(Locale.ROOT));
+    this.migrate = migrate;
+    this.writesFrozen = writesFrozen;
+    this.migrationBatchSize = migrationBatchSize;
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    if (timeSeries) {
+      initTimeSeries();
+    } else if (!mongoTemplate.collectionExists(COLLECTION)) {
+      mongoTemplate.createCollection(Status.class);
+    }
+    ensureIndexes(COLLECTION);
+  }
+
+  private void initTimeSeries() {
+    String type = collectionType(COLLECTION);
+    if (type == null) {
+      createTimeSeries(COLLECTION);
+      log.info("Created time-series collection {} ({})", COLLECTION, granularity);
+    } else if (!"timeseries".equals(type)) {
+      if (migrate && writesFrozen) {
+        migrateToTimeSeries();
+      } else if (migrate) {
+        log.warn(
+            "Not migrating {} while other instances may write to it; stop them and set"
+                + " lumina.meter.status.storage.time-series.migration-writes-frozen=true",
+            COLLECTION);
+      } else {
+        log.warn(
+            "Collection {} is a regular collection; set"
+                + " lumina.meter.status.storage.time-series.migrate=true to convert it",
+            COLLECTION);
+      }
+    }
+  }
+
+  private void createTimeSeries(String name) {
+    mongoTemplate.createCollection(
+        name,
+        CollectionOptions.empty()
+            .timeSeries(
+                CollectionOptions.TimeSeriesOptions.timeSeries("timestamp")
+                    .metaField("meterId")
+                    .granularity(granularity)));
+  }
+
+  private void ensureIndexes(String name) {
+    IndexOperations indexOps = mongoTemplate.indexOps(name);
+    indexOps.ensureIndex(
+        new Index()
+            .on("meterId", Sort.Direction.ASC)
+            .on("timestamp", Sort.Direction.ASC)
+            .on("_id", Sort.Direction.ASC)
+            .named("meterId_timestamp_id"));
+    dropLegacyIndexes(indexOps);
+  }
+
+  private void dropLegacyIndexes(IndexOperations indexOps) {
+    for (IndexInfo index : indexOps.getIndexInfo()) {
+      if (LEGACY_INDEXES.contains(index.getName())
+          && index.getIndexFields().size() == 1
+          && index.isIndexForFields(List.of(index.getName()))) {
+        indexOps.dropIndex(index.getName());
+        log.info(
+            "Dropped index {} of {}, covered by the compound index", index.getName(), COLLECTION);
+      }
+    }
+  }
+
+  /**
+   * Copies {@code meterStatus} into a new time-series collection and swaps them. The original is
+   * kept as {@code meterStatus_legacy_<epochSeconds>} so it can be inspected or dropped manually.
+   * Only called once writes are frozen, so nothing is written to the original after its last batch
+   * is copied.
+   */
+  private void migrateToTimeSeries() {
+    if (collectionType(MIGRATION_TARGET) == null) {
+      createTimeSeries(MIGRATION_TARGET);
+    }
+    MongoCollection<Document> source = mongoTemplate.getCollection(COLLECTION);
+    MongoCollection<Document> target = mongoTemplate.getCollection(MIGRATION_TARGET);
+    MongoCollection<Document> checkpoints = mongoTemplate.getCollection(CHECKPOINT_COLLECTION);
+
+    Document checkpoint = checkpoints.find(Filters.eq("_id", COLLECTION)).first();
+    ObjectId lastId = checkpoint != null ? checkpoint.getObjectId("lastId") : null;
+    if (lastId != null) {
+      // A batch may have been written without its checkpoint; drop it so it is not copied twice.
+      long removed = target.deleteMany(Filters.gt("_id", lastId)).getDeletedCount();
+      log.info(
+          "Resuming {} migration after {} ({} partial document(s) removed)",
+          COLLECTION,
+          lastId,
+          removed);
+    }
+
+    long copied = copyAfter(source, target, checkpoints, lastId);
+    String legacy = COLLECTION + "_legacy_" + Instant.now().getEpochSecond();
+    String database = mongoTemplate.getDb().getName();
+    source.renameCollection(new MongoNamespace(database, legacy));
+    target.renameCollection(new MongoNamespace(database, COLLECTION));
+    checkpoints.deleteOne(Filters.eq("_id", COLLECTION));
+    log.info(
+        "Migrated {} document(s) into time-series collection {}; original kept as {}",
+        copied,
+        COLLECTION,
+        legacy);
+  }
+
+  private long copyAfter(
+      MongoCollection<Document> source,
+      MongoCollection<Document> target,
+      MongoCollection<Document> checkpoints,
+      ObjectId lastId) {
+    long copied = 0;
+    List<Document> batch = new ArrayList<>(migrationBatchSize);
+    while (true) {
+      Bson filter = lastId == null ? Filters.empty() : Filters.gt("_id", lastId);
+      source.find(filter).sort(Sorts.ascending("_id")).limit(migrationBatchSize).into(batch);
+      if (batch.isEmpty()) {
+        return copied;
+      }
+      target.insertMany(batch);
+      lastId = batch.getLast().getObjectId("_id");
+      checkpoints.updateOne(
+          Filters.eq("_id", COLLECTION),
+          Updates.set("lastId", lastId),
+          new UpdateOptions().upsert(true));
+      copied += batch.size();
+      batch.clear();
+      if (copied % (migrationBatchSize * 10L) == 0) {
+        log.info("Migrated {} document(s) so far", copied);
+      }
+    }
+  }
+
+  /**
+   * Returns the collection type reported by {@code listCollections}: {@code "collection"}, {@code
+   * "timeseries"}, or null if the collection does not exist.
+   */
+  private String collectionType(String name) {
+    Document info =
+        mongoTemplate.getDb().listCollections().filter(Filters.eq("name", name)).first();
+    return info != null ? info.getString("type") : null;
+  }
+}
@@ -1,17 +1,40 @@
 package com.lumina.meter;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lumina.BadRequestException;
+import com.lumina.catalogue.model.ValidationStage;
+import com.lumina.meter.dto.BulkStatusResultDto;
+import com.lumina.meter.dto.DataPointDto;
+import com.lumina.meter.dto.MeterSnapshotDto;
+import com.lumina.meter.dto.NewStatusDto;
+import com.lumina.meter.dto.StatusAggregateDto;
 import com.lumina.meter.dto.StatusDto;
+import com.lumina.meter.dto.StatusPageDto;
+import com.lumina.meter.model.AggregateFunction;
+import com.lumina.meter.model.DownsampleMode;
+import com.lumina.meter.model.TimeBucket;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/meter/status")
@@ -19,15 +42,84 @@ import org.springframework.web.bind.annotation.*;
 public class StatusController {
 
   private final StatusService statusService;
+  private final StatusAggregationService aggregationService;
+  private final StatusSnapshotService snapshotService;
+  private final StatusBroker statusBroker;
+  private final MeterScopeResolver scopeResolver;
+  private final ObjectMapper objectMapper;
+  private final Duration liveHeartbeat;
+  private final Duration liveTimeout;
 
-  public StatusController(StatusService statusService) {
+  public StatusController(
+      StatusService statusService,
+      StatusAggregationService aggregationService,
+      StatusSnapshotService snapshotService,
+      StatusBroker statusBroker,
+      MeterScopeResolver scopeResolver,
+      ObjectMapper objectMapper,
+      @Value("${lumina.meter.status.live.heartbeat:15s}") Duration liveHeartbeat,
+      @Value("${lumina.meter.status.live.timeout:0}") Duration liveTimeout) {
     this.statusService = statusService;
+    this.aggregationService = aggregationService;
+    this.snapshotService = snapshotService;
+    this.statusBroker = statusBroker;
+    this.scopeResolver = scopeResolver;
+    this.objectMapper = objectMapper;
+    this.liveHeartbeat = liveHeartbeat;
+    this.liveTimeout = liveTimeout;
+  }
+
+  @Operation(
+      summary = "Ingest a status record",
+      description =
+          "Stores a status sample for a meter. With write-behind ingest enabled the sample is"
+              + " queued and written asynchronously.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "201", description = "Sample stored"),
+        @ApiResponse(responseCode = "202", description = "Sample queued for writing"),
+        @ApiResponse(responseCode = "400", description = "Meter does not exist"),
+        @ApiResponse(
+            responseCode = "429",
+            description = "Ingest queue is full; retry after the Retry-After interval"),
+        @ApiResponse(responseCode = "503", description = "Ingest is not running")
+      })
+  @PostMapping("/{meterId}")
+  public ResponseEntity<StatusDto> createStatus(
+      @Parameter(description = "Meter ID") @PathVariable String meterId,
+      @RequestBody Map<String, Object> data) {
+    var status = StatusDto.from(statusService.createStatus(meterId, data));
+    return ResponseEntity.status(
+            statusService.isWriteBehind() ? HttpStatus.ACCEPTED : HttpStatus.CREATED)
+        .body(status);
+  }
+
+  @Operation(
+      summary = "Ingest status records in bulk",
+      description =
+          "Stores many status samples, for any number of meters, in one request. Each sample is"
+              + " accepted or rejected individually and the response reports the outcome per item.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Samples processed"),
+        @ApiResponse(responseCode = "400", description = "Empty or oversized request")
+      })
+  @PostMapping("/bulk")
+  public BulkStatusResultDto createStatuses(@RequestBody List<NewStatusDto> samples) {
+    if (samples == null || samples.isEmpty()) {
+      throw new BadRequestException("At least one status is required");
+    }
+    var receivedAt = Instant.now();
+    var statuses = samples.stream().map(s -> NewStatusDto.toModel(s, receivedAt)).toList();
+    return BulkStatusResultDto.from(statusService.createStatuses(statuses));
   }
 
   @Operation(
       summary = "Get status records for a meter",
       description =
-          "Retrieves status records for a specific meter within a time range. Returns a stream of status data.")
+          "Retrieves status records for a specific meter within a time range. Send Accept:"
+              + " application/x-ndjson or text/event-stream to receive the records as they are read"
+              + " instead of as one JSON array.")
   @ApiResponses(
       value = {
         @ApiResponse(responseCode = "200", description = "Status records retrieved successfully"),
@@ -45,17 +137,183 @@ public class StatusController {
           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
           Instant endTime) {
 
-    if (startTime.isAfter(endTime)) {
-      throw new IllegalArgumentException("Start time must be before end time");
-    }
+    checkTimeRange(startTime, endTime);
 
-    // Convert stream to list for JSON serialization
-    // For large datasets, consider pagination or server-sent events
+    // Materialised for plain JSON clients; large ranges should use the streaming variants below
     try (var stream = statusService.getStatusStream(meterId, startTime, endTime)) {
       return stream.map(StatusDto::from).toList();
     }
   }
 
+  @Operation(
+      summary = "Stream status records for a meter as NDJSON",
+      description = "Writes one JSON status record per line as it is read from the database")
+  @GetMapping(value = "/{meterId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> streamStatusByTimeRange(
+      @PathVariable String meterId,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startTime,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant endTime) {
+
+    checkTimeRange(startTime, endTime);
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(
+            StatusStreams.ndjson(
+                () -> statusDtoStream(meterId, startTime, endTime), objectMapper));
+  }
+
+  @Operation(
+      summary = "Stream status records for a meter as server-sent events",
+      description =
+          "Sends one status event per record as it is read, followed by a complete event")
+  @GetMapping(value = "/{meterId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public ResponseEntity<StreamingResponseBody> streamStatusEventsByTimeRange(
+      @PathVariable String meterId,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startTime,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant endTime) {
+
+    checkTimeRange(startTime, endTime);
+    return ResponseEntity.ok()
+        .contentType(MediaType.TEXT_EVENT_STREAM)
+        .header("Cache-Control", "no-cache")
+        .body(
+            StatusStreams.sse(
+                () -> statusDtoStream(meterId, startTime, endTime), StatusDto::id, objectMapper));
+  }
+
+  @Operation(
+      summary = "Get a page of status records for a meter",
+      description =
+          "Retrieves status records for a meter within a time range in pages of at most limit"
+              + " records. Pass the nextCursor of a page as cursor to fetch the following page.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Page retrieved successfully"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid time range, limit, order or cursor")
+      })
+  @GetMapping("/{meterId}/page")
+  public StatusPageDto getStatusPage(
+      @Parameter(description = "Meter ID") @PathVariable String meterId,
+      @Parameter(description = "Start time (ISO-8601 format)", example = "2025-11-23T00:00:00Z")
+          @RequestParam
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          Instant startTime,
+      @Parameter(description = "End time (ISO-8601 format)", example = "2025-11-23T23:59:59Z")
+          @RequestParam
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          Instant endTime,
+      @Parameter(description = "Maximum records per page") @RequestParam(defaultValue = "100")
+          int limit,
+      @Parameter(description = "Sort order by timestamp: asc or desc")
+          @RequestParam(defaultValue = "asc")
+          String order,
+      @Parameter(description = "Continuation token from the previous page")
+          @RequestParam(required = false)
+          String cursor) {
+
+    checkTimeRange(startTime, endTime);
+    Sort.Direction direction = Sort.Direction.fromString(order);
+    return StatusPageDto.from(
+        statusService.getStatusPage(meterId, startTime, endTime, limit, direction, cursor));
+  }
+
+  @Operation(
+      summary = "Aggregate status records into time buckets",
+      description =
+          "Computes statistics of numeric data fields per time bucket on the database. Day, week"
+              + " and month buckets are aligned to the given time zone; weeks start on Monday.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Buckets computed successfully"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid time range, bucket, field, function or time zone")
+      })
+  @GetMapping("/{meterId}/aggregate")
+  public List<StatusAggregateDto> aggregateStatus(
+      @Parameter(description = "Meter ID") @PathVariable String meterId,
+      @Parameter(description = "Start time (ISO-8601 format)", example = "2025-11-23T00:00:00Z")
+          @RequestParam
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          Instant startTime,
+      @Parameter(description = "End time (ISO-8601 format)", example = "2025-11-23T23:59:59Z")
+          @RequestParam
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          Instant endTime,
+      @Parameter(description = "Bucket width: s, m, h, d, w or M with a multiple", example = "15m")
+          @RequestParam
+          String bucket,
+      @Parameter(description = "Numeric data fields to aggregate", example = "power,voltage")
+          @RequestParam
+          List<String> fields,
+      @Parameter(description = "Functions to compute: avg, min, max, sum, count")
+          @RequestParam(defaultValue = "avg,min,max,count")
+          List<String> fn,
+      @Parameter(description = "Time zone for bucket alignment", example = "Europe/London")
+          @RequestParam(defaultValue = "UTC")
+          String timezone) {
+
+    checkTimeRange(startTime, endTime);
+    var functions = fn.stream().map(AggregateFunction::parse).distinct().toList();
+    var aggregates =
+        aggregationService.aggregate(
+            meterId,
+            startTime,
+            endTime,
+            TimeBucket.parse(bucket),
+            StatusAggregationService.zone(timezone),
+            fields);
+    return aggregates.stream().map(a -> StatusAggregateDto.from(a, functions)).toList();
+  }
+
+  @Operation(
+      summary = "Get a downsampled series of one status field for charting",
+      description =
+          "Reduces a numeric data field to at most the given number of points while keeping peaks"
+              + " and dips. lttb keeps the visual shape of the series with one point per bucket;"
+              + " min_max keeps the lowest and highest point of each bucket.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Series computed successfully"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid time range, field, point count or mode")
+      })
+  @GetMapping("/{meterId}/downsample")
+  public List<DataPointDto> getDownsampledStatus(
+      @Parameter(description = "Meter ID") @PathVariable String meterId,
+      @Parameter(description = "Start time (ISO-8601 format)", example = "2025-11-23T00:00:00Z")
+          @RequestParam
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          Instant startTime,
+      @Parameter(description = "End time (ISO-8601 format)", example = "2025-11-23T23:59:59Z")
+          @RequestParam
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          Instant endTime,
+      @Parameter(description = "Numeric data field", example = "power") @RequestParam
+          String field,
+      @Parameter(description = "Maximum number of points") @RequestParam(defaultValue = "1000")
+          int points,
+      @Parameter(description = "Downsampling mode: lttb or min_max")
+          @RequestParam(defaultValue = "lttb")
+          String mode) {
+
+    checkTimeRange(startTime, endTime);
+    DownsampleMode downsampleMode;
+    try {
+      downsampleMode = DownsampleMode.valueOf(mode.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException("Unknown downsampling mode: " + mode);
+    }
+    return statusService
+        .getDownsampledStatus(meterId, startTime, endTime, field, points, downsampleMode)
+        .stream()
+        .map(DataPointDto::from)
+        .toList();
+  }
+
   @Operation(
       summary = "Get latest status for a meter",
       description = "Retrieves the most recent status record for a specific meter")
@@ -73,4 +331,85 @@ public class StatusController {
         .map(ResponseEntity::ok)
         .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
   }
+
+  @Operation(
+      summary = "Stream the latest status of many meters",
+      description =
+          "Writes one line of NDJSON per matching meter with its most recent status, which is null"
+              + " if the meter has not reported yet. All filters are optional and are combined.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Snapshot streamed successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid validation stage")
+      })
+  @GetMapping("/snapshot")
+  public ResponseEntity<StreamingResponseBody> getLatestStatusSnapshot(
+      @Parameter(description = "Client ID") @RequestParam(required = false) String clientId,
+      @Parameter(description = "Project ID") @RequestParam(required = false) String projectId,
+      @Parameter(description = "Location ID") @RequestParam(required = false) String locationId,
+      @Parameter(description = "Catalogue model") @RequestParam(required = false) String model,
+      @Parameter(description = "Validation stage") @RequestParam(required = false)
+          ValidationStage stage) {
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(
+            StatusStreams.ndjson(
+                () ->
+                    snapshotService
+                        .snapshot(clientId, projectId, locationId, model, stage)
+                        .map(MeterSnapshotDto::from),
+                objectMapper));
+  }
+
+  @Operation(
+      summary = "Subscribe to live statuses",
+      description =
+          "Pushes each newly ingested status of the selected meters as a server-sent status event"
+              + " until the client disconnects. Meters are selected by id or by client, project or"
+              + " location, resolved when the subscription opens. A slow client receives the"
+              + " latest status of each meter rather than every intermediate one. Alerts raised or"
+              + " cleared for the meters are pushed as alert events. The subscription is not bound"
+              + " by the async request timeout of the other streams; it has its own, unlimited by"
+              + " default.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Subscription opened"),
+        @ApiResponse(responseCode = "400", description = "No meters selected")
+      })
+  @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public ResponseEntity<StreamingResponseBody> subscribeToLiveStatus(
+      @Parameter(description = "Meter IDs") @RequestParam(required = false) List<String> meterId,
+      @Parameter(description = "Client ID") @RequestParam(required = false) String clientId,
+      @Parameter(description = "Project ID") @RequestParam(required = false) String projectId,
+      @Parameter(description = "Location ID") @RequestParam(required = false) String locationId,
+      HttpServletRequest request) {
+    Set<String> meterIds = scopeResolver.meterIds(clientId, projectId, locationId);
+    if (meterId != null) {
+      meterIds = MeterScopeResolver.intersect(meterIds, Set.copyOf(meterId));
+    }
+    if (meterIds == null || meterIds.isEmpty()) {
+      throw new BadRequestException("The filters do not select any meters");
+    }
+    Set<String> selected = meterIds;
+    StatusStreams.setTimeout(request, liveTimeout);
+    return ResponseEntity.ok()
+        .contentType(MediaType.TEXT_EVENT_STREAM)
+        .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+        .body(
+            StatusStreams.live(
+                () -> statusBroker.subscribe(selected),
+                StatusDto::from,
+                liveHeartbeat,
+                objectMapper));
+  }
+
+  private Stream<StatusDto> statusDtoStream(String meterId, Instant startTime, Instant endTime) {
+    return statusService.getStatusStream(meterId, startTime, endTime).map(StatusDto::from);
+  }
+
+  private static void checkTimeRange(Instant startTime, Instant endTime) {
+    if (startTime.isAfter(endTime)) {
+      throw new BadRequestException("Start time must be before end time");
+    }
+  }
 }
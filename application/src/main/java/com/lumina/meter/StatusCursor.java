@@ -0,0 +1,63 @@
+package com.lumina.meter;
+
+import com.lumina.BadRequestException;
+import com.lumina.meter.model.Status;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Base64;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Position in a meter's status history, used as the continuation token for keyset pagination. The
+ * token identifies the last record of a page by {@code (timestamp, _id)}, which is unique and
+ * matches the sort order, so the next page starts with an index seek rather than a skip.
+ *
+ * <p>Encoded as URL-safe Base64 over a fixed 25-byte layout: direction, epoch seconds, nanos and
+ * the 12-byte ObjectId. Clients should treat it as opaque.
+ */
+record StatusCursor(Sort.Direction direction, Instant timestamp, ObjectId id) {
+
+  private static final int LENGTH = 1 + Long.BYTES + Integer.BYTES + 12;
+
+  /** Returns true if a record comes after this position in the cursor's direction. */
+  boolean isBefore(Status status) {
+    int order = status.timestamp().compareTo(timestamp);
+    if (order == 0) {
+      order = status.id().compareTo(id.toHexString());
+    }
+    return direction.isAscending() ? order > 0 : order < 0;
+  }
+
+  String encode() {
+    ByteBuffer buffer = ByteBuffer.allocate(LENGTH);
+    buffer.put((byte) (direction.isAscending() ? 'A' : 'D'));
+    buffer.putLong(timestamp.getEpochSecond());
+    buffer.putInt(timestamp.getNano());
+    buffer.put(id.toByteArray());
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+  }
+
+  /**
+   * Decodes a token produced by {@link #encode()}.
+   *
+   * @throws BadRequestException if the token is malformed
+   */
+  static StatusCursor decode(String token) {
+    byte[] bytes;
+    try {
+      bytes = Base64.getUrlDecoder().decode(token);
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException("Invalid cursor");
+    }
+    if (bytes.length != LENGTH || (bytes[0] != 'A' && bytes[0] != 'D')) {
+      throw new BadRequestException("Invalid cursor");
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    Sort.Direction direction = buffer.get() == 'A' ? Sort.Direction.ASC : Sort.Direction.DESC;
+    Instant timestamp = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+    byte[] id = new byte[12];
+    buffer.get(id);
+    return new StatusCursor(direction, timestamp, new ObjectId(id));
+  }
+}
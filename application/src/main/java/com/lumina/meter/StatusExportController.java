@@ -0,0 +1,123 @@
+package com.lumina.meter;
+
+import com.lumina.meter.dto.NewStatusExportDto;
+import com.lumina.meter.dto.StatusExportDto;
+import com.lumina.meter.model.StatusExport;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import java.nio.file.Path;
+import java.util.List;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Starts, tracks and serves status exports. Exports are tracked in memory by {@link
+ * StatusExportService}, so they do not survive a restart and are only known to the instance that
+ * queued them.
+ */
+@RestController
+@RequestMapping("/api/meter/export")
+@Tag(name = "Status Export", description = "Bulk export of status history to files")
+public class StatusExportController {
+
+  private final StatusExportService exportService;
+
+  public StatusExportController(StatusExportService exportService) {
+    this.exportService = exportService;
+  }
+
+  @Operation(
+      summary = "Start a status export",
+      description =
+          "Queues an export of the statuses of the selected meters within the time range, to a"
+              + " Parquet file with one typed column per telemetry field or to a gzip CSV file."
+              + " Meters are selected by id or by client, project or location. Poll the export"
+              + " for its progress and download the file once it has completed. Exports are"
+              + " held in the memory of the instance that queued them: an export that is running"
+              + " when the application restarts is lost and must be started again, and the"
+              + " exports of an earlier run are no longer listed or downloadable.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "202", description = "Export queued"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "No meter selected or invalid time range")
+      })
+  @PostMapping
+  @ResponseStatus(HttpStatus.ACCEPTED)
+  public StatusExportDto create(@RequestBody @Valid NewStatusExportDto request) {
+    return StatusExportDto.from(
+        exportService.submit(
+            request.format(),
+            request.meterId(),
+            request.clientId(),
+            request.projectId(),
+            request.locationId(),
+            request.startTime(),
+            request.endTime()));
+  }
+
+  @Operation(summary = "List status exports", description = "Returns all exports, newest first")
+  @GetMapping
+  public List<StatusExportDto> list() {
+    return exportService.list().stream().map(StatusExportDto::from).toList();
+  }
+
+  @Operation(summary = "Get a status export", description = "Returns an export and its progress")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Export found"),
+        @ApiResponse(responseCode = "404", description = "Export not found")
+      })
+  @GetMapping("/{id}")
+  public StatusExportDto get(@Parameter(description = "Export ID") @PathVariable String id) {
+    return StatusExportDto.from(exportService.get(id));
+  }
+
+  @Operation(summary = "Download the file of a completed status export")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Export file"),
+        @ApiResponse(responseCode = "400", description = "Export has not completed"),
+        @ApiResponse(responseCode = "404", description = "Export not found")
+      })
+  @GetMapping("/{id}/file")
+  public ResponseEntity<Resource> download(
+      @Parameter(description = "Export ID") @PathVariable String id) {
+    StatusExport export = exportService.get(id);
+    Path file = exportService.file(id);
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(export.format().mediaType()))
+        .header(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment()
+                .filename("statuses-%s.%s".formatted(id, export.format().extension()))
+                .build()
+                .toString())
+        .body(new FileSystemResource(file));
+  }
+
+  @Operation(
+      summary = "Delete a status export",
+      description = "Cancels the export if it is still running and deletes its file")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "204", description = "Export deleted"),
+        @ApiResponse(responseCode = "404", description = "Export not found")
+      })
+  @DeleteMapping("/{id}")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public void delete(@Parameter(description = "Export ID") @PathVariable String id) {
+    exportService.delete(id);
+  }
+}
@@ -0,0 +1,54 @@
+package com.lumina.meter;
+
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.TelemetryField;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The columns of one exported status: the meter, the timestamp, one value per {@link
+ * TelemetryField} and the remaining data fields. A numeric typed field found in the data map of an
+ * untyped status fills its column too, so the columns do not depend on how a sample was stored.
+ * One instance is reused for every row of an export.
+ */
+final class StatusExportRow {
+
+  static final TelemetryField[] FIELDS = TelemetryField.values();
+
+  String meterId;
+  long timestamp;
+
+  /** The value per telemetry field, NaN where the status has none. */
+  final double[] values = new double[FIELDS.length];
+
+  /** The data fields that have no typed column, in their original order. */
+  final Map<String, Object> extras = new LinkedHashMap<>();
+
+  void reset(Status status) {
+    meterId = status.meterId();
+    timestamp = status.timestamp().toEpochMilli();
+    Arrays.fill(values, Double.NaN);
+    extras.clear();
+    if (status.telemetry() != null) {
+      for (int i = 0; i < FIELDS.length; i++) {
+        values[i] = status.telemetry().value(FIELDS[i]);
+      }
+    }
+    if (status.data() != null) {
+      status
+          .data()
+          .forEach(
+              (name, value) -> {
+                TelemetryField field = TelemetryField.byName(name);
+                if (field != null
+                    && value instanceof Number number
+                    && Double.isNaN(values[field.ordinal()])) {
+                  values[field.ordinal()] = number.doubleValue();
+                } else {
+                  extras.put(name, value);
+                }
+              });
+    }
+  }
+}
@@ -0,0 +1,404 @@
+package com.lumina.meter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lumina.BadRequestException;
+import com.lumina.NotFoundException;
+import com.lumina.meter.model.ExportFormat;
+import com.lumina.meter.model.ExportState;
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusExport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs export jobs that write the status history of a set of meters to a Parquet or gzip CSV file
+ * on local disk.
+ *
+ * <p>A job streams each meter's statuses from the database cursor straight into a {@link
+ * StatusExportWriter}, one meter after the other, so it holds no more than one row group in
+ * memory however many rows it exports. Jobs run on a fixed number of virtual threads, and further
+ * jobs queue, so exports never compete with each other for heap. The file is written under a
+ * temporary name and renamed once complete, so a download never sees a partial file.
+ *
+ * <p>Jobs are tracked in memory: their progress is lost on restart, and finished jobs and their
+ * files are removed after the retention period. Export files in the directory that belong to no
+ * known job, such as those left behind by an earlier run of the application, are removed at
+ * startup and by every cleanup once they are older than the retention.
+ */
+@Slf4j
+@Service
+public class StatusExportService implements InitializingBean, DisposableBean {
+
+  private final StatusService statusService;
+  private final MeterIdIndex meterIdIndex;
+  private final MeterScopeResolver scopeResolver;
+  private final ObjectMapper objectMapper;
+  private final Path directory;
+  private final int rowGroupSize;
+  private final Duration retention;
+  private final ExecutorService executor;
+  private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+  private final Counter rowsExported;
+
+  public StatusExportService(
+      StatusService statusService,
+      MeterIdIndex meterIdIndex,
+      MeterScopeResolver scopeResolver,
+      ObjectMapper objectMapper,
+      MeterRegistry registry,
+      @Value("${lumina.meter.status.export.directory:${java.io.tmpdir}/lumina-exports}")
+          Path directory,
+      @Value("${lumina.meter.status.export.max-concurrent:2}") int maxConcurrent,
+      @Value("${lumina.meter.status.export.row-group-size:100000}") int rowGroupSize,
+      @Value("${lumina.meter.status.export.retention:24h}") Duration retention) {
+    if (maxConcurrent < 1 || rowGroupSize < 1) {
+      throw new IllegalArgumentException("Export concurrency and row group size must be positive");
+    }
+    this.statusService = statusService;
+    this.meterIdIndex = meterIdIndex;
+    this.scopeResolver = scopeResolver;
+    this.objectMapper = objectMapper;
+    this.directory = directory;
+    this.rowGroupSize = rowGroupSize;
+    this.retention = retention;
+    this.executor =
+        Executors.newFixedThreadPool(
+            maxConcurrent, Thread.ofVirtual().name("status-export-", 0).factory());
+
+    this.rowsExported = registry.counter("lumina.status.export.rows");
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    removeOrphans(Instant.now().minus(retention));
+  }
+
+  /**
+   * Starts an export of the statuses of the selected meters. Meters are selected by id or by
+   * client, project or location; the filters are combined.
+   *
+   * @throws BadRequestException if no meter is selected or the time range is invalid
+   */
+  public StatusExport submit(
+      ExportFormat format,
+      String meterId,
+      String clientId,
+      String projectId,
+      String locationId,
+      Instant startTime,
+      Instant endTime) {
+    if (startTime.isAfter(endTime)) {
+      throw new BadRequestException("startTime must be before or equal to endTime");
+    }
+    Set<String> selected = scopeResolver.meterIds(meterId, clientId, projectId, locationId);
+    if (selected == null) {
+      throw new BadRequestException(
+          "Select the meters by meterId, clientId, projectId or locationId");
+    }
+    List<String> meters = new ArrayList<>(meterIdIndex.retainExisting(selected));
+    if (meters.isEmpty()) {
+      throw new BadRequestException("No existing meter is selected");
+    }
+    meters.sort(Comparator.naturalOrder());
+
+    Job job =
+        new Job(
+            UUID.randomUUID().toString(),
+            format,
+            meterId,
+            clientId,
+            projectId,
+            locationId,
+            startTime,
+            endTime,
+            meters);
+    jobs.put(job.id, job);
+    job.future = executor.submit(job::run);
+    log.info("Queued {} export {} of {} meters", format, job.id, meters.size());
+    return job.snapshot();
+  }
+
+  public StatusExport get(String id) {
+    return job(id).snapshot();
+  }
+
+  /** Returns all known jobs, newest first. */
+  public List<StatusExport> list() {
+    return jobs.values().stream()
+        .sorted(Comparator.comparing((Job job) -> job.createdAt).reversed())
+        .map(Job::snapshot)
+        .toList();
+  }
+
+  /**
+   * Returns the file of a completed export.
+   *
+   * @throws BadRequestException if the export has not completed
+   */
+  public Path file(String id) {
+    Job job = job(id);
+    if (job.state != ExportState.COMPLETED) {
+      throw new BadRequestException("Export %s is %s".formatted(id, job.state));
+    }
+    return job.file();
+  }
+
+  /** Cancels an export if it is still running and removes it with its file. */
+  public void delete(String id) {
+    Job job = jobs.remove(id);
+    if (job == null) {
+      throw new NotFoundException("Export %s does not exist".formatted(id));
+    }
+    job.cancel();
+  }
+
+  /**
+   * Removes finished exports, and their files, once they are older than the retention, as well as
+   * export files of no known job that were last modified before then.
+   */
+  @Scheduled(fixedDelayString = "${lumina.meter.status.export.cleanup-interval:3600000}")
+  public void removeExpired() {
+    Instant cutoff = Instant.now().minus(retention);
+    jobs.values()
+        .removeIf(
+            job -> {
+              Instant finishedAt = job.finishedAt;
+              if (finishedAt == null || !finishedAt.isBefore(cutoff)) {
+                return false;
+              }
+              job.deleteFiles();
+              return true;
+            });
+    removeOrphans(cutoff);
+  }
+
+  /** Deletes the export files, complete or partial, that belong to no known job. */
+  private void removeOrphans(Instant cutoff) {
+    if (!Files.isDirectory(directory)) {
+      return;
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      files.filter(this::isOrphan).forEach(file -> deleteIfOlder(file, cutoff));
+    } catch (IOException e) {
+      log.warn("Could not list export directory {}", directory, e);
+    }
+  }
+
+  private boolean isOrphan(Path file) {
+    String name = file.getFileName().toString();
+    int dot = name.indexOf('.');
+    if (dot < 0 || jobs.containsKey(name.substring(0, dot))) {
+      return false;
+    }
+    String extension = name.substring(dot + 1).replaceFirst("\\.part$", "");
+    for (ExportFormat format : ExportFormat.values()) {
+      if (format.extension().equals(extension)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void deleteIfOlder(Path file, Instant cutoff) {
+    try {
+      if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+        Files.deleteIfExists(file);
+        log.info("Removed orphaned export file {}", file);
+      }
+    } catch (IOException e) {
+      log.warn("Could not remove orphaned export file {}", file, e);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdownNow();
+  }
+
+  private Job job(String id) {
+    Job job = jobs.get(id);
+    if (job == null) {
+      throw new NotFoundException("Export %s does not exist".formatted(id));
+    }
+    return job;
+  }
+
+  /** One export and its progress, updated by the thread running it. */
+  private final class Job {
+
+    private final String id;
+    private final ExportFormat format;
+    private final String meterId;
+    private final String clientId;
+    private final String projectId;
+    private final String locationId;
+    private final Instant startTime;
+    private final Instant endTime;
+    private final List<String> meters;
+    private final Instant createdAt = Instant.now();
+    private volatile Future<?> future;
+    private volatile ExportState state = ExportState.QUEUED;
+    private volatile int metersDone;
+    private volatile long rows;
+    private volatile long bytes;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    private Job(
+        String id,
+        ExportFormat format,
+        String meterId,
+        String clientId,
+        String projectId,
+        String locationId,
+        Instant startTime,
+        Instant endTime,
+        List<String> meters) {
+      this.id = id;
+      this.format = format;
+      this.meterId = meterId;
+      this.clientId = clientId;
+      this.projectId = projectId;
+      this.locationId = locationId;
+      this.startTime = startTime;
+      this.endTime = endTime;
+      this.meters = meters;
+    }
+
+    private Path file() {
+      return directory.resolve("%s.%s".formatted(id, format.extension()));
+    }
+
+    private Path partialFile() {
+      return directory.resolve("%s.%s.part".formatted(id, format.extension()));
+    }
+
+    /**
+     * Writes the export. Whenever it stops without completing, including when it is cancelled
+     * while the file is being created or written, it deletes its own files on the way out, since
+     * a cancel may have deleted them before they were created.
+     */
+    private void run() {
+      if (state != ExportState.QUEUED) {
+        return;
+      }
+      state = ExportState.RUNNING;
+      try {
+        Files.createDirectories(directory);
+        try (OutputStream out = Files.newOutputStream(partialFile());
+            StatusExportWriter writer =
+                StatusExportWriter.open(format, out, objectMapper, rowGroupSize)) {
+          for (String meter : meters) {
+            writeMeter(meter, writer);
+            if (state != ExportState.RUNNING) {
+              return;
+            }
+            metersDone++;
+          }
+        }
+        Files.move(partialFile(), file(), StandardCopyOption.REPLACE_EXISTING);
+        bytes = Files.size(file());
+        if (state != ExportState.RUNNING) {
+          return;
+        }
+        finish(ExportState.COMPLETED, null);
+        log.info("Completed export {}: {} rows, {} bytes", id, rows, bytes);
+      } catch (Exception e) {
+        if (state == ExportState.RUNNING) {
+          log.warn("Export {} failed", id, e);
+          finish(ExportState.FAILED, e.getMessage());
+        }
+      } finally {
+        if (state != ExportState.COMPLETED) {
+          deleteFiles();
+        }
+      }
+    }
+
+    private void writeMeter(String meter, StatusExportWriter writer) throws IOException {
+      long written = 0;
+      try (Stream<Status> statuses = statusService.getStatusStream(meter, startTime, endTime)) {
+        Iterator<Status> iterator = statuses.iterator();
+        while (iterator.hasNext() && state == ExportState.RUNNING) {
+          writer.write(iterator.next());
+          rows = rows + 1;
+          written++;
+        }
+      } finally {
+        rowsExported.increment(written);
+      }
+    }
+
+    private void cancel() {
+      if (!state.isFinished()) {
+        finish(ExportState.CANCELLED, null);
+      }
+      Future<?> running = future;
+      if (running != null) {
+        running.cancel(false);
+      }
+      deleteFiles();
+    }
+
+    private void finish(ExportState finalState, String message) {
+      error = message;
+      finishedAt = Instant.now();
+      state = finalState;
+    }
+
+    private void deleteFiles() {
+      try {
+        Files.deleteIfExists(partialFile());
+        Files.deleteIfExists(file());
+      } catch (IOException e) {
+        log.warn("Could not delete the files of export {}", id, e);
+      }
+    }
+
+    private StatusExport snapshot() {
+      return new StatusExport(
+          id,
+          format,
+          state,
+          meterId,
+          clientId,
+          projectId,
+          locationId,
+          startTime,
+          endTime,
+          meters.size(),
+          metersDone,
+          rows,
+          bytes,
+          createdAt,
+          finishedAt,
+          error);
+    }
+  }
+}
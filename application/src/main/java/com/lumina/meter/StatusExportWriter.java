@@ -0,0 +1,26 @@
+package com.lumina.meter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lumina.meter.model.ExportFormat;
+import com.lumina.meter.model.Status;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes statuses to an export file one at a time. Implementations hold at most a bounded buffer
+ * of rows, and closing the writer completes the file and closes the target stream.
+ */
+interface StatusExportWriter extends Closeable {
+
+  void write(Status status) throws IOException;
+
+  static StatusExportWriter open(
+      ExportFormat format, OutputStream out, ObjectMapper objectMapper, int rowGroupSize)
+      throws IOException {
+    return switch (format) {
+      case PARQUET -> new ParquetStatusWriter(out, objectMapper, rowGroupSize);
+      case CSV -> new CsvStatusWriter(out, objectMapper);
+    };
+  }
+}
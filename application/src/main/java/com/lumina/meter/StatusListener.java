@@ -0,0 +1,18 @@
+package com.lumina.meter;
+
+import com.lumina.meter.model.Status;
+import java.util.List;
+
+/**
+ * Receives status records after they have been written to the database, whichever ingest path
+ * wrote them. Implementations are called on the writing thread and must return quickly.
+ */
+public interface StatusListener {
+
+  /**
+   * Called after a batch of statuses has been stored.
+   *
+   * @param statuses the stored statuses with their ids, in the order they were written
+   */
+  void onStatusesWritten(List<Status> statuses);
+}
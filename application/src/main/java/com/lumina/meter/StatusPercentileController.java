@@ -0,0 +1,84 @@
+package com.lumina.meter;
+
+import com.lumina.BadRequestException;
+import com.lumina.meter.dto.StatusPercentilesDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/meter/percentiles")
+@Tag(name = "Status Percentiles", description = "Percentiles of status fields from hourly sketches")
+@ConditionalOnProperty(
+    value = "lumina.meter.status.sketch.enabled",
+    havingValue = "true",
+    matchIfMissing = false)
+public class StatusPercentileController {
+
+  private final StatusSketchStore sketchStore;
+  private final MeterScopeResolver scopeResolver;
+  private final MeterIdIndex meterIdIndex;
+
+  public StatusPercentileController(
+      StatusSketchStore sketchStore, MeterScopeResolver scopeResolver, MeterIdIndex meterIdIndex) {
+    this.sketchStore = sketchStore;
+    this.scopeResolver = scopeResolver;
+    this.meterIdIndex = meterIdIndex;
+  }
+
+  @Operation(
+      summary = "Get percentiles of a status field",
+      description =
+          "Merges the hourly sketches of a numeric status field across the selected meters and"
+              + " hours and returns its quantiles, within one percent of the exact values, with"
+              + " optional histogram buckets. Meters are selected by id or by client, project or"
+              + " location; the time range is widened to whole hours.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Percentiles computed"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "No meter selected, invalid time range or quantile out of range")
+      })
+  @GetMapping
+  public StatusPercentilesDto getPercentiles(
+      @Parameter(description = "Meter ID") @RequestParam(required = false) String meterId,
+      @Parameter(description = "Client ID") @RequestParam(required = false) String clientId,
+      @Parameter(description = "Project ID") @RequestParam(required = false) String projectId,
+      @Parameter(description = "Location ID") @RequestParam(required = false) String locationId,
+      @Parameter(description = "Numeric status field, e.g. batteryLevel") @RequestParam
+          String field,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startTime,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant endTime,
+      @Parameter(description = "Quantiles between 0 and 1")
+          @RequestParam(defaultValue = "0.5,0.95,0.99")
+          List<Double> quantiles,
+      @Parameter(description = "Include the histogram buckets")
+          @RequestParam(defaultValue = "false")
+          boolean histogram) {
+    if (startTime.isAfter(endTime)) {
+      throw new BadRequestException("startTime must be before or equal to endTime");
+    }
+    Set<String> selected = scopeResolver.meterIds(meterId, clientId, projectId, locationId);
+    if (selected == null) {
+      throw new BadRequestException(
+          "Select the meters by meterId, clientId, projectId or locationId");
+    }
+    return StatusPercentilesDto.from(
+        sketchStore.percentiles(
+            meterIdIndex.retainExisting(selected),
+            field,
+            startTime,
+            endTime,
+            quantiles,
+            histogram));
+  }
+}
@@ -9,15 +9,21 @@ import org.springframework.data.mongodb.repository.Query;
 public interface StatusRepository extends MongoRepository<Status, String> {
 
   /**
-   * Finds status records for a given meter within a time range. Returns a stream for efficient
-   * processing of large datasets.
+   * Finds status records for a given meter within a time range, oldest first. Returns a stream for
+   * efficient processing of large datasets.
+   *
+   * <p>The sort is explicit because a time-series collection does not return documents in insertion
+   * order; with the {@code (meterId, timestamp)} index it is satisfied by the index scan in either
+   * storage mode.
    *
    * @param meterId the meter ID
    * @param startTime the start of the time range (inclusive)
    * @param endTime the end of the time range (inclusive)
    * @return stream of status records
    */
-  @Query("{ 'meterId': ?0, 'timestamp': { $gte: ?1, $lte: ?2 } }")
+  @Query(
+      value = "{ 'meterId': ?0, 'timestamp': { $gte: ?1, $lte: ?2 } }",
+      sort = "{ 'timestamp': 1 }")
   Stream<Status> findByMeterIdAndTimestampBetween(
       String meterId, Instant startTime, Instant endTime);
 
@@ -0,0 +1,442 @@
+package com.lumina.meter;
+
+import com.lumina.meter.StatusAggregationService.BucketStats;
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusAggregate;
+import com.lumina.meter.model.TelemetryField;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rolls the raw status history up into the 1-minute and 1-hour {@link RollupTier tiers} and
+ * expires each level after its retention period.
+ *
+ * <p>Each tier is built from the next finer level, raw samples for minutes and minutes for hours,
+ * one chunk of time at a time. A chunk is aggregated inside MongoDB and written with {@code
+ * $merge}, which replaces the rollup documents of the chunk by their deterministic ids, and only
+ * then is the tier's watermark advanced in {@code statusRollup}. A run that stops part way
+ * therefore repeats at most one chunk on restart, and repeating it produces the same documents.
+ * The minute tier stays the lag behind real time so that samples which arrive a little late are
+ * still included; samples older than that when they arrive are kept raw but are not added to the
+ * rollups.
+ *
+ * <p>With compressed blocks enabled, part of the raw history may already be sealed when the minute
+ * tier reaches it, for example when rollups are enabled on an existing sealed history. MongoDB
+ * cannot read the blocks, so the minute buckets of meters with blocks in a chunk are rebuilt here
+ * from their sealed and raw samples and replace the documents the pipeline wrote for them. Once the
+ * tier has caught up, buckets are only sealed after it has passed them.
+ *
+ * <p>Retention uses TTL indexes, or the collection's {@code expireAfterSeconds} for a time-series
+ * {@code meterStatus}, so MongoDB removes expired data itself. A retention of zero keeps a level
+ * forever.
+ *
+ * <p>Enabled by the property: lumina.meter.status.rollup.enabled
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+    value = "lumina.meter.status.rollup.enabled",
+    havingValue = "true",
+    matchIfMissing = false)
+public class StatusRollupService implements InitializingBean {
+
+  static final String CHECKPOINT_COLLECTION = "statusRollup";
+
+  /** The fields kept in the rollups: every typed telemetry field. */
+  static final List<String> FIELDS =
+      Arrays.stream(TelemetryField.values()).map(TelemetryField::fieldName).toList();
+
+  private final MongoTemplate mongoTemplate;
+  private final Duration lag;
+  private final int maxChunksPerRun;
+  private final Duration rawRetention;
+  private final Map<RollupTier, Duration> retention;
+  private final boolean blocks;
+  private final Map<RollupTier, Instant> watermarks = new ConcurrentHashMap<>();
+
+  private final Counter chunks;
+
+  /**
+   * @param collectionInitializer injected so that {@code meterStatus} exists before its retention
+   *     is configured
+   */
+  public StatusRollupService(
+      MongoTemplate mongoTemplate,
+      StatusCollectionInitializer collectionInitializer,
+      MeterRegistry registry,
+      @Value("${lumina.meter.status.rollup.lag:5m}") Duration lag,
+      @Value("${lumina.meter.status.rollup.max-chunks-per-run:24}") int maxChunksPerRun,
+      @Value("${lumina.meter.status.rollup.raw-retention:30d}") Duration rawRetention,
+      @Value("${lumina.meter.status.rollup.minute-retention:400d}") Duration minuteRetention,
+      @Value("${lumina.meter.status.rollup.hour-retention:0}") Duration hourRetention,
+      @Value("${lumina.meter.status.storage.blocks.enabled:false}") boolean blocks) {
+    // a level must outlive the delay before it is rolled up into the next tier
+    checkRetention("raw", rawRetention, lag.plus(RollupTier.MINUTE.chunk()));
+    checkRetention("minute", minuteRetention, lag.plus(RollupTier.HOUR.chunk()).plusHours(1));
+    this.mongoTemplate = mongoTemplate;
+    this.lag = lag;
+    this.maxChunksPerRun = maxChunksPerRun;
+    this.rawRetention = rawRetention;
+    this.retention = Map.of(RollupTier.MINUTE, minuteRetention, RollupTier.HOUR, hourRetention);
+    this.blocks = blocks;
+
+    this.chunks = registry.counter("lumina.status.rollup.chunks");
+  }
+
+  private static void checkRetention(String level, Duration retention, Duration minimum) {
+    if (!retention.isZero() && retention.compareTo(minimum) <= 0) {
+      throw new IllegalArgumentException(
+          "The %s retention must be longer than %s".formatted(level, minimum));
+    }
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    for (RollupTier tier : RollupTier.values()) {
+      mongoTemplate
+          .indexOps(tier.collection())
+          .ensureIndex(
+              new Index()
+                  .on("meterId", Sort.Direction.ASC)
+                  .on("bucketStart", Sort.Direction.ASC)
+                  .named("meterId_bucketStart"));
+      ensureRetentionIndex(mongoTemplate, tier.collection(), "bucketStart", retention.get(tier));
+    }
+    applyRawRetention();
+
+    for (Document checkpoint : mongoTemplate.getCollection(CHECKPOINT_COLLECTION).find()) {
+      watermarks.put(
+          RollupTier.valueOf(checkpoint.getString("_id")),
+          checkpoint.getDate("watermark").toInstant());
+    }
+  }
+
+  /**
+   * Returns the end of the rolled-up part of a tier: every source sample before it is included
+   * in the tier.
+   *
+   * @return the watermark, or empty if the tier has not been built yet
+   */
+  Optional<Instant> watermark(RollupTier tier) {
+    return Optional.ofNullable(watermarks.get(tier));
+  }
+
+  /** How long raw samples are kept, or zero if they are kept forever. */
+  Duration rawRetention() {
+    return rawRetention;
+  }
+
+  /**
+   * Rolls up the chunks that have become complete since the last run. At most
+   * max-chunks-per-run chunks per tier are processed per run, so the backlog after enabling
+   * rollups on an existing history is worked off over several runs.
+   */
+  @Scheduled(fixedDelayString = "${lumina.meter.status.rollup.interval:60000}")
+  public void rollUp() {
+    rollUp(RollupTier.MINUTE, RollupTier.MINUTE.alignDown(Instant.now().minus(lag)));
+    watermark(RollupTier.MINUTE)
+        .ifPresent(minutes -> rollUp(RollupTier.HOUR, RollupTier.HOUR.alignDown(minutes)));
+  }
+
+  private void rollUp(RollupTier tier, Instant limit) {
+    Instant from = watermark(tier).or(() -> earliestSource(tier).map(tier::alignDown)).orElse(null);
+    for (int i = 0; i < maxChunksPerRun && from != null && from.isBefore(limit); i++) {
+      Instant to = from.plus(tier.chunk());
+      if (to.isAfter(limit)) {
+        to = limit;
+      }
+      rollUpChunk(tier, from, to);
+      saveWatermark(tier, to);
+      chunks.increment();
+      log.debug("Rolled up {} tier from {} to {}", tier, from, to);
+      from = to;
+    }
+  }
+
+  /** Aggregates the source samples in {@code [from, to)} into the tier, replacing its documents. */
+  void rollUpChunk(RollupTier tier, Instant from, Instant to) {
+    boolean fromRaw = tier == RollupTier.MINUTE;
+    String timeField = timeField(tier);
+    Document bucket =
+        new Document(
+            "$dateTrunc", new Document("date", "$" + timeField).append("unit", tier.unit()));
+    Document key = new Document("m", "$meterId").append("b", bucket);
+    Document group =
+        fromRaw
+            ? StatusAggregationService.rawGroup(key, FIELDS)
+            : StatusAggregationService.rollupGroup(key, FIELDS);
+
+    Document id =
+        new Document(
+            "$concat",
+            List.of(
+                "$_id.m", ":", new Document("$toString", new Document("$toLong", "$_id.b"))));
+    Document project =
+        new Document("_id", id)
+            .append("meterId", "$_id.m")
+            .append("bucketStart", "$_id.b")
+            .append("samples", "$samples");
+    for (String field : FIELDS) {
+      Document stats =
+          new Document("count", "$count_" + field)
+              .append("sum", "$sum_" + field)
+              .append("min", "$min_" + field)
+              .append("max", "$max_" + field);
+      Document present = new Document("$gt", List.of("$count_" + field, 0));
+      project.append("fields." + field, new Document("$cond", List.of(present, stats, "$$REMOVE")));
+    }
+
+    Document range = new Document("$gte", Date.from(from)).append("$lt", Date.from(to));
+    List<Document> pipeline =
+        List.of(
+            new Document("$match", new Document(timeField, range)),
+            new Document("$group", group),
+            new Document("$project", project),
+            new Document(
+                "$merge",
+                new Document("into", tier.collection())
+                    .append("on", "_id")
+                    .append("whenMatched", "replace")
+                    .append("whenNotMatched", "insert")));
+    source(tier).aggregate(pipeline).allowDiskUse(true).toCollection();
+    if (fromRaw && blocks) {
+      rollUpSealed(from, to);
+    }
+  }
+
+  /** Rebuilds the minute buckets in {@code [from, to)} of every meter with blocks in that range. */
+  private void rollUpSealed(Instant from, Instant to) {
+    Bson overlapping =
+        Filters.and(
+            Filters.lt(StatusBlockCodec.START, Date.from(to)),
+            Filters.gte(StatusBlockCodec.END, Date.from(from)));
+    String meterId = null;
+    List<Status> sealed = new ArrayList<>();
+    try (var cursor =
+        mongoTemplate
+            .getCollection(StatusBlockStore.COLLECTION)
+            .find(overlapping)
+            .sort(Sorts.ascending(StatusBlockCodec.METER_ID, StatusBlockCodec.START))
+            .iterator()) {
+      while (cursor.hasNext()) {
+        Document block = cursor.next();
+        String blockMeterId = block.getString(StatusBlockCodec.METER_ID);
+        if (meterId != null && !meterId.equals(blockMeterId)) {
+          rollUpSealed(meterId, sealed, from, to);
+          sealed = new ArrayList<>();
+        }
+        meterId = blockMeterId;
+        StatusBlockCodec.decode(block).forEachRemaining(sealed::add);
+      }
+    }
+    if (meterId != null) {
+      rollUpSealed(meterId, sealed, from, to);
+    }
+  }
+
+  /**
+   * Aggregates the sealed and raw samples of one meter in {@code [from, to)} into minute buckets.
+   */
+  private void rollUpSealed(String meterId, List<Status> sealed, Instant from, Instant to) {
+    Query raw =
+        Query.query(Criteria.where("meterId").is(meterId).and("timestamp").gte(from).lt(to))
+            .with(Sort.by("timestamp", "_id"));
+    Stream<Status> inRange =
+        sealed.stream()
+            .filter(
+                status -> !status.timestamp().isBefore(from) && status.timestamp().isBefore(to));
+    Map<Instant, BucketStats> buckets = new TreeMap<>();
+    try (Stream<Status> samples =
+        StatusBlockStore.merge(inRange, mongoTemplate.stream(raw, Status.class))) {
+      samples.forEach(
+          status ->
+              buckets
+                  .computeIfAbsent(
+                      RollupTier.MINUTE.alignDown(status.timestamp()),
+                      start -> new BucketStats(FIELDS.size()))
+                  .add(status, FIELDS));
+    }
+
+    List<ReplaceOneModel<Document>> writes = new ArrayList<>(buckets.size());
+    buckets.forEach(
+        (start, stats) -> {
+          Document rollup = rollupDocument(meterId, stats.toAggregate(start, FIELDS));
+          writes.add(
+              new ReplaceOneModel<>(
+                  Filters.eq("_id", rollup.get("_id")), rollup, new ReplaceOptions().upsert(true)));
+        });
+    if (!writes.isEmpty()) {
+      mongoTemplate
+          .getCollection(RollupTier.MINUTE.collection())
+          .bulkWrite(writes, new BulkWriteOptions().ordered(false));
+    }
+  }
+
+  /** The rollup document of a bucket, in the shape that {@link #rollUpChunk} projects. */
+  private static Document rollupDocument(String meterId, StatusAggregate aggregate) {
+    Document fields = new Document();
+    aggregate
+        .fields()
+        .forEach(
+            (field, stats) -> {
+              if (stats.count() > 0) {
+                fields.append(
+                    field,
+                    new Document("count", stats.count())
+                        .append("sum", stats.sum())
+                        .append("min", stats.min())
+                        .append("max", stats.max()));
+              }
+            });
+    Document rollup =
+        new Document("_id", meterId + ":" + aggregate.bucketStart().toEpochMilli())
+            .append("meterId", meterId)
+            .append("bucketStart", Date.from(aggregate.bucketStart()))
+            .append("samples", aggregate.samples());
+    if (!fields.isEmpty()) {
+      rollup.append("fields", fields);
+    }
+    return rollup;
+  }
+
+  /** The collection a tier is built from: raw samples for minutes, minutes for hours. */
+  private MongoCollection<Document> source(RollupTier tier) {
+    return mongoTemplate.getCollection(
+        tier == RollupTier.MINUTE
+            ? StatusCollectionInitializer.COLLECTION
+            : RollupTier.MINUTE.collection());
+  }
+
+  private static String timeField(RollupTier tier) {
+    return tier == RollupTier.MINUTE ? "timestamp" : "bucketStart";
+  }
+
+  private Optional<Instant> earliestSource(RollupTier tier) {
+    Optional<Instant> earliest = earliest(source(tier), timeField(tier));
+    if (tier != RollupTier.MINUTE || !blocks) {
+      return earliest;
+    }
+    // sealed samples may be older than any raw sample left in meterStatus
+    Optional<Instant> sealed =
+        earliest(mongoTemplate.getCollection(StatusBlockStore.COLLECTION), StatusBlockCodec.START);
+    return Stream.of(earliest, sealed).flatMap(Optional::stream).min(Comparator.naturalOrder());
+  }
+
+  private static Optional<Instant> earliest(MongoCollection<Document> collection, String field) {
+    Document first =
+        collection
+            .find()
+            .projection(Projections.include(field))
+            .sort(Sorts.ascending(field))
+            .first();
+    return Optional.ofNullable(first).map(document -> document.getDate(field).toInstant());
+  }
+
+  private void saveWatermark(RollupTier tier, Instant watermark) {
+    mongoTemplate
+        .getCollection(CHECKPOINT_COLLECTION)
+        .updateOne(
+            Filters.eq("_id", tier.name()),
+            Updates.set("watermark", Date.from(watermark)),
+            new UpdateOptions().upsert(true));
+    watermarks.put(tier, watermark);
+  }
+
+  private void applyRawRetention() {
+    String collection = StatusCollectionInitializer.COLLECTION;
+    Document info =
+        mongoTemplate
+            .getDb()
+            .listCollections()
+            .filter(Filters.eq("name", collection))
+            .first();
+    if (info != null && "timeseries".equals(info.getString("type"))) {
+      Object expireAfter = rawRetention.isZero() ? "off" : rawRetention.toSeconds();
+      mongoTemplate
+          .getDb()
+          .runCommand(
+              new Document("collMod", collection).append("expireAfterSeconds", expireAfter));
+    } else {
+      ensureRetentionIndex(mongoTemplate, collection, "timestamp", rawRetention);
+    }
+  }
+
+  /**
+   * Ensures an ascending index on a date field that expires documents after {@code retention}, or
+   * never if it is zero. The index also serves the time-range scans of the rollup. The expiry of
+   * an existing index is changed in place; an expiry cannot be removed again, so changing the
+   * retention to zero only logs a warning.
+   */
+  static void ensureRetentionIndex(
+      MongoTemplate mongoTemplate, String collection, String field, Duration retention) {
+    String name = field + "_retention";
+    IndexOperations indexOps = mongoTemplate.indexOps(collection);
+    Optional<IndexInfo> existing =
+        indexOps.getIndexInfo().stream().filter(index -> index.getName().equals(name)).findFirst();
+    if (existing.isEmpty()) {
+      Index index = new Index().on(field, Sort.Direction.ASC).named(name);
+      if (!retention.isZero()) {
+        index.expire(retention);
+      }
+      indexOps.ensureIndex(index);
+      return;
+    }
+
+    Optional<Duration> current = existing.get().getExpireAfter();
+    if (retention.isZero()) {
+      current.ifPresent(
+          expiry ->
+              log.warn(
+                  "Index {}.{} still expires documents after {}; drop it to keep them forever",
+                  collection,
+                  name,
+                  expiry));
+    } else if (!current.equals(Optional.of(retention))) {
+      mongoTemplate
+          .getDb()
+          .runCommand(
+              new Document("collMod", collection)
+                  .append(
+                      "index",
+                      new Document("name", name)
+                          .append("expireAfterSeconds", retention.toSeconds())));
+      log.info("Changed retention of {} to {}", collection, retention);
+    }
+  }
+}
@@ -1,11 +1,26 @@
 package com.lumina.meter;
 
+import com.lumina.BadRequestException;
+import com.lumina.meter.model.BulkStatusResult;
+import com.lumina.meter.model.DataPoint;
+import com.lumina.meter.model.DownsampleMode;
 import com.lumina.meter.model.Status;
 import com.lumina.meter.model.StatusBuilder;
+import com.lumina.meter.model.StatusPage;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,35 +28,143 @@ import org.springframework.transaction.annotation.Transactional;
 public class StatusService {
 
   private final StatusRepository statusRepository;
-  private final MeterRepository meterRepository;
+  private final MeterIdIndex meterIdIndex;
+  private final StatusBatchWriter batchWriter;
+  private final TelemetryMapper telemetryMapper;
+  private final LatestStatusCache latestStatusCache;
+  private final List<StatusListener> listeners;
+  private final MongoTemplate mongoTemplate;
+  private final Optional<StatusWriteBehindQueue> writeBehindQueue;
+  private final Optional<StatusBlockStore> blockStore;
+  private final int maxBulkItems;
+  private final int maxPageSize;
+  private final int maxDownsamplePoints;
 
-  public StatusService(StatusRepository statusRepository, MeterRepository meterRepository) {
+  public StatusService(
+      StatusRepository statusRepository,
+      MeterIdIndex meterIdIndex,
+      StatusBatchWriter batchWriter,
+      TelemetryMapper telemetryMapper,
+      LatestStatusCache latestStatusCache,
+      List<StatusListener> listeners,
+      MongoTemplate mongoTemplate,
+      Optional<StatusWriteBehindQueue> writeBehindQueue,
+      Optional<StatusBlockStore> blockStore,
+      @Value("${lumina.meter.status.bulk.max-items:10000}") int maxBulkItems,
+      @Value("${lumina.meter.status.page.max-limit:1000}") int maxPageSize,
+      @Value("${lumina.meter.status.downsample.max-points:10000}") int maxDownsamplePoints) {
     this.statusRepository = statusRepository;
-    this.meterRepository = meterRepository;
+    this.meterIdIndex = meterIdIndex;
+    this.batchWriter = batchWriter;
+    this.telemetryMapper = telemetryMapper;
+    this.latestStatusCache = latestStatusCache;
+    this.listeners = listeners;
+    this.mongoTemplate = mongoTemplate;
+    this.writeBehindQueue = writeBehindQueue;
+    this.blockStore = blockStore;
+    this.maxBulkItems = maxBulkItems;
+    this.maxPageSize = maxPageSize;
+    this.maxDownsamplePoints = maxDownsamplePoints;
+  }
+
+  /** Returns true if single samples are queued for writing rather than saved before returning. */
+  public boolean isWriteBehind() {
+    return writeBehindQueue.isPresent();
   }
 
   /**
-   * Creates a new status record for a meter.
+   * Creates a new status record for a meter. When write-behind ingest is enabled the record is
+   * assigned its id and queued, and is written to the database shortly after this method returns.
    *
    * @param meterId the meter ID
    * @param data the status data
    * @return the created status record
+   * @throws com.lumina.IngestBackpressureException if write-behind is enabled and its queue is full
    */
   public Status createStatus(String meterId, Map<String, Object> data) {
     // Verify meter exists
-    if (!meterRepository.existsById(meterId)) {
-      throw new IllegalArgumentException("Meter with id %s does not exist".formatted(meterId));
+    if (!meterIdIndex.contains(meterId)) {
+      throw new BadRequestException("Meter with id %s does not exist".formatted(meterId));
     }
 
     Status status =
-        StatusBuilder.builder().meterId(meterId).timestamp(Instant.now()).data(data).build();
+        telemetryMapper.toTyped(
+            StatusBuilder.builder().meterId(meterId).timestamp(Instant.now()).data(data).build());
+
+    if (writeBehindQueue.isPresent()) {
+      Status queued = StatusBuilder.builder(status).id(new ObjectId().toHexString()).build();
+      writeBehindQueue.get().offer(queued);
+      return queued;
+    }
+    Status saved = statusRepository.save(status);
+    StatusBatchWriter.notifyListeners(listeners, List.of(saved));
+    return saved;
+  }
+
+  /**
+   * Creates status records for many meters at once. The referenced meter ids are checked as a set
+   * against the {@link MeterIdIndex} and the valid samples are written with one unordered bulk
+   * insert, so a request costs a single round trip regardless of the number of samples.
+   *
+   * @param statuses the samples to store, each carrying its meter id and timestamp
+   * @return the accepted and rejected samples, indexed by their position in {@code statuses}
+   * @throws BadRequestException if the batch is empty or larger than the configured maximum
+   */
+  public BulkStatusResult createStatuses(List<Status> statuses) {
+    if (statuses == null || statuses.isEmpty()) {
+      throw new BadRequestException("At least one status is required");
+    }
+    if (statuses.size() > maxBulkItems) {
+      throw new BadRequestException(
+          "A bulk request may contain at most %d statuses".formatted(maxBulkItems));
+    }
+
+    Set<String> requestedIds = new HashSet<>();
+    for (Status status : statuses) {
+      if (status.meterId() != null) {
+        requestedIds.add(status.meterId());
+      }
+    }
+    Set<String> existingIds = meterIdIndex.retainExisting(requestedIds);
+
+    List<BulkStatusResult.Rejection> rejected = new ArrayList<>();
+    List<Status> valid = new ArrayList<>(statuses.size());
+    List<Integer> validIndexes = new ArrayList<>(statuses.size());
+    for (int i = 0; i < statuses.size(); i++) {
+      Status status = statuses.get(i);
+      if (status.meterId() == null || status.meterId().isBlank()) {
+        rejected.add(new BulkStatusResult.Rejection(i, status.meterId(), "meterId is required"));
+      } else if (!existingIds.contains(status.meterId())) {
+        rejected.add(
+            new BulkStatusResult.Rejection(
+                i,
+                status.meterId(),
+                "Meter with id %s does not exist".formatted(status.meterId())));
+      } else {
+        valid.add(telemetryMapper.toTyped(status));
+        validIndexes.add(i);
+      }
+    }
 
-    return statusRepository.save(status);
+    var outcome = batchWriter.insertUnordered(valid);
+    List<BulkStatusResult.Accepted> accepted = new ArrayList<>(valid.size());
+    for (int i = 0; i < outcome.batch().size(); i++) {
+      int index = validIndexes.get(i);
+      Status status = outcome.batch().get(i);
+      if (outcome.isInserted(i)) {
+        accepted.add(new BulkStatusResult.Accepted(index, status));
+      } else {
+        rejected.add(
+            new BulkStatusResult.Rejection(index, status.meterId(), outcome.failures().get(i)));
+      }
+    }
+    return new BulkStatusResult(accepted, rejected);
   }
 
   /**
    * Retrieves status records for a meter within a time range. Uses streaming for efficient
-   * processing of large datasets.
+   * processing of large datasets. When compressed blocks are enabled, sealed samples are decoded
+   * block by block and merged with the raw samples of the open buckets.
    *
    * @param meterId the meter ID
    * @param startTime the start of the time range
@@ -50,16 +173,143 @@ public class StatusService {
    */
   @Transactional(readOnly = true)
   public Stream<Status> getStatusStream(String meterId, Instant startTime, Instant endTime) {
-    return statusRepository.findByMeterIdAndTimestampBetween(meterId, startTime, endTime);
+    Stream<Status> raw =
+        statusRepository.findByMeterIdAndTimestampBetween(meterId, startTime, endTime);
+    return blockStore
+        .map(store -> StatusBlockStore.merge(store.stream(meterId, startTime, endTime), raw))
+        .orElse(raw);
+  }
+
+  /**
+   * Reduces one numeric data field of a meter's status history to at most {@code maxPoints} points
+   * for charting. The records are streamed through the downsampler in a single pass, so only the
+   * selected points are held in memory however many records the range contains. Records where the
+   * field is missing or not numeric are skipped.
+   *
+   * @param meterId the meter ID
+   * @param startTime the start of the time range (inclusive)
+   * @param endTime the end of the time range (inclusive)
+   * @param field the data field to chart
+   * @param maxPoints the maximum number of points to return
+   * @param mode how points are selected
+   * @return the selected points in timestamp order
+   * @throws BadRequestException if the field name or point count is invalid
+   */
+  @Transactional(readOnly = true)
+  public List<DataPoint> getDownsampledStatus(
+      String meterId,
+      Instant startTime,
+      Instant endTime,
+      String field,
+      int maxPoints,
+      DownsampleMode mode) {
+    DataFields.check(List.of(field));
+    if (maxPoints < 3 || maxPoints > maxDownsamplePoints) {
+      throw new BadRequestException(
+          "Points must be between 3 and %d".formatted(maxDownsamplePoints));
+    }
+
+    Downsampler downsampler = Downsampler.of(mode, startTime, endTime, maxPoints);
+    try (var stream = getStatusStream(meterId, startTime, endTime)) {
+      stream.forEach(
+          status -> {
+            Double value = DataFields.numeric(status, field);
+            if (value != null) {
+              downsampler.accept(new DataPoint(status.timestamp(), value));
+            }
+          });
+    }
+    return downsampler.finish();
+  }
+
+  /**
+   * Retrieves one page of a meter's status history using keyset pagination. Each page is a range
+   * seek on the {@code (meterId, timestamp, _id)} index starting just after the cursor, so it costs
+   * the same wherever it falls in the history. When compressed blocks are enabled, the sealed
+   * samples after the cursor are decoded and merged with the raw samples in the same order.
+   *
+   * @param meterId the meter ID
+   * @param startTime the start of the time range (inclusive)
+   * @param endTime the end of the time range (inclusive)
+   * @param limit the maximum number of records to return
+   * @param direction the order of the records by timestamp
+   * @param cursor the continuation token from the previous page, or null for the first page
+   * @return the page, with a continuation token if more records remain
+   * @throws BadRequestException if the limit is out of range or the cursor is invalid
+   */
+  public StatusPage getStatusPage(
+      String meterId,
+      Instant startTime,
+      Instant endTime,
+      int limit,
+      Sort.Direction direction,
+      String cursor) {
+    if (limit < 1 || limit > maxPageSize) {
+      throw new BadRequestException("Limit must be between 1 and %d".formatted(maxPageSize));
+    }
+
+    Criteria criteria = Criteria.where("meterId").is(meterId);
+    StatusCursor position = cursor == null ? null : StatusCursor.decode(cursor);
+    Instant from = startTime;
+    Instant to = endTime;
+    if (position == null) {
+      criteria.and("timestamp").gte(startTime).lte(endTime);
+    } else {
+      if (position.direction() != direction) {
+        throw new BadRequestException("Cursor was issued for the opposite order");
+      }
+      // The timestamp bound positions the index scan at the cursor; the $or only filters out the
+      // records that share the cursor's timestamp and were already returned.
+      if (direction.isAscending()) {
+        from = position.timestamp();
+        criteria.and("timestamp").gte(from).lte(endTime);
+        criteria.orOperator(
+            Criteria.where("timestamp").gt(position.timestamp()),
+            Criteria.where("_id").gt(position.id()));
+      } else {
+        to = position.timestamp();
+        criteria.and("timestamp").gte(startTime).lte(to);
+        criteria.orOperator(
+            Criteria.where("timestamp").lt(position.timestamp()),
+            Criteria.where("_id").lt(position.id()));
+      }
+    }
+
+    Query query =
+        Query.query(criteria).with(Sort.by(direction, "timestamp", "_id")).limit(limit + 1);
+    List<Status> results;
+    if (blockStore.isEmpty()) {
+      results = mongoTemplate.find(query, Status.class);
+    } else {
+      StatusCursor after = position;
+      Stream<Status> sealed =
+          blockStore
+              .get()
+              .stream(meterId, from, to, direction)
+              .filter(status -> after == null || after.isBefore(status));
+      try (Stream<Status> merged =
+          StatusBlockStore.merge(sealed, mongoTemplate.stream(query, Status.class), direction)) {
+        results = merged.limit(limit + 1).toList();
+      }
+    }
+
+    if (results.size() <= limit) {
+      return new StatusPage(results, null);
+    }
+    List<Status> items = results.subList(0, limit);
+    Status last = items.getLast();
+    String next = new StatusCursor(direction, last.timestamp(), new ObjectId(last.id())).encode();
+    return new StatusPage(List.copyOf(items), next);
   }
 
   /**
-   * Retrieves the most recent status record for a meter.
+   * Retrieves the most recent status record for a meter. Served from the {@link LatestStatusCache},
+   * which is updated as statuses are written and only reads the database on a miss.
    *
    * @param meterId the meter ID
    * @return optional containing the most recent status, or empty if none exists
    */
   public Optional<Status> getLatestStatus(String meterId) {
-    return Optional.ofNullable(statusRepository.findFirstByMeterIdOrderByTimestampDesc(meterId));
+    return latestStatusCache.get(meterId);
   }
 }
@@ -0,0 +1,351 @@
+package com.lumina.meter;
+
+import com.lumina.BadRequestException;
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusPercentiles;
+import com.lumina.meter.model.TelemetryField;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maintains a {@link QuantileSketch} per meter, numeric field and hour in {@code
+ * meterStatusSketch}, so percentiles over long ranges and many meters are answered by merging
+ * sketches instead of reading samples.
+ *
+ * <p>Every written status adds its typed telemetry and numeric data fields to in-memory sketches
+ * of its hour. A scheduled flush takes those sketches out of memory and merges each into its stored
+ * document, reading and replacing up to a thousand documents per round trip. Hours that receive
+ * late samples are simply merged again. A failed flush returns the sketches it did not write to
+ * memory for the next run; when a bulk write fails in part, only the failed writes are returned.
+ *
+ * <p>Each running instance writes its own document per meter, field and hour, identified by a
+ * writer id chosen at startup, and is the only one to replace it. Instances ingesting the same
+ * meters therefore never overwrite each other's merges, at the cost of one document per writer for
+ * such hours.
+ *
+ * <p>Queries merge the stored sketches of whole hours, from every writer, with the values not
+ * flushed yet, so they include every written sample. Sketches expire with the configured
+ * retention.
+ *
+ * <p>Enabled by the property: lumina.meter.status.sketch.enabled
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+    value = "lumina.meter.status.sketch.enabled",
+    havingValue = "true",
+    matchIfMissing = false)
+public class StatusSketchStore implements StatusListener, InitializingBean, DisposableBean {
+
+  static final String COLLECTION = "meterStatusSketch";
+
+  private static final long HOUR_MILLIS = Duration.ofHours(1).toMillis();
+  private static final int BATCH_SIZE = 1000;
+  private static final TelemetryField[] FIELDS = TelemetryField.values();
+
+  private final MongoTemplate mongoTemplate;
+  private final Duration retention;
+
+  /** Distinguishes the documents of this instance from those written by others. */
+  private final String writerId = new ObjectId().toHexString();
+
+  private final Map<SketchKey, QuantileSketch> pending = new ConcurrentHashMap<>();
+
+  /** Serializes flushes with each other and with queries, so no value is counted twice. */
+  private final ReentrantLock flushLock = new ReentrantLock();
+
+  private final Counter values;
+  private final Counter flushed;
+  private final Counter flushFailures;
+
+  /** The sketch of one field of one meter in one hour. */
+  record SketchKey(String meterId, String field, long hour) {}
+
+  public StatusSketchStore(
+      MongoTemplate mongoTemplate,
+      MeterRegistry registry,
+      @Value("${lumina.meter.status.sketch.retention:400d}") Duration retention) {
+    this.mongoTemplate = mongoTemplate;
+    this.retention = retention;
+
+    Gauge.builder("lumina.status.sketch.pending", pending, Map::size).register(registry);
+    this.values = registry.counter("lumina.status.sketch.values");
+    this.flushed = registry.counter("lumina.status.sketch.flushed");
+    this.flushFailures = registry.counter("lumina.status.sketch.flush.failures");
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    sketches()
+        .createIndex(
+            Indexes.ascending("field", "meterId", "hour"),
+            new IndexOptions().name("field_meterId_hour"));
+    StatusRollupService.ensureRetentionIndex(mongoTemplate, COLLECTION, "hour", retention);
+  }
+
+  @Override
+  public void onStatusesWritten(List<Status> statuses) {
+    for (Status status : statuses) {
+      String meterId = status.meterId();
+      long hour = Math.floorDiv(status.timestamp().toEpochMilli(), HOUR_MILLIS) * HOUR_MILLIS;
+      if (status.telemetry() != null) {
+        for (TelemetryField field : FIELDS) {
+          record(meterId, field.fieldName(), hour, status.telemetry().value(field));
+        }
+      }
+      if (status.data() != null) {
+        status
+            .data()
+            .forEach(
+                (name, value) -> {
+                  if (value instanceof Number number) {
+                    record(meterId, name, hour, number.doubleValue());
+                  }
+                });
+      }
+    }
+  }
+
+  private void record(String meterId, String field, long hour, double value) {
+    if (!Double.isFinite(value)) {
+      return;
+    }
+    pending.compute(
+        new SketchKey(meterId, field, hour),
+        (key, sketch) -> {
+          QuantileSketch result = sketch == null ? new QuantileSketch() : sketch;
+          result.add(value);
+          return result;
+        });
+    values.increment();
+  }
+
+  /** Merges the sketches held in memory into their stored documents. */
+  @Scheduled(fixedDelayString = "${lumina.meter.status.sketch.flush-interval:60000}")
+  public void flush() {
+    flushLock.lock();
+    try {
+      List<SketchKey> keys = new ArrayList<>(pending.keySet());
+      for (int from = 0; from < keys.size(); from += BATCH_SIZE) {
+        flush(keys.subList(from, Math.min(keys.size(), from + BATCH_SIZE)));
+      }
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  private void flush(List<SketchKey> keys) {
+    Map<String, SketchKey> keysById = new LinkedHashMap<>();
+    Map<SketchKey, QuantileSketch> deltas = new HashMap<>();
+    for (SketchKey key : keys) {
+      QuantileSketch delta = pending.remove(key);
+      if (delta != null) {
+        keysById.put(documentId(key), key);
+        deltas.put(key, delta);
+      }
+    }
+    if (deltas.isEmpty()) {
+      return;
+    }
+    List<SketchKey> written = new ArrayList<>(deltas.size());
+    try {
+      Map<String, QuantileSketch> stored = new HashMap<>();
+      for (Document document :
+          sketches()
+              .find(Filters.in("_id", keysById.keySet()))
+              .projection(Projections.include("sketch"))) {
+        stored.put(document.getString("_id"), sketch(document));
+      }
+      List<WriteModel<Document>> writes = new ArrayList<>(deltas.size());
+      keysById.forEach(
+          (id, key) -> {
+            QuantileSketch merged = stored.getOrDefault(id, new QuantileSketch());
+            merged.merge(deltas.get(key));
+            Document document =
+                new Document("_id", id)
+                    .append("meterId", key.meterId())
+                    .append("field", key.field())
+                    .append("hour", new Date(key.hour()))
+                    .append("writer", writerId)
+                    .append("count", merged.count())
+                    .append("sketch", new Binary(merged.toBytes()));
+            writes.add(
+                new ReplaceOneModel<>(
+                    Filters.eq("_id", id), document, new ReplaceOptions().upsert(true)));
+            written.add(key);
+          });
+      sketches().bulkWrite(writes, new BulkWriteOptions().ordered(false));
+      flushed.increment(writes.size());
+    } catch (MongoBulkWriteException e) {
+      // the bulk write is unordered, so every write not reported failed has been applied; returning
+      // those deltas too would count their values twice on the next run
+      flushFailures.increment();
+      List<SketchKey> failed =
+          e.getWriteErrors().stream().map(error -> written.get(error.getIndex())).toList();
+      flushed.increment(written.size() - failed.size());
+      log.error(
+          "Failed to flush {} of {} status sketch(es); retrying on the next run",
+          failed.size(),
+          written.size(),
+          e);
+      failed.forEach(key -> requeue(key, deltas.get(key)));
+    } catch (RuntimeException e) {
+      flushFailures.increment();
+      log.error("Failed to flush {} status sketch(es); retrying on the next run", deltas.size(), e);
+      deltas.forEach(this::requeue);
+    }
+  }
+
+  /** Returns the id of this instance's document of a sketch. */
+  String documentId(SketchKey key) {
+    return key.meterId() + '|' + key.field() + '|' + key.hour() + '|' + writerId;
+  }
+
+  /** Returns the delta of a failed write to memory, merged with values recorded since. */
+  private void requeue(SketchKey key, QuantileSketch delta) {
+    pending.merge(
+        key,
+        delta,
+        (current, returned) -> {
+          current.merge(returned);
+          return current;
+        });
+  }
+
+  /**
+   * Computes the distribution of a field over the statuses of the given meters. The range is
+   * widened to whole hours, since sketches are kept per hour.
+   *
+   * @param meterIds the meters to include
+   * @param field the name of a numeric status field
+   * @param quantiles the quantiles to report, each between 0 and 1
+   * @param histogram whether to include the histogram buckets
+   * @throws BadRequestException if a quantile is out of range
+   */
+  public StatusPercentiles percentiles(
+      Collection<String> meterIds,
+      String field,
+      Instant startTime,
+      Instant endTime,
+      List<Double> quantiles,
+      boolean histogram) {
+    for (double q : quantiles) {
+      if (!(q >= 0 && q <= 1)) {
+        throw new BadRequestException("Quantiles must be between 0 and 1: " + q);
+      }
+    }
+    long firstHour = Math.floorDiv(startTime.toEpochMilli(), HOUR_MILLIS) * HOUR_MILLIS;
+    long lastHour = Math.floorDiv(endTime.toEpochMilli(), HOUR_MILLIS) * HOUR_MILLIS;
+    QuantileSketch merged = new QuantileSketch();
+    flushLock.lock();
+    try {
+      List<String> ids = List.copyOf(meterIds);
+      for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+        List<String> batch = ids.subList(from, Math.min(ids.size(), from + BATCH_SIZE));
+        for (Document document :
+            sketches()
+                .find(
+                    Filters.and(
+                        Filters.eq("field", field),
+                        Filters.in("meterId", batch),
+                        Filters.gte("hour", new Date(firstHour)),
+                        Filters.lte("hour", new Date(lastHour))))
+                .projection(Projections.include("sketch"))) {
+          merged.merge(sketch(document));
+        }
+      }
+      Set<String> selected = meterIds instanceof Set<String> set ? set : Set.copyOf(meterIds);
+      for (SketchKey key : pending.keySet()) {
+        if (key.field().equals(field)
+            && key.hour() >= firstHour
+            && key.hour() <= lastHour
+            && selected.contains(key.meterId())) {
+          pending.computeIfPresent(
+              key,
+              (k, sketch) -> {
+                merged.merge(sketch);
+                return sketch;
+              });
+        }
+      }
+    } finally {
+      flushLock.unlock();
+    }
+    return toPercentiles(merged, meterIds.size(), field, firstHour, lastHour, quantiles, histogram);
+  }
+
+  static StatusPercentiles toPercentiles(
+      QuantileSketch sketch,
+      int meters,
+      String field,
+      long firstHour,
+      long lastHour,
+      List<Double> quantiles,
+      boolean histogram) {
+    boolean empty = sketch.count() == 0;
+    return new StatusPercentiles(
+        field,
+        Instant.ofEpochMilli(firstHour),
+        Instant.ofEpochMilli(lastHour + HOUR_MILLIS),
+        meters,
+        sketch.count(),
+        empty ? null : sketch.min(),
+        empty ? null : sketch.max(),
+        empty ? null : sketch.mean(),
+        quantiles.stream()
+            .map(q -> new StatusPercentiles.Percentile(q, empty ? null : sketch.quantile(q)))
+            .toList(),
+        histogram
+            ? sketch.histogram().stream()
+                .map(b -> new StatusPercentiles.HistogramBin(b.lower(), b.upper(), b.count()))
+                .toList()
+            : List.of());
+  }
+
+  @Override
+  public void destroy() {
+    flush();
+  }
+
+  private static QuantileSketch sketch(Document document) {
+    return QuantileSketch.fromBytes(document.get("sketch", Binary.class).getData());
+  }
+
+  private MongoCollection<Document> sketches() {
+    return mongoTemplate.getCollection(COLLECTION);
+  }
+}
@@ -0,0 +1,119 @@
+package com.lumina.meter;
+
+import com.lumina.catalogue.model.ValidationStage;
+import com.lumina.meter.model.Meter;
+import com.lumina.meter.model.MeterSnapshot;
+import com.lumina.meter.model.Status;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Gatherers;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+/**
+ * Builds the latest-status snapshot of many meters at once.
+ *
+ * <p>Meters are read with a cursor and resolved in batches: the statuses already held by the
+ * {@link LatestStatusCache} are used as is, and the rest of the batch is read with a single
+ * aggregation. Memory use therefore depends on the batch size, not on the size of the fleet.
+ */
+@Service
+public class StatusSnapshotService {
+
+  private final MongoTemplate mongoTemplate;
+  private final LatestStatusCache latestStatusCache;
+  private final MeterScopeResolver scopeResolver;
+  private final int batchSize;
+
+  public StatusSnapshotService(
+      MongoTemplate mongoTemplate,
+      LatestStatusCache latestStatusCache,
+      MeterScopeResolver scopeResolver,
+      @Value("${lumina.meter.status.snapshot.batch-size:1000}") int batchSize) {
+    this.mongoTemplate = mongoTemplate;
+    this.latestStatusCache = latestStatusCache;
+    this.scopeResolver = scopeResolver;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Streams every matching meter with its most recent status. All filters are optional and are
+   * combined; a client or project selects the meters at any of its locations. The stream holds a
+   * database cursor and must be closed.
+   *
+   * @param clientId only meters of this client
+   * @param projectId only meters of this project
+   * @param locationId only meters at this location
+   * @param model only meters of this catalogue model
+   * @param stage only meters at this validation stage
+   * @return the snapshots, in meter ID order
+   */
+  public Stream<MeterSnapshot> snapshot(
+      String clientId, String projectId, String locationId, String model, ValidationStage stage) {
+    Criteria criteria = new Criteria();
+    Set<String> locationIds = scopeResolver.locationIds(clientId, projectId, locationId);
+    if (locationIds != null) {
+      criteria.and("locationId").in(locationIds);
+    }
+    if (model != null) {
+      criteria.and("model").is(model);
+    }
+    if (stage != null) {
+      criteria.and("stage").is(stage);
+    }
+    Query query = Query.query(criteria).with(Sort.by("_id"));
+    query.fields().include("_id", "locationId", "model", "stage");
+    query.cursorBatchSize(batchSize);
+
+    return mongoTemplate.stream(query, Meter.class)
+        .gather(Gatherers.windowFixed(batchSize))
+        .flatMap(this::withLatest);
+  }
+
+  private Stream<MeterSnapshot> withLatest(List<Meter> meters) {
+    Map<String, Status> latest =
+        latestStatusCache.getAll(meters.stream().map(Meter::id).toList(), this::readLatest);
+    return meters.stream()
+        .map(
+            meter ->
+                new MeterSnapshot(
+                    meter.id(),
+                    meter.locationId(),
+                    meter.model(),
+                    meter.stage(),
+                    latest.get(meter.id())));
+  }
+
+  /**
+   * Reads the most recent status of each meter with one {@code $sort}/{@code $group} aggregation.
+   * Sorting descending on both keys lets the {@code (meterId, timestamp, _id)} index be walked
+   * backwards, so the server can jump to the newest entry of each meter instead of scanning its
+   * history.
+   */
+  private Map<String, Status> readLatest(Collection<String> meterIds) {
+    Aggregation aggregation =
+        Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("meterId").in(meterIds)),
+            Aggregation.sort(Sort.Direction.DESC, "meterId", "timestamp"),
+            Aggregation.group("meterId").first(Aggregation.ROOT).as("latest"));
+
+    Map<String, Status> latest = new HashMap<>();
+    for (Document result :
+        mongoTemplate.aggregate(aggregation, Status.class, Document.class).getMappedResults()) {
+      Status status =
+          mongoTemplate.getConverter().read(Status.class, result.get("latest", Document.class));
+      latest.put(status.meterId(), status);
+    }
+    return latest;
+  }
+}
@@ -0,0 +1,183 @@
+package com.lumina.meter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.lumina.meter.dto.AlertDto;
+import com.lumina.meter.model.Alert;
+import com.lumina.meter.model.Status;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Writes a stream of values to the response as they are produced, so a large result never has to
+ * be held in memory. The source stream is opened on the response thread and closed when writing
+ * finishes or the client disconnects, which in turn closes the underlying database cursor.
+ */
+final class StatusStreams {
+
+  private static final int BUFFER_SIZE = 16 * 1024;
+  private static final int FLUSH_EVERY = 256;
+  private static final byte[] SSE_OPEN = ": open\n\n".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] SSE_HEARTBEAT = ": ping\n\n".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] SSE_COMPLETE =
+      "event: complete\ndata: {}\n\n".getBytes(StandardCharsets.UTF_8);
+
+  private StatusStreams() {}
+
+  /** Writes each value as one JSON document per line ({@code application/x-ndjson}). */
+  static <T> StreamingResponseBody ndjson(Supplier<Stream<T>> source, ObjectMapper objectMapper) {
+    ObjectWriter writer = streamingWriter(objectMapper);
+    return out ->
+        write(
+            source,
+            out,
+            (value, buffered) -> {
+              writer.writeValue(buffered, value);
+              buffered.write('\n');
+            });
+  }
+
+  /**
+   * Writes each value as a server-sent {@code status} event ({@code text/event-stream}) and
+   * finishes with a {@code complete} event, so that an {@code EventSource} client can tell the end
+   * of the range from a dropped connection.
+   *
+   * @param idOf extracts the event id from a value
+   */
+  static <T> StreamingResponseBody sse(
+      Supplier<Stream<T>> source, Function<T, String> idOf, ObjectMapper objectMapper) {
+    ObjectWriter writer = streamingWriter(objectMapper);
+    return out -> {
+      write(
+          source,
+          out,
+          (value, buffered) -> {
+            buffered.write(
+                "id: %s\nevent: status\ndata: ".formatted(idOf.apply(value))
+                    .getBytes(StandardCharsets.UTF_8));
+            writer.writeValue(buffered, value);
+            buffered.write('\n');
+            buffered.write('\n');
+          });
+      out.write(SSE_COMPLETE);
+      out.flush();
+    };
+  }
+
+  /**
+   * Writes the statuses of a live subscription as server-sent {@code status} events, and its alerts
+   * as {@code alert} events, until the client disconnects. A comment line is sent whenever nothing
+   * arrived for {@code heartbeat}, so a dropped connection is noticed even when no statuses are
+   * published. Like the source of the other streams, the subscription is opened on the response
+   * thread and closed when writing ends.
+   *
+   * @param toValue maps a status to the value written as the event data
+   */
+  static StreamingResponseBody live(
+      Supplier<StatusBroker.Subscription> subscriber,
+      Function<Status, ?> toValue,
+      Duration heartbeat,
+      ObjectMapper objectMapper) {
+    ObjectWriter writer = streamingWriter(objectMapper);
+    return out -> {
+      try (var subscription = subscriber.get()) {
+        var buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+        buffered.write(SSE_OPEN);
+        buffered.flush();
+        while (!subscription.isClosed()) {
+          List<Status> batch = subscription.poll(heartbeat);
+          List<Alert> alerts = subscription.takeAlerts();
+          if (batch.isEmpty() && alerts.isEmpty()) {
+            buffered.write(SSE_HEARTBEAT);
+          }
+          for (Status status : batch) {
+            buffered.write(
+                "id: %s\nevent: status\ndata: ".formatted(status.id())
+                    .getBytes(StandardCharsets.UTF_8));
+            writer.writeValue(buffered, toValue.apply(status));
+            buffered.write('\n');
+            buffered.write('\n');
+          }
+          for (Alert alert : alerts) {
+            buffered.write(
+                "id: %s\nevent: alert\ndata: ".formatted(alert.id())
+                    .getBytes(StandardCharsets.UTF_8));
+            writer.writeValue(buffered, AlertDto.from(alert));
+            buffered.write('\n');
+            buffered.write('\n');
+          }
+          buffered.flush();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+  }
+
+  /**
+   * Replaces {@code spring.mvc.async.request-timeout} for the streamed response of the current
+   * request. The timeout is applied when the response starts streaming, after the handler returns.
+   *
+   * @param timeout the longest the response may stream, or zero for no limit
+   */
+  static void setTimeout(HttpServletRequest request, Duration timeout) {
+    WebAsyncUtils.getAsyncManager(request)
+        .registerCallableInterceptor(
+            StatusStreams.class.getName() + ".timeout",
+            new CallableProcessingInterceptor() {
+              @Override
+              public <T> void beforeConcurrentHandling(
+                  NativeWebRequest webRequest, Callable<T> task) {
+                if (webRequest instanceof AsyncWebRequest asyncRequest) {
+                  // the servlet container treats zero as no timeout
+                  asyncRequest.setTimeout(timeout.toMillis());
+                }
+              }
+            });
+  }
+
+  /** A writer that neither closes nor flushes the target after each value. */
+  private static ObjectWriter streamingWriter(ObjectMapper objectMapper) {
+    return objectMapper
+        .writer()
+        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+  }
+
+  private static <T> void write(Supplier<Stream<T>> source, OutputStream out, Encoder<T> encoder)
+      throws IOException {
+    var buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+    try (var stream = source.get()) {
+      var iterator = stream.iterator();
+      int count = 0;
+      while (iterator.hasNext()) {
+        encoder.write(iterator.next(), buffered);
+        if (++count % FLUSH_EVERY == 0) {
+          buffered.flush();
+        }
+      }
+    }
+    buffered.flush();
+  }
+
+  @FunctionalInterface
+  private interface Encoder<T> {
+    void write(T value, OutputStream out) throws IOException;
+  }
+}
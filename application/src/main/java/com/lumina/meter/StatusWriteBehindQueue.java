@@ -0,0 +1,205 @@
+package com.lumina.meter;
+
+import com.lumina.IngestBackpressureException;
+import com.lumina.IngestUnavailableException;
+import com.lumina.meter.model.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded write-behind buffer for status samples. Callers enqueue samples and return immediately; a
+ * pool of virtual-thread writers drains the queue and flushes to {@code meterStatus} whenever a
+ * batch fills up or the flush interval elapses, whichever comes first. When the queue is full the
+ * sample is refused with an {@link IngestBackpressureException} rather than queued behind an
+ * ever-growing backlog.
+ *
+ * <p>Enabled by the property: lumina.meter.status.ingest.write-behind.enabled
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+    value = "lumina.meter.status.ingest.write-behind.enabled",
+    havingValue = "true",
+    matchIfMissing = false)
+public class StatusWriteBehindQueue implements SmartLifecycle {
+
+  private final StatusBatchWriter batchWriter;
+  private final BlockingQueue<Status> queue;
+  private final int batchSize;
+  private final long flushIntervalNanos;
+  private final int writerCount;
+  private final Duration retryAfter;
+
+  private final Counter enqueued;
+  private final Counter dropped;
+  private final Counter written;
+  private final Counter failed;
+  private final DistributionSummary batchSizes;
+  private final Timer flushLatency;
+
+  private final List<Thread> writers = new ArrayList<>();
+  private volatile boolean running;
+
+  public StatusWriteBehindQueue(
+      StatusBatchWriter batchWriter,
+      MeterRegistry registry,
+      @Value("${lumina.meter.status.ingest.write-behind.capacity:10000}") int capacity,
+      @Value("${lumina.meter.status.ingest.write-behind.batch-size:500}") int batchSize,
+      @Value("${lumina.meter.status.ingest.write-behind.flush-interval:250ms}")
+          Duration flushInterval,
+      @Value("${lumina.meter.status.ingest.write-behind.writers:2}") int writerCount,
+      @Value("${lumina.meter.status.ingest.write-behind.retry-after:1s}") Duration retryAfter) {
+    this.batchWriter = batchWriter;
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    this.batchSize = batchSize;
+    this.flushIntervalNanos = flushInterval.toNanos();
+    this.writerCount = writerCount;
+    this.retryAfter = retryAfter;
+
+    Gauge.builder("lumina.status.ingest.queue.depth", queue, BlockingQueue::size)
+        .description("Samples waiting to be written")
+        .register(registry);
+    this.enqueued = registry.counter("lumina.status.ingest.enqueued");
+    this.dropped = registry.counter("lumina.status.ingest.dropped");
+    this.written = registry.counter("lumina.status.ingest.written");
+    this.failed = registry.counter("lumina.status.ingest.failed");
+    this.batchSizes =
+        DistributionSummary.builder("lumina.status.ingest.batch.size")
+            .description("Samples per flush")
+            .register(registry);
+    this.flushLatency =
+        Timer.builder("lumina.status.ingest.flush")
+            .description("Time taken to write one batch")
+            .register(registry);
+  }
+
+  /**
+   * Queues a sample for writing.
+   *
+   * @param status the sample, with its id already assigned
+   * @throws IngestBackpressureException if the queue is full
+   * @throws IngestUnavailableException if the writers are not running
+   */
+  public void offer(Status status) {
+    if (!running) {
+      dropped.increment();
+      throw new IngestUnavailableException("Status ingest is not running");
+    }
+    if (!queue.offer(status)) {
+      dropped.increment();
+      throw new IngestBackpressureException(
+          "Status ingest queue is full, retry later", retryAfter);
+    }
+    enqueued.increment();
+  }
+
+  public int depth() {
+    return queue.size();
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    for (int i = 0; i < writerCount; i++) {
+      writers.add(Thread.ofVirtual().name("status-writer-" + i).start(this::drain));
+    }
+    log.info(
+        "Status write-behind started with {} writer(s), capacity {}, batch size {}",
+        writerCount,
+        queue.remainingCapacity(),
+        batchSize);
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    for (Thread writer : writers) {
+      try {
+        writer.join(Duration.ofSeconds(30));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    writers.clear();
+    if (!queue.isEmpty()) {
+      log.warn("Status write-behind stopped with {} unwritten sample(s)", queue.size());
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void drain() {
+    List<Status> batch = new ArrayList<>(batchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        Status first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < batchSize) {
+          queue.drainTo(batch, batchSize - batch.size());
+          long remaining = deadline - System.nanoTime();
+          if (batch.size() >= batchSize || remaining <= 0) {
+            break;
+          }
+          Status next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+        flush(batch);
+      } catch (InterruptedException e) {
+        // write the samples already taken from the queue rather than losing them uncounted
+        if (!batch.isEmpty()) {
+          flush(batch);
+        }
+        Thread.currentThread().interrupt();
+        return;
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void flush(List<Status> batch) {
+    batchSizes.record(batch.size());
+    long start = System.nanoTime();
+    try {
+      var outcome = batchWriter.insertUnordered(batch);
+      written.increment(batch.size() - outcome.failures().size());
+      if (!outcome.failures().isEmpty()) {
+        failed.increment(outcome.failures().size());
+        log.warn(
+            "{} of {} queued status sample(s) were rejected",
+            outcome.failures().size(),
+            batch.size());
+      }
+    } catch (RuntimeException e) {
+      failed.increment(batch.size());
+      log.error("Failed to write {} queued status sample(s): {}", batch.size(), e.getMessage(), e);
+    } finally {
+      flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+}
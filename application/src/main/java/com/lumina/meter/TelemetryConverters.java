@@ -0,0 +1,77 @@
+package com.lumina.meter;
+
+import com.lumina.catalogue.model.MeterType;
+import com.lumina.meter.model.Telemetry;
+import com.lumina.meter.model.TelemetryField;
+import java.util.List;
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+/**
+ * Maps {@link Telemetry} records to compact documents: the meter type is a one-letter code under
+ * {@code y}, each reported field is stored under its short {@link TelemetryField#key()}, and fields
+ * that were not reported are omitted. Integral values are stored as 32-bit integers when they fit.
+ */
+public final class TelemetryConverters {
+
+  private static final String TYPE_KEY = "y";
+
+  private TelemetryConverters() {}
+
+  /** The converters to register with the MongoDB mapping layer. */
+  public static List<Converter<?, ?>> all() {
+    return List.of(Writer.INSTANCE, Reader.INSTANCE);
+  }
+
+  @WritingConverter
+  enum Writer implements Converter<Telemetry, Document> {
+    INSTANCE;
+
+    @Override
+    public Document convert(Telemetry telemetry) {
+      Document document = new Document(TYPE_KEY, code(telemetry.type()));
+      for (TelemetryField field : TelemetryField.values()) {
+        double value = telemetry.value(field);
+        if (!Double.isNaN(value)) {
+          document.append(field.key(), field.box(value));
+        }
+      }
+      return document;
+    }
+  }
+
+  @ReadingConverter
+  enum Reader implements Converter<Document, Telemetry> {
+    INSTANCE;
+
+    @Override
+    public Telemetry convert(Document document) {
+      MeterType type = type(document.getString(TYPE_KEY));
+      return Telemetry.of(
+          type,
+          field ->
+              document.get(field.key()) instanceof Number number
+                  ? number.doubleValue()
+                  : Double.NaN);
+    }
+  }
+
+  static String code(MeterType type) {
+    return switch (type) {
+      case LORAWAN -> "L";
+      case MODBUS -> "M";
+      case SIDEWALK -> "S";
+    };
+  }
+
+  static MeterType type(String code) {
+    return switch (code) {
+      case "L" -> MeterType.LORAWAN;
+      case "M" -> MeterType.MODBUS;
+      case "S" -> MeterType.SIDEWALK;
+      case null, default -> throw new IllegalStateException("Unknown telemetry type " + code);
+    };
+  }
+}
@@ -0,0 +1,111 @@
+package com.lumina.meter;
+
+import com.lumina.catalogue.CatalogueItemChangedEvent;
+import com.lumina.catalogue.ItemRepository;
+import com.lumina.catalogue.model.CatalogueItem;
+import com.lumina.catalogue.model.MeterType;
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusBuilder;
+import com.lumina.meter.model.Telemetry;
+import com.lumina.meter.model.TelemetryField;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Splits the data of an incoming status into the typed {@link Telemetry} of its meter's type and
+ * the remaining extension fields. The meter's model comes from the {@link MeterIdIndex} and the
+ * model's type from the catalogue, cached per model.
+ */
+@Component
+public class TelemetryMapper {
+
+  /** The largest integer a double holds exactly. */
+  private static final long MAX_EXACT_LONG = 1L << 53;
+
+  private final MeterIdIndex meterIdIndex;
+  private final ItemRepository itemRepository;
+  private final Map<String, Optional<MeterType>> typesByModel = new ConcurrentHashMap<>();
+
+  public TelemetryMapper(MeterIdIndex meterIdIndex, ItemRepository itemRepository) {
+    this.meterIdIndex = meterIdIndex;
+    this.itemRepository = itemRepository;
+  }
+
+  /**
+   * Returns the status with its data split into typed telemetry and extension fields. A status
+   * whose meter type cannot be determined, or that is already typed, is returned unchanged.
+   */
+  public Status toTyped(Status status) {
+    if (status.telemetry() != null || status.data() == null || status.data().isEmpty()) {
+      return status;
+    }
+    String model = meterIdIndex.modelOf(status.meterId());
+    if (model == null) {
+      return status;
+    }
+    return typeOf(model).map(type -> split(status, type)).orElse(status);
+  }
+
+  /** Forgets the cached type of a model, e.g. because its catalogue item changed. */
+  public void evictModel(String model) {
+    typesByModel.remove(model);
+  }
+
+  @EventListener
+  public void onCatalogueItemChanged(CatalogueItemChangedEvent event) {
+    evictModel(event.model());
+  }
+
+  private Optional<MeterType> typeOf(String model) {
+    return typesByModel.computeIfAbsent(
+        model, m -> itemRepository.findByModel(m).map(CatalogueItem::type));
+  }
+
+  /**
+   * Moves the numeric values of the fields that apply to the type into a telemetry record. Values
+   * that do not fit the field, such as text or a fractional count, stay in the data map so nothing
+   * sent by the meter is lost.
+   */
+  static Status split(Status status, MeterType type) {
+    Map<TelemetryField, Double> typed = new EnumMap<>(TelemetryField.class);
+    Map<String, Object> extra = new HashMap<>();
+    status
+        .data()
+        .forEach(
+            (name, value) -> {
+              TelemetryField field = TelemetryField.byName(name);
+              if (field != null && field.appliesTo(type) && fits(field, value)) {
+                typed.put(field, ((Number) value).doubleValue());
+              } else {
+                extra.put(name, value);
+              }
+            });
+    if (typed.isEmpty()) {
+      return status;
+    }
+    Telemetry telemetry = Telemetry.of(type, field -> typed.getOrDefault(field, Double.NaN));
+    return StatusBuilder.builder(status)
+        .telemetry(telemetry)
+        .data(extra.isEmpty() ? null : extra)
+        .build();
+  }
+
+  private static boolean fits(TelemetryField field, Object value) {
+    return switch (value) {
+      case Integer _, Short _, Byte _ -> true;
+      case Long l -> Math.abs(l) <= MAX_EXACT_LONG;
+      case Number number when field.kind() == TelemetryField.Kind.DECIMAL ->
+          Double.isFinite(number.doubleValue());
+      case Number number ->
+          Double.isFinite(number.doubleValue())
+              && number.doubleValue() == Math.rint(number.doubleValue())
+              && Math.abs(number.doubleValue()) <= MAX_EXACT_LONG;
+      case null, default -> false;
+    };
+  }
+}
@@ -0,0 +1,28 @@
+package com.lumina.meter.dto;
+
+import com.lumina.meter.model.Alert;
+import com.lumina.meter.model.AlertState;
+import java.time.Instant;
+
+public record AlertDto(
+    String id,
+    String meterId,
+    String model,
+    String rule,
+    String field,
+    AlertState state,
+    double value,
+    Instant timestamp) {
+
+  public static AlertDto from(Alert alert) {
+    return new AlertDto(
+        alert.id(),
+        alert.meterId(),
+        alert.model(),
+        alert.rule(),
+        alert.field(),
+        alert.state(),
+        alert.value(),
+        alert.timestamp());
+  }
+}
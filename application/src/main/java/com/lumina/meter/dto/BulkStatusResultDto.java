@@ -0,0 +1,26 @@
+package com.lumina.meter.dto;
+
+import com.lumina.meter.model.BulkStatusResult;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public record BulkStatusResultDto(int accepted, int rejected, List<ItemResult> items) {
+
+  public record ItemResult(int index, String meterId, String id, boolean accepted, String reason) {}
+
+  public static BulkStatusResultDto from(BulkStatusResult result) {
+    var items =
+        Stream.concat(
+                result.accepted().stream()
+                    .map(
+                        a ->
+                            new ItemResult(
+                                a.index(), a.status().meterId(), a.status().id(), true, null)),
+                result.rejected().stream()
+                    .map(r -> new ItemResult(r.index(), r.meterId(), null, false, r.reason())))
+            .sorted(Comparator.comparingInt(ItemResult::index))
+            .toList();
+    return new BulkStatusResultDto(result.accepted().size(), result.rejected().size(), items);
+  }
+}
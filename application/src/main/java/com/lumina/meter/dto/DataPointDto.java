@@ -0,0 +1,11 @@
+package com.lumina.meter.dto;
+
+import com.lumina.meter.model.DataPoint;
+import java.time.Instant;
+
+public record DataPointDto(Instant timestamp, double value) {
+
+  public static DataPointDto from(DataPoint point) {
+    return new DataPointDto(point.timestamp(), point.value());
+  }
+}
@@ -0,0 +1,30 @@
+package com.lumina.meter.dto;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.time.Instant;
+
+/**
+ * An uplink forwarded by a LoRaWAN network server. Only the fields the ingest needs are mapped;
+ * anything else in the message is ignored. The aliases cover the spellings of common network
+ * servers.
+ *
+ * @param devEUI the device EUI, which identifies the meter
+ * @param fCnt the uplink frame counter
+ * @param fPort the application port the payload was sent on
+ * @param rssi the received signal strength in dBm
+ * @param snr the signal-to-noise ratio in dB
+ * @param spreadingFactor the spreading factor of the transmission
+ * @param timestamp when the uplink was received; defaults to the time of ingest
+ * @param payload the application payload, base64-encoded
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record LorawanUplinkDto(
+    @JsonAlias({"devEui", "dev_eui", "deviceEui"}) String devEUI,
+    @JsonAlias({"fcnt", "f_cnt"}) Long fCnt,
+    @JsonAlias({"fport", "f_port"}) Integer fPort,
+    Double rssi,
+    @JsonAlias("loRaSNR") Double snr,
+    @JsonAlias({"sf", "spreading_factor"}) Integer spreadingFactor,
+    @JsonAlias({"time", "receivedAt", "received_at"}) Instant timestamp,
+    @JsonAlias({"data", "frm_payload", "frmPayload"}) String payload) {}
@@ -0,0 +1,30 @@
+package com.lumina.meter.dto;
+
+import com.lumina.meter.model.MeterRevalidation;
+import com.lumina.meter.model.RevalidationState;
+import java.time.Instant;
+
+public record MeterRevalidationDto(
+    String model,
+    RevalidationState state,
+    long meters,
+    long metersDone,
+    long invalid,
+    Instant requestedAt,
+    Instant startedAt,
+    Instant finishedAt,
+    String error) {
+
+  public static MeterRevalidationDto from(MeterRevalidation run) {
+    return new MeterRevalidationDto(
+        run.model(),
+        run.state(),
+        run.meters(),
+        run.metersDone(),
+        run.invalid(),
+        run.requestedAt(),
+        run.startedAt(),
+        run.finishedAt(),
+        run.error());
+  }
+}
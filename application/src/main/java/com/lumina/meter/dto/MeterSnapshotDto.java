@@ -0,0 +1,17 @@
+package com.lumina.meter.dto;
+
+import com.lumina.catalogue.model.ValidationStage;
+import com.lumina.meter.model.MeterSnapshot;
+
+public record MeterSnapshotDto(
+    String meterId, String locationId, String model, ValidationStage stage, StatusDto latest) {
+
+  public static MeterSnapshotDto from(MeterSnapshot snapshot) {
+    return new MeterSnapshotDto(
+        snapshot.meterId(),
+        snapshot.locationId(),
+        snapshot.model(),
+        snapshot.stage(),
+        snapshot.latest() == null ? null : StatusDto.from(snapshot.latest()));
+  }
+}
@@ -0,0 +1,22 @@
+package com.lumina.meter.dto;
+
+import com.lumina.meter.model.MeterValidationResult;
+import com.lumina.validation.Violation;
+import java.util.ArrayList;
+import java.util.List;
+
+public record MeterValidationResultDto(
+    int index, String model, boolean valid, List<Violation> violations) {
+
+  public static MeterValidationResultDto from(MeterValidationResult result) {
+    List<Violation> violations = new ArrayList<>(result.errors().size() + 1);
+    result
+        .errors()
+        .forEach(e -> violations.add(new Violation(e.field(), e.errorCode().defaultDescription())));
+    if (result.failure() != null) {
+      violations.add(new Violation("meter", result.failure()));
+    }
+    return new MeterValidationResultDto(
+        result.index(), result.model(), result.valid(), violations);
+  }
+}
@@ -5,13 +5,15 @@ import com.lumina.client.model.Client;
 import com.lumina.location.model.Location;
 import com.lumina.meter.model.Line;
 import com.lumina.meter.model.Meter;
+import com.lumina.meter.model.MeterValidationStatus;
 import com.lumina.project.model.Project;
 import java.util.List;
 
 /**
  * DTO for displaying meters in the web UI with full location hierarchy.
  *
- * <p>Includes client, project, and location names for display instead of just IDs.
+ * <p>Includes client, project, and location names for display instead of just IDs, and the
+ * latest validation status of the meter, or null if it has none.
  */
 public record MeterViewDto(
     String id,
@@ -23,9 +25,15 @@ public record MeterViewDto(
     String clientId,
     String clientName,
     List<Line> lines,
-    ValidationStage stage) {
+    ValidationStage stage,
+    MeterValidationStatus validation) {
 
-  public static MeterViewDto from(Meter meter, Location location, Project project, Client client) {
+  public static MeterViewDto from(
+      Meter meter,
+      Location location,
+      Project project,
+      Client client,
+      MeterValidationStatus validation) {
     return new MeterViewDto(
         meter.id(),
         meter.model(),
@@ -36,7 +44,8 @@ public record MeterViewDto(
         client.id(),
         client.name(),
         meter.lines(),
-        meter.stage());
+        meter.stage(),
+        validation);
   }
 
   /** Returns formatted location breadcrumb: "Client / Project / Location" */
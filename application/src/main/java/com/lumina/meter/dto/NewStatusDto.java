@@ -0,0 +1,21 @@
+package com.lumina.meter.dto;
+
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusBuilder;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A single telemetry sample submitted for ingest. The timestamp is optional; samples without one
+ * are stamped with the time of ingest.
+ */
+public record NewStatusDto(String meterId, Instant timestamp, Map<String, Object> data) {
+
+  public static Status toModel(NewStatusDto dto, Instant receivedAt) {
+    return StatusBuilder.builder()
+        .meterId(dto.meterId())
+        .timestamp(dto.timestamp() != null ? dto.timestamp() : receivedAt)
+        .data(dto.data())
+        .build();
+  }
+}
@@ -0,0 +1,18 @@
+package com.lumina.meter.dto;
+
+import com.lumina.meter.model.ExportFormat;
+import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
+
+/**
+ * A request to export the status history of the selected meters. Meters are selected by id or by
+ * client, project or location; the filters are combined.
+ */
+public record NewStatusExportDto(
+    @NotNull(message = "Format is mandatory") ExportFormat format,
+    String meterId,
+    String clientId,
+    String projectId,
+    String locationId,
+    @NotNull(message = "Start time is mandatory") Instant startTime,
+    @NotNull(message = "End time is mandatory") Instant endTime) {}
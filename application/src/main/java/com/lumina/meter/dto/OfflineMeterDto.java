@@ -0,0 +1,11 @@
+package com.lumina.meter.dto;
+
+import com.lumina.meter.model.OfflineMeter;
+import java.time.Instant;
+
+public record OfflineMeterDto(String meterId, Instant lastSeen, Instant offlineSince) {
+
+  public static OfflineMeterDto from(OfflineMeter meter) {
+    return new OfflineMeterDto(meter.meterId(), meter.lastSeen(), meter.offlineSince());
+  }
+}
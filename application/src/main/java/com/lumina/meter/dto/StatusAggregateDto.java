@@ -0,0 +1,30 @@
+package com.lumina.meter.dto;
+
+import com.lumina.meter.model.AggregateFunction;
+import com.lumina.meter.model.StatusAggregate;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One aggregation bucket, with the requested functions per field, e.g. {@code {"power": {"avg":
+ * 4.2, "max": 7.1}}}. Functions of a field with no numeric values in the bucket are null.
+ */
+public record StatusAggregateDto(
+    Instant bucketStart, long samples, Map<String, Map<String, Number>> values) {
+
+  public static StatusAggregateDto from(
+      StatusAggregate aggregate, List<AggregateFunction> functions) {
+    Map<String, Map<String, Number>> values = new LinkedHashMap<>();
+    aggregate
+        .fields()
+        .forEach(
+            (field, stats) -> {
+              Map<String, Number> byFunction = new LinkedHashMap<>();
+              functions.forEach(fn -> byFunction.put(fn.key(), fn.apply(stats)));
+              values.put(field, byFunction);
+            });
+    return new StatusAggregateDto(aggregate.bucketStart(), aggregate.samples(), values);
+  }
+}
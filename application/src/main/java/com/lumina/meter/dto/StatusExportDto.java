@@ -0,0 +1,45 @@
+package com.lumina.meter.dto;
+
+import com.lumina.meter.model.ExportFormat;
+import com.lumina.meter.model.ExportState;
+import com.lumina.meter.model.StatusExport;
+import java.time.Instant;
+
+public record StatusExportDto(
+    String id,
+    ExportFormat format,
+    ExportState state,
+    String meterId,
+    String clientId,
+    String projectId,
+    String locationId,
+    Instant startTime,
+    Instant endTime,
+    int meters,
+    int metersDone,
+    long rows,
+    long bytes,
+    Instant createdAt,
+    Instant finishedAt,
+    String error) {
+
+  public static StatusExportDto from(StatusExport export) {
+    return new StatusExportDto(
+        export.id(),
+        export.format(),
+        export.state(),
+        export.meterId(),
+        export.clientId(),
+        export.projectId(),
+        export.locationId(),
+        export.startTime(),
+        export.endTime(),
+        export.meters(),
+        export.metersDone(),
+        export.rows(),
+        export.bytes(),
+        export.createdAt(),
+        export.finishedAt(),
+        export.error());
+  }
+}
@@ -0,0 +1,12 @@
+package com.lumina.meter.dto;
+
+import com.lumina.meter.model.StatusPage;
+import java.util.List;
+
+public record StatusPageDto(List<StatusDto> items, String nextCursor) {
+
+  public static StatusPageDto from(StatusPage page) {
+    var items = page.items().stream().map(StatusDto::from).toList();
+    return new StatusPageDto(items, page.nextCursor());
+  }
+}
@@ -0,0 +1,32 @@
+package com.lumina.meter.dto;
+
+import com.lumina.meter.model.StatusPercentiles;
+import java.time.Instant;
+import java.util.List;
+
+public record StatusPercentilesDto(
+    String field,
+    Instant startTime,
+    Instant endTime,
+    int meters,
+    long count,
+    Double min,
+    Double max,
+    Double mean,
+    List<StatusPercentiles.Percentile> percentiles,
+    List<StatusPercentiles.HistogramBin> histogram) {
+
+  public static StatusPercentilesDto from(StatusPercentiles percentiles) {
+    return new StatusPercentilesDto(
+        percentiles.field(),
+        percentiles.startTime(),
+        percentiles.endTime(),
+        percentiles.meters(),
+        percentiles.count(),
+        percentiles.min(),
+        percentiles.max(),
+        percentiles.mean(),
+        percentiles.percentiles(),
+        percentiles.histogram());
+  }
+}
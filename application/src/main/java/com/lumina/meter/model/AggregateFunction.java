@@ -0,0 +1,40 @@
+package com.lumina.meter.model;
+
+import com.lumina.BadRequestException;
+import java.util.Locale;
+
+/** Statistic reported per field and bucket by the status aggregation API. */
+public enum AggregateFunction {
+  AVG,
+  MIN,
+  MAX,
+  SUM,
+  COUNT;
+
+  public Number apply(StatusAggregate.FieldStats stats) {
+    return switch (this) {
+      case AVG -> stats.avg();
+      case MIN -> stats.min();
+      case MAX -> stats.max();
+      case SUM -> stats.count() == 0 ? null : stats.sum();
+      case COUNT -> stats.count();
+    };
+  }
+
+  public String key() {
+    return name().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Parses a function name case-insensitively.
+   *
+   * @throws BadRequestException if the name is not a known function
+   */
+  public static AggregateFunction parse(String name) {
+    try {
+      return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException("Unknown aggregate function: " + name);
+    }
+  }
+}
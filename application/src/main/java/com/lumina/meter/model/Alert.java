@@ -0,0 +1,34 @@
+package com.lumina.meter.model;
+
+import io.soabase.recordbuilder.core.RecordBuilder;
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.TypeAlias;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A change of an alert rule's state for a meter, recorded when a status sample raises or clears
+ * it.
+ *
+ * @param rule the name of the catalogue alert rule
+ * @param value the field value of the sample that caused the change
+ * @param timestamp the timestamp of that sample
+ */
+@Document(collection = "alert")
+@TypeAlias("Alert")
+@CompoundIndexes({
+  @CompoundIndex(name = "meterId_timestamp", def = "{'meterId': 1, 'timestamp': -1}"),
+  @CompoundIndex(name = "model_timestamp", def = "{'model': 1, 'timestamp': -1}")
+})
+@RecordBuilder
+public record Alert(
+    @Id String id,
+    String meterId,
+    String model,
+    String rule,
+    String field,
+    AlertState state,
+    double value,
+    Instant timestamp) {}
@@ -0,0 +1,9 @@
+package com.lumina.meter.model;
+
+/** The transition of an alert rule recorded by an {@link Alert}. */
+public enum AlertState {
+  /** The rule has been violated by enough consecutive samples. */
+  RAISED,
+  /** A raised rule is satisfied again. */
+  CLEARED
+}
@@ -0,0 +1,14 @@
+package com.lumina.meter.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk status ingest. Every submitted sample appears exactly once, either as an
+ * accepted {@link Status} or as a {@link Rejection} carrying its position in the request.
+ */
+public record BulkStatusResult(List<Accepted> accepted, List<Rejection> rejected) {
+
+  public record Accepted(int index, Status status) {}
+
+  public record Rejection(int index, String meterId, String reason) {}
+}
@@ -0,0 +1,11 @@
+package com.lumina.meter.model;
+
+import java.time.Instant;
+
+/**
+ * A single numeric value of a status data field.
+ *
+ * @param timestamp when the value was recorded
+ * @param value the value
+ */
+public record DataPoint(Instant timestamp, double value) {}
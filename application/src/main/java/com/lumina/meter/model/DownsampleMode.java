@@ -0,0 +1,12 @@
+package com.lumina.meter.model;
+
+/** How a series is reduced to a limited number of points for charting. */
+public enum DownsampleMode {
+  /**
+   * Largest-Triangle-Three-Buckets: one point per bucket, chosen to keep the visual shape of the
+   * series.
+   */
+  LTTB,
+  /** The lowest and highest point of each bucket, so no peak or dip is lost. */
+  MIN_MAX
+}
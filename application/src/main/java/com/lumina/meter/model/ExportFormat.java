@@ -0,0 +1,25 @@
+package com.lumina.meter.model;
+
+/** The file formats a status export can be written in. */
+public enum ExportFormat {
+  /** An Apache Parquet file with a typed column per telemetry field, gzip-compressed pages. */
+  PARQUET("parquet", "application/vnd.apache.parquet"),
+  /** A gzip-compressed CSV file with a header row and the same columns as Parquet. */
+  CSV("csv.gz", "application/gzip");
+
+  private final String extension;
+  private final String mediaType;
+
+  ExportFormat(String extension, String mediaType) {
+    this.extension = extension;
+    this.mediaType = mediaType;
+  }
+
+  public String extension() {
+    return extension;
+  }
+
+  public String mediaType() {
+    return mediaType;
+  }
+}
@@ -0,0 +1,14 @@
+package com.lumina.meter.model;
+
+/** The lifecycle of a status export job. */
+public enum ExportState {
+  QUEUED,
+  RUNNING,
+  COMPLETED,
+  FAILED,
+  CANCELLED;
+
+  public boolean isFinished() {
+    return this == COMPLETED || this == FAILED || this == CANCELLED;
+  }
+}
@@ -0,0 +1,38 @@
+package com.lumina.meter.model;
+
+import io.soabase.recordbuilder.core.RecordBuilder;
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.TypeAlias;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * The progress of re-validating the meters of one model after its catalogue item changed. There is
+ * one per model; a further change restarts it.
+ *
+ * @param generation incremented by every request and claim, so that a run superseded by a later
+ *     change of the catalogue item, or taken over by another instance, stops instead of recording
+ *     stale results
+ * @param cursor the id of the last meter whose status is recorded; the run resumes after it
+ * @param meters the number of meters of the model when the run started
+ * @param metersDone the number of meters re-validated so far
+ * @param invalid the number of those meters that are no longer valid
+ * @param heartbeatAt when the instance running the run last recorded progress
+ * @param error the reason the run failed, or null
+ */
+@Document(collection = "meterRevalidation")
+@TypeAlias("MeterRevalidation")
+@RecordBuilder
+public record MeterRevalidation(
+    @Id String model,
+    RevalidationState state,
+    long generation,
+    String cursor,
+    long meters,
+    long metersDone,
+    long invalid,
+    Instant requestedAt,
+    Instant startedAt,
+    Instant heartbeatAt,
+    Instant finishedAt,
+    String error) {}
@@ -0,0 +1,15 @@
+package com.lumina.meter.model;
+
+import com.lumina.catalogue.model.ValidationStage;
+
+/**
+ * A meter together with its most recent status.
+ *
+ * @param meterId the meter ID
+ * @param locationId the location the meter is installed at
+ * @param model the catalogue model of the meter
+ * @param stage the validation stage of the meter
+ * @param latest the most recent status, or null if the meter has not reported yet
+ */
+public record MeterSnapshot(
+    String meterId, String locationId, String model, ValidationStage stage, Status latest) {}
@@ -0,0 +1,19 @@
+package com.lumina.meter.model;
+
+import com.lumina.validation.Error;
+import java.util.List;
+
+/**
+ * Outcome of validating one meter of a batch without storing it.
+ *
+ * @param index the position of the meter in the request
+ * @param errors the constraint violations of the meter
+ * @param failure why the meter could not be validated at all, such as a line of another type than
+ *     its constraint, or null
+ */
+public record MeterValidationResult(int index, String model, List<Error> errors, String failure) {
+
+  public boolean valid() {
+    return errors.isEmpty() && failure == null;
+  }
+}
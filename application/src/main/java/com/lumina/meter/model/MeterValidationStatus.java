@@ -0,0 +1,81 @@
+package com.lumina.meter.model;
+
+import com.lumina.catalogue.model.ValidationStage;
+import com.lumina.validation.Error;
+import io.soabase.recordbuilder.core.RecordBuilder;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.TypeAlias;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Whether a stored meter satisfies the current constraints of its catalogue item, as last found by
+ * re-validating it. Kept small so that a page of meters can show it with one lookup by id.
+ *
+ * @param meterId the id of the meter, also the id of the status
+ * @param stage the validation stage the meter was validated at
+ * @param errorCount the number of errors found, which may be more than are summarized
+ * @param errors a summary of the first errors, such as {@code lines[2].level: value is too large}
+ */
+@Document(collection = "meterValidation")
+@TypeAlias("MeterValidationStatus")
+@RecordBuilder
+public record MeterValidationStatus(
+    @Id String meterId,
+    String model,
+    ValidationStage stage,
+    boolean valid,
+    int errorCount,
+    List<String> errors,
+    Instant validatedAt) {
+
+  /** The most errors summarized per meter. */
+  public static final int MAX_SUMMARIZED_ERRORS = 10;
+
+  private static final String METER_CONTEXT = "meter";
+
+  /** The status of a meter that has just passed validation, on create or update. */
+  public static MeterValidationStatus valid(Meter meter, Instant validatedAt) {
+    return new MeterValidationStatus(
+        meter.id(), meter.model(), meter.stage(), true, 0, List.of(), validatedAt);
+  }
+
+  /** The status of a meter from the result of validating it in a batch. */
+  public static MeterValidationStatus from(
+      Meter meter, MeterValidationResult result, Instant validatedAt) {
+    List<String> summary = new ArrayList<>();
+    if (result.failure() != null) {
+      summary.add("%s: %s".formatted(METER_CONTEXT, result.failure()));
+    }
+    for (Error error : result.errors()) {
+      if (summary.size() == MAX_SUMMARIZED_ERRORS) {
+        break;
+      }
+      summary.add(summarize(error));
+    }
+    int errorCount = result.errors().size() + (result.failure() != null ? 1 : 0);
+    return new MeterValidationStatus(
+        meter.id(),
+        meter.model(),
+        meter.stage(),
+        result.valid(),
+        errorCount,
+        summary,
+        validatedAt);
+  }
+
+  private static String summarize(Error error) {
+    String context = error.fieldContext() == null ? "" : error.fieldContext();
+    if (context.equals(METER_CONTEXT)) {
+      context = "";
+    } else if (context.startsWith(METER_CONTEXT + ".")) {
+      context = context.substring(METER_CONTEXT.length() + 1);
+    }
+    String path = context.isEmpty() ? error.field() : "%s.%s".formatted(context, error.field());
+    String description = error.errorCode().defaultDescription();
+    return "%s: %s"
+        .formatted(path, description.isEmpty() ? error.errorCode().code() : description);
+  }
+}
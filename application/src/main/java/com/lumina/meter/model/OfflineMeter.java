@@ -0,0 +1,12 @@
+package com.lumina.meter.model;
+
+import java.time.Instant;
+
+/**
+ * A meter that has not reported within its expected interval.
+ *
+ * @param meterId the meter ID
+ * @param lastSeen the timestamp of the meter's most recent status
+ * @param offlineSince when the meter's reporting deadline passed
+ */
+public record OfflineMeter(String meterId, Instant lastSeen, Instant offlineSince) {}
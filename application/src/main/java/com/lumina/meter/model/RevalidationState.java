@@ -0,0 +1,13 @@
+package com.lumina.meter.model;
+
+/** The lifecycle of the re-validation of the meters of one model. */
+public enum RevalidationState {
+  QUEUED,
+  RUNNING,
+  COMPLETED,
+  FAILED;
+
+  public boolean isFinished() {
+    return this == COMPLETED || this == FAILED;
+  }
+}
@@ -2,14 +2,47 @@ package com.lumina.meter.model;
 
 import io.soabase.recordbuilder.core.RecordBuilder;
 import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.TypeAlias;
-import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
 
+/**
+ * A telemetry sample for a meter. The collection and its indexes are created by {@link
+ * com.lumina.meter.StatusCollectionInitializer}, which decides between a regular and a time-series
+ * collection, so no index annotations are declared here.
+ *
+ * @param telemetry the typed telemetry fields of the meter's type, or null if the type is unknown
+ *     or the sample predates typed storage
+ * @param data the remaining fields of the sample that are not part of {@code telemetry}
+ */
 @Document(collection = "meterStatus")
 @TypeAlias("Status")
 @RecordBuilder
 public record Status(
-    @Id String id, @Indexed String meterId, @Indexed Instant timestamp, Map<String, Object> data) {}
+    @Id String id,
+    String meterId,
+    Instant timestamp,
+    @Field("t") Telemetry telemetry,
+    Map<String, Object> data) {
+
+  /** All fields of the sample as one map, with the typed telemetry merged into the data map. */
+  public Map<String, Object> values() {
+    if (telemetry == null) {
+      return data;
+    }
+    Map<String, Object> values = new LinkedHashMap<>();
+    for (TelemetryField field : TelemetryField.values()) {
+      double value = telemetry.value(field);
+      if (!Double.isNaN(value)) {
+        values.put(field.fieldName(), field.box(value));
+      }
+    }
+    if (data != null) {
+      data.forEach(values::putIfAbsent);
+    }
+    return values;
+  }
+}
@@ -0,0 +1,42 @@
+package com.lumina.meter.model;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Statistics for one time bucket of a meter's status history.
+ *
+ * @param bucketStart the start of the bucket
+ * @param samples the number of status records in the bucket
+ * @param fields running statistics for each requested numeric data field
+ */
+public record StatusAggregate(Instant bucketStart, long samples, Map<String, FieldStats> fields) {
+
+  /**
+   * Mergeable statistics for the numeric values of one field. Non-numeric and missing values are
+   * not counted. Derived values such as the average are computed from these on demand, so partial
+   * results for the same bucket can be combined exactly.
+   */
+  public record FieldStats(long count, double sum, Double min, Double max) {
+
+    public static final FieldStats EMPTY = new FieldStats(0, 0, null, null);
+
+    public Double avg() {
+      return count == 0 ? null : sum / count;
+    }
+
+    public FieldStats merge(FieldStats other) {
+      if (other.count == 0) {
+        return this;
+      }
+      if (count == 0) {
+        return other;
+      }
+      return new FieldStats(
+          count + other.count,
+          sum + other.sum,
+          Math.min(min, other.min),
+          Math.max(max, other.max));
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.lumina.meter.model;
+
+import io.soabase.recordbuilder.core.RecordBuilder;
+import java.time.Instant;
+
+/**
+ * The progress of a status export job at one point in time.
+ *
+ * @param meters the number of meters selected for the export
+ * @param metersDone the number of meters whose statuses have been written
+ * @param rows the number of statuses written so far
+ * @param bytes the size of the file, once the export has completed
+ * @param error the reason the export failed, or null
+ */
+@RecordBuilder
+public record StatusExport(
+    String id,
+    ExportFormat format,
+    ExportState state,
+    String meterId,
+    String clientId,
+    String projectId,
+    String locationId,
+    Instant startTime,
+    Instant endTime,
+    int meters,
+    int metersDone,
+    long rows,
+    long bytes,
+    Instant createdAt,
+    Instant finishedAt,
+    String error) {}
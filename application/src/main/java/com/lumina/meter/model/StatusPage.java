@@ -0,0 +1,11 @@
+package com.lumina.meter.model;
+
+import java.util.List;
+
+/**
+ * One page of a meter's status history.
+ *
+ * @param items the statuses on this page, in the requested order
+ * @param nextCursor the token for the following page, or null if this is the last page
+ */
+public record StatusPage(List<Status> items, String nextCursor) {}
@@ -0,0 +1,32 @@
+package com.lumina.meter.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The distribution of a numeric field over the statuses of a set of meters in a time range.
+ * Quantile values are within one percent of the exact values; the statistics are null when no
+ * sample was found.
+ *
+ * @param startTime the start of the first hour included
+ * @param endTime the end of the last hour included
+ * @param histogram the non-empty buckets of the distribution, in ascending order
+ */
+public record StatusPercentiles(
+    String field,
+    Instant startTime,
+    Instant endTime,
+    int meters,
+    long count,
+    Double min,
+    Double max,
+    Double mean,
+    List<Percentile> percentiles,
+    List<HistogramBin> histogram) {
+
+  /** The value at a quantile, such as 0.95 for the 95th percentile. */
+  public record Percentile(double quantile, Double value) {}
+
+  /** The number of values in {@code (lower, upper]}. */
+  public record HistogramBin(double lower, double upper, long count) {}
+}
@@ -0,0 +1,140 @@
+package com.lumina.meter.model;
+
+import com.lumina.catalogue.model.MeterType;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Typed telemetry of a status sample, with one record per {@link MeterType}. Values are primitive
+ * doubles so that reading a sample does not box them; a field that was not reported is {@link
+ * Double#NaN}. Integer fields such as counters are exact up to 2<sup>53</sup>.
+ *
+ * <p>Fields outside these records stay in the status record's data map.
+ */
+public sealed interface Telemetry {
+
+  /** The meter type this telemetry belongs to. */
+  MeterType type();
+
+  /**
+   * Returns the value of a field.
+   *
+   * @return the value, or NaN if it was not reported or the field does not apply to this type
+   */
+  double value(TelemetryField field);
+
+  /**
+   * Creates the telemetry record for a meter type.
+   *
+   * @param values supplies the value of each field that applies to the type, or NaN
+   */
+  static Telemetry of(MeterType type, ToDoubleFunction<TelemetryField> values) {
+    double batteryLevel = values.applyAsDouble(TelemetryField.BATTERY_LEVEL);
+    double signalStrength = values.applyAsDouble(TelemetryField.SIGNAL_STRENGTH);
+    double temperature = values.applyAsDouble(TelemetryField.TEMPERATURE);
+    double humidity = values.applyAsDouble(TelemetryField.HUMIDITY);
+    return switch (type) {
+      case LORAWAN ->
+          new Lorawan(
+              batteryLevel,
+              signalStrength,
+              temperature,
+              humidity,
+              values.applyAsDouble(TelemetryField.SNR),
+              values.applyAsDouble(TelemetryField.SPREADING_FACTOR),
+              values.applyAsDouble(TelemetryField.FRAME_COUNTER));
+      case MODBUS ->
+          new Modbus(
+              batteryLevel,
+              signalStrength,
+              temperature,
+              humidity,
+              values.applyAsDouble(TelemetryField.REGISTER_COUNT),
+              values.applyAsDouble(TelemetryField.ERROR_COUNT));
+      case SIDEWALK -> new Sidewalk(batteryLevel, signalStrength, temperature, humidity);
+    };
+  }
+
+  /**
+   * @param signalStrength the received signal strength (RSSI) in dBm
+   * @param snr the signal-to-noise ratio in dB
+   */
+  record Lorawan(
+      double batteryLevel,
+      double signalStrength,
+      double temperature,
+      double humidity,
+      double snr,
+      double spreadingFactor,
+      double frameCounter)
+      implements Telemetry {
+
+    @Override
+    public MeterType type() {
+      return MeterType.LORAWAN;
+    }
+
+    @Override
+    public double value(TelemetryField field) {
+      return switch (field) {
+        case BATTERY_LEVEL -> batteryLevel;
+        case SIGNAL_STRENGTH -> signalStrength;
+        case TEMPERATURE -> temperature;
+        case HUMIDITY -> humidity;
+        case SNR -> snr;
+        case SPREADING_FACTOR -> spreadingFactor;
+        case FRAME_COUNTER -> frameCounter;
+        default -> Double.NaN;
+      };
+    }
+  }
+
+  /** @param signalStrength the signal strength of the link in dBm */
+  record Modbus(
+      double batteryLevel,
+      double signalStrength,
+      double temperature,
+      double humidity,
+      double registerCount,
+      double errorCount)
+      implements Telemetry {
+
+    @Override
+    public MeterType type() {
+      return MeterType.MODBUS;
+    }
+
+    @Override
+    public double value(TelemetryField field) {
+      return switch (field) {
+        case BATTERY_LEVEL -> batteryLevel;
+        case SIGNAL_STRENGTH -> signalStrength;
+        case TEMPERATURE -> temperature;
+        case HUMIDITY -> humidity;
+        case REGISTER_COUNT -> registerCount;
+        case ERROR_COUNT -> errorCount;
+        default -> Double.NaN;
+      };
+    }
+  }
+
+  /** @param signalStrength the received signal strength in dBm */
+  record Sidewalk(double batteryLevel, double signalStrength, double temperature, double humidity)
+      implements Telemetry {
+
+    @Override
+    public MeterType type() {
+      return MeterType.SIDEWALK;
+    }
+
+    @Override
+    public double value(TelemetryField field) {
+      return switch (field) {
+        case BATTERY_LEVEL -> batteryLevel;
+        case SIGNAL_STRENGTH -> signalStrength;
+        case TEMPERATURE -> temperature;
+        case HUMIDITY -> humidity;
+        default -> Double.NaN;
+      };
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package com.lumina.meter.model;
+
+import static com.lumina.catalogue.model.MeterType.LORAWAN;
+import static com.lumina.catalogue.model.MeterType.MODBUS;
+import static com.lumina.catalogue.model.MeterType.SIDEWALK;
+
+import com.lumina.catalogue.model.MeterType;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The telemetry fields that are stored as typed values rather than in a status record's data map.
+ * Each field has a short document key, so the field name is not repeated in every stored sample,
+ * and applies to the meter types whose {@link Telemetry} record carries it.
+ */
+public enum TelemetryField {
+  BATTERY_LEVEL("batteryLevel", "b", Kind.DECIMAL, LORAWAN, MODBUS, SIDEWALK),
+  SIGNAL_STRENGTH("signalStrength", "s", Kind.INTEGER, LORAWAN, MODBUS, SIDEWALK),
+  TEMPERATURE("temperature", "tc", Kind.DECIMAL, LORAWAN, MODBUS, SIDEWALK),
+  HUMIDITY("humidity", "h", Kind.DECIMAL, LORAWAN, MODBUS, SIDEWALK),
+  SNR("snr", "n", Kind.DECIMAL, LORAWAN),
+  SPREADING_FACTOR("spreadingFactor", "sf", Kind.INTEGER, LORAWAN),
+  FRAME_COUNTER("frameCounter", "fc", Kind.INTEGER, LORAWAN),
+  REGISTER_COUNT("registerCount", "rc", Kind.INTEGER, MODBUS),
+  ERROR_COUNT("errorCount", "ec", Kind.INTEGER, MODBUS);
+
+  /** How a value is encoded in the database and presented in the data map. */
+  public enum Kind {
+    INTEGER,
+    DECIMAL
+  }
+
+  /** The largest integer a double holds exactly. */
+  private static final long MAX_EXACT_LONG = 1L << 53;
+
+  private static final Map<String, TelemetryField> BY_NAME =
+      Arrays.stream(values()).collect(Collectors.toMap(f -> f.fieldName, Function.identity()));
+
+  private final String fieldName;
+  private final String key;
+  private final Kind kind;
+  private final Set<MeterType> types;
+
+  TelemetryField(String fieldName, String key, Kind kind, MeterType first, MeterType... rest) {
+    this.fieldName = fieldName;
+    this.key = key;
+    this.kind = kind;
+    this.types = EnumSet.of(first, rest);
+  }
+
+  /** The name of the field in the status data sent and returned by the API. */
+  public String fieldName() {
+    return fieldName;
+  }
+
+  /** The key of the field in the stored telemetry document. */
+  public String key() {
+    return key;
+  }
+
+  public Kind kind() {
+    return kind;
+  }
+
+  public boolean appliesTo(MeterType type) {
+    return types.contains(type);
+  }
+
+  /**
+   * Returns the field with the given API name.
+   *
+   * @return the field, or null if the name is not a typed telemetry field
+   */
+  public static TelemetryField byName(String fieldName) {
+    return BY_NAME.get(fieldName);
+  }
+
+  /**
+   * Boxes a value the way the API presents this field. Integral values are presented as integers
+   * whatever the kind, as they were when the data map held the value as parsed, so a battery level
+   * sent as {@code 80} is returned as {@code 80} rather than {@code 80.0}. Values beyond the range
+   * a double holds exactly are returned as doubles rather than saturated to a long.
+   */
+  public Number box(double value) {
+    if (Math.abs(value) > MAX_EXACT_LONG || (kind == Kind.DECIMAL && value != Math.rint(value))) {
+      return value;
+    }
+    long integral = (long) value;
+    return integral == (int) integral ? (Number) (int) integral : (Number) integral;
+  }
+}
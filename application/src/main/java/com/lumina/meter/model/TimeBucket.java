@@ -0,0 +1,110 @@
+package com.lumina.meter.model;
+
+import com.lumina.BadRequestException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.regex.Pattern;
+
+/**
+ * A bucket width such as {@code 15m} or {@code 1M}, expressed as a calendar unit and a multiple of
+ * it so that day, week and month buckets follow the requested time zone rather than a fixed number
+ * of seconds.
+ *
+ * @param amount the number of units per bucket
+ * @param unit the calendar unit
+ */
+public record TimeBucket(int amount, Unit unit) {
+
+  private static final Pattern FORMAT = Pattern.compile("(\\d{1,4})([smhdwM])");
+
+  /** The date from which {@code $dateTrunc} counts buckets. */
+  private static final LocalDate REFERENCE = LocalDate.of(2000, 1, 1);
+
+  /** The first Monday on or after {@link #REFERENCE}, from which week buckets are counted. */
+  private static final LocalDate WEEK_REFERENCE = LocalDate.of(2000, 1, 3);
+
+  public enum Unit {
+    SECOND("second", Duration.ofSeconds(1)),
+    MINUTE("minute", Duration.ofMinutes(1)),
+    HOUR("hour", Duration.ofHours(1)),
+    DAY("day", Duration.ofDays(1)),
+    WEEK("week", Duration.ofDays(7)),
+    MONTH("month", Duration.ofDays(30));
+
+    private final String mongoUnit;
+    private final Duration nominalLength;
+
+    Unit(String mongoUnit, Duration nominalLength) {
+      this.mongoUnit = mongoUnit;
+      this.nominalLength = nominalLength;
+    }
+
+    /** The unit name understood by MongoDB's {@code $dateTrunc}. */
+    public String mongoUnit() {
+      return mongoUnit;
+    }
+  }
+
+  /**
+   * Parses a bucket such as {@code 30s}, {@code 15m}, {@code 1h}, {@code 1d}, {@code 1w} or {@code
+   * 1M}.
+   *
+   * @throws BadRequestException if the text is not a valid bucket
+   */
+  public static TimeBucket parse(String text) {
+    var matcher = FORMAT.matcher(text == null ? "" : text.trim());
+    if (!matcher.matches() || Integer.parseInt(matcher.group(1)) == 0) {
+      throw new BadRequestException(
+          "Invalid bucket %s; expected e.g. 30s, 15m, 1h, 1d, 1w or 1M".formatted(text));
+    }
+    Unit unit =
+        switch (matcher.group(2)) {
+          case "s" -> Unit.SECOND;
+          case "m" -> Unit.MINUTE;
+          case "h" -> Unit.HOUR;
+          case "d" -> Unit.DAY;
+          case "w" -> Unit.WEEK;
+          default -> Unit.MONTH;
+        };
+    return new TimeBucket(Integer.parseInt(matcher.group(1)), unit);
+  }
+
+  /** Nominal length of one bucket, used to bound how many buckets a time range produces. */
+  public Duration nominalLength() {
+    return unit.nominalLength.multipliedBy(amount);
+  }
+
+  /**
+   * Returns the start of the bucket that contains an instant, as MongoDB's {@code $dateTrunc}
+   * computes it with weeks starting on Monday. Buckets are counted from midnight on 2000-01-01 in
+   * the zone; seconds, minutes and hours are fixed durations, while days, weeks and months follow
+   * the zone's calendar.
+   */
+  public Instant truncate(Instant instant, ZoneId zone) {
+    return switch (unit) {
+      case SECOND, MINUTE, HOUR -> {
+        long reference = REFERENCE.atStartOfDay(zone).toInstant().toEpochMilli();
+        long length = nominalLength().toMillis();
+        long millis = instant.toEpochMilli();
+        yield Instant.ofEpochMilli(millis - Math.floorMod(millis - reference, length));
+      }
+      case DAY, WEEK -> {
+        LocalDate reference = unit == Unit.DAY ? REFERENCE : WEEK_REFERENCE;
+        long days = ChronoUnit.DAYS.between(reference, instant.atZone(zone).toLocalDate());
+        long length = nominalLength().toDays();
+        yield reference.plusDays(days - Math.floorMod(days, length)).atStartOfDay(zone).toInstant();
+      }
+      case MONTH -> {
+        LocalDate month = instant.atZone(zone).toLocalDate().withDayOfMonth(1);
+        long months = ChronoUnit.MONTHS.between(REFERENCE, month);
+        yield REFERENCE
+            .plusMonths(months - Math.floorMod(months, amount))
+            .atStartOfDay(zone)
+            .toInstant();
+      }
+    };
+  }
+}
@@ -0,0 +1,403 @@
+package com.lumina.meter.validation;
+
+import static com.lumina.validation.ErrorCode.*;
+import static java.lang.constant.ConstantDescs.*;
+
+import com.lumina.catalogue.model.NumberType;
+import com.lumina.catalogue.model.ValidationStage;
+import com.lumina.catalogue.model.constraint.Constraint;
+import com.lumina.catalogue.model.constraint.NumberLineConstraint;
+import com.lumina.catalogue.model.constraint.PatternLineConstraint;
+import com.lumina.catalogue.model.constraint.TextLineConstraint;
+import com.lumina.meter.model.Line;
+import com.lumina.validation.ErrorCode;
+import com.lumina.validation.Errors;
+import io.micrometer.common.util.StringUtils;
+import java.lang.classfile.ClassBuilder;
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.ClassHierarchyResolver;
+import java.lang.classfile.CodeBuilder;
+import java.lang.classfile.Label;
+import java.lang.classfile.instruction.SwitchCase;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.MethodTypeDesc;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Generates the {@link LineChecks} of a catalogue item as a hidden class with the ClassFile API.
+ *
+ * <p>The generated {@code check} method switches on the slot to straight-line code per constraint:
+ * the line type test, the stage test against the constraint's stage ordinal, and the bound, length
+ * and pattern tests with the constraint's values as constants. Patterns are compiled once into
+ * static fields. Errors are reported through the static methods at the end of this class, which
+ * build exactly the errors of the {@code validate} methods of the constraints. The JIT therefore
+ * sees one monomorphic method per catalogue item instead of the {@code Constraint.validate}
+ * dispatch and the pattern-matching switch.
+ *
+ * <p>Constraints without a stage or with an invalid pattern fail when interpreted; for them no
+ * class is generated, so validation keeps the interpreted path and its exceptions. Generated
+ * classes are not held strongly by their class loader and are unloaded with their plan.
+ */
+@Slf4j
+final class LineCheckCompiler {
+
+  private static final ClassDesc CD_LINE_CHECKS = desc(LineChecks.class);
+  private static final ClassDesc CD_LINE = desc(Line.class);
+  private static final ClassDesc CD_NUMBER_LINE = desc(Line.Number.class);
+  private static final ClassDesc CD_TEXT_LINE = desc(Line.Text.class);
+  private static final ClassDesc CD_PATTERN_LINE = desc(Line.Pattern.class);
+  private static final ClassDesc CD_ERRORS = desc(Errors.class);
+  private static final ClassDesc CD_STAGE = desc(ValidationStage.class);
+  private static final ClassDesc CD_PATTERN = desc(Pattern.class);
+  private static final ClassDesc CD_MATCHER = desc(Matcher.class);
+  private static final ClassDesc CD_CHAR_SEQUENCE = desc(CharSequence.class);
+  private static final ClassDesc CD_MATH = desc(Math.class);
+  private static final ClassDesc CD_STRING_UTILS = desc(StringUtils.class);
+  private static final ClassDesc CD_COMPILER = desc(LineCheckCompiler.class);
+  private static final ClassDesc CD_GENERATED =
+      ClassDesc.of(LineCheckCompiler.class.getPackageName(), "GeneratedLineChecks");
+
+  private static final MethodTypeDesc MTD_CHECK =
+      MethodTypeDesc.of(CD_boolean, CD_int, CD_LINE, CD_ERRORS, CD_STAGE);
+
+  /** Resolves the JDK classes from the runtime image and the others through our class loader. */
+  private static final ClassHierarchyResolver RESOLVER =
+      ClassHierarchyResolver.defaultResolver()
+          .orElse(ClassHierarchyResolver.ofClassLoading(LineCheckCompiler.class.getClassLoader()));
+
+  // locals of the check method
+  private static final int SLOT = 1;
+  private static final int LINE = 2;
+  private static final int ERRORS = 3;
+  private static final int STAGE = 4;
+  private static final int VALUE = 5;
+  private static final int DOUBLE_VALUE = 6;
+  private static final int INT_VALUE = 8;
+
+  private LineCheckCompiler() {}
+
+  /**
+   * Generates and loads the checks of the constraints in the slots of a plan.
+   *
+   * @return the checks, or null if the constraints must be interpreted
+   */
+  static LineChecks compile(Constraint<? extends Line>[] constraints) {
+    if (constraints.length == 0 || !canGenerate(constraints)) {
+      return null;
+    }
+    try {
+      byte[] bytes =
+          ClassFile.of(ClassFile.ClassHierarchyResolverOption.of(RESOLVER))
+              .build(CD_GENERATED, clb -> generate(clb, constraints));
+      Class<?> type = MethodHandles.lookup().defineHiddenClass(bytes, true).lookupClass();
+      return (LineChecks) type.getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+      log.warn("Failed to generate validation checks; interpreting the constraints", e);
+      return null;
+    }
+  }
+
+  private static boolean canGenerate(Constraint<? extends Line>[] constraints) {
+    for (Constraint<? extends Line> constraint : constraints) {
+      if (constraint.stage() == null) {
+        return false;
+      }
+      if (constraint instanceof PatternLineConstraint plc) {
+        if (plc.pattern() == null) {
+          return false;
+        }
+        try {
+          Pattern.compile(plc.pattern());
+        } catch (PatternSyntaxException e) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static void generate(ClassBuilder clb, Constraint<? extends Line>[] constraints) {
+    clb.withFlags(ClassFile.ACC_PUBLIC | ClassFile.ACC_FINAL | ClassFile.ACC_SYNTHETIC)
+        .withSuperclass(CD_Object)
+        .withInterfaceSymbols(CD_LINE_CHECKS)
+        .withMethodBody(
+            INIT_NAME,
+            MTD_void,
+            ClassFile.ACC_PUBLIC,
+            cob -> cob.aload(0).invokespecial(CD_Object, INIT_NAME, MTD_void).return_());
+
+    List<Integer> patternSlots = new ArrayList<>();
+    for (int i = 0; i < constraints.length; i++) {
+      if (constraints[i] instanceof PatternLineConstraint) {
+        patternSlots.add(i);
+        clb.withField(
+            patternField(i),
+            CD_PATTERN,
+            ClassFile.ACC_PRIVATE | ClassFile.ACC_STATIC | ClassFile.ACC_FINAL);
+      }
+    }
+    if (!patternSlots.isEmpty()) {
+      clb.withMethodBody(
+          CLASS_INIT_NAME,
+          MTD_void,
+          ClassFile.ACC_STATIC,
+          cob -> {
+            for (int i : patternSlots) {
+              cob.loadConstant(((PatternLineConstraint) constraints[i]).pattern())
+                  .invokestatic(CD_PATTERN, "compile", MethodTypeDesc.of(CD_PATTERN, CD_String))
+                  .putstatic(CD_GENERATED, patternField(i), CD_PATTERN);
+            }
+            cob.return_();
+          });
+    }
+
+    clb.withMethodBody("check", MTD_CHECK, ClassFile.ACC_PUBLIC, cob -> check(cob, constraints));
+  }
+
+  private static void check(CodeBuilder cob, Constraint<? extends Line>[] constraints) {
+    Label checked = cob.newLabel();
+    Label unchecked = cob.newLabel();
+    Label[] cases = new Label[constraints.length];
+    List<SwitchCase> switchCases = new ArrayList<>(constraints.length);
+    for (int i = 0; i < constraints.length; i++) {
+      cases[i] = cob.newLabel();
+      switchCases.add(SwitchCase.of(i, cases[i]));
+    }
+    cob.iload(SLOT).tableswitch(0, constraints.length - 1, unchecked, switchCases);
+
+    for (int i = 0; i < constraints.length; i++) {
+      cob.labelBinding(cases[i]);
+      switch (constraints[i]) {
+        case NumberLineConstraint nlc -> number(cob, nlc, checked, unchecked);
+        case TextLineConstraint tlc -> text(cob, tlc, checked, unchecked);
+        case PatternLineConstraint plc -> pattern(cob, plc, patternField(i), checked, unchecked);
+      }
+      cob.goto_(checked);
+    }
+
+    cob.labelBinding(checked).iconst_1().ireturn();
+    cob.labelBinding(unchecked).iconst_0().ireturn();
+  }
+
+  /**
+   * Leaves the check unless the line is of the constraint's type and the meter's stage validates
+   * the constraint, then stores the line's value.
+   */
+  private static void guard(
+      CodeBuilder cob,
+      ClassDesc lineType,
+      ClassDesc valueType,
+      ValidationStage stage,
+      Label checked,
+      Label unchecked) {
+    cob.aload(LINE).instanceOf(lineType).ifeq(unchecked);
+    // stage().shouldValidateAt(stage): the constraint's ordinal is at most the meter's
+    cob.aload(STAGE)
+        .invokevirtual(CD_STAGE, "ordinal", MethodTypeDesc.of(CD_int))
+        .loadConstant(stage.ordinal())
+        .if_icmplt(checked);
+    cob.aload(LINE)
+        .checkcast(lineType)
+        .invokevirtual(lineType, "value", MethodTypeDesc.of(valueType))
+        .astore(VALUE);
+  }
+
+  private static void number(
+      CodeBuilder cob, NumberLineConstraint constraint, Label checked, Label unchecked) {
+    guard(cob, CD_NUMBER_LINE, CD_Double, constraint.stage(), checked, unchecked);
+    if (constraint.numberType() == null) {
+      return;
+    }
+    cob.aload(VALUE).ifnull(checked);
+    cob.aload(VALUE)
+        .invokevirtual(CD_Double, "doubleValue", MethodTypeDesc.of(CD_double))
+        .dstore(DOUBLE_VALUE);
+
+    if (constraint.numberType() == NumberType.INTEGER) {
+      Label notInteger = cob.newLabel();
+      cob.dload(DOUBLE_VALUE)
+          .dload(DOUBLE_VALUE)
+          .invokestatic(CD_MATH, "floor", MethodTypeDesc.of(CD_double, CD_double))
+          .dcmpl()
+          .ifne(notInteger);
+      cob.dload(DOUBLE_VALUE)
+          .invokestatic(CD_Double, "isInfinite", MethodTypeDesc.of(CD_boolean, CD_double))
+          .ifne(notInteger);
+      cob.dload(DOUBLE_VALUE).d2i().istore(INT_VALUE);
+      MethodTypeDesc report = MethodTypeDesc.of(CD_void, CD_ERRORS, CD_String, CD_int, CD_int);
+      if (constraint.min() != null) {
+        Label aboveMin = cob.newLabel();
+        int min = constraint.min().intValue();
+        cob.loadConstant(min).iload(INT_VALUE).if_icmple(aboveMin);
+        field(cob.aload(ERRORS), constraint.name())
+            .iload(INT_VALUE)
+            .loadConstant(min)
+            .invokestatic(CD_COMPILER, "integerLessThan", report)
+            .goto_(checked);
+        cob.labelBinding(aboveMin);
+      }
+      if (constraint.max() != null) {
+        int max = constraint.max().intValue();
+        cob.loadConstant(max).iload(INT_VALUE).if_icmpge(checked);
+        field(cob.aload(ERRORS), constraint.name())
+            .iload(INT_VALUE)
+            .loadConstant(max)
+            .invokestatic(CD_COMPILER, "integerGreaterThan", report);
+      }
+      cob.goto_(checked);
+      cob.labelBinding(notInteger);
+      field(cob.aload(ERRORS), constraint.name())
+          .aload(VALUE)
+          .invokestatic(
+              CD_COMPILER,
+              "notInteger",
+              MethodTypeDesc.of(CD_void, CD_ERRORS, CD_String, CD_Double));
+    } else if (constraint.numberType() == NumberType.FLOAT) {
+      MethodTypeDesc report =
+          MethodTypeDesc.of(CD_void, CD_ERRORS, CD_String, CD_Double, CD_double);
+      if (constraint.min() != null) {
+        Label aboveMin = cob.newLabel();
+        // min > value, false for NaN
+        cob.loadConstant(constraint.min()).dload(DOUBLE_VALUE).dcmpl().ifle(aboveMin);
+        field(cob.aload(ERRORS), constraint.name())
+            .aload(VALUE)
+            .loadConstant(constraint.min())
+            .invokestatic(CD_COMPILER, "lessThan", report)
+            .goto_(checked);
+        cob.labelBinding(aboveMin);
+      }
+      if (constraint.max() != null) {
+        // max < value, false for NaN
+        cob.loadConstant(constraint.max()).dload(DOUBLE_VALUE).dcmpg().ifge(checked);
+        field(cob.aload(ERRORS), constraint.name())
+            .aload(VALUE)
+            .loadConstant(constraint.max())
+            .invokestatic(CD_COMPILER, "greaterThan", report);
+      }
+    }
+  }
+
+  private static void text(
+      CodeBuilder cob, TextLineConstraint constraint, Label checked, Label unchecked) {
+    guard(cob, CD_TEXT_LINE, CD_String, constraint.stage(), checked, unchecked);
+    cob.aload(VALUE).ifnull(checked);
+
+    Label notBlank = cob.newLabel();
+    cob.aload(VALUE)
+        .invokestatic(CD_STRING_UTILS, "isBlank", MethodTypeDesc.of(CD_boolean, CD_String))
+        .ifeq(notBlank);
+    field(cob.aload(ERRORS), constraint.name())
+        .invokestatic(CD_COMPILER, "required", MethodTypeDesc.of(CD_void, CD_ERRORS, CD_String))
+        .goto_(checked);
+    cob.labelBinding(notBlank);
+
+    MethodTypeDesc report = MethodTypeDesc.of(CD_void, CD_ERRORS, CD_String, CD_String, CD_int);
+    MethodTypeDesc length = MethodTypeDesc.of(CD_int);
+    if (constraint.minLength() != null) {
+      Label longEnough = cob.newLabel();
+      cob.loadConstant(constraint.minLength())
+          .aload(VALUE)
+          .invokevirtual(CD_String, "length", length)
+          .if_icmple(longEnough);
+      field(cob.aload(ERRORS), constraint.name())
+          .aload(VALUE)
+          .loadConstant(constraint.minLength())
+          .invokestatic(CD_COMPILER, "minLength", report)
+          .goto_(checked);
+      cob.labelBinding(longEnough);
+    }
+    if (constraint.maxLength() != null) {
+      cob.loadConstant(constraint.maxLength())
+          .aload(VALUE)
+          .invokevirtual(CD_String, "length", length)
+          .if_icmpge(checked);
+      field(cob.aload(ERRORS), constraint.name())
+          .aload(VALUE)
+          .loadConstant(constraint.maxLength())
+          .invokestatic(CD_COMPILER, "maxLength", report);
+    }
+  }
+
+  private static void pattern(
+      CodeBuilder cob,
+      PatternLineConstraint constraint,
+      String patternField,
+      Label checked,
+      Label unchecked) {
+    guard(cob, CD_PATTERN_LINE, CD_String, constraint.stage(), checked, unchecked);
+    cob.getstatic(CD_GENERATED, patternField, CD_PATTERN)
+        .aload(VALUE)
+        .invokevirtual(CD_PATTERN, "matcher", MethodTypeDesc.of(CD_MATCHER, CD_CHAR_SEQUENCE))
+        .invokevirtual(CD_MATCHER, "matches", MethodTypeDesc.of(CD_boolean))
+        .ifne(checked);
+    field(cob.aload(ERRORS), constraint.name())
+        .aload(VALUE)
+        .loadConstant(constraint.pattern())
+        .invokestatic(
+            CD_COMPILER,
+            "invalidPattern",
+            MethodTypeDesc.of(CD_void, CD_ERRORS, CD_String, CD_String, CD_String));
+  }
+
+  /** Pushes the field name of the errors reported for a constraint. */
+  private static CodeBuilder field(CodeBuilder cob, String name) {
+    return name == null ? cob.aconst_null() : cob.loadConstant(name);
+  }
+
+  private static String patternField(int slot) {
+    return "pattern" + slot;
+  }
+
+  private static ClassDesc desc(Class<?> type) {
+    return ClassDesc.ofDescriptor(type.descriptorString());
+  }
+
+  // Reporting methods called by the generated classes, matching the constraints' validate methods
+
+  static void integerLessThan(Errors errors, String field, int value, int min) {
+    reject(errors, field, LESS_THAN, value, value, min);
+  }
+
+  static void integerGreaterThan(Errors errors, String field, int value, int max) {
+    reject(errors, field, GREATER_THAN, value, value, max);
+  }
+
+  static void notInteger(Errors errors, String field, Double value) {
+    reject(errors, field, NOT_INTEGER, value, value);
+  }
+
+  static void lessThan(Errors errors, String field, Double value, double min) {
+    reject(errors, field, LESS_THAN, value, value, min);
+  }
+
+  static void greaterThan(Errors errors, String field, Double value, double max) {
+    reject(errors, field, GREATER_THAN, value, value, max);
+  }
+
+  static void required(Errors errors, String field) {
+    errors.rejectValue(field, REQUIRED);
+  }
+
+  static void minLength(Errors errors, String field, String value, int minLength) {
+    reject(errors, field, MIN_LENGTH, value, value, minLength);
+  }
+
+  static void maxLength(Errors errors, String field, String value, int maxLength) {
+    reject(errors, field, MAX_LENGTH, value, value, maxLength);
+  }
+
+  static void invalidPattern(Errors errors, String field, String value, String pattern) {
+    reject(errors, field, INVALID_PATTERN, value, value, pattern);
+  }
+
+  private static void reject(
+      Errors errors, String field, ErrorCode errorCode, Object rejectedValue, Object... args) {
+    errors.reject(field, errorCode, rejectedValue, args);
+  }
+}
@@ -0,0 +1,23 @@
+package com.lumina.meter.validation;
+
+import com.lumina.catalogue.model.ValidationStage;
+import com.lumina.meter.model.Line;
+import com.lumina.validation.Errors;
+
+/**
+ * The constraint checks of a {@link ValidationPlan}, generated as a class of their own by {@link
+ * LineCheckCompiler}. Implementations report exactly the errors that {@code Constraint.validate}
+ * reports for the same line.
+ */
+interface LineChecks {
+
+  /**
+   * Checks a line against the constraint in a slot of the plan.
+   *
+   * @param slot the slot of the constraint applied to the line
+   * @param stage the validation stage of the meter
+   * @return false, without reporting anything, if the line is not of the type the constraint
+   *     checks
+   */
+  boolean check(int slot, Line line, Errors errors, ValidationStage stage);
+}
@@ -4,6 +4,7 @@ import static com.lumina.meter.validation.MeterValidator.FunctionalHelper.*;
 import static com.lumina.meter.validation.MeterValidator.FunctionalHelper.when;
 import static com.lumina.validation.ErrorCode.*;
 
+import com.lumina.catalogue.CatalogueItemChangedEvent;
 import com.lumina.catalogue.CatalogueItemService;
 import com.lumina.catalogue.model.ValidationStage;
 import com.lumina.catalogue.model.constraint.Constraint;
@@ -13,30 +14,67 @@ import com.lumina.catalogue.model.constraint.TextLineConstraint;
 import com.lumina.meter.model.Line;
 import com.lumina.meter.model.Meter;
 import com.lumina.validation.Errors;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.function.BiConsumer;
-import java.util.function.Predicate;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+/**
+ * Validates meters against the constraints of their catalogue item. The constraints of each model
+ * are compiled once into a {@link ValidationPlan} and cached until the catalogue item changes, so
+ * bulk imports and re-validation of large configurations do not rescan the constraints per line.
+ * A change made through another instance evicts the plan when {@link
+ * com.lumina.catalogue.CatalogueRevisions} next polls, so until then this instance may validate
+ * with the previous constraints. Callers that must not, such as a re-validation triggered by the
+ * change, {@link #evict(String) evict} the plan themselves.
+ *
+ * <p>With {@code lumina.meter.validation.bytecode.enabled} the checks of each plan are generated as
+ * a class of their own, see {@link LineCheckCompiler}; otherwise, and for constraints that cannot
+ * be generated, each constraint's {@code validate} method is called.
+ *
+ * <p>Validation stops early once an {@link Errors} limited to a number of errors is full.
+ */
 @Component
 public class MeterValidator {
 
   private final CatalogueItemService itemService;
+  private final boolean bytecodeEnabled;
+  private final Map<String, ValidationPlan> plansByModel = new ConcurrentHashMap<>();
 
-  public MeterValidator(CatalogueItemService itemService) {
+  public MeterValidator(
+      CatalogueItemService itemService,
+      @Value("${lumina.meter.validation.bytecode.enabled:false}") boolean bytecodeEnabled) {
     this.itemService = itemService;
+    this.bytecodeEnabled = bytecodeEnabled;
   }
 
-  static <T> void forEachWithCounter(Iterable<T> source, BiConsumer<Integer, T> consumer) {
-    int i = 0;
-    for (T item : source) {
-      consumer.accept(i, item);
-      i++;
+  public void validate(Meter meter, Errors errors) {
+    Objects.requireNonNull(meter);
+    validate(meter, errors, planFor(meter.model()));
+  }
+
+  /**
+   * Returns a validator for a batch of meters of the given models. Each model is looked up once for
+   * the whole batch, including models that are not in the catalogue. The batch may be used by
+   * several threads at once.
+   */
+  public Batch batch(Collection<String> models) {
+    Map<String, ValidationPlan> plans = HashMap.newHashMap(models.size());
+    for (String model : models) {
+      if (model != null && !plans.containsKey(model)) {
+        plans.put(model, planFor(model));
+      }
     }
+    return new Batch(plans);
   }
 
-  public void validate(Meter meter, Errors errors) {
+  private void validate(Meter meter, Errors errors, ValidationPlan plan) {
     Objects.requireNonNull(meter);
     Objects.requireNonNull(errors);
 
@@ -44,36 +82,71 @@ public class MeterValidator {
         .rejectIfEmpty("locationId", meter.locationId(), NOT_EMPTY)
         .rejectIfEmpty("model", meter.model(), NOT_EMPTY);
 
-    itemService
-        .findByModel(meter.model())
-        .ifPresentOrElse(
-            model -> checkLines(meter, model.constraints(), errors),
-            () -> errors.rejectValue("model", NOT_FOUND));
+    if (plan == null) {
+      errors.rejectValue("model", NOT_FOUND);
+    } else if (!errors.isFull()) {
+      checkLines(meter, plan, errors);
+    }
   }
 
-  void checkLines(Meter meter, List<Constraint<? extends Line>> constraints, Errors errors) {
+  /**
+   * Returns the compiled plan of a model, or null if the model is not in the catalogue. Unknown
+   * models are not cached, so a model is found as soon as it is created.
+   */
+  ValidationPlan planFor(String model) {
+    if (model == null) {
+      return null;
+    }
+    return plansByModel.computeIfAbsent(
+        model,
+        m ->
+            itemService
+                .findByModel(m)
+                .map(item -> ValidationPlan.compile(item.constraints(), bytecodeEnabled))
+                .orElse(null));
+  }
 
-    Predicate<Constraint<?>> validatesAtMeterStage = c -> meter.stage().shouldValidateAt(c.stage());
+  @EventListener
+  public void onCatalogueItemChanged(CatalogueItemChangedEvent event) {
+    evict(event.model());
+  }
+
+  /** Drops the compiled plan of a model, so the next validation reads its catalogue item again. */
+  public void evict(String model) {
+    plansByModel.remove(model);
+  }
+
+  void checkLines(Meter meter, ValidationPlan plan, Errors errors) {
+    List<Line> lines = meter.lines() == null ? List.of() : meter.lines();
+    BitSet present = plan.newPresence();
+    LineChecks checks = plan.checks();
 
     // check lines against constraints
-    forEachWithCounter(
-        meter.lines(),
-        (i, line) ->
-            constraints.stream()
-                .filter(line.isConstrainedBy())
-                .findFirst()
-                .ifPresent(cs -> validateLine(cs, line, i, errors, meter.stage())));
+    for (int i = 0; i < lines.size() && !errors.isFull(); i++) {
+      Line line = lines.get(i);
+      int slot = plan.slotOf(line.name());
+      if (slot >= 0) {
+        present.set(slot);
+        if (checks != null) {
+          errors.pushContext("lines", i);
+          boolean checked = checks.check(slot, line, errors, meter.stage());
+          errors.popContext();
+          if (checked) {
+            continue;
+          }
+        }
+        // interpreted, and for a line of another type than its constraint
+        validateLine(plan.constraint(slot), line, i, errors, meter.stage());
+      }
+    }
 
     // check constraints for missing lines
-    constraints.stream()
-        .filter(validatesAtMeterStage)
-        .filter(Constraint::isRequired)
-        .forEach(
-            con ->
-                meter.lines().stream()
-                    .filter(con.constrains())
-                    .findFirst()
-                    .ifPresentOrElse(_ -> {}, () -> errorLine(con.name(), errors)));
+    ValidationStage stage = meter.stage();
+    for (int i = 0, n = plan.requiredCount(stage); i < n && !errors.isFull(); i++) {
+      if (!present.get(plan.requiredSlot(stage, i))) {
+        errorLine(plan.required(stage, i).name(), errors);
+      }
+    }
   }
 
   void validateLine(
@@ -82,7 +155,7 @@ public class MeterValidator {
       int index,
       Errors errors,
       ValidationStage stage) {
-    errors.pushContext("lines[%d]".formatted(index));
+    errors.pushContext("lines", index);
     switch (when(constraint, line)) {
       case When(NumberLineConstraint nlc, Line.Number nl) -> nlc.validate(nl, errors, stage);
       case When(TextLineConstraint tlc, Line.Text lt) -> tlc.validate(lt, errors, stage);
@@ -98,6 +171,23 @@ public class MeterValidator {
     errors.popContext();
   }
 
+  /** Validates meters with the plans resolved by {@link #batch(Collection)}. */
+  public final class Batch {
+
+    private final Map<String, ValidationPlan> plans;
+
+    private Batch(Map<String, ValidationPlan> plans) {
+      this.plans = plans;
+    }
+
+    public void validate(Meter meter, Errors errors) {
+      Objects.requireNonNull(meter);
+      String model = meter.model();
+      MeterValidator.this.validate(
+          meter, errors, plans.containsKey(model) ? plans.get(model) : planFor(model));
+    }
+  }
+
   public static class FunctionalHelper {
     public static When when(Constraint<? extends Line> constraint, Line line) {
       return new When(constraint, line);
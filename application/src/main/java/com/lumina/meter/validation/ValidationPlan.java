@@ -0,0 +1,131 @@
+package com.lumina.meter.validation;
+
+import com.lumina.catalogue.model.ValidationStage;
+import com.lumina.catalogue.model.constraint.Constraint;
+import com.lumina.meter.model.Line;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The constraints of a catalogue item compiled for validating meters, so each meter costs one hash
+ * lookup per line and one bit test per required constraint instead of a scan of the constraints
+ * per line and of the lines per constraint.
+ *
+ * <p>Every constraint gets a slot: the constraint applied to a line is the first one with its name,
+ * found through a name index, and the required constraints validated at each {@link
+ * ValidationStage} are resolved once to the slots whose presence they need. While checking a meter
+ * the slots of its lines are marked in a bit set, and a required constraint whose slot is unmarked
+ * is reported missing. Plans are immutable and safe to share.
+ *
+ * <p>A plan compiled with generation enabled also carries {@link LineChecks} generated by {@link
+ * LineCheckCompiler}, used in place of the constraints' own {@code validate} methods.
+ */
+final class ValidationPlan {
+
+  private static final ValidationStage[] STAGES = ValidationStage.values();
+
+  private final Constraint<? extends Line>[] constraints;
+  private final Map<String, Integer> slotsByName;
+
+  /** Per stage, the slot each required constraint needs marked, in declaration order. */
+  private final int[][] requiredSlots;
+
+  /** Per stage, the required constraints matching {@link #requiredSlots}. */
+  private final Constraint<?>[][] required;
+
+  private final LineChecks checks;
+
+  private ValidationPlan(
+      Constraint<? extends Line>[] constraints,
+      Map<String, Integer> slotsByName,
+      int[][] requiredSlots,
+      Constraint<?>[][] required,
+      LineChecks checks) {
+    this.constraints = constraints;
+    this.slotsByName = slotsByName;
+    this.requiredSlots = requiredSlots;
+    this.required = required;
+    this.checks = checks;
+  }
+
+  /**
+   * Compiles the constraints of a catalogue item.
+   *
+   * @param generateChecks whether to generate the checks of the constraints as bytecode
+   */
+  @SuppressWarnings("unchecked")
+  static ValidationPlan compile(
+      List<Constraint<? extends Line>> constraints, boolean generateChecks) {
+    Constraint<? extends Line>[] slots =
+        constraints == null ? new Constraint[0] : constraints.toArray(new Constraint[0]);
+    Map<String, Integer> slotsByName = HashMap.newHashMap(slots.length);
+    for (int i = 0; i < slots.length; i++) {
+      if (slots[i].name() != null) {
+        slotsByName.putIfAbsent(slots[i].name(), i);
+      }
+    }
+
+    int[][] requiredSlots = new int[STAGES.length][];
+    Constraint<?>[][] required = new Constraint<?>[STAGES.length][];
+    for (ValidationStage stage : STAGES) {
+      int[] stageSlots = new int[slots.length];
+      Constraint<?>[] stageRequired = new Constraint<?>[slots.length];
+      int n = 0;
+      for (int i = 0; i < slots.length; i++) {
+        Constraint<?> constraint = slots[i];
+        if (constraint.isRequired() && stage.shouldValidateAt(constraint.stage())) {
+          // a nameless constraint keeps its own slot, which no line marks
+          stageSlots[n] =
+              constraint.name() == null ? i : slotsByName.get(constraint.name()).intValue();
+          stageRequired[n++] = constraint;
+        }
+      }
+      requiredSlots[stage.ordinal()] = Arrays.copyOf(stageSlots, n);
+      required[stage.ordinal()] = Arrays.copyOf(stageRequired, n);
+    }
+    LineChecks checks = generateChecks ? LineCheckCompiler.compile(slots) : null;
+    return new ValidationPlan(slots, slotsByName, requiredSlots, required, checks);
+  }
+
+  /**
+   * Returns the slot of the constraint applied to lines of a name.
+   *
+   * @return the slot, or -1 if no constraint has the name
+   */
+  int slotOf(String lineName) {
+    Integer slot = lineName == null ? null : slotsByName.get(lineName);
+    return slot == null ? -1 : slot;
+  }
+
+  Constraint<? extends Line> constraint(int slot) {
+    return constraints[slot];
+  }
+
+  /** Returns the generated checks of the constraints, or null if they are interpreted. */
+  LineChecks checks() {
+    return checks;
+  }
+
+  /** Returns a bit set sized to mark the slots of this plan. */
+  BitSet newPresence() {
+    return new BitSet(constraints.length);
+  }
+
+  /** The number of required constraints validated at a stage. */
+  int requiredCount(ValidationStage stage) {
+    return required[stage.ordinal()].length;
+  }
+
+  /** The slot that the {@code i}th required constraint of a stage needs marked. */
+  int requiredSlot(ValidationStage stage, int i) {
+    return requiredSlots[stage.ordinal()][i];
+  }
+
+  /** The {@code i}th required constraint validated at a stage. */
+  Constraint<?> required(ValidationStage stage, int i) {
+    return required[stage.ordinal()][i];
+  }
+}
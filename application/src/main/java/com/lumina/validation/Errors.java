@@ -3,60 +3,199 @@ package com.lumina.validation;
 import io.micrometer.common.util.StringUtils;
 import java.util.*;
 
+/**
+ * Accumulates the errors of validating one object, each tagged with the path of the context it was
+ * reported in, such as {@code meter.lines[2]}.
+ *
+ * <p>The context is a stack of segments held in arrays; an indexed segment keeps its name and index
+ * apart, so pushing {@code lines[2]} with {@link #pushContext(String, int)} formats nothing. The
+ * path string is only built when an error is reported, and reused for further errors in the same
+ * context. Validating a valid object therefore allocates nothing beyond the accumulator itself.
+ *
+ * <p>An accumulator may be limited to a number of errors: further errors are dropped, and {@link
+ * #isFull()} tells validators they can stop. {@link #failFast(String)} stops at the first error.
+ * Instances are not thread-safe.
+ */
 public class Errors {
-  private final List<Error> fieldErrors = new ArrayList<>();
 
-  private String context = "";
+  private static final int NO_INDEX = -1;
+
+  private final int maxErrors;
+  private List<Error> fieldErrors = List.of();
+  private boolean truncated;
+
+  private String[] names = new String[4];
+  private int[] indexes = new int[4];
+  private int depth;
+
+  /** The path of the current context, or null until it is needed. */
+  private String path;
 
   public Errors(String context) {
-    this.context = context;
+    this(context, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Creates an accumulator that keeps at most {@code maxErrors} errors.
+   *
+   * @throws IllegalArgumentException if {@code maxErrors} is not positive
+   */
+  public Errors(String context, int maxErrors) {
+    if (maxErrors < 1) {
+      throw new IllegalArgumentException("maxErrors must be positive: " + maxErrors);
+    }
+    this.maxErrors = maxErrors;
+    if (context != null && !context.isEmpty()) {
+      pushContext(context);
+    }
+  }
+
+  /** Creates an accumulator that keeps only the first error. */
+  public static Errors failFast(String context) {
+    return new Errors(context, 1);
   }
 
-  public String pushContext(String subContext) {
-    context = context.isEmpty() ? subContext : "%s.%s".formatted(context, subContext);
-    return context;
+  public Errors pushContext(String subContext) {
+    return push(subContext, NO_INDEX);
   }
 
-  public String popContext() {
-    int lastDotIndex = context.lastIndexOf(".");
-    context = lastDotIndex == -1 ? "" : context.substring(0, lastDotIndex);
-    return context;
+  /** Enters the context of an element of a list, such as {@code lines[2]}. */
+  public Errors pushContext(String name, int index) {
+    if (index < 0) {
+      throw new IllegalArgumentException("index must not be negative: " + index);
+    }
+    return push(name, index);
+  }
+
+  public Errors popContext() {
+    if (depth > 0) {
+      names[--depth] = null;
+      path = null;
+    }
+    return this;
   }
 
   public String context() {
-    return context;
+    if (path == null) {
+      path = buildPath();
+    }
+    return path;
   }
 
   public Errors add(Error error) {
-    fieldErrors.add(error.withFieldContext(context()));
+    if (accepts()) {
+      append(error.withFieldContext(context()));
+    }
+    return this;
+  }
+
+  /** Reports an error in the current context. */
+  public Errors reject(
+      String field, ErrorCode errorCode, Object rejectedValue, Object... errorCodeArgs) {
+    if (accepts()) {
+      append(new Error(field, rejectedValue, errorCode, errorCodeArgs, context()));
+    }
     return this;
   }
 
   public Errors rejectIfEmpty(String field, Object value, ErrorCode errorCode) {
     if (Objects.isNull(value) || StringUtils.isBlank(value.toString())) {
-      add(ErrorBuilder.builder().field(field).rejectedValue(value).errorCode(errorCode).build());
+      reject(field, errorCode, value, (Object[]) null);
     }
     return this;
   }
 
   public Errors rejectValue(String field, ErrorCode errorCode) {
-    add(ErrorBuilder.builder().field(field).errorCode(errorCode).build());
-    return this;
+    return reject(field, errorCode, null, (Object[]) null);
   }
 
   public int getErrorCount() {
     return fieldErrors.size();
   }
 
+  public boolean hasErrors() {
+    return !fieldErrors.isEmpty();
+  }
+
+  /** Returns true once the maximum number of errors is reached; further errors are dropped. */
+  public boolean isFull() {
+    return fieldErrors.size() >= maxErrors;
+  }
+
+  /** Returns true if errors were dropped because the maximum was reached. */
+  public boolean isTruncated() {
+    return truncated;
+  }
+
   public boolean hasFieldError(String name) {
-    return fieldErrors.stream().anyMatch(f -> f.field().equals(name));
+    return find(name) != null;
   }
 
   public Error fieldError(String name) {
-    return fieldErrors.stream().filter(f -> f.field().equals(name)).findFirst().orElseThrow();
+    Error error = find(name);
+    if (error == null) {
+      throw new NoSuchElementException("No error for field " + name);
+    }
+    return error;
+  }
+
+  /** Returns the errors in the order they were reported, as an unmodifiable view. */
+  public List<Error> fieldErrors() {
+    return fieldErrors.isEmpty() ? List.of() : Collections.unmodifiableList(fieldErrors);
+  }
+
+  private Errors push(String name, int index) {
+    if (depth == names.length) {
+      names = Arrays.copyOf(names, depth * 2);
+      indexes = Arrays.copyOf(indexes, depth * 2);
+    }
+    names[depth] = name;
+    indexes[depth++] = index;
+    path = null;
+    return this;
   }
 
-  public Set<Error> fieldErrors() {
-    return new HashSet<>(fieldErrors);
+  private String buildPath() {
+    if (depth == 0) {
+      return "";
+    }
+    if (depth == 1 && indexes[0] == NO_INDEX) {
+      return names[0];
+    }
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < depth; i++) {
+      if (i > 0) {
+        builder.append('.');
+      }
+      builder.append(names[i]);
+      if (indexes[i] != NO_INDEX) {
+        builder.append('[').append(indexes[i]).append(']');
+      }
+    }
+    return builder.toString();
+  }
+
+  private boolean accepts() {
+    if (isFull()) {
+      truncated = true;
+      return false;
+    }
+    return true;
+  }
+
+  private void append(Error error) {
+    if (fieldErrors.isEmpty()) {
+      fieldErrors = new ArrayList<>(4);
+    }
+    fieldErrors.add(error);
+  }
+
+  private Error find(String name) {
+    for (Error error : fieldErrors) {
+      if (error.field().equals(name)) {
+        return error;
+      }
+    }
+    return null;
   }
 }
@@ -1,7 +1,7 @@
 package com.lumina.validation;
 
 import jakarta.validation.ValidationException;
-import java.util.Set;
+import java.util.List;
 
 public class LuminaValidationException extends ValidationException {
   private final Errors errors;
@@ -10,7 +10,7 @@ public class LuminaValidationException extends ValidationException {
     this.errors = errors;
   }
 
-  public Set<Error> validationErrors() {
+  public List<Error> validationErrors() {
     return errors.fieldErrors();
   }
 }
@@ -86,6 +86,20 @@ public class ErrorHandlingAdviceTest {
     assertThat(response.violations().getFirst().message()).isEqualTo("Resource not found");
   }
 
+  @Test
+  @DisplayName("onBadRequestException should return ValidationErrorResponse")
+  void testOnBadRequestException() {
+    BadRequestException exception = new BadRequestException("Start time must be before end time");
+
+    ValidationErrorResponse response = errorHandlingAdvice.onBadRequestException(exception);
+
+    assertThat(response).isNotNull();
+    assertThat(response.violations()).hasSize(1);
+    assertThat(response.violations().getFirst().fieldName()).isEqualTo("request");
+    assertThat(response.violations().getFirst().message())
+        .isEqualTo("Start time must be before end time");
+  }
+
   @Test
   @DisplayName("onDuplicateResourceException should return ValidationErrorResponse")
   void testOnDuplicateResourceException() {
@@ -9,6 +9,7 @@ import static org.mockito.Mockito.when;
 
 import com.lumina.NotFoundException;
 import com.lumina.catalogue.model.CatalogueItem;
+import com.lumina.catalogue.model.CatalogueItemBuilder;
 import com.lumina.catalogue.model.Level;
 import com.lumina.catalogue.model.MeterType;
 import java.util.List;
@@ -29,13 +30,16 @@ public class CatalogueItemServiceTest {
 
   @Mock private MongoTemplate mongoTemplate;
 
+  @Mock private CatalogueRevisions catalogueRevisions;
+
   private CatalogueItemService catalogueItemService;
 
   private CatalogueItem testItem;
 
   @BeforeEach
   void setup() {
-    catalogueItemService = new CatalogueItemService(itemRepository, mongoTemplate);
+    catalogueItemService =
+        new CatalogueItemService(itemRepository, mongoTemplate, catalogueRevisions);
     testItem =
         new CatalogueItem(
             "item-1",
@@ -72,6 +76,19 @@ public class CatalogueItemServiceTest {
     assertThat(result).isNotNull();
     assertThat(result.id()).isEqualTo("item-1");
     verify(mongoTemplate).findAndReplace(any(Query.class), eq(testItem));
+    verify(catalogueRevisions).changed("MODEL-001");
+  }
+
+  @Test
+  @DisplayName("update() should announce both models when the model is renamed")
+  void testUpdateRenamed() {
+    CatalogueItem renamed = CatalogueItemBuilder.from(testItem).with().model("MODEL-002").build();
+    when(mongoTemplate.findAndReplace(any(Query.class), eq(renamed))).thenReturn(testItem);
+
+    catalogueItemService.update(renamed);
+
+    verify(catalogueRevisions).changed("MODEL-002");
+    verify(catalogueRevisions).changed("MODEL-001");
   }
 
   @Test
@@ -104,6 +121,7 @@ public class CatalogueItemServiceTest {
     catalogueItemService.delete("MODEL-001");
 
     verify(itemRepository).deleteByModel("MODEL-001");
+    verify(catalogueRevisions).changed("MODEL-001");
   }
 
   @Test
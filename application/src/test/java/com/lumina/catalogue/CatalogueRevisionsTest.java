@@ -0,0 +1,83 @@
+package com.lumina.catalogue;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import java.util.Collection;
+import java.util.List;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogueRevisionsTest {
+
+  @Mock private MongoTemplate mongoTemplate;
+  @Mock private ApplicationEventPublisher eventPublisher;
+  @Mock private MongoCollection<Document> collection;
+  @Mock private FindIterable<Document> found;
+
+  private CatalogueRevisions revisions;
+
+  @BeforeEach
+  void setup() {
+    revisions = new CatalogueRevisions(mongoTemplate, eventPublisher);
+    when(mongoTemplate.getCollection(CatalogueRevisions.COLLECTION)).thenReturn(collection);
+  }
+
+  private static Document revision(String model, long revision) {
+    return new Document("_id", model).append("revision", revision);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void givenRevisions(Document... documents) {
+    when(collection.find()).thenReturn(found);
+    when(found.into(any()))
+        .thenAnswer(
+            invocation -> {
+              Collection<Document> target = invocation.getArgument(0);
+              target.addAll(List.of(documents));
+              return target;
+            });
+  }
+
+  @Test
+  @DisplayName("refresh() should publish remote events for models changed since the last look")
+  void testRefreshPublishesRemoteChanges() {
+    givenRevisions(revision("LW-1", 3), revision("LW-2", 1));
+    revisions.afterPropertiesSet();
+
+    givenRevisions(revision("LW-1", 4), revision("LW-2", 1), revision("LW-3", 1));
+    revisions.refresh();
+    revisions.refresh();
+
+    verify(eventPublisher).publishEvent(new CatalogueItemChangedEvent("LW-1", true));
+    verify(eventPublisher).publishEvent(new CatalogueItemChangedEvent("LW-3", true));
+    verifyNoMoreInteractions(eventPublisher);
+  }
+
+  @Test
+  @DisplayName("changed() should publish a local event and not publish it again on refresh")
+  void testChangedPublishesOnce() {
+    when(collection.findOneAndUpdate(
+            any(Bson.class), any(Bson.class), any(FindOneAndUpdateOptions.class)))
+        .thenReturn(revision("LW-1", 1));
+
+    revisions.changed("LW-1");
+    givenRevisions(revision("LW-1", 1));
+    revisions.refresh();
+
+    verify(eventPublisher).publishEvent(new CatalogueItemChangedEvent("LW-1"));
+    verifyNoMoreInteractions(eventPublisher);
+  }
+}
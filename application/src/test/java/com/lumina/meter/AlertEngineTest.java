@@ -0,0 +1,277 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import com.lumina.catalogue.CatalogueItemChangedEvent;
+import com.lumina.catalogue.ItemRepository;
+import com.lumina.catalogue.model.AlertRule;
+import com.lumina.catalogue.model.CatalogueItem;
+import com.lumina.catalogue.model.CatalogueItemBuilder;
+import com.lumina.catalogue.model.MeterType;
+import com.lumina.meter.model.Alert;
+import com.lumina.meter.model.AlertState;
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusBuilder;
+import com.lumina.meter.model.Telemetry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class AlertEngineTest {
+
+  private static final Instant T0 = Instant.parse("2025-11-23T10:00:00Z");
+
+  private static final AlertRule LOW_BATTERY =
+      new AlertRule("lowBattery", "Battery low", "batteryLevel", 20.0, null, null, 5.0);
+  private static final AlertRule WEAK_SIGNAL =
+      new AlertRule("weakSignal", "Signal weak", "signalStrength", -115.0, null, 3, null);
+
+  @Mock private MeterIdIndex meterIdIndex;
+  @Mock private ItemRepository itemRepository;
+  @Mock private MongoTemplate mongoTemplate;
+  @Mock private StatusBroker statusBroker;
+
+  private SimpleMeterRegistry registry;
+  private AlertEngine engine;
+  private final List<Alert> alerts = new ArrayList<>();
+
+  @BeforeEach
+  void setup() {
+    registry = new SimpleMeterRegistry();
+    engine =
+        new AlertEngine(meterIdIndex, itemRepository, mongoTemplate, statusBroker, registry, 0);
+    lenient().when(meterIdIndex.modelOf("meter-1")).thenReturn("LW-1");
+    lenient()
+        .when(mongoTemplate.insertAll(anyList()))
+        .thenAnswer(
+            invocation -> {
+              alerts.addAll(invocation.getArgument(0));
+              return invocation.getArgument(0);
+            });
+  }
+
+  private void givenRules(AlertRule... rules) {
+    when(itemRepository.findByModel("LW-1")).thenReturn(Optional.of(item(rules)));
+  }
+
+  private static CatalogueItem item(AlertRule... rules) {
+    return CatalogueItemBuilder.builder()
+        .model("LW-1")
+        .type(MeterType.LORAWAN)
+        .alertRules(List.of(rules))
+        .build();
+  }
+
+  private static Status status(int second, double batteryLevel, double signalStrength) {
+    return StatusBuilder.builder()
+        .id("s" + second)
+        .meterId("meter-1")
+        .timestamp(T0.plusSeconds(second))
+        .telemetry(
+            Telemetry.of(
+                MeterType.LORAWAN,
+                field ->
+                    switch (field) {
+                      case BATTERY_LEVEL -> batteryLevel;
+                      case SIGNAL_STRENGTH -> signalStrength;
+                      default -> Double.NaN;
+                    }))
+        .build();
+  }
+
+  private void ingest(Status... statuses) {
+    engine.onStatusesWritten(List.of(statuses));
+  }
+
+  @Test
+  @DisplayName("a rule should be raised once and cleared only beyond the hysteresis")
+  void testRaiseAndClearWithHysteresis() {
+    givenRules(LOW_BATTERY);
+
+    ingest(status(0, 30, Double.NaN), status(1, 19, Double.NaN), status(2, 15, Double.NaN));
+    ingest(status(3, 22, Double.NaN)); // inside the bounds but not by the hysteresis
+    ingest(status(4, 18, Double.NaN));
+    ingest(status(5, 25, Double.NaN));
+
+    assertThat(alerts)
+        .extracting(Alert::state, Alert::value, Alert::timestamp)
+        .containsExactly(
+            tuple(AlertState.RAISED, 19.0, T0.plusSeconds(1)),
+            tuple(AlertState.CLEARED, 25.0, T0.plusSeconds(5)));
+    assertThat(alerts.getFirst().rule()).isEqualTo("lowBattery");
+    assertThat(alerts.getFirst().model()).isEqualTo("LW-1");
+    assertThat(registry.counter("lumina.alert.raised").count()).isEqualTo(1);
+    verify(statusBroker, times(2)).publishAlerts(anyList());
+  }
+
+  @Test
+  @DisplayName("a rule should need its consecutive violations without a good sample between")
+  void testConsecutiveViolations() {
+    givenRules(WEAK_SIGNAL);
+
+    ingest(status(0, Double.NaN, -120), status(1, Double.NaN, -118));
+    ingest(status(2, Double.NaN, -100)); // resets the run
+    ingest(status(3, Double.NaN, -120), status(4, 50, Double.NaN), status(5, Double.NaN, -121));
+    assertThat(alerts).isEmpty();
+
+    ingest(status(6, Double.NaN, -130));
+    assertThat(alerts).singleElement().extracting(Alert::value).isEqualTo(-130.0);
+  }
+
+  @Test
+  @DisplayName("values should be read from the data map and late samples skipped")
+  void testUntypedAndLateSamples() {
+    givenRules(LOW_BATTERY);
+    Status untyped =
+        StatusBuilder.builder()
+            .meterId("meter-1")
+            .timestamp(T0.plusSeconds(10))
+            .data(Map.of("batteryLevel", 5))
+            .build();
+
+    ingest(untyped);
+    ingest(status(5, 90, Double.NaN)); // older than the last evaluated sample
+
+    assertThat(alerts).singleElement().extracting(Alert::state).isEqualTo(AlertState.RAISED);
+  }
+
+  @Test
+  @DisplayName("meters without rules should not be evaluated or written")
+  void testNoRules() {
+    when(itemRepository.findByModel("LW-1")).thenReturn(Optional.of(item()));
+
+    ingest(status(0, 1, -130), status(1, 1, -130));
+
+    verify(itemRepository, times(1)).findByModel("LW-1");
+    verify(mongoTemplate, never()).insertAll(any());
+    verifyNoInteractions(statusBroker);
+  }
+
+  @Test
+  @DisplayName("a catalogue change should recompile the rules and keep raised rules")
+  void testCatalogueChange() {
+    givenRules(LOW_BATTERY);
+    ingest(status(0, 10, Double.NaN));
+
+    AlertRule lowerThreshold =
+        new AlertRule("lowBattery", "Battery low", "batteryLevel", 10.0, null, null, null);
+    when(itemRepository.findByModel("LW-1")).thenReturn(Optional.of(item(lowerThreshold)));
+    engine.onCatalogueItemChanged(new CatalogueItemChangedEvent("LW-1"));
+    ingest(status(1, 5, Double.NaN), status(2, 12, Double.NaN));
+
+    assertThat(alerts)
+        .extracting(Alert::state)
+        .containsExactly(AlertState.RAISED, AlertState.CLEARED);
+  }
+
+  @Test
+  @DisplayName("a raised rule removed from the model should be cleared by the next sample")
+  void testCatalogueChangeClearsRemovedRule() {
+    givenRules(LOW_BATTERY, WEAK_SIGNAL);
+    ingest(status(0, 10, Double.NaN));
+
+    when(itemRepository.findByModel("LW-1")).thenReturn(Optional.of(item(WEAK_SIGNAL)));
+    engine.onCatalogueItemChanged(new CatalogueItemChangedEvent("LW-1"));
+    ingest(status(1, 10, -100));
+
+    assertThat(alerts)
+        .extracting(Alert::rule, Alert::state, Alert::value)
+        .containsExactly(
+            tuple("lowBattery", AlertState.RAISED, 10.0),
+            tuple("lowBattery", AlertState.CLEARED, 10.0));
+  }
+
+  @Test
+  @DisplayName("raised rules should be cleared when the model no longer has any rules")
+  void testCatalogueChangeClearsAllRules() {
+    givenRules(LOW_BATTERY);
+    ingest(status(0, 10, Double.NaN));
+
+    when(itemRepository.findByModel("LW-1")).thenReturn(Optional.of(item()));
+    engine.onCatalogueItemChanged(new CatalogueItemChangedEvent("LW-1"));
+    ingest(status(1, Double.NaN, -100), status(2, 10, -100));
+
+    assertThat(alerts)
+        .extracting(Alert::state, Alert::timestamp)
+        .containsExactly(
+            tuple(AlertState.RAISED, T0), tuple(AlertState.CLEARED, T0.plusSeconds(1)));
+    assertThat(alerts.getLast().value()).isNaN();
+  }
+
+  @Test
+  @DisplayName("a rule whose hysteresis leaves no value to clear it should be rejected")
+  void testRejectsHysteresisWiderThanRange() {
+    assertThatThrownBy(
+            () -> new AlertRule("level", "Level", "batteryLevel", 20.0, 80.0, null, 31.0))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("hysteresis");
+    assertThat(new AlertRule("level", "Level", "batteryLevel", 20.0, 80.0, null, 30.0).max())
+        .isEqualTo(80.0);
+  }
+
+  @Test
+  @DisplayName("a catalogue change should drop the violation counts of meters without raised rules")
+  void testCatalogueChangeDropsIdleState() {
+    givenRules(WEAK_SIGNAL);
+    ingest(status(0, Double.NaN, -120), status(1, Double.NaN, -120));
+
+    engine.onCatalogueItemChanged(new CatalogueItemChangedEvent("LW-1"));
+    ingest(status(2, Double.NaN, -120));
+    assertThat(alerts).isEmpty();
+
+    ingest(status(3, Double.NaN, -120), status(4, Double.NaN, -120));
+    assertThat(alerts).singleElement().extracting(Alert::state).isEqualTo(AlertState.RAISED);
+  }
+
+  @Test
+  @DisplayName("forget() should drop the state of a deleted meter")
+  void testForget() {
+    givenRules(LOW_BATTERY);
+    ingest(status(0, 10, Double.NaN));
+
+    engine.forget("meter-1");
+    ingest(status(1, 10, Double.NaN));
+
+    assertThat(alerts)
+        .extracting(Alert::state)
+        .containsExactly(AlertState.RAISED, AlertState.RAISED);
+  }
+
+  @Test
+  @DisplayName("alerts should be written and published by the writer thread")
+  void testWritesOffThread() throws Exception {
+    engine =
+        new AlertEngine(meterIdIndex, itemRepository, mongoTemplate, statusBroker, registry, 10);
+    givenRules(LOW_BATTERY);
+    List<String> writers = new ArrayList<>();
+    when(mongoTemplate.insertAll(anyList()))
+        .thenAnswer(
+            invocation -> {
+              writers.add(Thread.currentThread().getName());
+              return invocation.getArgument(0);
+            });
+
+    ingest(status(0, 10, Double.NaN));
+    engine.destroy();
+
+    assertThat(writers).containsExactly("alert-writer");
+    verify(statusBroker).publishAlerts(anyList());
+    assertThat(registry.counter("lumina.alert.raised").count()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,118 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import com.lumina.meter.model.Line;
+import com.lumina.meter.model.Meter;
+import com.lumina.meter.model.MeterBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DevEuiIndexTest {
+
+  private final MeterRepository meterRepository = mock(MeterRepository.class);
+  private DevEuiIndex index;
+
+  private static Meter meter(String id, String devEui) {
+    return MeterBuilder.builder()
+        .id(id)
+        .model("LW-1")
+        .lines(
+            List.of(
+                new Line.Text("lorawan.appEui", "70B3D57ED0000000"),
+                new Line.Text(DevEuiIndex.DEV_EUI_LINE, devEui)))
+        .build();
+  }
+
+  @BeforeEach
+  void setup() {
+    index = new DevEuiIndex(meterRepository, new SimpleMeterRegistry());
+  }
+
+  @Test
+  @DisplayName("lookups should match EUIs regardless of case and separators")
+  void testNormalizedLookups() {
+    when(meterRepository.streamAllWithLine(DevEuiIndex.DEV_EUI_LINE))
+        .thenReturn(Stream.of(meter("meter-1", "0004a30b001c0530")));
+    index.onApplicationEvent(null);
+
+    assertThat(index.meterIdOf("0004A30B001C0530")).isEqualTo("meter-1");
+    assertThat(index.meterIdOf("00-04-a3-0b-00-1c-05-30")).isEqualTo("meter-1");
+    assertThat(index.meterIdOf("00:04:A3:0B:00:1C:05:30")).isEqualTo("meter-1");
+    assertThat(index.meterIdOf("0004A30B001C0531")).isNull();
+    assertThat(index.meterIdOf(null)).isNull();
+  }
+
+  @Test
+  @DisplayName("the first lookup should seed the index if the context has not started yet")
+  void testLazySeeding() {
+    when(meterRepository.streamAllWithLine(DevEuiIndex.DEV_EUI_LINE))
+        .thenReturn(Stream.of(meter("meter-1", "0004A30B001C0530")));
+
+    assertThat(index.meterIdOf("0004A30B001C0530")).isEqualTo("meter-1");
+    index.onApplicationEvent(null);
+    assertThat(index.meterIdOf("0004A30B001C0530")).isEqualTo("meter-1");
+
+    verify(meterRepository, times(1)).streamAllWithLine(anyString());
+  }
+
+  @Test
+  @DisplayName("register() and remove() should follow EUI changes and deletions")
+  void testRegisterAndRemove() {
+    when(meterRepository.streamAllWithLine(DevEuiIndex.DEV_EUI_LINE)).thenReturn(Stream.empty());
+    index.onApplicationEvent(null);
+
+    index.register(meter("meter-1", "0004A30B001C0530"));
+    index.register(meter("meter-1", "0004A30B001C0999"));
+    assertThat(index.meterIdOf("0004A30B001C0530")).isNull();
+    assertThat(index.meterIdOf("0004A30B001C0999")).isEqualTo("meter-1");
+
+    // another meter claiming the EUI takes it over
+    index.register(meter("meter-2", "0004A30B001C0999"));
+    assertThat(index.meterIdOf("0004A30B001C0999")).isEqualTo("meter-2");
+    index.remove("meter-1");
+    assertThat(index.meterIdOf("0004A30B001C0999")).isEqualTo("meter-2");
+
+    index.remove("meter-2");
+    assertThat(index.meterIdOf("0004A30B001C0999")).isNull();
+    assertThat(index.size()).isZero();
+  }
+
+  @Test
+  @DisplayName("refresh() should pick up EUIs changed through other instances")
+  void testRefresh() {
+    when(meterRepository.streamAllWithLine(DevEuiIndex.DEV_EUI_LINE))
+        .thenReturn(Stream.of(meter("meter-1", "0004A30B001C0530"), meter("meter-2", "00000002")))
+        .thenReturn(Stream.of(meter("meter-2", "00000022"), meter("meter-3", "0004a30b001c0530")));
+    index.onApplicationEvent(null);
+
+    index.refresh();
+
+    assertThat(index.meterIdOf("0004A30B001C0530")).isEqualTo("meter-3");
+    assertThat(index.meterIdOf("00000002")).isNull();
+    assertThat(index.meterIdOf("00000022")).isEqualTo("meter-2");
+    assertThat(index.size()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("refresh() should not revert a meter registered while the repository is read")
+  void testRefreshKeepsLocalChanges() {
+    when(meterRepository.streamAllWithLine(DevEuiIndex.DEV_EUI_LINE))
+        .thenReturn(Stream.empty())
+        .thenAnswer(
+            invocation -> {
+              index.register(meter("meter-1", "0004A30B001C0530"));
+              return Stream.empty();
+            });
+    index.onApplicationEvent(null);
+
+    index.refresh();
+
+    assertThat(index.meterIdOf("0004A30B001C0530")).isEqualTo("meter-1");
+  }
+}
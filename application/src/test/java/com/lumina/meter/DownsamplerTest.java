@@ -0,0 +1,140 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.lumina.meter.model.DataPoint;
+import com.lumina.meter.model.DownsampleMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DownsamplerTest {
+
+  private static final Instant START = Instant.parse("2025-11-23T00:00:00Z");
+
+  private static List<DataPoint> series(int size, long seed) {
+    var random = new Random(seed);
+    var points = new ArrayList<DataPoint>(size);
+    double value = 0;
+    for (int i = 0; i < size; i++) {
+      value += random.nextGaussian();
+      points.add(new DataPoint(START.plusSeconds(i), value));
+    }
+    return points;
+  }
+
+  private static List<DataPoint> run(
+      DownsampleMode mode, List<DataPoint> points, int maxPoints) {
+    var downsampler = Downsampler.of(mode, START, points.getLast().timestamp(), maxPoints);
+    points.forEach(downsampler::accept);
+    return downsampler.finish();
+  }
+
+  /** Reference LTTB over the same time buckets, holding every point in memory. */
+  private static List<DataPoint> bufferedLttb(List<DataPoint> points, int maxPoints) {
+    int buckets = maxPoints - 2;
+    long origin = START.toEpochMilli();
+    double width = (points.getLast().timestamp().toEpochMilli() - origin + 1) / (double) buckets;
+    var inner = points.subList(1, points.size() - 1);
+    var byBucket = new ArrayList<List<DataPoint>>();
+    int current = -1;
+    for (DataPoint p : inner) {
+      int index = (int) Math.min(buckets - 1, (p.timestamp().toEpochMilli() - origin) / width);
+      if (index != current) {
+        byBucket.add(new ArrayList<>());
+        current = index;
+      }
+      byBucket.getLast().add(p);
+    }
+
+    var result = new ArrayList<DataPoint>();
+    DataPoint a = points.getFirst();
+    result.add(a);
+    for (int i = 0; i < byBucket.size(); i++) {
+      double cx;
+      double cy;
+      if (i + 1 < byBucket.size()) {
+        var next = byBucket.get(i + 1);
+        cx = next.stream().mapToDouble(p -> x(p)).average().orElseThrow();
+        cy = next.stream().mapToDouble(DataPoint::value).average().orElseThrow();
+      } else {
+        cx = x(points.getLast());
+        cy = points.getLast().value();
+      }
+      DataPoint from = a;
+      a =
+          byBucket.get(i).stream()
+              .max(
+                  Comparator.comparingDouble(
+                      p ->
+                          Math.abs(
+                              (x(from) - cx) * (p.value() - from.value())
+                                  - (x(from) - x(p)) * (cy - from.value()))))
+              .orElseThrow();
+      result.add(a);
+    }
+    result.add(points.getLast());
+    return result;
+  }
+
+  private static double x(DataPoint p) {
+    return p.timestamp().toEpochMilli() - START.toEpochMilli();
+  }
+
+  @Test
+  @DisplayName("streaming LTTB should select the same points as buffered LTTB")
+  void testLttbMatchesBufferedReference() {
+    var points = series(20_000, 42);
+
+    var result = run(DownsampleMode.LTTB, points, 500);
+
+    assertThat(result).hasSize(500).isEqualTo(bufferedLttb(points, 500));
+  }
+
+  @Test
+  @DisplayName("LTTB should keep the first and last point and a single spike")
+  void testLttbKeepsSpike() {
+    var points = new ArrayList<DataPoint>();
+    for (int i = 0; i < 1000; i++) {
+      points.add(new DataPoint(START.plusSeconds(i), i == 617 ? 100 : 0));
+    }
+
+    var result = run(DownsampleMode.LTTB, points, 20);
+
+    assertThat(result).hasSizeLessThanOrEqualTo(20);
+    assertThat(result.getFirst()).isEqualTo(points.getFirst());
+    assertThat(result.getLast()).isEqualTo(points.getLast());
+    assertThat(result).contains(points.get(617));
+  }
+
+  @Test
+  @DisplayName("min/max should keep every bucket's extremes in time order")
+  void testMinMax() {
+    var points = series(10_000, 7);
+
+    var result = run(DownsampleMode.MIN_MAX, points, 100);
+
+    assertThat(result).hasSizeLessThanOrEqualTo(100);
+    assertThat(result).isSortedAccordingTo(Comparator.comparing(DataPoint::timestamp));
+    assertThat(result)
+        .contains(points.stream().min(Comparator.comparingDouble(DataPoint::value)).orElseThrow())
+        .contains(points.stream().max(Comparator.comparingDouble(DataPoint::value)).orElseThrow());
+  }
+
+  @Test
+  @DisplayName("downsamplers should return nothing for an empty series and a single point as is")
+  void testDegenerateSeries() {
+    for (DownsampleMode mode : DownsampleMode.values()) {
+      var empty = Downsampler.of(mode, START, START.plusSeconds(10), 10);
+      assertThat(empty.finish()).isEmpty();
+
+      var single = Downsampler.of(mode, START, START.plusSeconds(10), 10);
+      single.accept(new DataPoint(START, 1));
+      assertThat(single.finish()).containsExactly(new DataPoint(START, 1));
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.lumina.meter.HeartbeatWheel.Beat;
+import com.lumina.meter.model.OfflineMeter;
+import java.time.Instant;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class HeartbeatWheelTest {
+
+  private static final long T0 = Instant.parse("2025-11-23T10:00:00Z").toEpochMilli();
+
+  @Test
+  @DisplayName("a deadline should fire on the first advance at or after it")
+  void testDeadlineFires() {
+    var wheel = new HeartbeatWheel(1000, 8, T0);
+
+    assertThat(wheel.beat("meter-1", T0, T0 + 2500, T0)).isEqualTo(Beat.ARMED);
+
+    assertThat(wheel.advance(T0 + 2999)).isEmpty();
+    assertThat(wheel.advance(T0 + 3000))
+        .containsExactly(
+            new OfflineMeter("meter-1", Instant.ofEpochMilli(T0), Instant.ofEpochMilli(T0 + 2500)));
+    assertThat(wheel.offlineCount()).isEqualTo(1);
+    assertThat(wheel.advance(T0 + 10_000)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("a heartbeat should move the deadline and ignore older samples")
+  void testRearm() {
+    var wheel = new HeartbeatWheel(1000, 8, T0);
+    wheel.beat("meter-1", T0, T0 + 2000, T0);
+
+    assertThat(wheel.beat("meter-1", T0 + 1500, T0 + 3500, T0 + 1500)).isEqualTo(Beat.ARMED);
+    assertThat(wheel.beat("meter-1", T0 + 1000, T0 + 3000, T0 + 1600)).isEqualTo(Beat.IGNORED);
+
+    assertThat(wheel.advance(T0 + 3000)).isEmpty();
+    assertThat(wheel.advance(T0 + 4000))
+        .extracting(OfflineMeter::meterId)
+        .containsExactly("meter-1");
+    assertThat(wheel.size()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("deadlines more than a turn ahead should wait for their round")
+  void testRounds() {
+    var wheel = new HeartbeatWheel(1000, 4, T0);
+    wheel.beat("near", T0, T0 + 1000, T0);
+    wheel.beat("far", T0, T0 + 9000, T0); // same slot as "near", two turns later
+
+    assertThat(wheel.advance(T0 + 8000)).extracting(OfflineMeter::meterId).containsExactly("near");
+    assertThat(wheel.advance(T0 + 9000)).extracting(OfflineMeter::meterId).containsExactly("far");
+  }
+
+  @Test
+  @DisplayName("an advance after a long pause should expire every overdue meter once")
+  void testLongPause() {
+    var wheel = new HeartbeatWheel(1000, 4, T0);
+    for (int i = 0; i < 10; i++) {
+      wheel.beat("meter-" + i, T0, T0 + 1000L * (i + 1), T0);
+    }
+
+    assertThat(wheel.advance(T0 + 7000)).hasSize(7);
+    assertThat(wheel.advance(T0 + 100_000)).hasSize(3);
+    assertThat(wheel.offlineCount()).isEqualTo(10);
+  }
+
+  @Test
+  @DisplayName("offline meters should recover on their next sample")
+  void testRecoverAndOverdue() {
+    var wheel = new HeartbeatWheel(1000, 8, T0);
+    assertThat(wheel.beat("meter-1", T0 - 5000, T0 - 2000, T0)).isEqualTo(Beat.OVERDUE);
+    assertThat(wheel.offline()).extracting(OfflineMeter::meterId).containsExactly("meter-1");
+
+    assertThat(wheel.beat("meter-1", T0, T0 + 3000, T0)).isEqualTo(Beat.RECOVERED);
+    assertThat(wheel.offline()).isEmpty();
+
+    assertThat(wheel.remove("meter-1")).isTrue();
+    assertThat(wheel.advance(T0 + 5000)).isEmpty();
+    assertThat(wheel.size()).isZero();
+  }
+
+  @Test
+  @DisplayName("a new grace period should move the deadline from the last sample")
+  void testRearmWithoutSample() {
+    var wheel = new HeartbeatWheel(1000, 8, T0);
+    wheel.beat("meter-1", T0, T0 + 2000, T0);
+    assertThat(wheel.rearm("meter-2", 5000, T0)).isEqualTo(Beat.IGNORED);
+
+    assertThat(wheel.rearm("meter-1", 5000, T0 + 1000)).isEqualTo(Beat.ARMED);
+    assertThat(wheel.advance(T0 + 3000)).isEmpty();
+    assertThat(wheel.advance(T0 + 5000))
+        .containsExactly(
+            new OfflineMeter("meter-1", Instant.ofEpochMilli(T0), Instant.ofEpochMilli(T0 + 5000)));
+
+    // still overdue with the shorter grace period, so the meter stays offline
+    assertThat(wheel.rearm("meter-1", 4000, T0 + 5000)).isEqualTo(Beat.IGNORED);
+    assertThat(wheel.offlineCount()).isEqualTo(1);
+    assertThat(wheel.rearm("meter-1", 10_000, T0 + 5000)).isEqualTo(Beat.RECOVERED);
+    assertThat(wheel.offline()).isEmpty();
+
+    // a deadline moved into the past fires on the next advance
+    assertThat(wheel.rearm("meter-1", 1000, T0 + 6000)).isEqualTo(Beat.ARMED);
+    assertThat(wheel.advance(T0 + 6000))
+        .containsExactly(
+            new OfflineMeter("meter-1", Instant.ofEpochMilli(T0), Instant.ofEpochMilli(T0 + 1000)));
+  }
+
+  @Test
+  @DisplayName("the number of slots must be a power of two")
+  void testSlotCount() {
+    assertThatThrownBy(() -> new HeartbeatWheel(1000, 6, T0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
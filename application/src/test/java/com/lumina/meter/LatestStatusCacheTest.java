@@ -0,0 +1,182 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class LatestStatusCacheTest {
+
+  private static final Instant T0 = Instant.parse("2025-11-23T10:00:00Z");
+  private static final Duration MAX_AGE = Duration.ofMinutes(1);
+
+  @Mock private StatusRepository statusRepository;
+
+  private SimpleMeterRegistry registry;
+  private LatestStatusCache cache;
+
+  @BeforeEach
+  void setup() {
+    registry = new SimpleMeterRegistry();
+    cache = new LatestStatusCache(statusRepository, Optional.empty(), registry, 3, MAX_AGE);
+  }
+
+  private static Status status(String meterId, Instant timestamp) {
+    return StatusBuilder.builder()
+        .id(meterId + "@" + timestamp)
+        .meterId(meterId)
+        .timestamp(timestamp)
+        .data(Map.of())
+        .build();
+  }
+
+  private double requests(String result) {
+    return registry.counter("lumina.status.latest-cache.requests", "result", result).count();
+  }
+
+  @Test
+  @DisplayName("get() should read the database once on a miss and then serve from memory")
+  void testFillsOnMiss() {
+    var latest = status("meter-1", T0);
+    when(statusRepository.findFirstByMeterIdOrderByTimestampDesc("meter-1")).thenReturn(latest);
+
+    assertThat(cache.get("meter-1")).contains(latest);
+    assertThat(cache.get("meter-1")).contains(latest);
+
+    verify(statusRepository, times(1)).findFirstByMeterIdOrderByTimestampDesc("meter-1");
+    assertThat(requests("miss")).isEqualTo(1);
+    assertThat(requests("hit")).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("get() should remember meters without any status")
+  void testCachesAbsence() {
+    assertThat(cache.get("meter-1")).isEmpty();
+    assertThat(cache.get("meter-1")).isEmpty();
+
+    verify(statusRepository, times(1)).findFirstByMeterIdOrderByTimestampDesc("meter-1");
+
+    var written = status("meter-1", T0);
+    cache.onStatusesWritten(List.of(written));
+    assertThat(cache.get("meter-1")).contains(written);
+  }
+
+  @Test
+  @DisplayName("get() should read the database again once an entry is older than the max age")
+  void testRereadsExpiredEntries() throws InterruptedException {
+    var maxAge = Duration.ofMillis(1);
+    cache = new LatestStatusCache(statusRepository, Optional.empty(), registry, 3, maxAge);
+    var written = status("meter-1", T0);
+    when(statusRepository.findFirstByMeterIdOrderByTimestampDesc("meter-1"))
+        .thenReturn(null, written);
+
+    assertThat(cache.get("meter-1")).isEmpty();
+    Thread.sleep(5);
+    // another instance has written a status in the meantime
+    assertThat(cache.get("meter-1")).contains(written);
+
+    verify(statusRepository, times(2)).findFirstByMeterIdOrderByTimestampDesc("meter-1");
+    assertThat(requests("miss")).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("the cache should keep the newer status whatever order updates arrive in")
+  void testKeepsNewest() {
+    var newer = status("meter-1", T0.plusSeconds(5));
+    cache.put(newer);
+    cache.put(status("meter-1", T0));
+
+    assertThat(cache.get("meter-1")).contains(newer);
+
+    // a database read that lost the race with ingest must not replace the ingested status
+    cache.evict("meter-2");
+    when(statusRepository.findFirstByMeterIdOrderByTimestampDesc("meter-2"))
+        .thenAnswer(
+            invocation -> {
+              cache.put(status("meter-2", T0.plusSeconds(10)));
+              return status("meter-2", T0);
+            });
+    assertThat(cache.get("meter-2")).map(Status::timestamp).contains(T0.plusSeconds(10));
+  }
+
+  @Test
+  @DisplayName("get() should fall back to the block store when a meter has no raw samples")
+  void testFallsBackToBlocks() {
+    var blockStore = mock(StatusBlockStore.class);
+    var sealed = status("meter-1", T0);
+    when(blockStore.latest("meter-1")).thenReturn(Optional.of(sealed));
+    cache = new LatestStatusCache(statusRepository, Optional.of(blockStore), registry, 3, MAX_AGE);
+
+    assertThat(cache.get("meter-1")).contains(sealed);
+    assertThat(cache.get("meter-1")).contains(sealed);
+
+    verify(blockStore, times(1)).latest("meter-1");
+  }
+
+  @Test
+  @DisplayName("the cache should evict entries beyond its capacity")
+  void testBounded() {
+    for (int i = 0; i < 10; i++) {
+      cache.put(status("meter-" + i, T0.plusSeconds(i)));
+    }
+
+    assertThat(cache.size()).isEqualTo(3);
+    assertThat(cache.get("meter-9")).isPresent();
+    assertThat(registry.counter("lumina.status.latest-cache.evictions").count()).isEqualTo(7);
+  }
+
+  @Test
+  @DisplayName("eviction should drop the least recently used entry, not the oldest status")
+  void testEvictsLeastRecentlyUsed() {
+    cache.put(status("meter-1", T0));
+    cache.put(status("meter-2", T0.plusSeconds(1)));
+    cache.put(status("meter-3", T0.plusSeconds(2)));
+    // meter-1 has the oldest status but is read; meter-2 is now the least recently used
+    cache.get("meter-1");
+    cache.get("meter-3");
+
+    cache.put(status("meter-4", T0.plusSeconds(3)));
+
+    assertThat(cache.size()).isEqualTo(3);
+    assertThat(cache.get("meter-1")).isPresent();
+    assertThat(cache.get("meter-3")).isPresent();
+    assertThat(cache.get("meter-4")).isPresent();
+    verify(statusRepository, never()).findFirstByMeterIdOrderByTimestampDesc(anyString());
+  }
+
+  @Test
+  @DisplayName("successive evictions should sample the whole cache, not the same entries")
+  void testEvictionSweeps() {
+    cache = new LatestStatusCache(statusRepository, Optional.empty(), registry, 64, MAX_AGE);
+    // the cache's map has the same layout as this one, so its last entry is sampled last
+    var mirror = new ConcurrentHashMap<String, Boolean>();
+    for (int i = 0; i < 64; i++) {
+      cache.put(status("meter-" + i, T0.plusSeconds(i)));
+      mirror.put("meter-" + i, true);
+    }
+    String stale = List.copyOf(mirror.keySet()).getLast();
+    mirror.keySet().stream().filter(id -> !id.equals(stale)).forEach(cache::get);
+
+    for (int i = 64; i < 80; i++) {
+      cache.put(status("meter-" + i, T0.plusSeconds(i)));
+    }
+
+    assertThat(cache.get(stale)).isEmpty();
+    verify(statusRepository).findFirstByMeterIdOrderByTimestampDesc(stale);
+  }
+}
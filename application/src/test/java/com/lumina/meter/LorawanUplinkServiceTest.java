@@ -0,0 +1,162 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import com.lumina.BadRequestException;
+import com.lumina.catalogue.model.MeterType;
+import com.lumina.catalogue.model.PayloadFieldBuilder;
+import com.lumina.catalogue.model.PayloadType;
+import com.lumina.meter.dto.LorawanUplinkDto;
+import com.lumina.meter.model.BulkStatusResult;
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.Telemetry;
+import com.lumina.meter.model.TelemetryField;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class LorawanUplinkServiceTest {
+
+  private static final Instant NOW = Instant.parse("2025-11-23T10:00:00Z");
+
+  @Mock private DevEuiIndex devEuiIndex;
+
+  @Mock private PayloadCodec payloadCodec;
+
+  @Mock private StatusService statusService;
+
+  private LorawanUplinkService service;
+
+  private static LorawanUplinkDto uplink(String devEui, String payload) {
+    return new LorawanUplinkDto(devEui, 42L, 2, -97.0, 7.5, 9, null, payload);
+  }
+
+  @BeforeEach
+  void setup() {
+    lenient().when(payloadCodec.decoderFor(anyString())).thenReturn(PayloadDecoder.NONE);
+    service =
+        new LorawanUplinkService(
+            devEuiIndex, payloadCodec, statusService, new SimpleMeterRegistry());
+  }
+
+  @Test
+  @DisplayName("an uplink should become a status with typed LoRaWAN telemetry")
+  void testToStatus() {
+    Status status =
+        LorawanUplinkService.toStatus(
+            "meter-1", uplink("EUI-1", "AQID"), PayloadDecoder.NONE, NOW);
+
+    assertThat(status.meterId()).isEqualTo("meter-1");
+    assertThat(status.timestamp()).isEqualTo(NOW);
+    assertThat(status.telemetry()).isInstanceOf(Telemetry.Lorawan.class);
+    assertThat(status.telemetry().value(TelemetryField.SIGNAL_STRENGTH)).isEqualTo(-97.0);
+    assertThat(status.telemetry().value(TelemetryField.SNR)).isEqualTo(7.5);
+    assertThat(status.telemetry().value(TelemetryField.SPREADING_FACTOR)).isEqualTo(9.0);
+    assertThat(status.telemetry().value(TelemetryField.FRAME_COUNTER)).isEqualTo(42.0);
+    assertThat(status.telemetry().value(TelemetryField.BATTERY_LEVEL)).isNaN();
+    assertThat(status.data()).isEqualTo(Map.of("fPort", 2, "payload", "AQID"));
+  }
+
+  @Test
+  @DisplayName("a payload should be decoded with the layout of the meter's model")
+  void testToStatusDecoded() {
+    PayloadDecoder decoder =
+        PayloadDecoder.compile(
+            MeterType.LORAWAN,
+            List.of(
+                PayloadFieldBuilder.builder()
+                    .name("batteryLevel")
+                    .offset(0)
+                    .type(PayloadType.UINT8)
+                    .scale(0.5)
+                    .build(),
+                PayloadFieldBuilder.builder()
+                    .name("signalStrength")
+                    .offset(1)
+                    .type(PayloadType.INT8)
+                    .build(),
+                PayloadFieldBuilder.builder()
+                    .name("valve")
+                    .offset(2)
+                    .type(PayloadType.UINT8)
+                    .build()));
+    // 0xB4 = 180, 0x9C = -100, 0x01
+    String payload = Base64.getEncoder().encodeToString(new byte[] {(byte) 0xB4, (byte) 0x9C, 1});
+
+    Status status =
+        LorawanUplinkService.toStatus("meter-1", uplink("EUI-1", payload), decoder, NOW);
+
+    assertThat(status.telemetry().value(TelemetryField.BATTERY_LEVEL)).isEqualTo(90.0);
+    // the radio RSSI wins over the payload field
+    assertThat(status.telemetry().value(TelemetryField.SIGNAL_STRENGTH)).isEqualTo(-97.0);
+    assertThat(status.data()).isEqualTo(Map.of("fPort", 2, "valve", 1L));
+  }
+
+  @Test
+  @DisplayName("ingest() should write resolved uplinks in one batch, reported by request index")
+  void testIngest() {
+    when(devEuiIndex.meterIdOf("EUI-1")).thenReturn("meter-1");
+    when(devEuiIndex.meterIdOf("EUI-2")).thenReturn(null);
+    when(devEuiIndex.meterIdOf("EUI-3")).thenReturn("meter-3");
+    when(statusService.createStatuses(anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<Status> batch = invocation.getArgument(0);
+              return new BulkStatusResult(
+                  List.of(new BulkStatusResult.Accepted(1, batch.get(1))),
+                  List.of(new BulkStatusResult.Rejection(0, "meter-1", "duplicate")));
+            });
+
+    BulkStatusResult result =
+        service.ingest(
+            List.of(
+                uplink("EUI-1", "AQID"),
+                uplink("EUI-2", "AQID"),
+                uplink("EUI-3", null),
+                uplink("EUI-3", "not base64!")),
+            NOW);
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<Status>> batch = ArgumentCaptor.forClass(List.class);
+    verify(statusService).createStatuses(batch.capture());
+    assertThat(batch.getValue()).extracting(Status::meterId).containsExactly("meter-1", "meter-3");
+    assertThat(result.accepted())
+        .extracting(BulkStatusResult.Accepted::index)
+        .containsExactly(2);
+    assertThat(result.rejected())
+        .extracting(BulkStatusResult.Rejection::index, BulkStatusResult.Rejection::meterId)
+        .containsExactlyInAnyOrder(tuple(1, null), tuple(3, "meter-3"), tuple(0, "meter-1"));
+  }
+
+  @Test
+  @DisplayName("ingest() should not write when no uplink resolves to a meter")
+  void testIngestUnknownDevices() {
+    BulkStatusResult result = service.ingest(List.of(uplink("EUI-9", null)), NOW);
+
+    assertThat(result.accepted()).isEmpty();
+    assertThat(result.rejected()).hasSize(1);
+    verifyNoInteractions(statusService);
+  }
+
+  @Test
+  @DisplayName("ingest() should reject an empty request")
+  void testIngestEmpty() {
+    assertThatThrownBy(() -> service.ingest(List.of(), NOW))
+        .isInstanceOf(BadRequestException.class);
+  }
+}
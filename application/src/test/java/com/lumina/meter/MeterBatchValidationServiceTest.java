@@ -0,0 +1,153 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.lumina.BadRequestException;
+import com.lumina.catalogue.CatalogueItemService;
+import com.lumina.catalogue.model.*;
+import com.lumina.catalogue.model.constraint.NumberLineConstraintBuilder;
+import com.lumina.meter.model.*;
+import com.lumina.meter.validation.MeterValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class MeterBatchValidationServiceTest {
+
+  CatalogueItemService catalogueService = mock(CatalogueItemService.class);
+
+  MeterBatchValidationService service;
+
+  @BeforeEach
+  void setup() {
+    when(catalogueService.findByModel("A0001")).thenReturn(Optional.of(catalogueItem()));
+    when(catalogueService.findByModel("UNKNOWN")).thenReturn(Optional.empty());
+    service =
+        new MeterBatchValidationService(
+            new MeterValidator(catalogueService, false), new SimpleMeterRegistry(), 1000, 4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    service.destroy();
+  }
+
+  private static Meter meter(String model, Line... lines) {
+    return MeterBuilder.builder()
+        .locationId("location1")
+        .model(model)
+        .lines(Arrays.asList(lines))
+        .stage(ValidationStage.Intake)
+        .build();
+  }
+
+  @Test
+  @DisplayName("every meter of a batch should get a result, reading each model once")
+  void testValidateBatch() {
+    List<Meter> meters = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      meters.add(
+          switch (i % 3) {
+            case 0 -> meter("A0001", new Line.Number("level", NumberType.INTEGER, 3d));
+            case 1 -> meter("A0001", new Line.Number("level", NumberType.INTEGER, 42d));
+            default -> meter("UNKNOWN");
+          });
+    }
+
+    List<MeterValidationResult> results;
+    try (var stream = service.validate(meters)) {
+      results = stream.sorted(Comparator.comparingInt(MeterValidationResult::index)).toList();
+    }
+
+    assertThat(results).hasSize(500);
+    for (MeterValidationResult result : results) {
+      assertThat(result.valid()).as("meter %d", result.index()).isEqualTo(result.index() % 3 == 0);
+    }
+    assertThat(results.get(1).errors())
+        .singleElement()
+        .satisfies(e -> assertThat(e.field()).isEqualTo("level"));
+    assertThat(results.get(2).errors())
+        .singleElement()
+        .satisfies(e -> assertThat(e.field()).isEqualTo("model"));
+    verify(catalogueService, times(1)).findByModel("A0001");
+    verify(catalogueService, times(1)).findByModel("UNKNOWN");
+  }
+
+  @Test
+  @DisplayName("a line of another type than its constraint should fail only its meter")
+  void testFailure() {
+    List<MeterValidationResult> results;
+    try (var stream =
+        service.validate(
+            List.of(
+                meter("A0001", new Line.Text("level", "3")),
+                meter("A0001", new Line.Number("level", NumberType.INTEGER, 3d))))) {
+      results = stream.sorted(Comparator.comparingInt(MeterValidationResult::index)).toList();
+    }
+
+    assertThat(results.get(0).valid()).isFalse();
+    assertThat(results.get(0).failure()).startsWith("Unexpected value");
+    assertThat(results.get(1).valid()).isTrue();
+  }
+
+  @Test
+  @DisplayName("a meter with a null line should fail only its meter")
+  void testNullLine() {
+    List<MeterValidationResult> results;
+    try (var stream =
+        service.validate(
+            List.of(
+                meter("A0001", new Line.Number("level", NumberType.INTEGER, 3d), null),
+                meter("A0001", new Line.Number("level", NumberType.INTEGER, 3d))))) {
+      results = stream.sorted(Comparator.comparingInt(MeterValidationResult::index)).toList();
+    }
+
+    assertThat(results).hasSize(2);
+    assertThat(results.get(0).valid()).isFalse();
+    assertThat(results.get(0).failure()).isEqualTo("lines[1] is missing");
+    assertThat(results.get(1).valid()).isTrue();
+  }
+
+  @Test
+  @DisplayName("empty and oversized batches should be rejected")
+  void testLimits() {
+    assertThatThrownBy(() -> service.validate(List.of()))
+        .isInstanceOf(BadRequestException.class);
+    assertThatThrownBy(() -> service.validate(Collections.nCopies(1001, meter("A0001"))))
+        .isInstanceOf(BadRequestException.class)
+        .hasMessageContaining("at most 1000");
+  }
+
+  private static CatalogueItem catalogueItem() {
+    return CatalogueItemBuilder.builder()
+        .model("A0001")
+        .level(Level.DEVICE)
+        .type(MeterType.LORAWAN)
+        .description("Description of Sensor One")
+        .manufacturer("ManufacturerOne")
+        .constraints(
+            List.of(
+                NumberLineConstraintBuilder.builder()
+                    .name("level")
+                    .numberType(NumberType.INTEGER)
+                    .min(0d)
+                    .max(10d)
+                    .isRequired(true)
+                    .stage(ValidationStage.Intake)
+                    .build()))
+        .build();
+  }
+}
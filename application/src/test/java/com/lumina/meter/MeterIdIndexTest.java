@@ -0,0 +1,118 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import com.lumina.meter.model.Meter;
+import com.lumina.meter.model.MeterBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class MeterIdIndexTest {
+
+  private final MeterRepository meterRepository = mock(MeterRepository.class);
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private MeterIdIndex index;
+
+  private static Meter meter(String id) {
+    return MeterBuilder.builder().id(id).model("LW-1").build();
+  }
+
+  @BeforeEach
+  void setup() {
+    index = new MeterIdIndex(meterRepository, registry);
+  }
+
+  @Test
+  @DisplayName("lookups before seeding should fall back to the repository")
+  void testFallbackBeforeSeeding() {
+    when(meterRepository.existsById("meter-1")).thenReturn(true);
+
+    assertThat(index.contains("meter-1")).isTrue();
+    verify(meterRepository).existsById("meter-1");
+  }
+
+  @Test
+  @DisplayName("lookups after seeding should be answered without the repository")
+  void testSeededLookups() {
+    when(meterRepository.streamAllIdsAndModels())
+        .thenReturn(Stream.of(meter("meter-1"), meter("meter-2")));
+    index.onApplicationEvent(null);
+
+    assertThat(index.contains("meter-1")).isTrue();
+    assertThat(index.contains("meter-3")).isFalse();
+    assertThat(index.retainExisting(List.of("meter-2", "meter-3"))).isEqualTo(Set.of("meter-2"));
+    assertThat(index.modelOf("meter-1")).isEqualTo("LW-1");
+    assertThat(index.modelOf("meter-3")).isNull();
+    verify(meterRepository, never()).existsById(anyString());
+    verify(meterRepository, never()).findIdsByIdIn(anyCollection());
+  }
+
+  @Test
+  @DisplayName("register() and remove() should keep the index current")
+  void testRegisterAndRemove() {
+    when(meterRepository.streamAllIdsAndModels()).thenReturn(Stream.empty());
+    index.onApplicationEvent(null);
+
+    index.register("meter-1", "LW-1");
+    assertThat(index.contains("meter-1")).isTrue();
+
+    index.register("meter-1", "MB-1");
+    assertThat(index.modelOf("meter-1")).isEqualTo("MB-1");
+
+    index.remove("meter-1");
+    assertThat(index.contains("meter-1")).isFalse();
+  }
+
+  @Test
+  @DisplayName("the index should stay exact as it grows")
+  void testStaysExact() {
+    when(meterRepository.streamAllIdsAndModels()).thenReturn(Stream.empty());
+    index.onApplicationEvent(null);
+
+    IntStream.range(0, 5000).forEach(i -> index.register("meter-" + i, "LW-1"));
+
+    assertThat(index.size()).isEqualTo(5000);
+    assertThat(IntStream.range(0, 5000).allMatch(i -> index.contains("meter-" + i))).isTrue();
+    assertThat(IntStream.range(5000, 10000).noneMatch(i -> index.contains("meter-" + i))).isTrue();
+  }
+
+  @Test
+  @DisplayName("refresh() should pick up meters created and deleted through other instances")
+  void testRefresh() {
+    when(meterRepository.streamAllIdsAndModels())
+        .thenReturn(Stream.of(meter("meter-1"), meter("meter-2")))
+        .thenReturn(Stream.of(meter("meter-2"), meter("meter-3")));
+    index.onApplicationEvent(null);
+
+    index.refresh();
+
+    assertThat(index.contains("meter-1")).isFalse();
+    assertThat(index.contains("meter-2")).isTrue();
+    assertThat(index.contains("meter-3")).isTrue();
+    assertThat(index.modelOf("meter-3")).isEqualTo("LW-1");
+  }
+
+  @Test
+  @DisplayName("refresh() should not revert a meter registered while the repository is read")
+  void testRefreshKeepsLocalChanges() {
+    when(meterRepository.streamAllIdsAndModels())
+        .thenReturn(Stream.empty())
+        .thenAnswer(
+            invocation -> {
+              index.register("meter-1", "LW-1");
+              return Stream.empty();
+            });
+    index.onApplicationEvent(null);
+
+    index.refresh();
+
+    assertThat(index.contains("meter-1")).isTrue();
+  }
+}
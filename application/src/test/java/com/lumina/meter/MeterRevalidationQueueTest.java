@@ -0,0 +1,69 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.lumina.catalogue.CatalogueItemChangedEvent;
+import com.lumina.meter.model.MeterRevalidation;
+import com.lumina.meter.model.RevalidationState;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+@ExtendWith(MockitoExtension.class)
+public class MeterRevalidationQueueTest {
+
+  @Mock private MongoTemplate mongoTemplate;
+
+  private MeterRevalidationQueue revalidationQueue;
+
+  @BeforeEach
+  void setup() {
+    revalidationQueue = new MeterRevalidationQueue(mongoTemplate);
+  }
+
+  @Test
+  @DisplayName("a change made through this instance should queue a run under a new generation")
+  void testLocalChangeQueuesRun() {
+    var query = ArgumentCaptor.forClass(Query.class);
+    var update = ArgumentCaptor.forClass(Update.class);
+    var options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+    when(mongoTemplate.findAndModify(
+            query.capture(), update.capture(), options.capture(), eq(MeterRevalidation.class)))
+        .thenReturn(null);
+
+    revalidationQueue.onCatalogueItemChanged(new CatalogueItemChangedEvent("A0001"));
+
+    assertThat(query.getValue().getQueryObject()).containsEntry("_id", "A0001");
+    assertThat(update.getValue().getUpdateObject().get("$set", Document.class))
+        .containsEntry("state", RevalidationState.QUEUED)
+        .containsEntry("cursor", null);
+    assertThat(update.getValue().getUpdateObject().get("$inc", Document.class))
+        .containsEntry("generation", 1);
+    assertThat(options.getValue().isUpsert()).isTrue();
+  }
+
+  @Test
+  @DisplayName("a change picked up from another instance should not queue a second run")
+  void testRemoteChangeIgnored() {
+    revalidationQueue.onCatalogueItemChanged(new CatalogueItemChangedEvent("A0001", true));
+
+    verify(mongoTemplate, never())
+        .findAndModify(
+            any(Query.class),
+            any(Update.class),
+            any(FindAndModifyOptions.class),
+            eq(MeterRevalidation.class));
+  }
+}
@@ -0,0 +1,289 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.lumina.catalogue.CatalogueItemService;
+import com.lumina.catalogue.model.*;
+import com.lumina.catalogue.model.constraint.NumberLineConstraintBuilder;
+import com.lumina.meter.model.*;
+import com.lumina.meter.validation.MeterValidator;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.lumina.validation.Errors;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+@ExtendWith(MockitoExtension.class)
+public class MeterRevalidationServiceTest {
+
+  private static final UpdateResult MATCHED = UpdateResult.acknowledged(1, 1L, null);
+  private static final UpdateResult SUPERSEDED = UpdateResult.acknowledged(0, 0L, null);
+
+  @Mock private MongoTemplate mongoTemplate;
+
+  @Mock private BulkOperations bulk;
+
+  @Mock private CatalogueItemService catalogueService;
+
+  private MeterValidator meterValidator;
+  private MeterBatchValidationService batchValidationService;
+  private MeterRevalidationService revalidationService;
+
+  @BeforeEach
+  void setup() {
+    lenient().when(catalogueService.findByModel("A0001")).thenReturn(Optional.of(catalogueItem()));
+    meterValidator = new MeterValidator(catalogueService, false);
+    batchValidationService =
+        new MeterBatchValidationService(meterValidator, new SimpleMeterRegistry(), 1000, 2);
+    revalidationService =
+        new MeterRevalidationService(
+            mongoTemplate,
+            batchValidationService,
+            meterValidator,
+            new SimpleMeterRegistry(),
+            2,
+            Duration.ofMinutes(10));
+  }
+
+  @AfterEach
+  void tearDown() {
+    batchValidationService.destroy();
+  }
+
+  private static Meter meter(String id, double level) {
+    return MeterBuilder.builder()
+        .id(id)
+        .locationId("location1")
+        .model("A0001")
+        .lines(List.of(new Line.Number("level", NumberType.INTEGER, level)))
+        .stage(ValidationStage.Intake)
+        .build();
+  }
+
+  private static MeterRevalidation run(String cursor, long metersDone) {
+    return new MeterRevalidation(
+        "A0001",
+        RevalidationState.RUNNING,
+        7,
+        cursor,
+        3,
+        metersDone,
+        0,
+        Instant.now(),
+        Instant.now(),
+        Instant.now(),
+        null,
+        null);
+  }
+
+  private void claims(MeterRevalidation run) {
+    when(mongoTemplate.findAndModify(
+            any(Query.class),
+            any(Update.class),
+            any(FindAndModifyOptions.class),
+            eq(MeterRevalidation.class)))
+        .thenReturn(run)
+        .thenReturn(null);
+  }
+
+  private static Document set(Update update) {
+    return update.getUpdateObject().get("$set", Document.class);
+  }
+
+  @Test
+  @DisplayName("a queued run should record a status per meter and checkpoint after each chunk")
+  void testRunQueued() {
+    claims(run(null, 0));
+    when(mongoTemplate.count(any(Query.class), eq(Meter.class))).thenReturn(3L);
+    when(mongoTemplate.stream(any(Query.class), eq(Meter.class)))
+        .thenReturn(Stream.of(meter("m1", 3), meter("m2", 42), meter("m3", 5)));
+    when(mongoTemplate.exists(any(Query.class), eq(MeterRevalidation.class))).thenReturn(true);
+    when(mongoTemplate.bulkOps(BulkMode.UNORDERED, MeterValidationStatus.class)).thenReturn(bulk);
+    var updates = ArgumentCaptor.forClass(Update.class);
+    when(mongoTemplate.updateFirst(
+            any(Query.class), updates.capture(), eq(MeterRevalidation.class)))
+        .thenReturn(MATCHED);
+
+    revalidationService.runQueued();
+
+    var statuses = ArgumentCaptor.forClass(Object.class);
+    verify(bulk, times(3))
+        .replaceOne(any(Query.class), statuses.capture(), any(FindAndReplaceOptions.class));
+    verify(bulk, times(2)).execute();
+    assertThat(statuses.getAllValues())
+        .map(MeterValidationStatus.class::cast)
+        .extracting(MeterValidationStatus::meterId, MeterValidationStatus::valid)
+        .containsExactlyInAnyOrder(tuple("m1", true), tuple("m2", false), tuple("m3", true));
+    assertThat(
+            statuses.getAllValues().stream()
+                .map(MeterValidationStatus.class::cast)
+                .filter(s -> !s.valid())
+                .findFirst()
+                .orElseThrow()
+                .errors())
+        .containsExactly("lines[0].level: value is too large");
+
+    // meter count, two checkpoints and the completion
+    assertThat(updates.getAllValues()).hasSize(4);
+    assertThat(set(updates.getAllValues().get(0)).get("meters")).isEqualTo(3L);
+    assertThat(set(updates.getAllValues().get(1)))
+        .containsEntry("cursor", "m2")
+        .containsEntry("metersDone", 2L)
+        .containsEntry("invalid", 1L);
+    assertThat(set(updates.getAllValues().get(2)))
+        .containsEntry("cursor", "m3")
+        .containsEntry("metersDone", 3L)
+        .containsEntry("invalid", 1L);
+    assertThat(set(updates.getAllValues().get(3)))
+        .containsEntry("state", RevalidationState.COMPLETED);
+  }
+
+  @Test
+  @DisplayName("a run should resume after its cursor and stop once superseded")
+  void testResumeAndSupersede() {
+    claims(run("m1", 1));
+    var query = ArgumentCaptor.forClass(Query.class);
+    when(mongoTemplate.stream(query.capture(), eq(Meter.class)))
+        .thenReturn(Stream.of(meter("m2", 42), meter("m3", 5), meter("m4", 5)));
+    when(mongoTemplate.exists(any(Query.class), eq(MeterRevalidation.class))).thenReturn(true);
+    when(mongoTemplate.bulkOps(BulkMode.UNORDERED, MeterValidationStatus.class)).thenReturn(bulk);
+    var updates = ArgumentCaptor.forClass(Update.class);
+    when(mongoTemplate.updateFirst(
+            any(Query.class), updates.capture(), eq(MeterRevalidation.class)))
+        .thenReturn(SUPERSEDED);
+
+    revalidationService.runQueued();
+
+    assertThat(query.getValue().getQueryObject())
+        .containsEntry("model", "A0001")
+        .containsEntry("_id", new Document("$gt", "m1"));
+    verify(mongoTemplate, never()).count(any(Query.class), eq(Meter.class));
+    // the first chunk is recorded, then the run notices it has been superseded
+    verify(bulk, times(1)).execute();
+    assertThat(updates.getAllValues())
+        .singleElement()
+        .satisfies(update -> assertThat(set(update)).containsEntry("cursor", "m3"));
+  }
+
+  @Test
+  @DisplayName("a run superseded while validating a chunk should not write its statuses")
+  void testSupersededBeforeWrite() {
+    claims(run("m1", 1));
+    when(mongoTemplate.stream(any(Query.class), eq(Meter.class)))
+        .thenReturn(Stream.of(meter("m2", 42), meter("m3", 5)));
+    var current = ArgumentCaptor.forClass(Query.class);
+    when(mongoTemplate.exists(current.capture(), eq(MeterRevalidation.class))).thenReturn(false);
+
+    revalidationService.runQueued();
+
+    assertThat(current.getValue().getQueryObject())
+        .containsEntry("_id", "A0001")
+        .containsEntry("generation", 7L);
+    verify(mongoTemplate, never()).bulkOps(any(BulkMode.class), eq(MeterValidationStatus.class));
+    verify(mongoTemplate, never())
+        .updateFirst(any(Query.class), any(Update.class), eq(MeterRevalidation.class));
+  }
+
+  @Test
+  @DisplayName("a run should claim queued or abandoned runs under a new generation")
+  void testClaim() {
+    var query = ArgumentCaptor.forClass(Query.class);
+    var update = ArgumentCaptor.forClass(Update.class);
+    when(mongoTemplate.findAndModify(
+            query.capture(),
+            update.capture(),
+            any(FindAndModifyOptions.class),
+            eq(MeterRevalidation.class)))
+        .thenReturn(null);
+
+    revalidationService.runQueued();
+
+    assertThat(query.getValue().getQueryObject().toJson())
+        .contains("QUEUED")
+        .contains("RUNNING")
+        .contains("heartbeatAt");
+    assertThat(update.getValue().getUpdateObject().get("$inc", Document.class))
+        .containsEntry("generation", 1);
+    assertThat(set(update.getValue()))
+        .containsEntry("state", RevalidationState.RUNNING)
+        .containsKey("heartbeatAt");
+  }
+
+  @Test
+  @DisplayName("a run should validate against the catalogue item as it is when the run starts")
+  void testRunEvictsCachedPlan() {
+    Meter cached = meter("m1", 3);
+    meterValidator.validate(cached, new Errors("meter"));
+    claims(run("m1", 1));
+    when(mongoTemplate.stream(any(Query.class), eq(Meter.class))).thenReturn(Stream.of());
+    when(mongoTemplate.updateFirst(
+            any(Query.class), any(Update.class), eq(MeterRevalidation.class)))
+        .thenReturn(MATCHED);
+
+    revalidationService.runQueued();
+    meterValidator.validate(cached, new Errors("meter"));
+
+    // the plan cached before the run is read again, as another instance may have changed the item
+    verify(catalogueService, times(2)).findByModel("A0001");
+  }
+
+  @Test
+  @DisplayName("a chunk larger than a validation batch should be rejected")
+  void testBatchSizeLimit() {
+    assertThatThrownBy(
+            () ->
+                new MeterRevalidationService(
+                    mongoTemplate,
+                    batchValidationService,
+                    meterValidator,
+                    new SimpleMeterRegistry(),
+                    1001,
+                    Duration.ofMinutes(10)))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("1000");
+  }
+
+  private static CatalogueItem catalogueItem() {
+    return CatalogueItemBuilder.builder()
+        .model("A0001")
+        .level(Level.DEVICE)
+        .type(MeterType.LORAWAN)
+        .description("Description of Sensor One")
+        .manufacturer("ManufacturerOne")
+        .constraints(
+            List.of(
+                NumberLineConstraintBuilder.builder()
+                    .name("level")
+                    .numberType(NumberType.INTEGER)
+                    .min(0d)
+                    .max(10d)
+                    .isRequired(true)
+                    .stage(ValidationStage.Intake)
+                    .build()))
+        .build();
+  }
+}
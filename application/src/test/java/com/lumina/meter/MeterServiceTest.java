@@ -17,11 +17,13 @@ import com.lumina.location.LocationService;
 import com.lumina.location.model.Location;
 import com.lumina.meter.dto.MeterViewDto;
 import com.lumina.meter.model.Meter;
+import com.lumina.meter.model.MeterValidationStatus;
 import com.lumina.meter.validation.MeterValidator;
 import com.lumina.project.ProjectService;
 import com.lumina.project.model.Project;
 import com.lumina.validation.Errors;
 import com.lumina.validation.LuminaValidationException;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -48,6 +50,18 @@ public class MeterServiceTest {
 
   @Mock private ClientService clientService;
 
+  @Mock private MeterIdIndex meterIdIndex;
+
+  @Mock private DevEuiIndex devEuiIndex;
+
+  @Mock private MeterValidationStatusRepository validationStatusRepository;
+
+  @Mock private LatestStatusCache latestStatusCache;
+
+  @Mock private AlertEngine alertEngine;
+
+  @Mock private OfflineMeterTracker offlineMeterTracker;
+
   @InjectMocks private MeterService meterService;
 
   private Meter testMeter;
@@ -83,6 +97,26 @@ public class MeterServiceTest {
     assertThat(result.model()).isEqualTo("MODEL-001");
     verify(meterValidator).validate(any(Meter.class), any(Errors.class));
     verify(meterRepository).save(testMeter);
+    verify(meterIdIndex).register("meter-1", "MODEL-001");
+    verify(devEuiIndex).register(testMeter);
+    verify(validationStatusRepository)
+        .save(argThat((MeterValidationStatus status) -> status.meterId().equals("meter-1")));
+  }
+
+  @Test
+  @DisplayName("delete() should remove the meter and forget all state held for it")
+  void testDelete() {
+    when(meterRepository.existsById("meter-1")).thenReturn(true);
+
+    meterService.delete("meter-1");
+
+    verify(meterRepository).deleteById("meter-1");
+    verify(meterIdIndex).remove("meter-1");
+    verify(devEuiIndex).remove("meter-1");
+    verify(validationStatusRepository).deleteById("meter-1");
+    verify(latestStatusCache).evict("meter-1");
+    verify(alertEngine).forget("meter-1");
+    verify(offlineMeterTracker).forget("meter-1");
   }
 
   @Test
@@ -102,6 +136,7 @@ public class MeterServiceTest {
 
     verify(meterValidator).validate(any(Meter.class), any(Errors.class));
     verify(meterRepository, never()).save(any(Meter.class));
+    verifyNoInteractions(meterIdIndex, devEuiIndex);
   }
 
   @Test
@@ -118,6 +153,9 @@ public class MeterServiceTest {
     verify(meterValidator).validate(any(Meter.class), any(Errors.class));
     verify(meterRepository).findById("meter-1");
     verify(meterRepository).save(testMeter);
+    verify(meterIdIndex).register("meter-1", "MODEL-001");
+    verify(devEuiIndex).register(testMeter);
+    verify(offlineMeterTracker).rearm("meter-1");
   }
 
   @Test
@@ -223,6 +261,17 @@ public class MeterServiceTest {
         .thenReturn(List.of(location1, location2));
     when(projectService.findAllById(Set.of("project-1"))).thenReturn(List.of(project1));
     when(clientService.findAllById(Set.of("client-1"))).thenReturn(List.of(client1));
+    MeterValidationStatus invalid =
+        new MeterValidationStatus(
+            "meter-2",
+            "MODEL-002",
+            ValidationStage.Staging,
+            false,
+            1,
+            List.of("lines[0].level: value is too large"),
+            Instant.now());
+    when(validationStatusRepository.findAllById(List.of("meter-1", "meter-2")))
+        .thenReturn(List.of(invalid));
 
     // Execute
     List<MeterViewDto> result = meterService.findAllForView();
@@ -231,6 +280,8 @@ public class MeterServiceTest {
     assertThat(result).hasSize(2);
     assertThat(result.get(0).locationBreadcrumb()).isEqualTo("Client One / Project One / Location One");
     assertThat(result.get(1).locationBreadcrumb()).isEqualTo("Client One / Project One / Location Two");
+    assertThat(result.get(0).validation()).isNull();
+    assertThat(result.get(1).validation()).isEqualTo(invalid);
 
     // Verify batch fetching was used (only 1 call per service)
     verify(meterRepository).findAll();
@@ -0,0 +1,161 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.lumina.catalogue.CatalogueItemChangedEvent;
+import com.lumina.catalogue.ItemRepository;
+import com.lumina.catalogue.model.CatalogueItemBuilder;
+import com.lumina.meter.model.OfflineMeter;
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusBuilder;
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class OfflineMeterTrackerTest {
+
+  @Mock private MeterIdIndex meterIdIndex;
+  @Mock private ItemRepository itemRepository;
+  @Mock private MongoTemplate mongoTemplate;
+  @Mock private ApplicationEventPublisher eventPublisher;
+
+  private OfflineMeterTracker tracker;
+  private long now;
+
+  @BeforeEach
+  void setup() {
+    tracker =
+        new OfflineMeterTracker(
+            meterIdIndex,
+            itemRepository,
+            mongoTemplate,
+            Optional.empty(),
+            eventPublisher,
+            new SimpleMeterRegistry(),
+            Duration.ofMinutes(5),
+            3,
+            1000,
+            64);
+    now = System.currentTimeMillis();
+    lenient().when(meterIdIndex.modelOf(any())).thenReturn("LW-1");
+    lenient().when(meterIdIndex.contains(any())).thenReturn(true);
+  }
+
+  private static Status status(String meterId, long timestamp) {
+    return StatusBuilder.builder()
+        .meterId(meterId)
+        .timestamp(Instant.ofEpochMilli(timestamp))
+        .build();
+  }
+
+  @Test
+  @DisplayName("a meter should go offline after missing the intervals of its model and recover")
+  void testOfflineAndOnline() {
+    var item = CatalogueItemBuilder.builder().model("LW-1").reportingIntervalSeconds(60).build();
+    when(itemRepository.findByModel("LW-1")).thenReturn(Optional.of(item));
+
+    tracker.record(List.of(status("meter-1", now), status("meter-2", now + 100_000)), now);
+    tracker.advance(now + 179_999);
+    verifyNoInteractions(eventPublisher);
+
+    tracker.advance(now + 181_000);
+    var offline =
+        new OfflineMeter("meter-1", Instant.ofEpochMilli(now), Instant.ofEpochMilli(now + 180_000));
+    verify(eventPublisher).publishEvent(new MeterOfflineEvent(offline));
+    assertThat(tracker.offline(null)).containsExactly(offline);
+    assertThat(tracker.offline(Set.of("meter-2"))).isEmpty();
+
+    tracker.record(List.of(status("meter-1", now + 200_000)), now + 200_000);
+    verify(eventPublisher)
+        .publishEvent(new MeterOnlineEvent("meter-1", Instant.ofEpochMilli(now + 200_000)));
+    assertThat(tracker.offline(null)).isEmpty();
+    verify(itemRepository, times(1)).findByModel("LW-1");
+  }
+
+  @Test
+  @DisplayName("deleted meters should be dropped instead of reported offline")
+  void testDeletedMeter() {
+    when(itemRepository.findByModel("LW-1")).thenReturn(Optional.empty());
+    when(meterIdIndex.contains("meter-1")).thenReturn(false);
+
+    tracker.record(List.of(status("meter-1", now)), now);
+    tracker.advance(now + Duration.ofMinutes(16).toMillis());
+
+    verifyNoInteractions(eventPublisher);
+    assertThat(tracker.offline(null)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("a changed reporting interval should re-arm the meters of the model")
+  void testCatalogueChangeRearms() {
+    var item = CatalogueItemBuilder.builder().model("LW-1").reportingIntervalSeconds(60).build();
+    var changed =
+        CatalogueItemBuilder.builder().model("LW-1").reportingIntervalSeconds(600).build();
+    when(itemRepository.findByModel("LW-1"))
+        .thenReturn(Optional.of(item))
+        .thenReturn(Optional.of(changed));
+
+    tracker.record(List.of(status("meter-1", now)), now);
+    tracker.advance(now + 181_000);
+    assertThat(tracker.offline(null)).hasSize(1);
+
+    tracker.onCatalogueItemChanged(new CatalogueItemChangedEvent("LW-1"));
+
+    verify(eventPublisher).publishEvent(new MeterOnlineEvent("meter-1", Instant.ofEpochMilli(now)));
+    assertThat(tracker.offline(null)).isEmpty();
+    tracker.advance(now + 1_799_999);
+    assertThat(tracker.offline(null)).isEmpty();
+    tracker.advance(now + 1_801_000);
+    assertThat(tracker.offline(null)).extracting(OfflineMeter::meterId).containsExactly("meter-1");
+  }
+
+  @Test
+  @DisplayName("rebuild() should read the latest status of the indexed meters only")
+  @SuppressWarnings("unchecked")
+  void testRebuildFromIndex() {
+    when(itemRepository.findByModel("LW-1")).thenReturn(Optional.empty());
+    when(meterIdIndex.meterIds()).thenReturn(List.of("meter-1", "meter-2"));
+    MongoCollection<Document> collection = mock(MongoCollection.class);
+    AggregateIterable<Document> results = mock(AggregateIterable.class);
+    MongoCursor<Document> cursor = mock(MongoCursor.class);
+    when(mongoTemplate.getCollection(StatusCollectionInitializer.COLLECTION))
+        .thenReturn(collection);
+    var pipeline = ArgumentCaptor.forClass(List.class);
+    when(collection.aggregate(pipeline.capture())).thenReturn(results);
+    when(results.allowDiskUse(true)).thenReturn(results);
+    when(results.iterator()).thenReturn(cursor);
+    when(cursor.hasNext()).thenReturn(true, true, false);
+    when(cursor.next())
+        .thenReturn(
+            new Document("_id", "meter-1").append("last", new Date(now - 1_000_000)),
+            new Document("_id", "meter-2").append("last", new Date(now)));
+
+    tracker.rebuild();
+
+    var match = ((List<Document>) pipeline.getValue()).getFirst().get("$match", Document.class);
+    assertThat(match.get("meterId", Document.class).get("$in"))
+        .isEqualTo(List.of("meter-1", "meter-2"));
+    assertThat(tracker.offline(null)).extracting(OfflineMeter::meterId).containsExactly("meter-1");
+    verifyNoInteractions(eventPublisher);
+  }
+}
@@ -0,0 +1,122 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import com.lumina.catalogue.model.Endianness;
+import com.lumina.catalogue.model.MeterType;
+import com.lumina.catalogue.model.PayloadField;
+import com.lumina.catalogue.model.PayloadFieldBuilder;
+import com.lumina.catalogue.model.PayloadType;
+import com.lumina.meter.model.TelemetryField;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PayloadDecoderTest {
+
+  private final double[] telemetry = new double[TelemetryField.values().length];
+  private final Map<String, Object> data = new LinkedHashMap<>();
+
+  private static PayloadField field(String name, int offset, PayloadType type) {
+    return PayloadFieldBuilder.builder().name(name).offset(offset).type(type).build();
+  }
+
+  @BeforeEach
+  void setup() {
+    Arrays.fill(telemetry, Double.NaN);
+  }
+
+  @Test
+  @DisplayName("fields should be read in their declared byte order, signed or unsigned")
+  void testByteOrderAndSign() {
+    PayloadDecoder decoder =
+        PayloadDecoder.compile(
+            MeterType.LORAWAN,
+            List.of(
+                field("u16", 0, PayloadType.UINT16),
+                PayloadFieldBuilder.builder(field("i16le", 2, PayloadType.INT16))
+                    .endianness(Endianness.LITTLE)
+                    .build(),
+                field("u32", 4, PayloadType.UINT32),
+                PayloadFieldBuilder.builder(field("f32le", 8, PayloadType.FLOAT32))
+                    .endianness(Endianness.LITTLE)
+                    .build()));
+    ByteBuffer frame = ByteBuffer.allocate(12);
+    frame.putShort(0, (short) 0xFFFE);
+    frame.order(ByteOrder.LITTLE_ENDIAN).putShort(2, (short) -300);
+    frame.order(ByteOrder.BIG_ENDIAN).putInt(4, 0xFFFFFFFF);
+    frame.order(ByteOrder.LITTLE_ENDIAN).putFloat(8, 21.5f);
+    // the buffer's own order must not matter
+    frame.order(ByteOrder.BIG_ENDIAN);
+
+    assertThat(decoder.decode(frame, -1, telemetry, data)).isEqualTo(4);
+
+    assertThat(data)
+        .containsEntry("u16", 65534L)
+        .containsEntry("i16le", -300L)
+        .containsEntry("u32", 4294967295L)
+        .containsEntry("f32le", 21.5);
+  }
+
+  @Test
+  @DisplayName("typed telemetry fields should be scaled into their slots")
+  void testTelemetrySlots() {
+    PayloadDecoder decoder =
+        PayloadDecoder.compile(
+            MeterType.LORAWAN,
+            List.of(
+                PayloadFieldBuilder.builder(field("temperature", 0, PayloadType.INT16))
+                    .scale(0.01)
+                    .bias(-40.0)
+                    .build(),
+                // not a LoRaWAN telemetry field, so it goes into the data map
+                field("registerCount", 2, PayloadType.UINT8)));
+    ByteBuffer frame = ByteBuffer.wrap(new byte[] {0x17, 0x70, 7});
+
+    decoder.decode(frame, -1, telemetry, data);
+
+    assertThat(telemetry[TelemetryField.TEMPERATURE.ordinal()]).isCloseTo(20.0, within(1e-9));
+    assertThat(telemetry[TelemetryField.REGISTER_COUNT.ordinal()]).isNaN();
+    assertThat(data).isEqualTo(Map.of("registerCount", 7L));
+  }
+
+  @Test
+  @DisplayName("decoding should read a slice from its position and skip fields of other ports")
+  void testSliceAndPorts() {
+    PayloadDecoder decoder =
+        PayloadDecoder.compile(
+            MeterType.LORAWAN,
+            List.of(
+                PayloadFieldBuilder.builder(field("alarm", 0, PayloadType.UINT8)).fPort(3).build(),
+                PayloadFieldBuilder.builder(field("level", 0, PayloadType.UINT8))
+                    .fPort(2)
+                    .build()));
+    ByteBuffer frame = ByteBuffer.wrap(new byte[] {9, 9, 42});
+    frame.position(2);
+
+    assertThat(decoder.decode(frame, 2, telemetry, data)).isEqualTo(1);
+
+    assertThat(data).isEqualTo(Map.of("level", 42L));
+    assertThat(frame.position()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("a frame too short for a field should be rejected")
+  void testShortFrame() {
+    PayloadDecoder decoder =
+        PayloadDecoder.compile(MeterType.LORAWAN, List.of(field("u32", 1, PayloadType.UINT32)));
+
+    assertThatThrownBy(
+            () -> decoder.decode(ByteBuffer.wrap(new byte[4]), -1, telemetry, data))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("u32");
+  }
+}
@@ -0,0 +1,116 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class QuantileSketchTest {
+
+  private static final double[] QUANTILES = {0, 0.1, 0.5, 0.9, 0.95, 0.99, 1};
+
+  private static double exact(double[] sorted, double q) {
+    return sorted[(int) Math.floor(q * (sorted.length - 1))];
+  }
+
+  @Test
+  @DisplayName("quantiles should be within the relative accuracy of the exact values")
+  void testAccuracy() {
+    Random random = new Random(42);
+    double[] values = new double[20_000];
+    QuantileSketch sketch = new QuantileSketch();
+    for (int i = 0; i < values.length; i++) {
+      // log-normal, so the values span several orders of magnitude
+      values[i] = Math.exp(random.nextGaussian() * 2);
+      sketch.add(values[i]);
+    }
+    Arrays.sort(values);
+
+    for (double q : QUANTILES) {
+      double expected = exact(values, q);
+      assertThat(sketch.quantile(q))
+          .isCloseTo(expected, within(expected * QuantileSketch.RELATIVE_ACCURACY));
+    }
+    assertThat(sketch.count()).isEqualTo(values.length);
+    assertThat(sketch.min()).isEqualTo(values[0]);
+    assertThat(sketch.max()).isEqualTo(values[values.length - 1]);
+  }
+
+  @Test
+  @DisplayName("merged sketches should answer like one sketch of all values")
+  void testMerge() {
+    Random random = new Random(7);
+    QuantileSketch all = new QuantileSketch();
+    QuantileSketch first = new QuantileSketch();
+    QuantileSketch second = new QuantileSketch();
+    for (int i = 0; i < 5_000; i++) {
+      double low = random.nextDouble() * 10;
+      double high = 1_000 + random.nextDouble() * 1_000;
+      all.add(low);
+      all.add(high);
+      first.add(low);
+      second.add(high);
+    }
+
+    first.merge(second);
+
+    assertThat(first.count()).isEqualTo(all.count());
+    assertThat(first.mean()).isCloseTo(all.mean(), within(1e-6));
+    for (double q : QUANTILES) {
+      assertThat(first.quantile(q)).isEqualTo(all.quantile(q));
+    }
+    assertThat(first.histogram()).isEqualTo(all.histogram());
+  }
+
+  @Test
+  @DisplayName("negative values and zero should be ordered below positive values")
+  void testNegativeAndZero() {
+    QuantileSketch sketch = new QuantileSketch();
+    for (double value : new double[] {-100, -10, -1, 0, 0, 1, 10, 100}) {
+      sketch.add(value);
+    }
+
+    assertThat(sketch.quantile(0)).isEqualTo(-100);
+    assertThat(sketch.quantile(0.2)).isCloseTo(-10, within(0.1));
+    assertThat(sketch.quantile(0.5)).isZero();
+    assertThat(sketch.quantile(1)).isEqualTo(100);
+    assertThat(sketch.histogram()).hasSize(7);
+    assertThat(sketch.histogram().stream().mapToLong(QuantileSketch.Bin::count).sum())
+        .isEqualTo(8);
+    assertThat(sketch.histogram().get(0).upper()).isLessThan(sketch.histogram().get(1).lower());
+  }
+
+  @Test
+  @DisplayName("a sketch should survive encoding to bytes")
+  void testBytesRoundTrip() {
+    QuantileSketch sketch = new QuantileSketch();
+    for (double value : new double[] {-3.5, 0, 0.001, 2, 2, 4_000_000}) {
+      sketch.add(value);
+    }
+
+    QuantileSketch decoded = QuantileSketch.fromBytes(sketch.toBytes());
+
+    assertThat(decoded.count()).isEqualTo(6);
+    assertThat(decoded.min()).isEqualTo(-3.5);
+    assertThat(decoded.max()).isEqualTo(4_000_000);
+    assertThat(decoded.mean()).isEqualTo(sketch.mean());
+    assertThat(decoded.histogram()).isEqualTo(sketch.histogram());
+    for (double q : QUANTILES) {
+      assertThat(decoded.quantile(q)).isEqualTo(sketch.quantile(q));
+    }
+  }
+
+  @Test
+  @DisplayName("an empty sketch should report no values")
+  void testEmpty() {
+    QuantileSketch sketch = QuantileSketch.fromBytes(new QuantileSketch().toBytes());
+    sketch.add(Double.NaN);
+
+    assertThat(sketch.count()).isZero();
+    assertThat(sketch.quantile(0.5)).isNaN();
+    assertThat(sketch.histogram()).isEmpty();
+  }
+}
@@ -0,0 +1,249 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.lumina.BadRequestException;
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusAggregate;
+import com.lumina.meter.model.StatusAggregate.FieldStats;
+import com.lumina.meter.model.StatusBuilder;
+import com.lumina.meter.model.TimeBucket;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+
+@ExtendWith(MockitoExtension.class)
+public class StatusAggregationServiceTest {
+
+  private static final Instant START = Instant.parse("2025-11-23T00:00:00Z");
+  private static final Instant END = Instant.parse("2025-11-23T23:59:59Z");
+  private static final ZoneId LONDON = ZoneId.of("Europe/London");
+
+  @Mock private MongoTemplate mongoTemplate;
+
+  private StatusAggregationService aggregationService;
+
+  @BeforeEach
+  void setup() {
+    aggregationService =
+        new StatusAggregationService(mongoTemplate, Optional.empty(), Optional.empty(), 100);
+  }
+
+  @Test
+  @DisplayName("aggregate() should group by $dateTrunc in the requested zone and map the results")
+  void testAggregate() {
+    var row =
+        new Document("_id", Date.from(START))
+            .append("samples", 4)
+            .append("count_power", 2)
+            .append("sum_power", 10.0)
+            .append("min_power", 4)
+            .append("max_power", 6.0)
+            .append("count_state", 0)
+            .append("sum_state", 0)
+            .append("min_state", null)
+            .append("max_state", null);
+    var captor = ArgumentCaptor.forClass(Aggregation.class);
+    when(mongoTemplate.aggregate(captor.capture(), eq(Status.class), eq(Document.class)))
+        .thenReturn(new AggregationResults<>(List.of(row), new Document()));
+
+    var result =
+        aggregationService.aggregate(
+            "meter-1", START, END, TimeBucket.parse("1h"), LONDON, List.of("power", "state"));
+
+    assertThat(result).hasSize(1);
+    assertThat(result.getFirst().bucketStart()).isEqualTo(START);
+    assertThat(result.getFirst().samples()).isEqualTo(4);
+    assertThat(result.getFirst().fields())
+        .containsEntry("power", new FieldStats(2, 10.0, 4.0, 6.0))
+        .containsEntry("state", FieldStats.EMPTY);
+
+    var pipeline = captor.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+    var group = pipeline.get(1).get("$group", Document.class);
+    var dateTrunc = group.get("_id", Document.class).get("$dateTrunc", Document.class);
+    assertThat(dateTrunc.getString("unit")).isEqualTo("hour");
+    assertThat(dateTrunc.getString("timezone")).isEqualTo("Europe/London");
+    assertThat(group).containsKeys("count_power", "sum_power", "min_power", "max_power");
+  }
+
+  @Test
+  @DisplayName("aggregate() should include sealed samples when compressed blocks are enabled")
+  void testAggregateWithBlocks() {
+    var blockStore = mock(StatusBlockStore.class);
+    aggregationService =
+        new StatusAggregationService(mongoTemplate, Optional.empty(), Optional.of(blockStore), 100);
+    when(blockStore.streamAll("meter-1", START, END))
+        .thenReturn(
+            Stream.of(
+                sample(START.plusSeconds(60), Map.of("power", 4)),
+                sample(START.plusSeconds(120), Map.of("power", 6.0, "state", "on")),
+                sample(START.plusSeconds(3600), Map.of("state", "off"))));
+
+    var result =
+        aggregationService.aggregate(
+            "meter-1", START, END, TimeBucket.parse("1h"), LONDON, List.of("power", "state"));
+
+    assertThat(result)
+        .extracting(StatusAggregate::bucketStart, StatusAggregate::samples)
+        .containsExactly(tuple(START, 2L), tuple(START.plusSeconds(3600), 1L));
+    assertThat(result.getFirst().fields())
+        .containsEntry("power", new FieldStats(2, 10.0, 4.0, 6.0))
+        .containsEntry("state", FieldStats.EMPTY);
+    assertThat(result.getLast().fields()).containsEntry("power", FieldStats.EMPTY);
+    verifyNoInteractions(mongoTemplate);
+  }
+
+  private static Status sample(Instant timestamp, Map<String, Object> data) {
+    return StatusBuilder.builder()
+        .id(timestamp.toString())
+        .meterId("meter-1")
+        .timestamp(timestamp)
+        .data(data)
+        .build();
+  }
+
+  @Test
+  @DisplayName("aggregate() should read rolled-up ranges from the coarsest tier and merge buckets")
+  void testAggregateFromTiers() {
+    var rollups = mock(StatusRollupService.class);
+    when(rollups.watermark(RollupTier.HOUR)).thenReturn(Optional.of(START.plusSeconds(12 * 3600)));
+    when(rollups.watermark(RollupTier.MINUTE))
+        .thenReturn(Optional.of(START.plusSeconds(12 * 3600 + 30 * 60)));
+    aggregationService =
+        new StatusAggregationService(mongoTemplate, Optional.of(rollups), Optional.empty(), 100);
+
+    Instant noon = START.plusSeconds(12 * 3600);
+    var hourCaptor = ArgumentCaptor.forClass(Aggregation.class);
+    when(mongoTemplate.aggregate(
+            hourCaptor.capture(), eq(RollupTier.HOUR.collection()), eq(Document.class)))
+        .thenReturn(results(row(START, 60, 60, 3000.0, 40, 60)));
+    when(mongoTemplate.aggregate(
+            any(Aggregation.class), eq(RollupTier.MINUTE.collection()), eq(Document.class)))
+        .thenReturn(results(row(noon, 30, 30, 1500.0, 45, 55)));
+    var rawCaptor = ArgumentCaptor.forClass(Aggregation.class);
+    when(mongoTemplate.aggregate(rawCaptor.capture(), eq(Status.class), eq(Document.class)))
+        .thenReturn(results(row(noon, 30, 30, 1800.0, 50, 70)));
+
+    var result =
+        aggregationService.aggregate(
+            "meter-1",
+            START,
+            END,
+            TimeBucket.parse("1h"),
+            ZoneId.of("UTC"),
+            List.of("batteryLevel"));
+
+    assertThat(result).extracting(StatusAggregate::bucketStart).containsExactly(START, noon);
+    assertThat(result.get(1).samples()).isEqualTo(60);
+    assertThat(result.get(1).fields())
+        .containsEntry("batteryLevel", new FieldStats(60, 3300.0, 45.0, 70.0));
+
+    var hourMatch =
+        hourCaptor.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).getFirst().get("$match");
+    assertThat(hourMatch.toString()).contains("bucketStart");
+    var rawMatch =
+        rawCaptor
+            .getValue()
+            .toPipeline(Aggregation.DEFAULT_CONTEXT)
+            .getFirst()
+            .get("$match", Document.class)
+            .get("timestamp", Document.class);
+    assertThat(rawMatch.get("$gte")).isEqualTo(noon.plusSeconds(30 * 60));
+  }
+
+  @Test
+  @DisplayName("aggregate() should skip tiers that cannot serve the requested fields or zone")
+  void testAggregateSkipsUnusableTiers() {
+    var rollups = mock(StatusRollupService.class);
+    lenient().when(rollups.watermark(any())).thenReturn(Optional.of(END));
+    aggregationService =
+        new StatusAggregationService(mongoTemplate, Optional.of(rollups), Optional.empty(), 100);
+    lenient()
+        .when(mongoTemplate.aggregate(any(Aggregation.class), anyString(), eq(Document.class)))
+        .thenReturn(results());
+    when(mongoTemplate.aggregate(any(Aggregation.class), eq(Status.class), eq(Document.class)))
+        .thenReturn(results());
+
+    // only typed telemetry fields are rolled up
+    aggregationService.aggregate(
+        "meter-1", START, END, TimeBucket.parse("1h"), LONDON, List.of("power"));
+    verify(mongoTemplate, never()).aggregate(any(Aggregation.class), anyString(), any());
+
+    // a half-hour zone offset splits hour rollups, but not minute rollups
+    aggregationService.aggregate(
+        "meter-1",
+        START,
+        END,
+        TimeBucket.parse("1h"),
+        ZoneId.of("Asia/Kolkata"),
+        List.of("batteryLevel"));
+    verify(mongoTemplate, never())
+        .aggregate(any(Aggregation.class), eq(RollupTier.HOUR.collection()), any());
+    verify(mongoTemplate)
+        .aggregate(any(Aggregation.class), eq(RollupTier.MINUTE.collection()), eq(Document.class));
+  }
+
+  private static Document row(
+      Instant bucketStart, int samples, int count, double sum, double min, double max) {
+    return new Document("_id", Date.from(bucketStart))
+        .append("samples", samples)
+        .append("count_batteryLevel", count)
+        .append("sum_batteryLevel", sum)
+        .append("min_batteryLevel", min)
+        .append("max_batteryLevel", max);
+  }
+
+  private static AggregationResults<Document> results(Document... rows) {
+    return new AggregationResults<>(List.of(rows), new Document());
+  }
+
+  @Test
+  @DisplayName("aggregate() should reject field names that are not plain identifiers")
+  void testRejectsInvalidFieldNames() {
+    assertThatThrownBy(
+            () ->
+                aggregationService.aggregate(
+                    "meter-1", START, END, TimeBucket.parse("1h"), LONDON, List.of("$where")))
+        .isInstanceOf(BadRequestException.class);
+    verify(mongoTemplate, never()).aggregate(any(Aggregation.class), eq(Status.class), any());
+  }
+
+  @Test
+  @DisplayName("aggregate() should reject ranges that produce too many buckets")
+  void testRejectsTooManyBuckets() {
+    assertThatThrownBy(
+            () ->
+                aggregationService.aggregate(
+                    "meter-1", START, END, TimeBucket.parse("1m"), LONDON, List.of("power")))
+        .isInstanceOf(BadRequestException.class)
+        .hasMessageContaining("at most 100");
+  }
+
+  @Test
+  @DisplayName("zone() should reject unknown time zones")
+  void testUnknownZone() {
+    assertThatThrownBy(() -> StatusAggregationService.zone("Mars/Olympus"))
+        .isInstanceOf(BadRequestException.class);
+  }
+}
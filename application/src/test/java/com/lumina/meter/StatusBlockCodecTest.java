@@ -0,0 +1,118 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.lumina.catalogue.model.MeterType;
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusBuilder;
+import com.lumina.meter.model.Telemetry;
+import com.lumina.meter.model.TelemetryField;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class StatusBlockCodecTest {
+
+  private static final Instant HOUR = Instant.parse("2025-11-23T10:00:00Z");
+
+  private static Status sample(Instant timestamp, Telemetry telemetry, Map<String, Object> data) {
+    return StatusBuilder.builder()
+        .id(new ObjectId().toHexString())
+        .meterId("meter-1")
+        .timestamp(timestamp)
+        .telemetry(telemetry)
+        .data(data)
+        .build();
+  }
+
+  private static Telemetry lorawan(double battery, double signal, double frameCounter) {
+    return Telemetry.of(
+        MeterType.LORAWAN,
+        field ->
+            switch (field) {
+              case BATTERY_LEVEL -> battery;
+              case SIGNAL_STRENGTH -> signal;
+              case FRAME_COUNTER -> frameCounter;
+              default -> Double.NaN;
+            });
+  }
+
+  @Test
+  @DisplayName("a block should decode to the samples it was encoded from")
+  void testRoundTrip() {
+    List<Status> samples = new ArrayList<>();
+    Random random = new Random(7);
+    for (int i = 0; i < 60; i++) {
+      // mostly regular one-minute reports with some jitter and a gap
+      long jitter = i % 7 == 0 ? random.nextInt(5_000) : 0;
+      long offset = i * 60_000L + jitter + (i > 40 ? 600_000 : 0);
+      Telemetry telemetry =
+          i == 10 ? null : lorawan(90 - i * 0.25, -90 - random.nextInt(10), 1000 + i);
+      Map<String, Object> data = i % 20 == 0 ? Map.of("connected", true, "firmware", "1.2") : null;
+      samples.add(sample(HOUR.plusMillis(offset), telemetry, data));
+    }
+
+    Document block = StatusBlockCodec.encode("meter-1", HOUR, samples);
+
+    assertThat(block.getString("_id")).isEqualTo("meter-1:" + HOUR.toEpochMilli());
+    assertThat(block.getInteger(StatusBlockCodec.COUNT)).isEqualTo(60);
+    assertThat(block.get("v", Document.class))
+        .containsOnlyKeys(
+            TelemetryField.BATTERY_LEVEL.key(),
+            TelemetryField.SIGNAL_STRENGTH.key(),
+            TelemetryField.FRAME_COUNTER.key());
+    assertThat(StatusBlockCodec.decodeAll(block)).containsExactlyElementsOf(samples);
+  }
+
+  @Test
+  @DisplayName("regular timestamps and unchanged values should cost about a bit per sample")
+  void testCompression() {
+    List<Status> samples = new ArrayList<>();
+    for (int i = 0; i < 360; i++) {
+      samples.add(sample(HOUR.plusSeconds(i * 10L), lorawan(87.5, -97, 42), null));
+    }
+
+    Document block = StatusBlockCodec.encode("meter-1", HOUR, samples);
+
+    // 64 bits for the first timestamp, 68 for the first delta, then one bit each
+    assertThat(block.get("ts", Binary.class).length()).isLessThan(70);
+    Document values = block.get("v", Document.class);
+    assertThat(values.get(TelemetryField.BATTERY_LEVEL.key(), Binary.class).length())
+        .isLessThan(60);
+    assertThat(StatusBlockCodec.decodeAll(block)).containsExactlyElementsOf(samples);
+  }
+
+  @Test
+  @DisplayName("extreme deltas and values should survive the round trip")
+  void testEdgeCases() {
+    List<Status> samples =
+        List.of(
+            sample(HOUR, lorawan(Double.NaN, 0, -0.0), null),
+            sample(HOUR.plusMillis(1), lorawan(100, Double.MAX_VALUE, 1e-300), null),
+            sample(HOUR.plusMillis(1), lorawan(Double.MIN_VALUE, -1, 0x1p53), null),
+            sample(HOUR.plusSeconds(3599).plusMillis(999), lorawan(1, 1, 1), null));
+
+    List<Status> decoded =
+        StatusBlockCodec.decodeAll(StatusBlockCodec.encode("meter-1", HOUR, samples));
+
+    assertThat(decoded).containsExactlyElementsOf(samples);
+  }
+
+  @Test
+  @DisplayName("a block with one untyped sample should round-trip")
+  void testSingleSample() {
+    Status only = sample(HOUR.plusSeconds(30), null, Map.of("batteryLevel", "n/a"));
+
+    Document block = StatusBlockCodec.encode("meter-1", HOUR, List.of(only));
+
+    assertThat(block).doesNotContainKeys("y", "v");
+    assertThat(StatusBlockCodec.decodeAll(block)).containsExactly(only);
+  }
+}
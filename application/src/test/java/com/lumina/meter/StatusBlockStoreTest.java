@@ -0,0 +1,79 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusBuilder;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+public class StatusBlockStoreTest {
+
+  private static final Instant T0 = Instant.parse("2025-11-23T10:00:00Z");
+
+  private static Status status(String id, int second) {
+    return StatusBuilder.builder()
+        .id(id)
+        .meterId("meter-1")
+        .timestamp(T0.plusSeconds(second))
+        .build();
+  }
+
+  @Test
+  @DisplayName("merge() should interleave sealed and raw samples by timestamp")
+  void testMerge() {
+    var sealed = Stream.of(status("a", 0), status("c", 2), status("e", 4));
+    var raw = Stream.of(status("b", 1), status("d", 3), status("f", 5));
+
+    assertThat(StatusBlockStore.merge(sealed, raw).map(Status::id))
+        .containsExactly("a", "b", "c", "d", "e", "f");
+  }
+
+  @Test
+  @DisplayName("merge() should return a sample left behind by an interrupted seal only once")
+  void testMergeSkipsSealedCopies() {
+    var sealed = Stream.of(status("a", 0), status("b", 1), status("c", 1));
+    var raw = Stream.of(status("c", 1), status("x", 1), status("b", 1), status("d", 2));
+
+    assertThat(StatusBlockStore.merge(sealed, raw).map(Status::id))
+        .containsExactly("a", "b", "c", "x", "d");
+  }
+
+  @Test
+  @DisplayName("merge() should order by timestamp and id in the requested direction")
+  void testMergeDescending() {
+    var sealed = Stream.of(status("e", 4), status("c", 2), status("b", 2));
+    var raw = Stream.of(status("f", 5), status("d", 2), status("a", 0));
+
+    assertThat(StatusBlockStore.merge(sealed, raw, Sort.Direction.DESC).map(Status::id))
+        .containsExactly("f", "e", "d", "c", "b", "a");
+  }
+
+  @Test
+  @DisplayName("closing the merged stream should close both sources")
+  void testMergeClosesSources() {
+    AtomicInteger closed = new AtomicInteger();
+    var sealed = Stream.of(status("a", 0)).onClose(closed::incrementAndGet);
+    var raw = Stream.<Status>empty().onClose(closed::incrementAndGet);
+
+    try (var merged = StatusBlockStore.merge(sealed, raw)) {
+      assertThat(merged.toList()).hasSize(1);
+    }
+    assertThat(closed).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("merge() should handle an empty side")
+  void testMergeEmpty() {
+    assertThat(StatusBlockStore.merge(Stream.empty(), Stream.of(status("a", 0))).toList())
+        .extracting(Status::id)
+        .containsExactly("a");
+    assertThat(StatusBlockStore.merge(Stream.of(status("a", 0)), Stream.empty()).toList())
+        .hasSize(1);
+  }
+}
@@ -0,0 +1,125 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.lumina.meter.model.Alert;
+import com.lumina.meter.model.AlertState;
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class StatusBrokerTest {
+
+  private static final Instant T0 = Instant.parse("2025-11-23T10:00:00Z");
+
+  private SimpleMeterRegistry registry;
+  private StatusBroker broker;
+
+  @BeforeEach
+  void setup() {
+    registry = new SimpleMeterRegistry();
+    broker = new StatusBroker(registry, 2);
+  }
+
+  private static Status status(String meterId, int second) {
+    return StatusBuilder.builder()
+        .id(meterId + "@" + second)
+        .meterId(meterId)
+        .timestamp(T0.plusSeconds(second))
+        .build();
+  }
+
+  @Test
+  @DisplayName("statuses should reach only the subscriptions covering their meter")
+  void testFanOut() throws InterruptedException {
+    var first = broker.subscribe(Set.of("meter-1", "meter-2"));
+    var second = broker.subscribe(Set.of("meter-2"));
+
+    broker.onStatusesWritten(List.of(status("meter-1", 0), status("meter-2", 0)));
+    broker.onStatusesWritten(List.of(status("meter-3", 0)));
+
+    assertThat(first.poll(Duration.ZERO))
+        .extracting(Status::meterId)
+        .containsExactly("meter-1", "meter-2");
+    assertThat(second.poll(Duration.ZERO)).extracting(Status::meterId).containsExactly("meter-2");
+    assertThat(first.poll(Duration.ZERO)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("a slow subscriber should get the latest status per meter and lose the oldest meter")
+  void testCoalesceAndDrop() throws InterruptedException {
+    var subscription = broker.subscribe(Set.of("meter-1", "meter-2", "meter-3"));
+
+    broker.onStatusesWritten(List.of(status("meter-1", 0), status("meter-1", 5)));
+    broker.onStatusesWritten(List.of(status("meter-1", 3))); // older than the pending one
+    broker.onStatusesWritten(List.of(status("meter-2", 1), status("meter-3", 2)));
+
+    assertThat(subscription.poll(Duration.ZERO))
+        .extracting(Status::id)
+        .containsExactly("meter-2@1", "meter-3@2");
+    assertThat(subscription.dropped()).isEqualTo(1);
+    assertThat(registry.counter("lumina.status.live.coalesced").count()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("poll() should wake up when a status arrives")
+  void testPollWaits() throws Exception {
+    var subscription = broker.subscribe(Set.of("meter-1"));
+
+    var polled =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return subscription.poll(Duration.ofSeconds(10));
+              } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+              }
+            });
+    broker.onStatusesWritten(List.of(status("meter-1", 0)));
+
+    assertThat(polled.get(5, TimeUnit.SECONDS)).hasSize(1);
+  }
+
+  @Test
+  @DisplayName("alerts should be queued in order and wake up a waiting poll")
+  void testAlerts() throws InterruptedException {
+    var subscription = broker.subscribe(Set.of("meter-1"));
+
+    broker.publishAlerts(
+        List.of(alert("meter-1", AlertState.RAISED), alert("meter-2", AlertState.RAISED)));
+    broker.publishAlerts(List.of(alert("meter-1", AlertState.CLEARED)));
+
+    assertThat(subscription.poll(Duration.ofSeconds(10))).isEmpty();
+    assertThat(subscription.takeAlerts())
+        .extracting(Alert::state)
+        .containsExactly(AlertState.RAISED, AlertState.CLEARED);
+    assertThat(subscription.takeAlerts()).isEmpty();
+  }
+
+  private static Alert alert(String meterId, AlertState state) {
+    return new Alert(null, meterId, "LW-1", "lowBattery", "batteryLevel", state, 10, T0);
+  }
+
+  @Test
+  @DisplayName("closing a subscription should unsubscribe it")
+  void testClose() throws InterruptedException {
+    var subscription = broker.subscribe(Set.of("meter-1"));
+    assertThat(broker.subscriberCount()).isEqualTo(1);
+
+    subscription.close();
+    broker.onStatusesWritten(List.of(status("meter-1", 0)));
+
+    assertThat(broker.subscriberCount()).isZero();
+    assertThat(subscription.isClosed()).isTrue();
+    assertThat(subscription.poll(Duration.ofSeconds(1))).isEmpty();
+  }
+}
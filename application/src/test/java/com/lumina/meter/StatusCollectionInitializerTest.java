@@ -0,0 +1,116 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.lumina.meter.model.Status;
+import java.util.List;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+public class StatusCollectionInitializerTest {
+
+  private final MongoTemplate mongoTemplate = mock(MongoTemplate.class, RETURNS_DEEP_STUBS);
+
+  @Test
+  @DisplayName("regular mode should create a plain collection with the compound index")
+  void testCreatesRegularCollection() {
+    when(mongoTemplate.collectionExists("meterStatus")).thenReturn(false);
+
+    new StatusCollectionInitializer(mongoTemplate, false, "seconds", false, false, 100)
+        .afterPropertiesSet();
+
+    verify(mongoTemplate).createCollection(Status.class);
+    var index = ArgumentCaptor.forClass(IndexDefinition.class);
+    verify(mongoTemplate.indexOps("meterStatus")).ensureIndex(index.capture());
+    assertThat(index.getValue().getIndexKeys())
+        .isEqualTo(new Document("meterId", 1).append("timestamp", 1).append("_id", 1));
+  }
+
+  @Test
+  @DisplayName("the single-field indexes of earlier versions should be dropped")
+  void testDropsLegacyIndexes() {
+    when(mongoTemplate.collectionExists("meterStatus")).thenReturn(true);
+    IndexOperations indexOps = mongoTemplate.indexOps("meterStatus");
+    when(indexOps.getIndexInfo())
+        .thenReturn(
+            List.of(
+                index("_id_", "_id"),
+                index("meterId", "meterId"),
+                index("timestamp", "timestamp"),
+                new IndexInfo(
+                    List.of(
+                        IndexField.create("meterId", Sort.Direction.ASC),
+                        IndexField.create("timestamp", Sort.Direction.ASC),
+                        IndexField.create("_id", Sort.Direction.ASC)),
+                    "meterId_timestamp_id",
+                    false,
+                    false,
+                    null)));
+
+    new StatusCollectionInitializer(mongoTemplate, false, "seconds", false, false, 100)
+        .afterPropertiesSet();
+
+    verify(indexOps).dropIndex("meterId");
+    verify(indexOps).dropIndex("timestamp");
+    verify(indexOps, times(2)).dropIndex(anyString());
+  }
+
+  private static IndexInfo index(String name, String field) {
+    return new IndexInfo(
+        List.of(IndexField.create(field, Sort.Direction.ASC)), name, false, false, null);
+  }
+
+  @Test
+  @DisplayName("time-series mode should create a time-series collection when none exists")
+  void testCreatesTimeSeriesCollection() {
+    when(mongoTemplate.getDb().listCollections().filter(any(Bson.class)).first()).thenReturn(null);
+
+    new StatusCollectionInitializer(mongoTemplate, true, "minutes", false, false, 100)
+        .afterPropertiesSet();
+
+    var options = ArgumentCaptor.forClass(CollectionOptions.class);
+    verify(mongoTemplate).createCollection(eq("meterStatus"), options.capture());
+    var timeSeries = options.getValue().getTimeSeriesOptions().orElseThrow();
+    assertThat(timeSeries.getTimeField()).isEqualTo("timestamp");
+    assertThat(timeSeries.getMetaField()).isEqualTo("meterId");
+  }
+
+  @Test
+  @DisplayName("time-series mode should leave an existing regular collection alone without migrate")
+  void testDoesNotMigrateWithoutOptIn() {
+    when(mongoTemplate.getDb().listCollections().filter(any(Bson.class)).first())
+        .thenReturn(new Document("name", "meterStatus").append("type", "collection"));
+
+    new StatusCollectionInitializer(mongoTemplate, true, "seconds", false, false, 100)
+        .afterPropertiesSet();
+
+    verify(mongoTemplate, never()).createCollection(anyString(), any(CollectionOptions.class));
+    verify(mongoTemplate, never()).getCollection(anyString());
+  }
+
+  @Test
+  @DisplayName("time-series mode should not migrate unless writes are frozen")
+  void testDoesNotMigrateWhileOthersWrite() {
+    when(mongoTemplate.getDb().listCollections().filter(any(Bson.class)).first())
+        .thenReturn(new Document("name", "meterStatus").append("type", "collection"));
+
+    new StatusCollectionInitializer(mongoTemplate, true, "seconds", true, false, 100)
+        .afterPropertiesSet();
+
+    verify(mongoTemplate, never()).createCollection(anyString(), any(CollectionOptions.class));
+    verify(mongoTemplate, never()).getCollection(anyString());
+  }
+}
@@ -0,0 +1,278 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.lumina.catalogue.model.ValidationStage;
+import com.lumina.meter.model.BulkStatusResult;
+import com.lumina.meter.model.MeterSnapshot;
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusAggregate;
+import com.lumina.meter.model.StatusAggregate.FieldStats;
+import com.lumina.meter.model.StatusBuilder;
+import com.lumina.meter.model.TimeBucket;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@WebMvcTest(StatusController.class)
+@AutoConfigureMockMvc(addFilters = false)
+public class StatusControllerTest {
+
+  private static final Instant START = Instant.parse("2025-11-23T00:00:00Z");
+  private static final Instant END = Instant.parse("2025-11-23T23:59:59Z");
+
+  @Autowired private MockMvc mockMvc;
+
+  @MockitoBean private StatusService statusService;
+
+  @MockitoBean private StatusAggregationService aggregationService;
+
+  @MockitoBean private StatusSnapshotService snapshotService;
+
+  @MockitoBean private StatusBroker statusBroker;
+
+  @MockitoBean private MeterScopeResolver scopeResolver;
+
+  private static Status status(String id, String timestamp) {
+    return StatusBuilder.builder()
+        .id(id)
+        .meterId("meter-1")
+        .timestamp(Instant.parse(timestamp))
+        .data(Map.of("batteryLevel", 80))
+        .build();
+  }
+
+  @Test
+  @DisplayName("POST /api/meter/status/{meterId} should answer 201 when the sample is stored")
+  void testIngestStored() throws Exception {
+    when(statusService.createStatus(eq("meter-1"), anyMap()))
+        .thenReturn(status("status-1", "2025-11-23T10:00:00Z"));
+
+    mockMvc
+        .perform(
+            post("/api/meter/status/meter-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"batteryLevel\":80}"))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.id").value("status-1"));
+  }
+
+  @Test
+  @DisplayName("POST /api/meter/status/{meterId} should answer 202 when the sample is queued")
+  void testIngestQueued() throws Exception {
+    when(statusService.createStatus(eq("meter-1"), anyMap()))
+        .thenReturn(status("status-1", "2025-11-23T10:00:00Z"));
+    when(statusService.isWriteBehind()).thenReturn(true);
+
+    mockMvc
+        .perform(
+            post("/api/meter/status/meter-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"batteryLevel\":80}"))
+        .andExpect(status().isAccepted());
+  }
+
+  @Test
+  @DisplayName("POST /api/meter/status/bulk should report the outcome of every sample")
+  void testBulkIngest() throws Exception {
+    var accepted = status("status-1", "2025-11-23T10:00:00Z");
+    when(statusService.createStatuses(anyList()))
+        .thenReturn(
+            new BulkStatusResult(
+                List.of(new BulkStatusResult.Accepted(0, accepted)),
+                List.of(new BulkStatusResult.Rejection(1, "meter-2", "unknown"))));
+
+    mockMvc
+        .perform(
+            post("/api/meter/status/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    """
+                    [{"meterId":"meter-1","data":{"batteryLevel":80}},
+                     {"meterId":"meter-2","data":{"batteryLevel":70}}]
+                    """))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.accepted").value(1))
+        .andExpect(jsonPath("$.rejected").value(1))
+        .andExpect(jsonPath("$.items[0].id").value("status-1"))
+        .andExpect(jsonPath("$.items[1].reason").value("unknown"));
+  }
+
+  @Test
+  @DisplayName("GET /api/meter/status/{meterId} as NDJSON should stream one record per line")
+  void testNdjsonStream() throws Exception {
+    when(statusService.getStatusStream("meter-1", START, END))
+        .thenReturn(
+            Stream.of(
+                status("status-1", "2025-11-23T10:00:00Z"),
+                status("status-2", "2025-11-23T11:00:00Z")));
+
+    MvcResult result =
+        mockMvc
+            .perform(
+                get("/api/meter/status/meter-1")
+                    .param("startTime", START.toString())
+                    .param("endTime", END.toString())
+                    .accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    String body =
+        mockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    assertThat(body.lines())
+        .hasSize(2)
+        .allMatch(line -> line.startsWith("{\"id\":\"status-"));
+  }
+
+  @Test
+  @DisplayName("GET /api/meter/status/{meterId} with an inverted range should return 400")
+  void testInvertedRange() throws Exception {
+    mockMvc
+        .perform(
+            get("/api/meter/status/meter-1")
+                .param("startTime", END.toString())
+                .param("endTime", START.toString()))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @DisplayName("GET /api/meter/status/{meterId}/aggregate should report the requested functions")
+  void testAggregate() throws Exception {
+    when(aggregationService.aggregate(
+            eq("meter-1"),
+            eq(START),
+            eq(END),
+            eq(TimeBucket.parse("1h")),
+            eq(ZoneId.of("Europe/London")),
+            eq(List.of("power"))))
+        .thenReturn(
+            List.of(
+                new StatusAggregate(
+                    START, 3, Map.of("power", new FieldStats(2, 10.0, 4.0, 6.0)))));
+
+    mockMvc
+        .perform(
+            get("/api/meter/status/meter-1/aggregate")
+                .param("startTime", START.toString())
+                .param("endTime", END.toString())
+                .param("bucket", "1h")
+                .param("fields", "power")
+                .param("fn", "avg,max")
+                .param("timezone", "Europe/London"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].samples").value(3))
+        .andExpect(jsonPath("$[0].values.power.avg").value(5.0))
+        .andExpect(jsonPath("$[0].values.power.max").value(6.0))
+        .andExpect(jsonPath("$[0].values.power.min").doesNotExist());
+  }
+
+  @Test
+  @DisplayName("GET /api/meter/status/{meterId}/aggregate with an unknown function returns 400")
+  void testAggregateUnknownFunction() throws Exception {
+    mockMvc
+        .perform(
+            get("/api/meter/status/meter-1/aggregate")
+                .param("startTime", START.toString())
+                .param("endTime", END.toString())
+                .param("bucket", "1h")
+                .param("fields", "power")
+                .param("fn", "median"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @DisplayName("GET /api/meter/status/snapshot should stream one line per meter")
+  void testSnapshot() throws Exception {
+    when(snapshotService.snapshot(null, "project-1", null, null, ValidationStage.Deployment))
+        .thenReturn(
+            Stream.of(
+                new MeterSnapshot(
+                    "meter-1",
+                    "location-1",
+                    "LW-1",
+                    ValidationStage.Deployment,
+                    status("status-1", "2025-11-23T10:00:00Z")),
+                new MeterSnapshot(
+                    "meter-2", "location-1", "LW-1", ValidationStage.Deployment, null)));
+
+    MvcResult result =
+        mockMvc
+            .perform(
+                get("/api/meter/status/snapshot")
+                    .param("projectId", "project-1")
+                    .param("stage", "Deployment"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    String body =
+        mockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    assertThat(body.lines()).hasSize(2);
+    assertThat(body.lines().toList().get(0)).contains("\"id\":\"status-1\"");
+    assertThat(body.lines().toList().get(1)).contains("\"latest\":null");
+  }
+
+  @Test
+  @DisplayName("GET /api/meter/status/live should reject filters that select no meters")
+  void testLiveRequiresMeters() throws Exception {
+    when(scopeResolver.meterIds("client-1", null, null)).thenReturn(Set.of());
+
+    mockMvc
+        .perform(get("/api/meter/status/live").param("clientId", "client-1"))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(get("/api/meter/status/live")).andExpect(status().isBadRequest());
+    verify(statusBroker, never()).subscribe(anyCollection());
+  }
+
+  @Test
+  @DisplayName("GET /api/meter/status/live should not be cut off by the async request timeout")
+  void testLiveHasNoTimeout() throws Exception {
+    var subscription = mock(StatusBroker.Subscription.class);
+    when(subscription.isClosed()).thenReturn(true);
+    when(scopeResolver.meterIds("client-1", null, null)).thenReturn(Set.of("meter-1"));
+    when(statusBroker.subscribe(Set.of("meter-1"))).thenReturn(subscription);
+
+    MvcResult result =
+        mockMvc
+            .perform(get("/api/meter/status/live").param("clientId", "client-1"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    assertThat(result.getRequest().getAsyncContext().getTimeout()).isZero();
+  }
+}
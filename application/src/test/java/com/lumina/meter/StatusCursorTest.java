@@ -0,0 +1,36 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.lumina.BadRequestException;
+import java.time.Instant;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+public class StatusCursorTest {
+
+  @Test
+  @DisplayName("a cursor should survive an encode/decode round trip")
+  void testRoundTrip() {
+    var cursor =
+        new StatusCursor(
+            Sort.Direction.DESC, Instant.parse("2025-11-23T10:15:30.123456789Z"), new ObjectId());
+
+    var decoded = StatusCursor.decode(cursor.encode());
+
+    assertThat(decoded).isEqualTo(cursor);
+    assertThat(cursor.encode()).doesNotContain("=", "+", "/");
+  }
+
+  @Test
+  @DisplayName("decode() should reject malformed tokens")
+  void testRejectsMalformedTokens() {
+    assertThatThrownBy(() -> StatusCursor.decode("not a cursor"))
+        .isInstanceOf(BadRequestException.class);
+    assertThatThrownBy(() -> StatusCursor.decode("QUJD"))
+        .isInstanceOf(BadRequestException.class);
+  }
+}
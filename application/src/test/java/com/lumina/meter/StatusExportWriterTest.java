@@ -0,0 +1,205 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lumina.catalogue.model.MeterType;
+import com.lumina.meter.model.ExportFormat;
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusBuilder;
+import com.lumina.meter.model.Telemetry;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StatusExportWriterTest {
+
+  private static final Instant START = Instant.parse("2025-11-23T10:00:00Z");
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private static Status sample(
+      String meterId, Instant timestamp, Telemetry telemetry, Map<String, Object> data) {
+    return StatusBuilder.builder()
+        .id("id")
+        .meterId(meterId)
+        .timestamp(timestamp)
+        .telemetry(telemetry)
+        .data(data)
+        .build();
+  }
+
+  private static Telemetry lorawan(double battery, double signal) {
+    return Telemetry.of(
+        MeterType.LORAWAN,
+        field ->
+            switch (field) {
+              case BATTERY_LEVEL -> battery;
+              case SIGNAL_STRENGTH -> signal;
+              default -> Double.NaN;
+            });
+  }
+
+  private byte[] export(ExportFormat format, int rowGroupSize, List<Status> statuses)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (StatusExportWriter writer =
+        StatusExportWriter.open(format, out, objectMapper, rowGroupSize)) {
+      for (Status status : statuses) {
+        writer.write(status);
+      }
+    }
+    return out.toByteArray();
+  }
+
+  @Test
+  @DisplayName("CSV export should gzip one line per status with typed columns and extra data")
+  void testCsv() throws IOException {
+    Map<String, Object> data = new LinkedHashMap<>();
+    data.put("temperature", 21.5);
+    data.put("note", "door \"A\", left");
+    byte[] file =
+        export(
+            ExportFormat.CSV,
+            10,
+            List.of(
+                sample("meter-1", START, lorawan(87.5, -95), null),
+                sample("meter-2", START.plusSeconds(60), null, data)));
+
+    String csv;
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(file))) {
+      csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    List<String> lines = csv.lines().toList();
+
+    assertThat(lines).hasSize(3);
+    assertThat(lines.get(0))
+        .isEqualTo(
+            "meterId,timestamp,batteryLevel,signalStrength,temperature,humidity,snr,"
+                + "spreadingFactor,frameCounter,registerCount,errorCount,data");
+    assertThat(lines.get(1)).isEqualTo("meter-1,2025-11-23T10:00:00Z,87.5,-95,,,,,,,,");
+    assertThat(lines.get(2))
+        .isEqualTo(
+            "meter-2,2025-11-23T10:01:00Z,,,21.5,,,,,,,\"{\"\"note\"\":\"\"door"
+                + " \\\"\"A\\\"\", left\"\"}\"");
+  }
+
+  @Test
+  @DisplayName("Parquet export should frame the row groups with the magic and a footer")
+  void testParquet() throws IOException {
+    List<Status> statuses =
+        IntStream.range(0, 25)
+            .mapToObj(
+                i ->
+                    sample(
+                        "meter-" + (i % 3),
+                        START.plusSeconds(i * 60L),
+                        i % 5 == 0 ? null : lorawan(90 - i, -100 + i),
+                        i % 5 == 0 ? Map.of("firmware", "1.2") : null))
+            .toList();
+    byte[] file = export(ExportFormat.PARQUET, 10, statuses);
+
+    byte[] magic = "PAR1".getBytes(StandardCharsets.US_ASCII);
+    assertThat(Arrays.copyOfRange(file, 0, 4)).isEqualTo(magic);
+    assertThat(Arrays.copyOfRange(file, file.length - 4, file.length)).isEqualTo(magic);
+
+    int footerLength =
+        ByteBuffer.wrap(file, file.length - 8, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+    assertThat(footerLength).isPositive().isLessThan(file.length - 12);
+    String footer =
+        new String(
+            file, file.length - 8 - footerLength, footerLength, StandardCharsets.ISO_8859_1);
+    assertThat(footer).contains("meterId", "timestamp", "batteryLevel", "errorCount", "data");
+  }
+
+  @Test
+  @DisplayName("Parquet export should read back row for row in an independent reader")
+  void testParquetRoundTrip(@TempDir Path dir) throws Exception {
+    List<Status> statuses =
+        IntStream.range(0, 25)
+            .mapToObj(
+                i ->
+                    sample(
+                        "meter-" + (i % 3),
+                        START.plusSeconds(i * 60L),
+                        i % 5 == 0 ? null : lorawan(90.5 - i, -100 + i),
+                        i % 5 == 0 ? Map.of("firmware", "1.2") : null))
+            .toList();
+    Path file = dir.resolve("statuses.parquet");
+    Files.write(file, export(ExportFormat.PARQUET, 10, statuses));
+
+    List<List<Object>> rows = new ArrayList<>();
+    try (Connection connection = DriverManager.getConnection("jdbc:duckdb:");
+        Statement statement = connection.createStatement();
+        ResultSet result =
+            statement.executeQuery(
+                """
+                SELECT meterId, epoch_ms("timestamp"), batteryLevel, signalStrength, errorCount,
+                       CAST(data AS VARCHAR)
+                FROM read_parquet('%s')
+                """
+                    .formatted(file))) {
+      while (result.next()) {
+        rows.add(
+            Arrays.asList(
+                result.getString(1),
+                result.getLong(2),
+                result.getObject(3),
+                result.getObject(4),
+                result.getObject(5),
+                result.getString(6)));
+      }
+    }
+
+    List<List<Object>> expected =
+        IntStream.range(0, 25)
+            .mapToObj(
+                i ->
+                    Arrays.<Object>asList(
+                        "meter-" + (i % 3),
+                        START.plusSeconds(i * 60L).toEpochMilli(),
+                        i % 5 == 0 ? null : 90.5 - i,
+                        i % 5 == 0 ? null : -100L + i,
+                        null,
+                        i % 5 == 0 ? "{\"firmware\":\"1.2\"}" : null))
+            .toList();
+    assertThat(rows).containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  @DisplayName("Parquet definition levels should be written as RLE runs")
+  void testDefinitionLevels() {
+    boolean[] defined = new boolean[300];
+    Arrays.fill(defined, 0, 200, true);
+    ParquetStatusWriter.Bytes target = new ParquetStatusWriter.Bytes();
+
+    ParquetStatusWriter.encodeDefinitionLevels(defined, defined.length, target);
+
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    // 200 present: header 400 as a varint, then the value
+    expected.writeBytes(new byte[] {(byte) 0x90, 0x03, 1});
+    // 100 absent: header 200 as a varint, then the value
+    expected.writeBytes(new byte[] {(byte) 0xC8, 0x01, 0});
+    assertThat(target.toByteArray()).isEqualTo(expected.toByteArray());
+  }
+}
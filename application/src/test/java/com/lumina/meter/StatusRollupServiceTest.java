@@ -0,0 +1,192 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.*;
+
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusBuilder;
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.ReplaceOneModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+@ExtendWith(MockitoExtension.class)
+public class StatusRollupServiceTest {
+
+  private static final Instant HOUR = Instant.parse("2025-11-23T10:00:00Z");
+
+  @Mock private MongoTemplate mongoTemplate;
+  @Mock private MongoCollection<Document> collection;
+  @Mock private AggregateIterable<Document> aggregateIterable;
+
+  private StatusRollupService rollupService;
+
+  @BeforeEach
+  void setup() {
+    rollupService = newService(Duration.ofDays(30));
+  }
+
+  private StatusRollupService newService(Duration rawRetention) {
+    return newService(rawRetention, false);
+  }
+
+  private StatusRollupService newService(Duration rawRetention, boolean blocks) {
+    return new StatusRollupService(
+        mongoTemplate,
+        mock(StatusCollectionInitializer.class),
+        new SimpleMeterRegistry(),
+        Duration.ofMinutes(5),
+        24,
+        rawRetention,
+        Duration.ofDays(400),
+        Duration.ZERO,
+        blocks);
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Document> captureChunk(RollupTier tier, String source) {
+    when(mongoTemplate.getCollection(source)).thenReturn(collection);
+    var captor = ArgumentCaptor.forClass(List.class);
+    when(collection.aggregate(captor.capture())).thenReturn(aggregateIterable);
+    when(aggregateIterable.allowDiskUse(anyBoolean())).thenReturn(aggregateIterable);
+
+    rollupService.rollUpChunk(tier, HOUR, HOUR.plus(tier.chunk()));
+
+    verify(aggregateIterable).toCollection();
+    return captor.getValue();
+  }
+
+  @Test
+  @DisplayName("the minute tier should be rolled up from raw samples and merged by bucket id")
+  void testMinuteChunk() {
+    List<Document> pipeline = captureChunk(RollupTier.MINUTE, "meterStatus");
+
+    var range = pipeline.get(0).get("$match", Document.class).get("timestamp", Document.class);
+    assertThat(range)
+        .containsEntry("$gte", Date.from(HOUR))
+        .containsEntry("$lt", Date.from(HOUR.plusSeconds(3600)));
+    var group = pipeline.get(1).get("$group", Document.class);
+    assertThat(group.get("samples")).isEqualTo(new Document("$sum", 1));
+    assertThat(group).containsKeys("count_batteryLevel", "max_errorCount");
+    var project = pipeline.get(2).get("$project", Document.class);
+    assertThat(project).containsKeys("_id", "meterId", "bucketStart", "fields.batteryLevel");
+    assertThat(pipeline.get(3).get("$merge", Document.class))
+        .containsEntry("into", "meterStatus_1m")
+        .containsEntry("on", "_id")
+        .containsEntry("whenMatched", "replace");
+  }
+
+  @Test
+  @DisplayName("the hour tier should combine the statistics of the minute tier")
+  void testHourChunk() {
+    List<Document> pipeline = captureChunk(RollupTier.HOUR, "meterStatus_1m");
+
+    assertThat(pipeline.get(0).get("$match", Document.class)).containsKey("bucketStart");
+    var group = pipeline.get(1).get("$group", Document.class);
+    assertThat(group.get("samples")).isEqualTo(new Document("$sum", "$samples"));
+    assertThat(group.get("min_batteryLevel"))
+        .isEqualTo(new Document("$min", "$fields.batteryLevel.min"));
+    assertThat(pipeline.get(3).get("$merge", Document.class))
+        .containsEntry("into", "meterStatus_1h");
+  }
+
+  @Test
+  @DisplayName("the minute tier should rebuild the buckets of meters with sealed samples")
+  @SuppressWarnings("unchecked")
+  void testMinuteChunkWithBlocks() {
+    rollupService = newService(Duration.ofDays(30), true);
+    var block =
+        StatusBlockCodec.encode(
+            "meter-1",
+            Instant.parse("2025-11-23T00:00:00Z"),
+            List.of(
+                sample(HOUR.minusSeconds(50), 10),
+                sample(HOUR.plusSeconds(10), 80),
+                sample(HOUR.plusSeconds(70), 40)));
+    MongoCollection<Document> blocks = mock(MongoCollection.class);
+    FindIterable<Document> found = mock(FindIterable.class);
+    MongoCursor<Document> cursor = mock(MongoCursor.class);
+    when(mongoTemplate.getCollection("meterStatusBlock")).thenReturn(blocks);
+    when(blocks.find(any(Bson.class))).thenReturn(found);
+    when(found.sort(any())).thenReturn(found);
+    when(found.iterator()).thenReturn(cursor);
+    when(cursor.hasNext()).thenReturn(true, false);
+    when(cursor.next()).thenReturn(block);
+    when(mongoTemplate.stream(any(Query.class), eq(Status.class)))
+        .thenReturn(Stream.of(sample(HOUR.plusSeconds(20), 60)));
+    MongoCollection<Document> minutes = mock(MongoCollection.class);
+    when(mongoTemplate.getCollection("meterStatus_1m")).thenReturn(minutes);
+
+    captureChunk(RollupTier.MINUTE, "meterStatus");
+
+    var writes = ArgumentCaptor.forClass(List.class);
+    verify(minutes).bulkWrite(writes.capture(), any(BulkWriteOptions.class));
+    List<ReplaceOneModel<Document>> rollups = writes.getValue();
+    assertThat(rollups).hasSize(2);
+    var first = rollups.getFirst().getReplacement();
+    assertThat(first)
+        .containsEntry("_id", "meter-1:" + HOUR.toEpochMilli())
+        .containsEntry("bucketStart", Date.from(HOUR))
+        .containsEntry("samples", 2L);
+    assertThat(first.get("fields", Document.class).get("batteryLevel", Document.class))
+        .containsEntry("count", 2L)
+        .containsEntry("sum", 140.0)
+        .containsEntry("min", 60.0)
+        .containsEntry("max", 80.0);
+    assertThat(rollups.getLast().getReplacement())
+        .containsEntry("bucketStart", Date.from(HOUR.plusSeconds(60)))
+        .containsEntry("samples", 1L);
+  }
+
+  private static Status sample(Instant timestamp, int batteryLevel) {
+    return StatusBuilder.builder()
+        .id(new ObjectId().toHexString())
+        .meterId("meter-1")
+        .timestamp(timestamp)
+        .data(Map.of("batteryLevel", batteryLevel))
+        .build();
+  }
+
+  @Test
+  @DisplayName("raw samples must be kept until the minute tier has rolled them up")
+  void testRejectsShortRetention() {
+    assertThatThrownBy(() -> newService(Duration.ofMinutes(30)))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("raw retention");
+    assertThat(newService(Duration.ZERO).rawRetention()).isZero();
+  }
+
+  @Test
+  @DisplayName("tiers should align buckets to their own width")
+  void testAlignment() {
+    Instant instant = Instant.parse("2025-11-23T10:17:42.5Z");
+
+    assertThat(RollupTier.MINUTE.alignDown(instant)).isEqualTo("2025-11-23T10:17:00Z");
+    assertThat(RollupTier.MINUTE.alignUp(instant)).isEqualTo("2025-11-23T10:18:00Z");
+    assertThat(RollupTier.HOUR.alignDown(instant)).isEqualTo(HOUR);
+    assertThat(RollupTier.HOUR.alignUp(HOUR)).isEqualTo(HOUR);
+  }
+}
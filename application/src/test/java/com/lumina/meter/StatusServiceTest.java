@@ -0,0 +1,299 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.lumina.BadRequestException;
+import com.lumina.meter.model.BulkStatusResult;
+import com.lumina.meter.model.DataPoint;
+import com.lumina.meter.model.DownsampleMode;
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusBuilder;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+@ExtendWith(MockitoExtension.class)
+public class StatusServiceTest {
+
+  @Mock private StatusRepository statusRepository;
+
+  @Mock private MeterIdIndex meterIdIndex;
+
+  @Mock private StatusBatchWriter batchWriter;
+
+  @Mock private TelemetryMapper telemetryMapper;
+
+  @Mock private LatestStatusCache latestStatusCache;
+
+  @Mock private MongoTemplate mongoTemplate;
+
+  private StatusService statusService;
+
+  @BeforeEach
+  void setup() {
+    statusService = newService(Optional.empty());
+    lenient().when(telemetryMapper.toTyped(any(Status.class))).thenAnswer(returnsFirstArg());
+  }
+
+  private StatusService newService(Optional<StatusWriteBehindQueue> queue) {
+    return newService(queue, Optional.empty());
+  }
+
+  private StatusService newService(
+      Optional<StatusWriteBehindQueue> queue, Optional<StatusBlockStore> blockStore) {
+    return new StatusService(
+        statusRepository,
+        meterIdIndex,
+        batchWriter,
+        telemetryMapper,
+        latestStatusCache,
+        List.of(latestStatusCache),
+        mongoTemplate,
+        queue,
+        blockStore,
+        3,
+        2,
+        5);
+  }
+
+  private static Status sample(String meterId) {
+    return StatusBuilder.builder()
+        .meterId(meterId)
+        .timestamp(Instant.parse("2025-11-23T10:00:00Z"))
+        .data(Map.of("batteryLevel", 80))
+        .build();
+  }
+
+  @Test
+  @DisplayName("createStatuses() should check meter ids once and reject unknown meters")
+  void testCreateStatusesRejectsUnknownMeters() {
+    when(meterIdIndex.retainExisting(anyCollection())).thenReturn(Set.of("meter-1"));
+    when(batchWriter.insertUnordered(anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<Status> batch = invocation.getArgument(0);
+              return new StatusBatchWriter.Outcome(batch, Map.of());
+            });
+
+    BulkStatusResult result =
+        statusService.createStatuses(
+            List.of(sample("meter-1"), sample("meter-2"), sample("meter-1")));
+
+    assertThat(result.accepted())
+        .extracting(BulkStatusResult.Accepted::index)
+        .containsExactly(0, 2);
+    assertThat(result.rejected()).extracting(BulkStatusResult.Rejection::index).containsExactly(1);
+    assertThat(result.rejected().getFirst().meterId()).isEqualTo("meter-2");
+    verify(meterIdIndex, times(1)).retainExisting(anyCollection());
+    verify(batchWriter, times(1)).insertUnordered(anyList());
+  }
+
+  @Test
+  @DisplayName("createStatuses() should report write failures against the original request index")
+  void testCreateStatusesReportsWriteFailures() {
+    when(meterIdIndex.retainExisting(anyCollection())).thenReturn(Set.of("meter-1"));
+    when(batchWriter.insertUnordered(anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<Status> batch = invocation.getArgument(0);
+              return new StatusBatchWriter.Outcome(batch, Map.of(1, "duplicate key"));
+            });
+
+    BulkStatusResult result =
+        statusService.createStatuses(List.of(sample(null), sample("meter-1"), sample("meter-1")));
+
+    assertThat(result.accepted()).extracting(BulkStatusResult.Accepted::index).containsExactly(1);
+    assertThat(result.rejected())
+        .extracting(BulkStatusResult.Rejection::index, BulkStatusResult.Rejection::reason)
+        .containsExactlyInAnyOrder(
+            tuple(0, "meterId is required"), tuple(2, "duplicate key"));
+  }
+
+  @Test
+  @DisplayName("createStatuses() should refuse batches above the configured maximum")
+  void testCreateStatusesRejectsOversizedBatch() {
+    var samples = List.of(sample("a"), sample("b"), sample("c"), sample("d"));
+
+    assertThatThrownBy(() -> statusService.createStatuses(samples))
+        .isInstanceOf(BadRequestException.class);
+    verifyNoInteractions(meterIdIndex, batchWriter);
+  }
+
+  @Test
+  @DisplayName("createStatus() should queue the sample with an id when write-behind is enabled")
+  void testCreateStatusWriteBehind() {
+    var queue = mock(StatusWriteBehindQueue.class);
+    statusService = newService(Optional.of(queue));
+    when(meterIdIndex.contains("meter-1")).thenReturn(true);
+
+    Status result = statusService.createStatus("meter-1", Map.of("batteryLevel", 80));
+
+    assertThat(result.id()).isNotNull();
+    verify(queue).offer(result);
+    verify(statusRepository, never()).save(any(Status.class));
+  }
+
+  private static Status sampleWithId(String timestamp) {
+    return StatusBuilder.builder()
+        .id(new ObjectId().toHexString())
+        .meterId("meter-1")
+        .timestamp(Instant.parse(timestamp))
+        .data(Map.of())
+        .build();
+  }
+
+  @Test
+  @DisplayName("getStatusPage() should fetch one extra record and return a next-page cursor")
+  void testGetStatusPage() {
+    var first = sampleWithId("2025-11-23T10:00:00Z");
+    var second = sampleWithId("2025-11-23T11:00:00Z");
+    var third = sampleWithId("2025-11-23T12:00:00Z");
+    var query = ArgumentCaptor.forClass(Query.class);
+    when(mongoTemplate.find(query.capture(), eq(Status.class)))
+        .thenReturn(List.of(first, second, third))
+        .thenReturn(List.of(third));
+    Instant start = Instant.parse("2025-11-23T00:00:00Z");
+    Instant end = Instant.parse("2025-11-24T00:00:00Z");
+
+    var page = statusService.getStatusPage("meter-1", start, end, 2, Sort.Direction.ASC, null);
+
+    assertThat(page.items()).containsExactly(first, second);
+    assertThat(page.nextCursor()).isNotNull();
+    assertThat(query.getValue().getLimit()).isEqualTo(3);
+
+    String cursor = page.nextCursor();
+    var next = statusService.getStatusPage("meter-1", start, end, 2, Sort.Direction.ASC, cursor);
+
+    assertThat(next.items()).containsExactly(third);
+    assertThat(next.nextCursor()).isNull();
+    assertThat(query.getValue().getQueryObject().get("timestamp"))
+        .isEqualTo(new Document("$gte", second.timestamp()).append("$lte", end));
+  }
+
+  @Test
+  @DisplayName("getStatusPage() should merge sealed samples into the page after the cursor")
+  void testGetStatusPageWithBlocks() {
+    var blockStore = mock(StatusBlockStore.class);
+    statusService = newService(Optional.empty(), Optional.of(blockStore));
+    var first = sampleWithId("2025-11-23T10:00:00Z");
+    var second = sampleWithId("2025-11-23T11:00:00Z");
+    var third = sampleWithId("2025-11-23T12:00:00Z");
+    var fourth = sampleWithId("2025-11-23T13:00:00Z");
+    Instant start = Instant.parse("2025-11-23T00:00:00Z");
+    Instant end = Instant.parse("2025-11-24T00:00:00Z");
+    when(blockStore.stream(eq("meter-1"), any(Instant.class), eq(end), eq(Sort.Direction.ASC)))
+        .thenAnswer(invocation -> Stream.of(first, second, third));
+    when(mongoTemplate.stream(any(Query.class), eq(Status.class)))
+        .thenAnswer(invocation -> Stream.of(fourth));
+
+    var page = statusService.getStatusPage("meter-1", start, end, 2, Sort.Direction.ASC, null);
+    var next =
+        statusService.getStatusPage(
+            "meter-1", start, end, 2, Sort.Direction.ASC, page.nextCursor());
+
+    assertThat(page.items()).containsExactly(first, second);
+    assertThat(next.items()).containsExactly(third, fourth);
+    assertThat(next.nextCursor()).isNull();
+    verify(mongoTemplate, never()).find(any(Query.class), eq(Status.class));
+  }
+
+  @Test
+  @DisplayName("getStatusPage() should reject a cursor issued for the opposite order")
+  void testGetStatusPageRejectsMismatchedCursor() {
+    var cursor = new StatusCursor(Sort.Direction.DESC, Instant.now(), new ObjectId()).encode();
+
+    assertThatThrownBy(
+            () ->
+                statusService.getStatusPage(
+                    "meter-1", Instant.EPOCH, Instant.now(), 2, Sort.Direction.ASC, cursor))
+        .isInstanceOf(BadRequestException.class);
+    verifyNoInteractions(mongoTemplate);
+  }
+
+  private static Status reading(Instant timestamp, Map<String, Object> data) {
+    return StatusBuilder.builder().meterId("meter-1").timestamp(timestamp).data(data).build();
+  }
+
+  @Test
+  @DisplayName("getDownsampledStatus() should stream numeric values of the field through LTTB")
+  void testGetDownsampledStatus() {
+    Instant start = Instant.parse("2025-11-23T00:00:00Z");
+    Instant end = start.plusSeconds(5);
+    var statuses =
+        Stream.of(
+            reading(start, Map.of("power", 1)),
+            reading(start.plusSeconds(1), Map.of("power", "n/a")),
+            reading(start.plusSeconds(2), Map.of("power", 9.5)),
+            reading(start.plusSeconds(3), Map.of("other", 3)),
+            reading(end, Map.of("power", 2)));
+    when(statusRepository.findByMeterIdAndTimestampBetween("meter-1", start, end))
+        .thenReturn(statuses);
+
+    var points =
+        statusService.getDownsampledStatus("meter-1", start, end, "power", 3, DownsampleMode.LTTB);
+
+    assertThat(points)
+        .containsExactly(
+            new DataPoint(start, 1),
+            new DataPoint(start.plusSeconds(2), 9.5),
+            new DataPoint(end, 2));
+  }
+
+  @Test
+  @DisplayName("getDownsampledStatus() should reject point counts outside the configured range")
+  void testGetDownsampledStatusRejectsPointCount() {
+    assertThatThrownBy(
+            () ->
+                statusService.getDownsampledStatus(
+                    "meter-1", Instant.EPOCH, Instant.now(), "power", 6, DownsampleMode.LTTB))
+        .isInstanceOf(BadRequestException.class);
+    verifyNoInteractions(statusRepository);
+  }
+
+  @Test
+  @DisplayName("createStatus() should pass the saved status to the listeners")
+  void testCreateStatusNotifiesListeners() {
+    when(meterIdIndex.contains("meter-1")).thenReturn(true);
+    when(statusRepository.save(any(Status.class)))
+        .thenAnswer(
+            invocation ->
+                StatusBuilder.builder(invocation.<Status>getArgument(0)).id("status-1").build());
+
+    Status saved = statusService.createStatus("meter-1", Map.of("batteryLevel", 80));
+
+    verify(latestStatusCache).onStatusesWritten(List.of(saved));
+  }
+
+  @Test
+  @DisplayName("getLatestStatus() should be served by the latest-status cache")
+  void testGetLatestStatusUsesCache() {
+    var latest = sample("meter-1");
+    when(latestStatusCache.get("meter-1")).thenReturn(Optional.of(latest));
+
+    assertThat(statusService.getLatestStatus("meter-1")).contains(latest);
+    verifyNoInteractions(statusRepository);
+  }
+}
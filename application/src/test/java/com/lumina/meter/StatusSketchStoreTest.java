@@ -0,0 +1,201 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusBuilder;
+import com.lumina.meter.model.StatusPercentiles;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.WriteModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Binary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class StatusSketchStoreTest {
+
+  private static final Instant HOUR = Instant.parse("2025-11-23T10:00:00Z");
+  private static final StatusSketchStore.SketchKey METER_1 =
+      new StatusSketchStore.SketchKey("meter-1", "batteryLevel", HOUR.toEpochMilli());
+  private static final StatusSketchStore.SketchKey METER_2 =
+      new StatusSketchStore.SketchKey("meter-2", "batteryLevel", HOUR.toEpochMilli());
+
+  @Mock private MongoTemplate mongoTemplate;
+  @Mock private MongoCollection<Document> collection;
+  @Mock private FindIterable<Document> found;
+
+  private StatusSketchStore store;
+
+  @BeforeEach
+  void setup() {
+    store = new StatusSketchStore(mongoTemplate, new SimpleMeterRegistry(), Duration.ofDays(400));
+    when(mongoTemplate.getCollection(StatusSketchStore.COLLECTION)).thenReturn(collection);
+    when(collection.find(any(Bson.class))).thenReturn(found);
+    when(found.projection(any())).thenReturn(found);
+  }
+
+  private static Status status(String meterId, double batteryLevel) {
+    return StatusBuilder.builder()
+        .meterId(meterId)
+        .timestamp(HOUR.plusSeconds(60))
+        .data(Map.of("batteryLevel", batteryLevel))
+        .build();
+  }
+
+  private static Document stored(String id, double... values) {
+    QuantileSketch sketch = new QuantileSketch();
+    for (double value : values) {
+      sketch.add(value);
+    }
+    return new Document("_id", id).append("sketch", new Binary(sketch.toBytes()));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static MongoCursor<Document> cursor(Document... documents) {
+    var iterator = List.of(documents).iterator();
+    MongoCursor<Document> cursor = mock(MongoCursor.class);
+    lenient().when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+    lenient().when(cursor.next()).thenAnswer(invocation -> iterator.next());
+    return cursor;
+  }
+
+  private static String id(WriteModel<Document> write) {
+    return ((ReplaceOneModel<Document>) write).getReplacement().getString("_id");
+  }
+
+  /** Returns the sketch counts of a bulk write by document id. */
+  private static Map<String, Long> counts(List<WriteModel<Document>> writes) {
+    return writes.stream()
+        .map(write -> ((ReplaceOneModel<Document>) write).getReplacement())
+        .collect(
+            Collectors.toMap(
+                document -> document.getString("_id"), document -> document.getLong("count")));
+  }
+
+  private String idOf(StatusSketchStore.SketchKey key) {
+    return store.documentId(key);
+  }
+
+  @Test
+  @DisplayName("flush() should re-queue only the writes a partly failed bulk write reports")
+  @SuppressWarnings("unchecked")
+  void testFlushRequeuesFailedWrites() {
+    when(found.iterator()).thenReturn(cursor(stored(idOf(METER_1), 10, 20)), cursor());
+    ArgumentCaptor<List<WriteModel<Document>>> writes = ArgumentCaptor.forClass(List.class);
+    when(collection.bulkWrite(writes.capture(), any(BulkWriteOptions.class)))
+        .thenAnswer(
+            invocation -> {
+              // fail the write of meter-2, wherever the unordered batch put it
+              List<WriteModel<Document>> batch = invocation.getArgument(0);
+              int index =
+                  batch.stream().map(StatusSketchStoreTest::id).toList().indexOf(idOf(METER_2));
+              throw new MongoBulkWriteException(
+                  BulkWriteResult.unacknowledged(),
+                  List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), index)),
+                  null,
+                  new ServerAddress(),
+                  Set.of());
+            })
+        .thenReturn(BulkWriteResult.unacknowledged());
+
+    store.onStatusesWritten(List.of(status("meter-1", 30), status("meter-2", 40)));
+    store.flush();
+    store.flush();
+
+    assertThat(counts(writes.getAllValues().get(0))).containsEntry(idOf(METER_1), 3L).hasSize(2);
+    // the applied write of meter-1 is not repeated, and meter-2 keeps its single value
+    assertThat(counts(writes.getAllValues().get(1))).containsExactly(Map.entry(idOf(METER_2), 1L));
+  }
+
+  @Test
+  @DisplayName("flush() should keep every sketch when the stored sketches cannot be read")
+  @SuppressWarnings("unchecked")
+  void testFlushRetriesAfterReadFailure() {
+    when(found.iterator()).thenThrow(new MongoException("timeout")).thenReturn(cursor());
+    ArgumentCaptor<List<WriteModel<Document>>> writes = ArgumentCaptor.forClass(List.class);
+    when(collection.bulkWrite(writes.capture(), any(BulkWriteOptions.class)))
+        .thenReturn(BulkWriteResult.unacknowledged());
+
+    store.onStatusesWritten(List.of(status("meter-1", 30), status("meter-2", 40)));
+    store.flush();
+    verify(collection, never()).bulkWrite(anyList(), any(BulkWriteOptions.class));
+
+    store.onStatusesWritten(List.of(status("meter-1", 35)));
+    store.flush();
+    assertThat(counts(writes.getValue()))
+        .containsOnly(Map.entry(idOf(METER_1), 2L), Map.entry(idOf(METER_2), 1L));
+  }
+
+  @Test
+  @DisplayName("flush() should write each instance's merges to a document of its own")
+  @SuppressWarnings("unchecked")
+  void testFlushWritesOwnDocuments() {
+    var other =
+        new StatusSketchStore(mongoTemplate, new SimpleMeterRegistry(), Duration.ofDays(400));
+    when(found.iterator()).thenReturn(cursor(), cursor());
+    ArgumentCaptor<List<WriteModel<Document>>> writes = ArgumentCaptor.forClass(List.class);
+    when(collection.bulkWrite(writes.capture(), any(BulkWriteOptions.class)))
+        .thenReturn(BulkWriteResult.unacknowledged());
+
+    store.onStatusesWritten(List.of(status("meter-1", 30)));
+    other.onStatusesWritten(List.of(status("meter-1", 40)));
+    store.flush();
+    other.flush();
+
+    assertThat(idOf(METER_1)).isNotEqualTo(other.documentId(METER_1));
+    assertThat(counts(writes.getAllValues().get(0))).containsOnlyKeys(idOf(METER_1));
+    assertThat(counts(writes.getAllValues().get(1))).containsOnlyKeys(other.documentId(METER_1));
+  }
+
+  @Test
+  @DisplayName("percentiles() should merge the stored sketches with values not flushed yet")
+  void testPercentilesMergesPending() {
+    when(found.iterator()).thenReturn(cursor(stored(idOf(METER_1), 10, 20)));
+
+    store.onStatusesWritten(List.of(status("meter-1", 30), status("meter-2", 90)));
+    StatusPercentiles result =
+        store.percentiles(
+            Set.of("meter-1"),
+            "batteryLevel",
+            HOUR,
+            HOUR.plusSeconds(1800),
+            List.of(0.5),
+            false);
+
+    assertThat(result.count()).isEqualTo(3);
+    assertThat(result.min()).isEqualTo(10.0);
+    assertThat(result.max()).isEqualTo(30.0);
+    assertThat(result.percentiles().getFirst().value())
+        .isCloseTo(20.0, within(20 * QuantileSketch.RELATIVE_ACCURACY));
+    assertThat(result.endTime()).isEqualTo(HOUR.plusSeconds(3600));
+    verify(collection, never()).bulkWrite(anyList(), any(BulkWriteOptions.class));
+  }
+}
@@ -0,0 +1,131 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.lumina.catalogue.model.ValidationStage;
+import com.lumina.meter.model.Meter;
+import com.lumina.meter.model.MeterBuilder;
+import com.lumina.meter.model.MeterSnapshot;
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+
+@ExtendWith(MockitoExtension.class)
+public class StatusSnapshotServiceTest {
+
+  private static final Instant T0 = Instant.parse("2025-11-23T10:00:00Z");
+
+  @Mock private MongoTemplate mongoTemplate;
+
+  @Mock private MongoConverter converter;
+
+  @Mock private StatusRepository statusRepository;
+
+  private LatestStatusCache cache;
+  private StatusSnapshotService snapshotService;
+
+  @BeforeEach
+  void setup() {
+    cache =
+        new LatestStatusCache(
+            statusRepository,
+            Optional.empty(),
+            new SimpleMeterRegistry(),
+            100,
+            Duration.ofMinutes(1));
+    snapshotService =
+        new StatusSnapshotService(mongoTemplate, cache, new MeterScopeResolver(mongoTemplate), 2);
+  }
+
+  private static Meter meter(String id) {
+    return MeterBuilder.builder()
+        .id(id)
+        .locationId("location-1")
+        .model("LW-1")
+        .stage(ValidationStage.Deployment)
+        .build();
+  }
+
+  private static Status status(String meterId) {
+    return StatusBuilder.builder().id("s-" + meterId).meterId(meterId).timestamp(T0).build();
+  }
+
+  @Test
+  @DisplayName("snapshot() should combine cached statuses with one aggregation per batch")
+  void testSnapshot() {
+    cache.put(status("m1"));
+    when(mongoTemplate.stream(any(Query.class), eq(Meter.class)))
+        .thenReturn(Stream.of(meter("m1"), meter("m2"), meter("m3")));
+    var aggregations = ArgumentCaptor.forClass(Aggregation.class);
+    when(mongoTemplate.aggregate(aggregations.capture(), eq(Status.class), eq(Document.class)))
+        .thenReturn(
+            new AggregationResults<>(
+                List.of(new Document("_id", "m2").append("latest", new Document("meterId", "m2"))),
+                new Document()))
+        .thenReturn(new AggregationResults<>(List.of(), new Document()));
+    when(mongoTemplate.getConverter()).thenReturn(converter);
+    when(converter.read(eq(Status.class), any(Document.class)))
+        .thenAnswer(invocation -> status(invocation.<Document>getArgument(1).getString("meterId")));
+
+    List<MeterSnapshot> snapshots;
+    try (var stream = snapshotService.snapshot(null, null, null, "LW-1", null)) {
+      snapshots = stream.toList();
+    }
+
+    assertThat(snapshots).extracting(MeterSnapshot::meterId).containsExactly("m1", "m2", "m3");
+    assertThat(snapshots)
+        .extracting(MeterSnapshot::latest)
+        .containsExactly(status("m1"), status("m2"), null);
+    assertThat(aggregations.getAllValues()).hasSize(2);
+    var firstMatch =
+        aggregations.getAllValues().getFirst().toPipeline(Aggregation.DEFAULT_CONTEXT).getFirst();
+    assertThat(firstMatch.toJson()).contains("m2").doesNotContain("m1");
+
+    // the third meter has no status and is now cached as such
+    assertThat(cache.getAll(List.of("m3"), ids -> Map.of())).isEmpty();
+    verifyNoInteractions(statusRepository);
+  }
+
+  @Test
+  @DisplayName("snapshot() should resolve a client to the locations of its projects")
+  void testClientFilter() {
+    when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("project")))
+        .thenReturn(List.of(new Document("_id", "p1")));
+    when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("location")))
+        .thenReturn(List.of(new Document("_id", "l1"), new Document("_id", "l2")));
+    var query = ArgumentCaptor.forClass(Query.class);
+    when(mongoTemplate.stream(query.capture(), eq(Meter.class))).thenReturn(Stream.empty());
+
+    try (var stream = snapshotService.snapshot("c1", null, "l2", null, ValidationStage.Staging)) {
+      assertThat(stream).isEmpty();
+    }
+
+    Document filter = query.getValue().getQueryObject();
+    assertThat(filter.get("locationId", Document.class).get("$in", Collection.class))
+        .containsExactly("l2");
+    assertThat(filter.get("stage")).isEqualTo(ValidationStage.Staging);
+  }
+}
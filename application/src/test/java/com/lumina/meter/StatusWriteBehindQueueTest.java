@@ -0,0 +1,109 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import com.lumina.IngestBackpressureException;
+import com.lumina.IngestUnavailableException;
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class StatusWriteBehindQueueTest {
+
+  private final StatusBatchWriter batchWriter = mock(StatusBatchWriter.class);
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private StatusWriteBehindQueue queue;
+
+  @AfterEach
+  void tearDown() {
+    if (queue != null && queue.isRunning()) {
+      queue.stop();
+    }
+  }
+
+  private StatusWriteBehindQueue queue(int capacity, int batchSize) {
+    return new StatusWriteBehindQueue(
+        batchWriter,
+        registry,
+        capacity,
+        batchSize,
+        Duration.ofMillis(20),
+        1,
+        Duration.ofSeconds(2));
+  }
+
+  private static Status sample(int i) {
+    return StatusBuilder.builder()
+        .id("status-" + i)
+        .meterId("meter-1")
+        .timestamp(Instant.now())
+        .data(Map.of())
+        .build();
+  }
+
+  @Test
+  @DisplayName("queued samples should be flushed in batches no larger than the batch size")
+  void testFlushesInBatches() {
+    when(batchWriter.insertUnordered(anyList()))
+        .thenAnswer(
+            invocation ->
+                new StatusBatchWriter.Outcome(List.copyOf(invocation.getArgument(0)), Map.of()));
+    queue = queue(100, 4);
+    queue.start();
+
+    for (int i = 0; i < 10; i++) {
+      queue.offer(sample(i));
+    }
+    queue.stop();
+
+    assertThat(registry.counter("lumina.status.ingest.written").count()).isEqualTo(10);
+    assertThat(registry.summary("lumina.status.ingest.batch.size").max()).isLessThanOrEqualTo(4);
+    assertThat(queue.depth()).isZero();
+  }
+
+  @Test
+  @DisplayName("offer() should push back with a retry hint when the queue is full")
+  void testBackpressureWhenFull() {
+    queue = queue(2, 10);
+    queue.start();
+    // Park the single writer inside a flush so nothing drains while we fill the queue.
+    when(batchWriter.insertUnordered(anyList()))
+        .thenAnswer(
+            invocation -> {
+              Thread.sleep(500);
+              List<Status> batch = List.copyOf(invocation.getArgument(0));
+              return new StatusBatchWriter.Outcome(batch, Map.of());
+            });
+    queue.offer(sample(0));
+    verify(batchWriter, timeout(1000)).insertUnordered(anyList());
+    queue.offer(sample(1));
+    queue.offer(sample(2));
+
+    assertThatThrownBy(() -> queue.offer(sample(3)))
+        .isInstanceOf(IngestBackpressureException.class)
+        .extracting(e -> ((IngestBackpressureException) e).retryAfter())
+        .isEqualTo(Duration.ofSeconds(2));
+    assertThat(registry.counter("lumina.status.ingest.dropped").count()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("offer() should report that ingest is not running rather than a full queue")
+  void testOfferWhenStopped() {
+    queue = queue(2, 10);
+
+    assertThatThrownBy(() -> queue.offer(sample(0)))
+        .isInstanceOf(IngestUnavailableException.class)
+        .hasMessageContaining("not running");
+    assertThat(queue.depth()).isZero();
+  }
+}
@@ -0,0 +1,153 @@
+package com.lumina.meter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lumina.catalogue.ItemRepository;
+import com.lumina.catalogue.model.CatalogueItemBuilder;
+import com.lumina.catalogue.model.MeterType;
+import com.lumina.meter.model.Status;
+import com.lumina.meter.model.StatusBuilder;
+import com.lumina.meter.model.Telemetry;
+import com.lumina.meter.model.TelemetryField;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TelemetryMapperTest {
+
+  private static Status status(Map<String, Object> data) {
+    return StatusBuilder.builder()
+        .meterId("meter-1")
+        .timestamp(Instant.parse("2025-11-23T10:00:00Z"))
+        .data(data)
+        .build();
+  }
+
+  @Test
+  @DisplayName("split() should type the fields of the meter type and keep the rest as extensions")
+  void testSplit() {
+    Map<String, Object> data = new LinkedHashMap<>();
+    data.put("batteryLevel", 87.5);
+    data.put("signalStrength", -97);
+    data.put("spreadingFactor", 9);
+    data.put("registerCount", 12); // a Modbus field, not typed for LoRaWAN
+    data.put("humidity", "n/a"); // not numeric
+    data.put("connected", true);
+
+    Status typed = TelemetryMapper.split(status(data), MeterType.LORAWAN);
+
+    assertThat(typed.telemetry()).isInstanceOf(Telemetry.Lorawan.class);
+    var lorawan = (Telemetry.Lorawan) typed.telemetry();
+    assertThat(lorawan.batteryLevel()).isEqualTo(87.5);
+    assertThat(lorawan.signalStrength()).isEqualTo(-97);
+    assertThat(lorawan.spreadingFactor()).isEqualTo(9);
+    assertThat(lorawan.snr()).isNaN();
+    assertThat(typed.data())
+        .containsOnlyKeys("registerCount", "humidity", "connected")
+        .containsEntry("humidity", "n/a");
+
+    // the API view is unchanged apart from integer fields being presented as integers
+    assertThat(typed.values())
+        .containsEntry("batteryLevel", 87.5)
+        .containsEntry("signalStrength", -97)
+        .containsEntry("spreadingFactor", 9)
+        .containsEntry("registerCount", 12)
+        .containsEntry("connected", true)
+        .hasSize(6);
+  }
+
+  @Test
+  @DisplayName("split() should keep a fractional value of an integer field in the data map")
+  void testSplitKeepsValuesThatDoNotFit() {
+    Status typed =
+        TelemetryMapper.split(
+            status(Map.of("errorCount", 1.5, "temperature", 21.0)), MeterType.MODBUS);
+
+    assertThat(typed.telemetry().value(TelemetryField.TEMPERATURE))
+        .isEqualTo(21.0);
+    assertThat(typed.data()).containsExactly(Map.entry("errorCount", 1.5));
+  }
+
+  @Test
+  @DisplayName("split() should keep an integer field too large for a long in the data map")
+  void testSplitKeepsHugeIntegers() {
+    Status typed =
+        TelemetryMapper.split(
+            status(Map.of("errorCount", 1e20, "registerCount", 12.0)), MeterType.MODBUS);
+
+    assertThat(typed.telemetry().value(TelemetryField.REGISTER_COUNT)).isEqualTo(12.0);
+    assertThat(typed.data()).containsExactly(Map.entry("errorCount", 1e20));
+  }
+
+  @Test
+  @DisplayName("typed statuses should serialize to the same JSON as before typed storage")
+  void testJsonUnchanged() throws Exception {
+    Map<String, Object> data = new LinkedHashMap<>();
+    data.put("batteryLevel", 80);
+    data.put("temperature", 21.5);
+    data.put("humidity", 55);
+    data.put("connected", true);
+    var mapper = new ObjectMapper();
+
+    Status typed = TelemetryMapper.split(status(data), MeterType.LORAWAN);
+
+    assertThat(typed.telemetry()).isNotNull();
+    assertThat(mapper.writeValueAsString(typed.values()))
+        .isEqualTo("{\"batteryLevel\":80,\"temperature\":21.5,\"humidity\":55,\"connected\":true}")
+        .isEqualTo(mapper.writeValueAsString(data));
+  }
+
+  @Test
+  @DisplayName("toTyped() should resolve the type through the meter's model once per model")
+  void testToTypedCachesModelTypes() {
+    var index = mock(MeterIdIndex.class);
+    var items = mock(ItemRepository.class);
+    when(index.modelOf("meter-1")).thenReturn("SW-1");
+    var item = CatalogueItemBuilder.builder().model("SW-1").type(MeterType.SIDEWALK).build();
+    when(items.findByModel("SW-1")).thenReturn(Optional.of(item));
+    var mapper = new TelemetryMapper(index, items);
+
+    mapper.toTyped(status(Map.of("batteryLevel", 50)));
+    Status typed = mapper.toTyped(status(Map.of("batteryLevel", 40)));
+
+    assertThat(typed.telemetry())
+        .isEqualTo(new Telemetry.Sidewalk(40, Double.NaN, Double.NaN, Double.NaN));
+    assertThat(typed.data()).isNull();
+    verify(items, times(1)).findByModel("SW-1");
+  }
+
+  @Test
+  @DisplayName("toTyped() should leave statuses of unknown models untouched")
+  void testToTypedUnknownModel() {
+    var index = mock(MeterIdIndex.class);
+    var items = mock(ItemRepository.class);
+    when(index.modelOf("meter-1")).thenReturn("UNKNOWN");
+    when(items.findByModel("UNKNOWN")).thenReturn(Optional.empty());
+    var status = status(Map.of("batteryLevel", 50));
+
+    assertThat(new TelemetryMapper(index, items).toTyped(status)).isSameAs(status);
+  }
+
+  @Test
+  @DisplayName("the converters should store only reported fields under short keys")
+  void testConvertersRoundTrip() {
+    var telemetry = new Telemetry.Modbus(Double.NaN, -60, 21.5, Double.NaN, 40, 0);
+
+    Document document = TelemetryConverters.Writer.INSTANCE.convert(telemetry);
+
+    assertThat(document)
+        .isEqualTo(
+            new Document("y", "M")
+                .append("s", -60)
+                .append("tc", 21.5)
+                .append("rc", 40)
+                .append("ec", 0));
+    assertThat(TelemetryConverters.Reader.INSTANCE.convert(document)).isEqualTo(telemetry);
+  }
+}
@@ -0,0 +1,69 @@
+package com.lumina.meter.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+import com.lumina.BadRequestException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class TimeBucketTest {
+
+  @Test
+  @DisplayName("parse() should read the amount and calendar unit")
+  void testParse() {
+    assertThat(TimeBucket.parse("15m")).isEqualTo(new TimeBucket(15, TimeBucket.Unit.MINUTE));
+    assertThat(TimeBucket.parse("1M")).isEqualTo(new TimeBucket(1, TimeBucket.Unit.MONTH));
+    assertThat(TimeBucket.parse("2w").nominalLength()).isEqualTo(Duration.ofDays(14));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"", "0m", "15", "m", "1y", "15 m", "12345s"})
+  @DisplayName("parse() should reject malformed buckets")
+  void testRejectsMalformed(String text) {
+    assertThatThrownBy(() -> TimeBucket.parse(text)).isInstanceOf(BadRequestException.class);
+  }
+
+  @Test
+  @DisplayName("truncate() should start buckets where $dateTrunc does in the requested zone")
+  void testTruncate() {
+    Instant instant = Instant.parse("2025-11-23T10:37:00Z");
+    ZoneId london = ZoneId.of("Europe/London");
+
+    assertThat(TimeBucket.parse("15m").truncate(instant, ZoneOffset.UTC))
+        .isEqualTo("2025-11-23T10:30:00Z");
+    assertThat(TimeBucket.parse("2h").truncate(instant, ZoneId.of("Asia/Kolkata")))
+        .isEqualTo("2025-11-23T10:30:00Z");
+    assertThat(TimeBucket.parse("1d").truncate(Instant.parse("2025-07-01T23:30:00Z"), london))
+        .isEqualTo("2025-07-01T23:00:00Z");
+    assertThat(TimeBucket.parse("1w").truncate(instant, london)).isEqualTo("2025-11-17T00:00:00Z");
+    assertThat(TimeBucket.parse("1M").truncate(instant, london)).isEqualTo("2025-11-01T00:00:00Z");
+  }
+
+  @Test
+  @DisplayName("aggregate functions should treat an empty field as having no value")
+  void testFunctionsOnEmptyStats() {
+    var empty = StatusAggregate.FieldStats.EMPTY;
+    assertThat(AggregateFunction.AVG.apply(empty)).isNull();
+    assertThat(AggregateFunction.COUNT.apply(empty)).isEqualTo(0L);
+    assertThat(AggregateFunction.parse(" Max ")).isEqualTo(AggregateFunction.MAX);
+  }
+
+  @Test
+  @DisplayName("merging field stats should combine count, sum, min and max")
+  void testMerge() {
+    var merged =
+        new StatusAggregate.FieldStats(2, 10, 4.0, 6.0)
+            .merge(new StatusAggregate.FieldStats(1, 1, 1.0, 1.0))
+            .merge(StatusAggregate.FieldStats.EMPTY);
+    assertThat(merged).isEqualTo(new StatusAggregate.FieldStats(3, 11, 1.0, 6.0));
+    assertThat(merged.avg()).isCloseTo(11 / 3.0, offset(1e-9));
+  }
+}
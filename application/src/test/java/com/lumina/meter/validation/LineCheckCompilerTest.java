@@ -0,0 +1,187 @@
+package com.lumina.meter.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.lumina.catalogue.CatalogueItemService;
+import com.lumina.catalogue.model.*;
+import com.lumina.catalogue.model.constraint.Constraint;
+import com.lumina.catalogue.model.constraint.NumberLineConstraintBuilder;
+import com.lumina.catalogue.model.constraint.PatternLineConstraintBuilder;
+import com.lumina.catalogue.model.constraint.TextLineConstraintBuilder;
+import com.lumina.meter.model.*;
+import com.lumina.validation.Errors;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LineCheckCompilerTest {
+
+  private static final Double[] NUMBERS = {
+    null, 0d, 1d, 2d, 2.5d, 5d, 5.0001d, 6d, -3d, 1e12, Double.NaN, Double.POSITIVE_INFINITY
+  };
+  private static final String[] TEXTS = {null, "", "   ", "ab", "abcde", "abcdefghijklmnopq"};
+  private static final String[] CODES = {"AB-123", "AB-12", "ab-123", ""};
+
+  CatalogueItemService catalogueService = mock(CatalogueItemService.class);
+
+  MeterValidator interpreted;
+  MeterValidator generated;
+
+  @BeforeEach
+  void setup() {
+    when(catalogueService.findByModel("A0001")).thenReturn(Optional.of(setUpCatalogueItem()));
+    interpreted = new MeterValidator(catalogueService, false);
+    generated = new MeterValidator(catalogueService, true);
+  }
+
+  @Test
+  @DisplayName("Generated checks should report the same errors as the interpreted constraints")
+  void shouldMatchInterpretedErrors() {
+    assertThat(generated.planFor("A0001").checks()).isNotNull();
+    assertThat(interpreted.planFor("A0001").checks()).isNull();
+
+    Random random = new Random(42);
+    for (int n = 0; n < 2_000; n++) {
+      List<Line> lines = new ArrayList<>();
+      for (String name : List.of("integer", "bounded", "float", "floor")) {
+        if (random.nextInt(5) > 0) {
+          lines.add(
+              new Line.Number(
+                  name, NumberType.FLOAT, NUMBERS[random.nextInt(NUMBERS.length)]));
+        }
+      }
+      for (String name : List.of("text", "short")) {
+        if (random.nextInt(5) > 0) {
+          lines.add(new Line.Text(name, TEXTS[random.nextInt(TEXTS.length)]));
+        }
+      }
+      if (random.nextInt(5) > 0) {
+        lines.add(new Line.Pattern("code", CODES[random.nextInt(CODES.length)]));
+      }
+      lines.add(new Line.ReadOnly("unconstrained", "x"));
+      Meter meter =
+          MeterBuilder.builder()
+              .locationId("location1")
+              .model("A0001")
+              .lines(lines)
+              .stage(ValidationStage.values()[random.nextInt(ValidationStage.values().length)])
+              .build();
+
+      Errors expected = new Errors("meter");
+      interpreted.validate(meter, expected);
+      Errors actual = new Errors("meter");
+      generated.validate(meter, actual);
+
+      assertThat(describe(actual)).as("errors of %s", meter).isEqualTo(describe(expected));
+    }
+  }
+
+  @Test
+  @DisplayName("A line of another type than its constraint should fail as when interpreted")
+  void shouldRejectMismatchedLineTypes() {
+    Meter meter =
+        MeterBuilder.builder()
+            .locationId("location1")
+            .model("A0001")
+            .lines(List.of(new Line.Text("integer", "3")))
+            .stage(ValidationStage.Intake)
+            .build();
+
+    assertThatThrownBy(() -> generated.validate(meter, new Errors("meter")))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageStartingWith("Unexpected value");
+  }
+
+  private static List<String> describe(Errors errors) {
+    return errors.fieldErrors().stream()
+        .map(
+            e ->
+                String.join(
+                    "|",
+                    e.fieldContext(),
+                    e.field(),
+                    e.errorCode().code(),
+                    String.valueOf(e.rejectedValue()),
+                    Arrays.deepToString(e.errorCodeArgs())))
+        .sorted()
+        .toList();
+  }
+
+  CatalogueItem setUpCatalogueItem() {
+    List<Constraint<? extends Line>> constraints =
+        List.of(
+            NumberLineConstraintBuilder.builder()
+                .name("integer")
+                .numberType(NumberType.INTEGER)
+                .min(2d)
+                .max(5d)
+                .isRequired(true)
+                .stage(ValidationStage.Connection)
+                .build(),
+            NumberLineConstraintBuilder.builder()
+                .name("bounded")
+                .numberType(NumberType.INTEGER)
+                .max(5.9d)
+                .isRequired(false)
+                .stage(ValidationStage.Intake)
+                .build(),
+            NumberLineConstraintBuilder.builder()
+                .name("float")
+                .numberType(NumberType.FLOAT)
+                .min(-2.5d)
+                .max(5d)
+                .isRequired(true)
+                .stage(ValidationStage.Staging)
+                .build(),
+            NumberLineConstraintBuilder.builder()
+                .name("floor")
+                .numberType(NumberType.FLOAT)
+                .min(2d)
+                .isRequired(false)
+                .stage(ValidationStage.Intake)
+                .build(),
+            TextLineConstraintBuilder.builder()
+                .name("text")
+                .minLength(5)
+                .maxLength(15)
+                .isRequired(true)
+                .stage(ValidationStage.Intake)
+                .build(),
+            TextLineConstraintBuilder.builder()
+                .name("short")
+                .maxLength(4)
+                .isRequired(false)
+                .stage(ValidationStage.Deployment)
+                .build(),
+            PatternLineConstraintBuilder.builder()
+                .name("code")
+                .pattern("[A-Z]{2}-\\d{3}")
+                .isRequired(true)
+                .stage(ValidationStage.Connection)
+                .build(),
+            // a duplicate name never applies, the first constraint does
+            TextLineConstraintBuilder.builder()
+                .name("text")
+                .maxLength(1)
+                .isRequired(true)
+                .stage(ValidationStage.Intake)
+                .build());
+
+    return CatalogueItemBuilder.builder()
+        .model("A0001")
+        .level(Level.DEVICE)
+        .type(MeterType.LORAWAN)
+        .description("Description of Sensor One")
+        .manufacturer("ManufacturerOne")
+        .constraints(constraints)
+        .build();
+  }
+}
@@ -2,8 +2,11 @@ package com.lumina.meter.validation;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.lumina.catalogue.CatalogueItemChangedEvent;
 import com.lumina.catalogue.CatalogueItemService;
 import com.lumina.catalogue.model.*;
 import com.lumina.catalogue.model.CatalogueItemBuilder;
@@ -43,7 +46,7 @@ public class MeterValidatorTest {
             .lines(List.of(l1, l2, l3, l4))
             .stage(ValidationStage.Connection)
             .build();
-    MeterValidator validator = new MeterValidator(catalogueService);
+    MeterValidator validator = new MeterValidator(catalogueService, false);
     Errors errors = new Errors("meter");
     validator.validate(meter, errors);
 
@@ -69,7 +72,7 @@ public class MeterValidatorTest {
             .lines(List.of(l1, l2, l3, l5))
             .stage(ValidationStage.Connection)
             .build();
-    MeterValidator validator = new MeterValidator(catalogueService);
+    MeterValidator validator = new MeterValidator(catalogueService, false);
     Errors errors = new Errors("meter");
     validator.validate(meter, errors);
 
@@ -93,7 +96,7 @@ public class MeterValidatorTest {
             .lines(List.of(l2, l4))
             .stage(ValidationStage.Connection)
             .build();
-    MeterValidator validator = new MeterValidator(catalogueService);
+    MeterValidator validator = new MeterValidator(catalogueService, false);
     Errors errors = new Errors("meter");
     validator.validate(meter, errors);
 
@@ -109,6 +112,83 @@ public class MeterValidatorTest {
     assertThat(err.fieldContext()).isEqualTo("meter.lines");
   }
 
+  @Test
+  @DisplayName("Required lines should only be checked at stages that validate them")
+  void shouldSkipRequiredLinesOfEarlierStages() {
+
+    item = setUpCatalogueItem();
+    when(catalogueService.findByModel("A0001")).thenReturn(Optional.of(item));
+
+    Meter meter =
+        MeterBuilder.builder()
+            .locationId("location1")
+            .model("A0001")
+            .lines(List.of())
+            .stage(ValidationStage.Deployment)
+            .build();
+    MeterValidator validator = new MeterValidator(catalogueService, false);
+    Errors errors = new Errors("meter");
+    validator.validate(meter, errors);
+
+    assertThat(errors.getErrorCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("The validation plan of a model should be cached until its catalogue item changes")
+  void shouldCachePlanUntilCatalogueItemChanges() {
+
+    item = setUpCatalogueItem();
+    when(catalogueService.findByModel("A0001")).thenReturn(Optional.of(item));
+
+    Meter meter =
+        MeterBuilder.builder()
+            .locationId("location1")
+            .model("A0001")
+            .lines(List.of(new Line.Number("lineTwo", NumberType.FLOAT, 9.999d)))
+            .stage(ValidationStage.Connection)
+            .build();
+    MeterValidator validator = new MeterValidator(catalogueService, false);
+    validator.validate(meter, new Errors("meter"));
+    validator.validate(meter, new Errors("meter"));
+
+    verify(catalogueService, times(1)).findByModel("A0001");
+
+    // lineOne and lineThree are no longer required
+    when(catalogueService.findByModel("A0001"))
+        .thenReturn(
+            Optional.of(
+                CatalogueItemBuilder.builder(item)
+                    .constraints(List.of(item.constraints().get(1)))
+                    .build()));
+    validator.onCatalogueItemChanged(new CatalogueItemChangedEvent("A0001"));
+    Errors errors = new Errors("meter");
+    validator.validate(meter, errors);
+
+    verify(catalogueService, times(2)).findByModel("A0001");
+    assertThat(errors.getErrorCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("validate() should read the catalogue item again after a change on another instance")
+  void testPlanEvictedByRemoteChange() {
+    item = setUpCatalogueItem();
+    when(catalogueService.findByModel("A0001")).thenReturn(Optional.of(item));
+    Meter meter =
+        MeterBuilder.builder()
+            .locationId("location1")
+            .model("A0001")
+            .lines(List.of(new Line.Number("lineTwo", NumberType.FLOAT, 9.999d)))
+            .stage(ValidationStage.Connection)
+            .build();
+    MeterValidator validator = new MeterValidator(catalogueService, false);
+    validator.validate(meter, new Errors("meter"));
+
+    validator.onCatalogueItemChanged(new CatalogueItemChangedEvent("A0001", true));
+    validator.validate(meter, new Errors("meter"));
+
+    verify(catalogueService, times(2)).findByModel("A0001");
+  }
+
   CatalogueItem setUpCatalogueItem() {
 
     Constraint<? extends Line> l1 =
@@ -0,0 +1,54 @@
+package com.lumina.validation;
+
+import static com.lumina.validation.ErrorCode.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ErrorsTest {
+
+  @Test
+  @DisplayName("errors should carry the path of the context they were reported in")
+  void testContext() {
+    Errors errors = new Errors("meter");
+    errors.pushContext("lines", 2).rejectValue("level", REQUIRED);
+    errors.popContext().pushContext("lines").rejectValue("code", REQUIRED);
+    errors.popContext().rejectValue("model", NOT_FOUND);
+
+    assertThat(errors.fieldErrors())
+        .extracting(Error::fieldContext)
+        .containsExactly("meter.lines[2]", "meter.lines", "meter");
+    assertThat(errors.fieldError("level").propertyPath()).isEqualTo("meter.lines[2].level");
+    assertThat(errors.popContext().popContext().context()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("an accumulator without errors should hand out an empty list")
+  void testNoErrors() {
+    Errors errors = new Errors("meter");
+    errors.pushContext("lines", 0).popContext();
+
+    assertThat(errors.hasErrors()).isFalse();
+    assertThat(errors.fieldErrors()).isEmpty();
+    assertThat(errors.hasFieldError("level")).isFalse();
+  }
+
+  @Test
+  @DisplayName("a limited accumulator should drop errors once full")
+  void testMaxErrors() {
+    Errors errors = new Errors("meter", 2);
+    errors.rejectValue("a", REQUIRED).rejectValue("b", REQUIRED);
+    assertThat(errors.isFull()).isTrue();
+    assertThat(errors.isTruncated()).isFalse();
+
+    errors.rejectValue("c", REQUIRED);
+    assertThat(errors.getErrorCount()).isEqualTo(2);
+    assertThat(errors.hasFieldError("c")).isFalse();
+    assertThat(errors.isTruncated()).isTrue();
+
+    assertThat(Errors.failFast("meter").rejectValue("a", REQUIRED).isFull()).isTrue();
+    assertThatThrownBy(() -> new Errors("meter", 0)).isInstanceOf(IllegalArgumentException.class);
+  }
+}